@@ -2,8 +2,10 @@ package com.jilindecredit.api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JilindeCreditApplication {
     public static void main(String[] args) {
         SpringApplication.run(JilindeCreditApplication.class, args);
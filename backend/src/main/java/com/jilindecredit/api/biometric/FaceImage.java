@@ -0,0 +1,209 @@
+package com.jilindecredit.api.biometric;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+
+/**
+ * Immutable 8-bit grayscale image, the common input to every FaceMatcher, LivenessDetector and
+ * QualityAssessor. All transformations use fixed arithmetic, so the same capture always gives
+ * the same pixels, templates and scores.
+ */
+public final class FaceImage {
+
+    // Decoding is refused above this, before any pixel data is read
+    private static final long MAX_PIXELS = 40_000_000L;
+
+    private final int width;
+    private final int height;
+    private final byte[] pixels;
+
+    public FaceImage(int width, int height, byte[] pixels) {
+        if (width <= 0 || height <= 0 || pixels.length != width * height) {
+            throw new IllegalArgumentException("Pixel data does not match a " + width + "x" + height + " image");
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Decodes a capture: raw JPEG/PNG/GIF/BMP bytes, Base64 text, or a data: URL as sent by the
+     * web and mobile clients
+     *
+     * @throws IllegalArgumentException if the capture is not a readable image
+     */
+    public static FaceImage decode(byte[] capture) {
+        if (capture == null || capture.length == 0) {
+            throw new IllegalArgumentException("Image capture is empty");
+        }
+        byte[] encoded = hasImageSignature(capture) ? capture : decodeBase64Text(capture);
+
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(encoded))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    throw new IllegalArgumentException("Image is too large");
+                }
+                return fromImage(reader.read(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable image: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converts to luma with integer BT.601 weights
+     */
+    public static FaceImage fromImage(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        byte[] luma = new byte[w * h];
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y, w, 1, row, 0, w);
+            for (int x = 0; x < w; x++) {
+                int rgb = row[x];
+                int r = (rgb >> 16) & 0xFF;
+                int g = (rgb >> 8) & 0xFF;
+                int b = rgb & 0xFF;
+                luma[y * w + x] = (byte) ((77 * r + 150 * g + 29 * b + 128) >> 8);
+            }
+        }
+        return new FaceImage(w, h, luma);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int luma(int x, int y) {
+        return pixels[y * width + x] & 0xFF;
+    }
+
+    byte[] pixels() {
+        return pixels;
+    }
+
+    /**
+     * Region given as fractions of the width and height, clamped to the image
+     */
+    public FaceImage crop(double left, double top, double regionWidth, double regionHeight) {
+        int x0 = clamp((int) Math.round(left * width), 0, width - 1);
+        int y0 = clamp((int) Math.round(top * height), 0, height - 1);
+        int w = clamp((int) Math.round(regionWidth * width), 1, width - x0);
+        int h = clamp((int) Math.round(regionHeight * height), 1, height - y0);
+
+        byte[] region = new byte[w * h];
+        for (int y = 0; y < h; y++) {
+            System.arraycopy(pixels, (y0 + y) * width + x0, region, y * w, w);
+        }
+        return new FaceImage(w, h, region);
+    }
+
+    /**
+     * Area-averaging resample: each target pixel is the mean of the source area it covers
+     */
+    public FaceImage resize(int targetWidth, int targetHeight) {
+        if (targetWidth == width && targetHeight == height) {
+            return this;
+        }
+        double[] source = new double[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            source[i] = pixels[i] & 0xFF;
+        }
+        double[] horizontal = new double[height * targetWidth];
+        for (int y = 0; y < height; y++) {
+            resample(source, y * width, 1, width, horizontal, y * targetWidth, 1, targetWidth);
+        }
+        double[] resized = new double[targetHeight * targetWidth];
+        for (int x = 0; x < targetWidth; x++) {
+            resample(horizontal, x, targetWidth, height, resized, x, targetWidth, targetHeight);
+        }
+
+        byte[] target = new byte[resized.length];
+        for (int i = 0; i < resized.length; i++) {
+            target[i] = (byte) clamp((int) Math.round(resized[i]), 0, 255);
+        }
+        return new FaceImage(targetWidth, targetHeight, target);
+    }
+
+    /**
+     * Scales down so neither side exceeds maxSide, keeping the aspect ratio
+     */
+    public FaceImage fitWithin(int maxSide) {
+        int longest = Math.max(width, height);
+        if (longest <= maxSide) {
+            return this;
+        }
+        return resize(Math.max(1, (int) ((long) width * maxSide / longest)), Math.max(1, (int) ((long) height * maxSide / longest)));
+    }
+
+    private static void resample(double[] src, int srcOffset, int srcStride, int srcLength,
+                                 double[] dst, int dstOffset, int dstStride, int dstLength) {
+        double scale = (double) srcLength / dstLength;
+        for (int i = 0; i < dstLength; i++) {
+            double from = i * scale;
+            double to = (i + 1) * scale;
+            int first = (int) from;
+            int last = Math.min(srcLength - 1, (int) Math.ceil(to) - 1);
+            double sum = 0;
+            double weight = 0;
+            for (int s = first; s <= last; s++) {
+                double w = Math.min(to, s + 1) - Math.max(from, s);
+                if (w > 0) {
+                    sum += w * src[srcOffset + s * srcStride];
+                    weight += w;
+                }
+            }
+            dst[dstOffset + i * dstStride] = weight > 0 ? sum / weight : src[srcOffset + first * srcStride];
+        }
+    }
+
+    private static boolean hasImageSignature(byte[] b) {
+        if (b.length < 4) {
+            return false;
+        }
+        return (b[0] == (byte) 0xFF && b[1] == (byte) 0xD8)                                  // JPEG
+            || (b[0] == (byte) 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G')           // PNG
+            || (b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8')                   // GIF
+            || (b[0] == 'B' && b[1] == 'M');                                                // BMP
+    }
+
+    private static byte[] decodeBase64Text(byte[] capture) {
+        String text = new String(capture, StandardCharsets.ISO_8859_1);
+        if (text.startsWith("data:")) {
+            int comma = text.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalArgumentException("Malformed data URL");
+            }
+            text = text.substring(comma + 1);
+        }
+        try {
+            return Base64.getMimeDecoder().decode(text);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Image capture is not valid Base64");
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
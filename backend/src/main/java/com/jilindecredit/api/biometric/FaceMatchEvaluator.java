@@ -0,0 +1,278 @@
+package com.jilindecredit.api.biometric;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Batch accuracy and throughput evaluation of a FaceMatcher over a labelled corpus.
+ *
+ * Every face is turned into a template in parallel, then every pair is compared: pairs from the
+ * same subject are genuine, the rest impostors. Scores go into fixed-resolution histograms rather
+ * than lists, so memory stays flat however many pairs there are, and the false accept rate
+ * (impostor score at or above the threshold) and false reject rate (genuine score below it)
+ * can be read off at any threshold, along with the equal error rate.
+ */
+public final class FaceMatchEvaluator {
+
+    private static final int BINS = 10_001;
+    private static final String[] IMAGE_EXTENSIONS = { ".jpg", ".jpeg", ".png", ".bmp", ".gif" };
+
+    private FaceMatchEvaluator() {}
+
+    /**
+     * Loads a corpus laid out as one directory per subject, each holding that subject's images.
+     * Subjects and files are read in name order, so the same directory always gives the same corpus.
+     *
+     * @param crop face region as fractions (left, top, width, height), or null to use whole images
+     * @throws IllegalArgumentException if an image cannot be decoded
+     */
+    public static List<LabelledFace> loadCorpus(Path root, double[] crop) throws IOException {
+        List<LabelledFace> corpus = new ArrayList<>();
+        List<Path> subjects;
+        try (Stream<Path> dirs = Files.list(root)) {
+            subjects = dirs.filter(Files::isDirectory).sorted().toList();
+        }
+        for (Path subject : subjects) {
+            List<Path> images;
+            try (Stream<Path> files = Files.list(subject)) {
+                images = files.filter(FaceMatchEvaluator::isImageFile).sorted().toList();
+            }
+            for (Path image : images) {
+                FaceImage face;
+                try {
+                    face = FaceImage.decode(Files.readAllBytes(image));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(image + ": " + e.getMessage());
+                }
+                if (crop != null) {
+                    face = face.crop(crop[0], crop[1], crop[2], crop[3]);
+                }
+                corpus.add(new LabelledFace(subject.getFileName().toString(), image.getFileName().toString(), face));
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * @param thresholds similarity thresholds to report FAR and FRR at
+     * @param pool runs extraction and comparison
+     */
+    public static Report evaluate(FaceMatcher matcher, List<LabelledFace> corpus, double[] thresholds, ForkJoinPool pool) {
+        int n = corpus.size();
+        float[][] templates = new float[n][];
+
+        long started = System.nanoTime();
+        pool.submit(() -> IntStream.range(0, n).parallel()
+            .forEach(i -> templates[i] = matcher.extractTemplate(corpus.get(i).getFace()))).join();
+        long extractionNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        ScoreHistograms scores = pool.submit(() -> IntStream.range(0, n).parallel().collect(
+            ScoreHistograms::new,
+            (histograms, i) -> {
+                String subject = corpus.get(i).getSubject();
+                for (int j = i + 1; j < n; j++) {
+                    histograms.add(subject.equals(corpus.get(j).getSubject()), matcher.compare(templates[i], templates[j]));
+                }
+            },
+            ScoreHistograms::merge)).join();
+        long comparisonNanos = System.nanoTime() - started;
+
+        Set<String> subjects = new HashSet<>();
+        for (LabelledFace face : corpus) {
+            subjects.add(face.getSubject());
+        }
+        return new Report(matcher.getModelId(), n, subjects.size(), scores, thresholds, extractionNanos, comparisonNanos);
+    }
+
+    private static boolean isImageFile(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int bin(double score) {
+        return (int) Math.round(Math.max(0.0, Math.min(1.0, score)) * (BINS - 1));
+    }
+
+    public static final class LabelledFace {
+        private final String subject;
+        private final String source;
+        private final FaceImage face;
+
+        public LabelledFace(String subject, String source, FaceImage face) {
+            this.subject = subject;
+            this.source = source;
+            this.face = face;
+        }
+
+        public String getSubject() { return subject; }
+
+        public String getSource() { return source; }
+
+        public FaceImage getFace() { return face; }
+    }
+
+    private static final class ScoreHistograms {
+        final long[] genuine = new long[BINS];
+        final long[] impostor = new long[BINS];
+
+        void add(boolean sameSubject, double score) {
+            (sameSubject ? genuine : impostor)[bin(score)]++;
+        }
+
+        void merge(ScoreHistograms other) {
+            for (int b = 0; b < BINS; b++) {
+                genuine[b] += other.genuine[b];
+                impostor[b] += other.impostor[b];
+            }
+        }
+    }
+
+    public static final class Report {
+        private final String modelId;
+        private final int faces;
+        private final int subjects;
+        private final long genuinePairs;
+        private final long impostorPairs;
+        private final double[] thresholds;
+        private final double[] falseAcceptRates;
+        private final double[] falseRejectRates;
+        private final double equalErrorRate;
+        private final double equalErrorThreshold;
+        private final long extractionNanos;
+        private final long comparisonNanos;
+
+        Report(String modelId, int faces, int subjects, ScoreHistograms scores, double[] thresholds,
+               long extractionNanos, long comparisonNanos) {
+            this.modelId = modelId;
+            this.faces = faces;
+            this.subjects = subjects;
+            this.extractionNanos = extractionNanos;
+            this.comparisonNanos = comparisonNanos;
+
+            // genuineBelow[b]: genuine scores in bins below b; impostorAtOrAbove[b]: impostor scores in bins b and up
+            long[] genuineBelow = new long[BINS + 1];
+            long[] impostorAtOrAbove = new long[BINS + 1];
+            for (int b = 0; b < BINS; b++) {
+                genuineBelow[b + 1] = genuineBelow[b] + scores.genuine[b];
+            }
+            for (int b = BINS - 1; b >= 0; b--) {
+                impostorAtOrAbove[b] = impostorAtOrAbove[b + 1] + scores.impostor[b];
+            }
+            genuinePairs = genuineBelow[BINS];
+            impostorPairs = impostorAtOrAbove[0];
+
+            this.thresholds = thresholds.clone();
+            falseAcceptRates = new double[thresholds.length];
+            falseRejectRates = new double[thresholds.length];
+            for (int t = 0; t < thresholds.length; t++) {
+                int b = bin(thresholds[t]);
+                falseAcceptRates[t] = rate(impostorAtOrAbove[b], impostorPairs);
+                falseRejectRates[t] = rate(genuineBelow[b], genuinePairs);
+            }
+
+            // The threshold where FAR and FRR are closest
+            int best = 0;
+            double bestGap = Double.POSITIVE_INFINITY;
+            for (int b = 0; b < BINS; b++) {
+                double gap = Math.abs(rate(impostorAtOrAbove[b], impostorPairs) - rate(genuineBelow[b], genuinePairs));
+                if (gap < bestGap) {
+                    bestGap = gap;
+                    best = b;
+                }
+            }
+            equalErrorThreshold = (double) best / (BINS - 1);
+            equalErrorRate = (rate(impostorAtOrAbove[best], impostorPairs) + rate(genuineBelow[best], genuinePairs)) / 2;
+        }
+
+        public String getModelId() { return modelId; }
+
+        public int getFaces() { return faces; }
+
+        public int getSubjects() { return subjects; }
+
+        public long getGenuinePairs() { return genuinePairs; }
+
+        public long getImpostorPairs() { return impostorPairs; }
+
+        public double[] getThresholds() { return thresholds.clone(); }
+
+        public double[] getFalseAcceptRates() { return falseAcceptRates.clone(); }
+
+        public double[] getFalseRejectRates() { return falseRejectRates.clone(); }
+
+        public double getEqualErrorRate() { return equalErrorRate; }
+
+        public double getEqualErrorThreshold() { return equalErrorThreshold; }
+
+        public double getExtractionsPerSecond() { return perSecond(faces, extractionNanos); }
+
+        public double getComparisonsPerSecond() { return perSecond(genuinePairs + impostorPairs, comparisonNanos); }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("modelId", modelId);
+            map.put("faces", faces);
+            map.put("subjects", subjects);
+            map.put("genuinePairs", genuinePairs);
+            map.put("impostorPairs", impostorPairs);
+            map.put("extractionsPerSecond", getExtractionsPerSecond());
+            map.put("comparisonsPerSecond", getComparisonsPerSecond());
+            List<Map<String, Object>> operatingPoints = new ArrayList<>();
+            for (int t = 0; t < thresholds.length; t++) {
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("threshold", thresholds[t]);
+                point.put("far", falseAcceptRates[t]);
+                point.put("frr", falseRejectRates[t]);
+                operatingPoints.add(point);
+            }
+            map.put("operatingPoints", operatingPoints);
+            map.put("equalErrorRate", equalErrorRate);
+            map.put("equalErrorThreshold", equalErrorThreshold);
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format(Locale.ROOT, "Model:        %s%n", modelId));
+            report.append(String.format(Locale.ROOT, "Corpus:       %d faces, %d subjects, %d genuine / %d impostor pairs%n",
+                faces, subjects, genuinePairs, impostorPairs));
+            report.append(String.format(Locale.ROOT, "Throughput:   %.1f extractions/s, %.0f comparisons/s%n",
+                getExtractionsPerSecond(), getComparisonsPerSecond()));
+            report.append(String.format(Locale.ROOT, "EER:          %.4f at threshold %.4f%n", equalErrorRate, equalErrorThreshold));
+            report.append(String.format(Locale.ROOT, "%n  threshold        FAR        FRR%n"));
+            for (int t = 0; t < thresholds.length; t++) {
+                report.append(String.format(Locale.ROOT, "  %9.4f  %9.6f  %9.6f%n", thresholds[t], falseAcceptRates[t], falseRejectRates[t]));
+            }
+            return report.toString();
+        }
+
+        private static double rate(long count, long total) {
+            return total > 0 ? (double) count / total : 0.0;
+        }
+
+        private static double perSecond(long count, long nanos) {
+            return nanos > 0 ? count * 1e9 / nanos : 0.0;
+        }
+    }
+}
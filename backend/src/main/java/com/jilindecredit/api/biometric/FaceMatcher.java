@@ -0,0 +1,29 @@
+package com.jilindecredit.api.biometric;
+
+/**
+ * Turns a face image into a fixed-length template and compares templates.
+ *
+ * Implementations are Spring beans selected by biometric.face.matcher, which names a model id.
+ * They must be thread-safe and deterministic: the same image always gives the same template.
+ */
+public interface FaceMatcher {
+
+    /**
+     * Stable identifier of the model and its version. Templates from different ids are not
+     * comparable, so stored templates are rebuilt when it changes.
+     */
+    String getModelId();
+
+    int getTemplateDimension();
+
+    /**
+     * @param face a face region, as cropped by FaceAnalysisService
+     * @return a unit-length template of getTemplateDimension() values
+     */
+    float[] extractTemplate(FaceImage face);
+
+    /**
+     * Similarity of two templates from this matcher, from 0 (different people) to 1 (identical)
+     */
+    double compare(float[] template, float[] other);
+}
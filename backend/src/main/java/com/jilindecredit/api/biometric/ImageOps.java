@@ -0,0 +1,157 @@
+package com.jilindecredit.api.biometric;
+
+/**
+ * Grayscale image statistics shared by the built-in matcher, liveness detector and quality
+ * assessor
+ */
+final class ImageOps {
+
+    /**
+     * Number of bins in a uniform LBP histogram: 58 uniform 8-bit patterns plus one for the rest
+     */
+    static final int LBP_BINS = 59;
+
+    /**
+     * Maps each 8-bit LBP code to its uniform-pattern bin; codes with more than two 0/1
+     * transitions around the circle share the last bin
+     */
+    static final byte[] LBP_BIN = new byte[256];
+
+    static {
+        int next = 0;
+        for (int code = 0; code < 256; code++) {
+            int rotated = ((code << 1) | (code >>> 7)) & 0xFF;
+            LBP_BIN[code] = (byte) (Integer.bitCount(code ^ rotated) <= 2 ? next++ : LBP_BINS - 1);
+        }
+    }
+
+    private ImageOps() {}
+
+    static int[] histogram(FaceImage image) {
+        int[] histogram = new int[256];
+        for (byte pixel : image.pixels()) {
+            histogram[pixel & 0xFF]++;
+        }
+        return histogram;
+    }
+
+    static double mean(int[] histogram) {
+        long sum = 0;
+        long count = 0;
+        for (int v = 0; v < 256; v++) {
+            sum += (long) v * histogram[v];
+            count += histogram[v];
+        }
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    static double standardDeviation(int[] histogram) {
+        double mean = mean(histogram);
+        double squares = 0;
+        long count = 0;
+        for (int v = 0; v < 256; v++) {
+            squares += (v - mean) * (v - mean) * histogram[v];
+            count += histogram[v];
+        }
+        return count > 0 ? Math.sqrt(squares / count) : 0;
+    }
+
+    /**
+     * Smallest luma value with at least the given fraction of pixels at or below it
+     */
+    static int percentile(int[] histogram, double fraction) {
+        long total = 0;
+        for (int count : histogram) {
+            total += count;
+        }
+        long target = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int v = 0; v < 256; v++) {
+            seen += histogram[v];
+            if (seen >= target) {
+                return v;
+            }
+        }
+        return 255;
+    }
+
+    /**
+     * 3x3 box filter over the interior; edge pixels are kept. Suppresses sensor noise that would
+     * otherwise flip the bits of local binary patterns in flat regions.
+     */
+    static FaceImage smooth(FaceImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        byte[] p = image.pixels();
+        byte[] smoothed = p.clone();
+        for (int y = 1; y < h - 1; y++) {
+            for (int x = 1; x < w - 1; x++) {
+                int i = y * w + x;
+                int sum = (p[i - w - 1] & 0xFF) + (p[i - w] & 0xFF) + (p[i - w + 1] & 0xFF)
+                    + (p[i - 1] & 0xFF) + (p[i] & 0xFF) + (p[i + 1] & 0xFF)
+                    + (p[i + w - 1] & 0xFF) + (p[i + w] & 0xFF) + (p[i + w + 1] & 0xFF);
+                smoothed[i] = (byte) ((sum + 4) / 9);
+            }
+        }
+        return new FaceImage(w, h, smoothed);
+    }
+
+    /**
+     * Variance of the 4-neighbour Laplacian; falls as an image gets blurrier
+     */
+    static double laplacianVariance(FaceImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (w < 3 || h < 3) {
+            return 0;
+        }
+        byte[] p = image.pixels();
+        double sum = 0;
+        double squares = 0;
+        long count = 0;
+        for (int y = 1; y < h - 1; y++) {
+            int row = y * w;
+            for (int x = 1; x < w - 1; x++) {
+                int i = row + x;
+                int laplacian = (p[i - 1] & 0xFF) + (p[i + 1] & 0xFF) + (p[i - w] & 0xFF) + (p[i + w] & 0xFF) - 4 * (p[i] & 0xFF);
+                sum += laplacian;
+                squares += (double) laplacian * laplacian;
+                count++;
+            }
+        }
+        double mean = sum / count;
+        return squares / count - mean * mean;
+    }
+
+    /**
+     * 8-neighbour, radius-1 local binary pattern of every interior pixel, row-major over
+     * (width - 2) x (height - 2)
+     */
+    static int[] lbpCodes(FaceImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (w < 3 || h < 3) {
+            return new int[0];
+        }
+        byte[] p = image.pixels();
+        int[] codes = new int[(w - 2) * (h - 2)];
+        int n = 0;
+        for (int y = 1; y < h - 1; y++) {
+            for (int x = 1; x < w - 1; x++) {
+                int i = y * w + x;
+                int c = p[i] & 0xFF;
+                int code = 0;
+                code |= (p[i - w - 1] & 0xFF) >= c ? 0x80 : 0;
+                code |= (p[i - w] & 0xFF) >= c ? 0x40 : 0;
+                code |= (p[i - w + 1] & 0xFF) >= c ? 0x20 : 0;
+                code |= (p[i + 1] & 0xFF) >= c ? 0x10 : 0;
+                code |= (p[i + w + 1] & 0xFF) >= c ? 0x08 : 0;
+                code |= (p[i + w] & 0xFF) >= c ? 0x04 : 0;
+                code |= (p[i + w - 1] & 0xFF) >= c ? 0x02 : 0;
+                code |= (p[i - 1] & 0xFF) >= c ? 0x01 : 0;
+                codes[n++] = code;
+            }
+        }
+        return codes;
+    }
+}
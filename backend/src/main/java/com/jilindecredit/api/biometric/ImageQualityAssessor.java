@@ -0,0 +1,43 @@
+package com.jilindecredit.api.biometric;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Capture quality from image statistics, 25 points each for resolution, exposure, contrast and
+ * focus
+ */
+@Component
+public class ImageQualityAssessor implements QualityAssessor {
+
+    public static final String MODEL_ID = "image-stats-v1";
+
+    private static final int MAX_SIDE = 256;
+
+    @Override
+    public String getModelId() {
+        return MODEL_ID;
+    }
+
+    @Override
+    public double qualityScore(FaceImage image) {
+        // Full marks from 240 px on the shorter side, none below 60
+        int shortSide = Math.min(image.getWidth(), image.getHeight());
+        double resolution = ramp(shortSide, 60, 240);
+
+        FaceImage sample = image.fitWithin(MAX_SIDE);
+        int[] histogram = ImageOps.histogram(sample);
+
+        // Full marks for a mean luma of 90-170, none at 30 or 230
+        double mean = ImageOps.mean(histogram);
+        double exposure = mean < 90 ? ramp(mean, 30, 90) : 1.0 - ramp(mean, 170, 230);
+
+        double contrast = Math.min(1.0, ImageOps.standardDeviation(histogram) / 50.0);
+        double focus = Math.min(1.0, ImageOps.laplacianVariance(sample) / 300.0);
+
+        return 25.0 * (resolution + exposure + contrast + focus);
+    }
+
+    private static double ramp(double value, double zeroAt, double fullAt) {
+        return Math.max(0.0, Math.min(1.0, (value - zeroAt) / (fullAt - zeroAt)));
+    }
+}
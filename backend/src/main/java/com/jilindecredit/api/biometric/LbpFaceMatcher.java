@@ -0,0 +1,67 @@
+package com.jilindecredit.api.biometric;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Local binary pattern histogram matcher: CPU-only, no model files, fully deterministic.
+ *
+ * The face is resampled to 66x66 and smoothed, every interior pixel gets an 8-bit LBP code, and
+ * the 64x64 codes are binned into uniform-pattern histograms over an 8x8 grid of cells. LBP only
+ * depends on the order of neighbouring values, so lighting and exposure changes need no
+ * normalisation. The concatenated histograms are square-rooted and L2-normalised, so comparing
+ * two templates by dot product gives their Hellinger (Bhattacharyya) similarity in [0, 1].
+ */
+@Component
+public class LbpFaceMatcher implements FaceMatcher {
+
+    public static final String MODEL_ID = "lbp-v1";
+
+    private static final int SIZE = 66;
+    private static final int CODES = SIZE - 2;
+    private static final int GRID = 8;
+    private static final int CELL = CODES / GRID;
+    private static final int DIMENSION = GRID * GRID * ImageOps.LBP_BINS;
+
+    @Override
+    public String getModelId() {
+        return MODEL_ID;
+    }
+
+    @Override
+    public int getTemplateDimension() {
+        return DIMENSION;
+    }
+
+    @Override
+    public float[] extractTemplate(FaceImage face) {
+        int[] codes = ImageOps.lbpCodes(ImageOps.smooth(face.resize(SIZE, SIZE)));
+
+        float[] template = new float[DIMENSION];
+        for (int y = 0; y < CODES; y++) {
+            int rowCell = (y / CELL) * GRID;
+            for (int x = 0; x < CODES; x++) {
+                int cell = rowCell + x / CELL;
+                template[cell * ImageOps.LBP_BINS + ImageOps.LBP_BIN[codes[y * CODES + x]]]++;
+            }
+        }
+
+        // Every cell holds CELL * CELL counts, so after the square root the squared norm is fixed
+        float scale = (float) (1.0 / Math.sqrt((double) CODES * CODES));
+        for (int i = 0; i < DIMENSION; i++) {
+            template[i] = (float) Math.sqrt(template[i]) * scale;
+        }
+        return template;
+    }
+
+    @Override
+    public double compare(float[] template, float[] other) {
+        if (template.length != DIMENSION || other.length != DIMENSION) {
+            throw new IllegalArgumentException("Templates must have " + DIMENSION + " values");
+        }
+        double similarity = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            similarity += template[i] * other[i];
+        }
+        return Math.max(0.0, Math.min(1.0, similarity));
+    }
+}
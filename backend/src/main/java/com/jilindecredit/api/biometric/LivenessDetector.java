@@ -0,0 +1,18 @@
+package com.jilindecredit.api.biometric;
+
+/**
+ * Decides whether a face capture shows a live person rather than a photo, print or screen.
+ *
+ * Implementations are Spring beans selected by biometric.face.liveness-detector. They must be
+ * thread-safe and deterministic.
+ */
+public interface LivenessDetector {
+
+    String getModelId();
+
+    /**
+     * @param face a face region, as cropped by FaceAnalysisService
+     * @return from 0 (certainly a spoof) to 1 (certainly live)
+     */
+    double livenessScore(FaceImage face);
+}
@@ -0,0 +1,17 @@
+package com.jilindecredit.api.biometric;
+
+/**
+ * Scores whether a capture is usable for matching: resolution, exposure, contrast and focus.
+ *
+ * Implementations are Spring beans selected by biometric.face.quality-assessor. They must be
+ * thread-safe and deterministic.
+ */
+public interface QualityAssessor {
+
+    String getModelId();
+
+    /**
+     * @return from 0 (unusable) to 100 (ideal)
+     */
+    double qualityScore(FaceImage image);
+}
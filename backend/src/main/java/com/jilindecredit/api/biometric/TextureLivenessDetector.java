@@ -0,0 +1,47 @@
+package com.jilindecredit.api.biometric;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-frame texture heuristic for presentation attacks. Recaptured photos and screens tend to
+ * lose fine detail, compress the tonal range, and add print or moire patterns that show up as
+ * non-uniform local binary patterns. Each cue is scored from 0 to 1 and the three are blended.
+ *
+ * Deterministic and cheap, so thresholds can be tuned against a labelled corpus; a trained
+ * anti-spoofing model can replace it behind the same interface.
+ */
+@Component
+public class TextureLivenessDetector implements LivenessDetector {
+
+    public static final String MODEL_ID = "texture-v1";
+
+    private static final int MAX_SIDE = 256;
+
+    @Override
+    public String getModelId() {
+        return MODEL_ID;
+    }
+
+    @Override
+    public double livenessScore(FaceImage face) {
+        FaceImage image = face.fitWithin(MAX_SIDE);
+
+        double detail = Math.min(1.0, ImageOps.laplacianVariance(image) / 400.0);
+
+        int[] histogram = ImageOps.histogram(image);
+        int tonalRange = ImageOps.percentile(histogram, 0.95) - ImageOps.percentile(histogram, 0.05);
+        double range = Math.min(1.0, tonalRange / 160.0);
+
+        int[] codes = ImageOps.lbpCodes(image);
+        int nonUniform = 0;
+        for (int code : codes) {
+            if (ImageOps.LBP_BIN[code] == ImageOps.LBP_BINS - 1) {
+                nonUniform++;
+            }
+        }
+        double nonUniformRatio = codes.length > 0 ? (double) nonUniform / codes.length : 1.0;
+        double pattern = 1.0 - Math.min(1.0, Math.max(0.0, (nonUniformRatio - 0.15) / 0.25));
+
+        return 0.4 * detail + 0.3 * range + 0.3 * pattern;
+    }
+}
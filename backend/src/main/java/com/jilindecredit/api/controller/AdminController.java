@@ -1,12 +1,24 @@
 package com.jilindecredit.api.controller;
 
+import com.jilindecredit.api.model.CustomerProfile;
+import com.jilindecredit.api.service.BiometricBlobStore;
+import com.jilindecredit.api.service.BiometricCryptoService;
+import com.jilindecredit.api.service.CreditScoringService;
+import com.jilindecredit.api.service.CustomerDashboardStore;
+import com.jilindecredit.api.service.DuplicateIdentityService;
+import com.jilindecredit.api.service.FaceAnalysisService;
+import com.jilindecredit.api.service.LoanAccrualService;
 import com.jilindecredit.api.service.OnboardingService;
+import com.jilindecredit.api.service.PortfolioAggregateStore;
+import com.jilindecredit.api.service.PortfolioRescoringService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +32,33 @@ public class AdminController {
     @Autowired
     private OnboardingService onboardingService;
 
+    @Autowired
+    private PortfolioRescoringService portfolioRescoringService;
+
+    @Autowired
+    private CreditScoringService creditScoringService;
+
+    @Autowired
+    private BiometricCryptoService biometricCryptoService;
+
+    @Autowired
+    private BiometricBlobStore biometricBlobStore;
+
+    @Autowired
+    private DuplicateIdentityService duplicateIdentityService;
+
+    @Autowired
+    private FaceAnalysisService faceAnalysisService;
+
+    @Autowired
+    private PortfolioAggregateStore portfolioAggregateStore;
+
+    @Autowired
+    private LoanAccrualService loanAccrualService;
+
+    @Autowired
+    private CustomerDashboardStore customerDashboardStore;
+
     @GetMapping("/applications/all")
     public ResponseEntity<?> getAllApplications() {
         try {
@@ -42,6 +81,29 @@ public class AdminController {
         }
     }
 
+    @GetMapping("/applications/page")
+    public ResponseEntity<?> getApplicationsPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime submittedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime submittedTo) {
+        try {
+            CustomerProfile.KycStatus kycStatus = parseKycStatus(status);
+            Map<String, Object> page = onboardingService.getApplicationsPage(cursor, limit, kycStatus, submittedFrom, submittedTo);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            System.err.println("❌ AdminController: Error fetching application page: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error fetching applications: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @GetMapping("/applications/pending")
     public ResponseEntity<?> getPendingApplications() {
         try {
@@ -118,4 +180,209 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Rescores every customer's baseline credit score; runs synchronously and returns the totals
+     */
+    @PostMapping("/credit-scores/rescore")
+    public ResponseEntity<?> rescorePortfolio() {
+        try {
+            System.out.println("📊 AdminController: Starting portfolio rescoring...");
+            return ResponseEntity.ok(portfolioRescoringService.rescorePortfolio());
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            System.err.println("❌ AdminController: Error rescoring portfolio: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error rescoring portfolio: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Version and source of the scoring rules currently in use
+     */
+    @GetMapping("/credit-scores/scorecard")
+    public ResponseEntity<?> getScorecard() {
+        return ResponseEntity.ok(creditScoringService.getScorecardInfo());
+    }
+
+    /**
+     * Re-reads the scoring rules file and swaps it in; new scores use it immediately
+     */
+    @PostMapping("/credit-scores/scorecard/reload")
+    public ResponseEntity<?> reloadScorecard() {
+        try {
+            String previousVersion = creditScoringService.currentScorecard().getVersion();
+            String version = creditScoringService.reloadScorecard();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("previousVersion", previousVersion);
+            response.put("version", version);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ AdminController: Scorecard rejected: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            System.err.println("❌ AdminController: Error reloading scorecard: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error reloading scorecard: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Biometric encryption counters and throughput, plus blob store counts
+     */
+    @GetMapping("/biometrics/crypto-metrics")
+    public ResponseEntity<?> getBiometricCryptoMetrics() {
+        try {
+            Map<String, Object> metrics = biometricCryptoService.getMetrics();
+            metrics.put("blobsStored", biometricBlobStore.getBlobsStored());
+            metrics.put("blobsDeduplicated", biometricBlobStore.getBlobsDeduplicated());
+            metrics.put("blobsSwept", biometricBlobStore.getBlobsSwept());
+            return ResponseEntity.ok(metrics);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error getting biometric crypto metrics: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Face matcher, liveness and quality models in use, with thresholds and counters
+     */
+    @GetMapping("/biometrics/face-models")
+    public ResponseEntity<?> getFaceModels() {
+        return ResponseEntity.ok(faceAnalysisService.getModelInfo());
+    }
+
+    /**
+     * Duplicate-identity template index sizes and check counters
+     */
+    @GetMapping("/biometrics/template-index")
+    public ResponseEntity<?> getTemplateIndexInfo() {
+        return ResponseEntity.ok(duplicateIdentityService.getIndexInfo());
+    }
+
+    /**
+     * Re-indexes every stored capture; runs synchronously and returns the totals
+     */
+    @PostMapping("/biometrics/template-index/rebuild")
+    public ResponseEntity<?> rebuildTemplateIndex() {
+        try {
+            System.out.println("🧬 AdminController: Rebuilding biometric template index...");
+            return ResponseEntity.ok(duplicateIdentityService.rebuildIndexes());
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            System.err.println("❌ AdminController: Error rebuilding template index: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error rebuilding template index: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Loans per status, arrears buckets, PAR30/PAR90 and this month's collections, from the
+     * incrementally maintained counters
+     */
+    @GetMapping("/portfolio")
+    public ResponseEntity<?> getPortfolioSummary() {
+        return ResponseEntity.ok(portfolioAggregateStore.getSummary());
+    }
+
+    /**
+     * Recounts the portfolio counters from the database, as the nightly run does
+     */
+    @PostMapping("/portfolio/reconcile")
+    public ResponseEntity<?> reconcilePortfolio() {
+        try {
+            System.out.println("📊 AdminController: Reconciling portfolio counters...");
+            return ResponseEntity.ok(portfolioAggregateStore.reconcile());
+        } catch (Exception e) {
+            System.err.println("❌ AdminController: Error reconciling portfolio: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error reconciling portfolio: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Accrues every open loan up to today, resuming today's run if it was interrupted; runs
+     * synchronously and returns the totals
+     */
+    @PostMapping("/accrual/run")
+    public ResponseEntity<?> runAccrual() {
+        try {
+            System.out.println("📅 AdminController: Starting loan accrual...");
+            return ResponseEntity.ok(loanAccrualService.runAccrual());
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            System.err.println("❌ AdminController: Error running loan accrual: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error running loan accrual: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Last run's totals and today's partition checkpoints
+     */
+    @GetMapping("/accrual/status")
+    public ResponseEntity<?> getAccrualStatus() {
+        try {
+            return ResponseEntity.ok(loanAccrualService.getStatus());
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error getting accrual status: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Hit counts and size of the customer dashboard cache
+     */
+    @GetMapping("/dashboards/stats")
+    public ResponseEntity<?> getDashboardCacheStats() {
+        try {
+            return ResponseEntity.ok(customerDashboardStore.getStats());
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error getting dashboard stats: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Accepts either the portal's status labels (pending/approved/rejected) or a raw KYC status name
+     */
+    private CustomerProfile.KycStatus parseKycStatus(String status) {
+        if (status == null || status.trim().isEmpty()) {
+            return null;
+        }
+        switch (status.trim().toLowerCase()) {
+            case "approved":
+                return CustomerProfile.KycStatus.VERIFIED;
+            case "pending":
+                return CustomerProfile.KycStatus.PENDING;
+            case "rejected":
+                return CustomerProfile.KycStatus.REJECTED;
+            default:
+                try {
+                    return CustomerProfile.KycStatus.valueOf(status.trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown application status: " + status);
+                }
+        }
+    }
+}
@@ -102,6 +102,11 @@ public class CustomerApiController {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            System.err.println("❌ CustomerApiController: Verification store full: " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
         } catch (Exception e) {
             System.err.println("❌ CustomerApiController: Exception: " + e.getMessage());
             e.printStackTrace();
@@ -95,6 +95,29 @@ public class CustomerController {
         }
     }
 
+    @GetMapping("/search/paged")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<Map<String, Object>> searchCustomersPaged(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            Page<CustomerDto> customerPage = customerService.searchCustomers(q, PageRequest.of(page, size));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("customers", customerPage.getContent());
+            response.put("currentPage", customerPage.getNumber());
+            response.put("totalItems", customerPage.getTotalElements());
+            response.put("totalPages", customerPage.getTotalPages());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", "Error searching customers: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
     public ResponseEntity<?> createCustomer(@Valid @RequestBody CustomerDto customerDto) {
@@ -0,0 +1,228 @@
+package com.jilindecredit.api.controller;
+
+import com.jilindecredit.api.model.Payment;
+import com.jilindecredit.api.service.LoanService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/loans")
+@CrossOrigin(origins = "*")
+public class LoanController {
+
+    @Autowired
+    private LoanService loanService;
+
+    @GetMapping("/products")
+    public ResponseEntity<?> getProducts() {
+        try {
+            List<Map<String, Object>> products = loanService.getActiveProducts();
+            return ResponseEntity.ok(products);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error loading loan products: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/apply")
+    @PreAuthorize("hasRole('CUSTOMER') or hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> applyForLoan(@RequestBody Map<String, Object> request) {
+        try {
+            Object customerId = request.get("customerId");
+            Object productId = request.get("productId");
+            Object amount = request.get("amount");
+            Object termMonths = request.get("termMonths");
+            if (customerId == null || productId == null || amount == null || termMonths == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Customer, product, amount and term are required");
+                return ResponseEntity.badRequest().body(error);
+            }
+
+            Map<String, Object> loan = loanService.applyForLoan(
+                Long.valueOf(customerId.toString()),
+                Long.valueOf(productId.toString()),
+                new BigDecimal(amount.toString()),
+                Integer.parseInt(termMonths.toString()));
+            return ResponseEntity.status(HttpStatus.CREATED).body(loan);
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException from malformed fields
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error applying for loan: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @GetMapping("/{loanId}")
+    @PreAuthorize("hasRole('CUSTOMER') or hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> getLoan(@PathVariable Long loanId) {
+        try {
+            return ResponseEntity.ok(loanService.getLoan(loanId));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error loading loan: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @GetMapping("/{loanId}/schedule")
+    @PreAuthorize("hasRole('CUSTOMER') or hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> getSchedule(@PathVariable Long loanId) {
+        try {
+            return ResponseEntity.ok(loanService.getSchedule(loanId));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error loading repayment schedule: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @GetMapping("/customer/{customerId}")
+    @PreAuthorize("hasRole('CUSTOMER') or hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> getCustomerLoans(@PathVariable Long customerId) {
+        try {
+            return ResponseEntity.ok(loanService.getCustomerLoans(customerId));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error loading loans: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/{loanId}/approve")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> approveLoan(@PathVariable Long loanId) {
+        try {
+            return ResponseEntity.ok(loanService.approveLoan(loanId));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error approving loan: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/{loanId}/reject")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> rejectLoan(@PathVariable Long loanId) {
+        try {
+            return ResponseEntity.ok(loanService.rejectLoan(loanId));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error rejecting loan: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/{loanId}/disburse")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> disburseLoan(@PathVariable Long loanId) {
+        try {
+            return ResponseEntity.ok(loanService.disburseLoan(loanId));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error disbursing loan: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @PostMapping("/{loanId}/payments")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> recordPayment(@PathVariable Long loanId, @RequestBody Map<String, String> request) {
+        try {
+            String amount = request.get("amount");
+            String method = request.get("paymentMethod");
+            if (amount == null || method == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Amount and payment method are required");
+                return ResponseEntity.badRequest().body(error);
+            }
+            String paymentDate = request.get("paymentDate");
+
+            Map<String, Object> payment = loanService.recordPayment(
+                loanId,
+                new BigDecimal(amount),
+                Payment.PaymentMethod.valueOf(method.trim().toUpperCase()),
+                request.get("referenceNumber"),
+                paymentDate != null ? LocalDate.parse(paymentDate) : null,
+                request.get("notes"));
+            return ResponseEntity.status(HttpStatus.CREATED).body(payment);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error recording payment: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @GetMapping("/{loanId}/payments")
+    @PreAuthorize("hasRole('CUSTOMER') or hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> getPayments(@PathVariable Long loanId) {
+        try {
+            return ResponseEntity.ok(loanService.getPayments(loanId));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error loading payments: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import com.jilindecredit.api.service.MobileKycSessionService;
 import com.jilindecredit.api.service.BiometricService;
 import com.jilindecredit.api.dto.BiometricRequest;
 import com.jilindecredit.api.dto.BiometricResponse;
+import com.jilindecredit.api.model.KycSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.HashMap;
@@ -33,7 +36,7 @@ public class MobileKycController {
             String customerData = (String) request.get("customerData");
             String baseUrl = (String) request.getOrDefault("baseUrl", "http://localhost:3000");
 
-            MobileKycSessionService.KycSession session = mobileKycSessionService.createMobileKycSession(customerData);
+            KycSession session = mobileKycSessionService.createMobileKycSession(customerData);
             Map<String, Object> qrData = mobileKycSessionService.generateQrCodeData(session.getSessionId(), baseUrl);
 
             Map<String, Object> response = new HashMap<>();
@@ -44,6 +47,10 @@ public class MobileKycController {
             response.put("expiresAt", session.getExpiresAt());
 
             return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Error creating mobile KYC session: " + e.getMessage());
@@ -55,10 +62,22 @@ public class MobileKycController {
      * Gets session status for polling
      */
     @GetMapping("/session/{sessionId}/status")
-    public ResponseEntity<?> getSessionStatus(@PathVariable String sessionId) {
+    public ResponseEntity<?> getSessionStatus(@PathVariable String sessionId,
+                                              @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         try {
+            long version = mobileKycSessionService.getSessionVersion(sessionId);
+            if (version < 0) {
+                return ResponseEntity.ok(mobileKycSessionService.getSessionStatus(sessionId));
+            }
+
+            // Unchanged since the client's last poll: answer without a body
+            String etag = "\"" + sessionId + "-" + version + "\"";
+            if (etag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             Map<String, Object> status = mobileKycSessionService.getSessionStatus(sessionId);
-            return ResponseEntity.ok(status);
+            return ResponseEntity.ok().eTag(etag).body(status);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "Error getting session status: " + e.getMessage());
@@ -66,6 +85,28 @@ public class MobileKycController {
         }
     }
 
+    /**
+     * Streams session status changes as server-sent events, replacing status polling
+     */
+    @GetMapping(value = "/session/{sessionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSessionStatus(@PathVariable String sessionId) {
+        return mobileKycSessionService.subscribeToStatus(sessionId);
+    }
+
+    /**
+     * Gets live, expired and completed session counters
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<?> getSessionMetrics() {
+        try {
+            return ResponseEntity.ok(mobileKycSessionService.getMetrics());
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error getting session metrics: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * Validates mobile device and starts KYC process
      */
@@ -84,7 +125,7 @@ public class MobileKycController {
             }
 
             // Get session
-            MobileKycSessionService.KycSession session = mobileKycSessionService.getSession(sessionId);
+            KycSession session = mobileKycSessionService.getSession(sessionId);
             if (session == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Session not found or expired. Please generate a new QR code.");
@@ -116,7 +157,7 @@ public class MobileKycController {
     public ResponseEntity<?> processMobileKyc(@PathVariable String sessionId, @RequestBody BiometricRequest biometricRequest) {
         try {
             // Get session
-            MobileKycSessionService.KycSession session = mobileKycSessionService.getSession(sessionId);
+            KycSession session = mobileKycSessionService.getSession(sessionId);
             if (session == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Session not found or expired");
@@ -164,7 +205,7 @@ public class MobileKycController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
             }
 
-            MobileKycSessionService.KycSession session = mobileKycSessionService.getSession(sessionId);
+            KycSession session = mobileKycSessionService.getSession(sessionId);
             if (session == null) {
                 Map<String, String> error = new HashMap<>();
                 error.put("message", "Session not found or expired");
@@ -2,15 +2,22 @@ package com.jilindecredit.api.controller;
 
 import com.jilindecredit.api.dto.*;
 import com.jilindecredit.api.service.BiometricService;
+import com.jilindecredit.api.service.BulkOnboardingService;
 import com.jilindecredit.api.service.KycVerificationService;
 import com.jilindecredit.api.service.OnboardingService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,6 +35,9 @@ public class OnboardingController {
     @Autowired
     private BiometricService biometricService;
 
+    @Autowired
+    private BulkOnboardingService bulkOnboardingService;
+
     @PostMapping("/register")
     public ResponseEntity<?> registerCustomer(@Valid @RequestBody OnboardingRequest request) {
         try {
@@ -45,6 +55,29 @@ public class OnboardingController {
         }
     }
 
+    /**
+     * Bulk import of applicants collected offline. The request body is the raw CSV (with a header
+     * row) or JSON-lines file; format is taken from the parameter or else the content type.
+     */
+    @PostMapping("/bulk-import")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> bulkImport(@RequestParam(value = "format", required = false) String format,
+                                        HttpServletRequest request) {
+        try {
+            BulkOnboardingService.Format importFormat = resolveImportFormat(format, request.getContentType());
+            BulkImportResult result = bulkOnboardingService.importApplicants(request.getInputStream(), importFormat);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error importing applicants: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @PostMapping("/initiate")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
     public ResponseEntity<?> initiateOnboarding(@Valid @RequestBody OnboardingRequest request) {
@@ -96,6 +129,33 @@ public class OnboardingController {
         }
     }
 
+    /**
+     * Multipart variant of capture-biometric: the fingerprint and facial parts are the raw capture
+     * bytes, hashed and stored as they are read instead of being held as Base64 strings.
+     */
+    @PostMapping(value = "/capture-biometric/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> captureBiometricStream(@RequestParam("customerId") Long customerId,
+                                                    @RequestParam(value = "captureQuality", required = false) String captureQuality,
+                                                    @RequestParam(value = "deviceInfo", required = false) String deviceInfo,
+                                                    @RequestPart(value = "fingerprint", required = false) MultipartFile fingerprint,
+                                                    @RequestPart(value = "facial", required = false) MultipartFile facial) {
+        try (InputStream fingerprintData = openPart(fingerprint);
+             InputStream facialData = openPart(facial)) {
+            BiometricResponse response = biometricService.captureBiometricStream(
+                customerId, fingerprintData, facialData, captureQuality, deviceInfo);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error capturing biometric data: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @PostMapping("/kyc-biometric")
     public ResponseEntity<?> captureKycBiometric(@Valid @RequestBody BiometricRequest request) {
         try {
@@ -129,6 +189,58 @@ public class OnboardingController {
         }
     }
 
+    /**
+     * Multipart variant of verify-biometric, taking the same raw parts as capture-biometric/stream
+     */
+    @PostMapping(value = "/verify-biometric/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> verifyBiometricStream(@RequestParam("customerId") Long customerId,
+                                                   @RequestPart(value = "fingerprint", required = false) MultipartFile fingerprint,
+                                                   @RequestPart(value = "facial", required = false) MultipartFile facial) {
+        try (InputStream fingerprintData = openPart(fingerprint);
+             InputStream facialData = openPart(facial)) {
+            BiometricResponse response = biometricService.verifyBiometricStream(customerId, fingerprintData, facialData);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error verifying biometric data: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Streams a stored capture (decrypted, Base64 as submitted) for review; type is fingerprint or facial
+     */
+    @GetMapping("/biometric/{customerId}/{type}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> getBiometricCapture(@PathVariable Long customerId, @PathVariable String type) {
+        try {
+            BiometricService.CaptureType captureType = BiometricService.CaptureType.valueOf(type.trim().toUpperCase());
+            InputStream capture = biometricService.openBiometricCapture(customerId, captureType);
+            if (capture == null) {
+                return ResponseEntity.notFound().build();
+            }
+            StreamingResponseBody body = out -> {
+                try (InputStream in = capture) {
+                    in.transferTo(out);
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(body);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error reading biometric data: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     @PostMapping("/complete/{customerId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
     public ResponseEntity<?> completeOnboarding(@PathVariable Long customerId) {
@@ -191,4 +303,29 @@ public class OnboardingController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
-}
\ No newline at end of file
+
+    private BulkOnboardingService.Format resolveImportFormat(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            switch (format.trim().toLowerCase()) {
+                case "csv":
+                    return BulkOnboardingService.Format.CSV;
+                case "ndjson":
+                case "jsonl":
+                    return BulkOnboardingService.Format.NDJSON;
+                default:
+                    throw new IllegalArgumentException("Unsupported format: " + format + ". Use csv or ndjson");
+            }
+        }
+        if (contentType != null && contentType.toLowerCase().contains("csv")) {
+            return BulkOnboardingService.Format.CSV;
+        }
+        return BulkOnboardingService.Format.NDJSON;
+    }
+
+    /**
+     * Parts are spooled to disk by the servlet container, so this reads from the file rather than the heap
+     */
+    private InputStream openPart(MultipartFile part) throws IOException {
+        return part != null && !part.isEmpty() ? part.getInputStream() : null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.jilindecredit.api.controller;
+
+import com.jilindecredit.api.dto.PaymentIngestionResult;
+import com.jilindecredit.api.model.Payment;
+import com.jilindecredit.api.service.PaymentIngestionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/payments")
+@CrossOrigin(origins = "*")
+public class PaymentController {
+
+    @Autowired
+    private PaymentIngestionService paymentIngestionService;
+
+    /**
+     * Posts a settlement file sent as the raw CSV request body. Sending the file again after a
+     * failure posts only the receipts whose references are not already recorded.
+     */
+    @PostMapping("/settlements")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> postSettlementFile(@RequestParam("source") String source,
+                                                @RequestParam(value = "paymentMethod", required = false) String paymentMethod,
+                                                HttpServletRequest request) {
+        try {
+            Payment.PaymentMethod defaultMethod = paymentMethod != null
+                ? Payment.PaymentMethod.valueOf(paymentMethod.trim().toUpperCase())
+                : null;
+            PaymentIngestionResult result = paymentIngestionService.ingestSettlementFile(
+                request.getInputStream(), source, defaultMethod);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error posting settlement file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    /**
+     * Payment notification from a bank or mobile money gateway. Safe to retry: a reference that
+     * has already been posted returns status DUPLICATE. A payment not yet posted when the callback
+     * times out is answered 503, so the gateway retries instead of treating it as received.
+     */
+    @PostMapping("/callback")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'OFFICER')")
+    public ResponseEntity<?> paymentCallback(@RequestBody Map<String, String> request) {
+        try {
+            String amount = request.get("amount");
+            String paymentDate = request.get("paymentDate");
+            String method = request.get("paymentMethod");
+            if (amount == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Amount is required");
+                return ResponseEntity.badRequest().body(error);
+            }
+
+            Map<String, Object> result = paymentIngestionService.postCallback(
+                request.get("referenceNumber"),
+                request.get("loanNumber"),
+                new BigDecimal(amount),
+                paymentDate != null ? LocalDate.parse(paymentDate) : null,
+                method != null ? Payment.PaymentMethod.valueOf(method.trim().toUpperCase()) : null,
+                request.get("notes"));
+            if ("QUEUED".equals(result.get("status"))) {
+                result.put("message", "Payment not posted yet; retry shortly");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(result);
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error posting payment: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    @GetMapping("/ingestion/stats")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> getIngestionStats() {
+        try {
+            return ResponseEntity.ok(paymentIngestionService.getStats());
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", "Error loading ingestion stats: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+}
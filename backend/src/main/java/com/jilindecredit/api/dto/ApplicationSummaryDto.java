@@ -0,0 +1,82 @@
+package com.jilindecredit.api.dto;
+
+import com.jilindecredit.api.model.CustomerProfile;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a customer application (customers joined with customer_profiles),
+ * populated directly by JPQL so admin listings never materialise full entities.
+ */
+public class ApplicationSummaryDto {
+    private Long customerId;
+    private String customerCode;
+    private String firstName;
+    private String lastName;
+    private String phone;
+    private String email;
+    private String nationalId;
+    private String loginPin;
+    private Integer documentVerificationScore;
+    private LocalDateTime createdAt;
+    private CustomerProfile.KycStatus kycStatus;
+    private String rejectionReason;
+
+    // Constructors
+    public ApplicationSummaryDto() {}
+
+    public ApplicationSummaryDto(Long customerId, String customerCode, String firstName, String lastName,
+                                 String phone, String email, String nationalId, String loginPin,
+                                 Integer documentVerificationScore, LocalDateTime createdAt,
+                                 CustomerProfile.KycStatus kycStatus, String rejectionReason) {
+        this.customerId = customerId;
+        this.customerCode = customerCode;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.phone = phone;
+        this.email = email;
+        this.nationalId = nationalId;
+        this.loginPin = loginPin;
+        this.documentVerificationScore = documentVerificationScore;
+        this.createdAt = createdAt;
+        this.kycStatus = kycStatus;
+        this.rejectionReason = rejectionReason;
+    }
+
+    // Getters and Setters
+    public Long getCustomerId() { return customerId; }
+    public void setCustomerId(Long customerId) { this.customerId = customerId; }
+
+    public String getCustomerCode() { return customerCode; }
+    public void setCustomerCode(String customerCode) { this.customerCode = customerCode; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getNationalId() { return nationalId; }
+    public void setNationalId(String nationalId) { this.nationalId = nationalId; }
+
+    public String getLoginPin() { return loginPin; }
+    public void setLoginPin(String loginPin) { this.loginPin = loginPin; }
+
+    public Integer getDocumentVerificationScore() { return documentVerificationScore; }
+    public void setDocumentVerificationScore(Integer documentVerificationScore) { this.documentVerificationScore = documentVerificationScore; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public CustomerProfile.KycStatus getKycStatus() { return kycStatus; }
+    public void setKycStatus(CustomerProfile.KycStatus kycStatus) { this.kycStatus = kycStatus; }
+
+    public String getRejectionReason() { return rejectionReason; }
+    public void setRejectionReason(String rejectionReason) { this.rejectionReason = rejectionReason; }
+}
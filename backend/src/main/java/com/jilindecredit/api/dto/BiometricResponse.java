@@ -10,6 +10,7 @@ public class BiometricResponse {
     private Boolean verified;
     private String message;
     private Double matchScore; // 0.0 to 1.0 for verification accuracy
+    private Boolean duplicateSuspected; // Capture matches another enrolled customer; held for manual review
 
     // Constructors
     public BiometricResponse() {}
@@ -43,4 +44,7 @@ public class BiometricResponse {
 
     public Double getMatchScore() { return matchScore; }
     public void setMatchScore(Double matchScore) { this.matchScore = matchScore; }
+
+    public Boolean getDuplicateSuspected() { return duplicateSuspected; }
+    public void setDuplicateSuspected(Boolean duplicateSuspected) { this.duplicateSuspected = duplicateSuspected; }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.jilindecredit.api.dto;
+
+/**
+ * The searchable fields of a customer, loaded by projection when the search index is built.
+ */
+public class CustomerSearchDocument {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String customerCode;
+    private String phone;
+    private String nationalId;
+
+    // Constructors
+    public CustomerSearchDocument() {}
+
+    public CustomerSearchDocument(Long id, String firstName, String lastName,
+                                  String customerCode, String phone, String nationalId) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.customerCode = customerCode;
+        this.phone = phone;
+        this.nationalId = nationalId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getCustomerCode() { return customerCode; }
+    public void setCustomerCode(String customerCode) { this.customerCode = customerCode; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getNationalId() { return nationalId; }
+    public void setNationalId(String nationalId) { this.nationalId = nationalId; }
+}
@@ -0,0 +1,50 @@
+package com.jilindecredit.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a settlement file upload: totals plus the reason each rejected receipt was not posted.
+ */
+public class PaymentIngestionResult {
+    private String source;
+    private int totalRows;
+    private int posted;
+    private int duplicates;
+    private int rejected;
+    private long durationMillis;
+    private boolean errorsTruncated;
+    private List<BulkImportResult.RowError> errors = new ArrayList<>();
+
+    // Constructors
+    public PaymentIngestionResult() {}
+
+    public PaymentIngestionResult(String source) {
+        this.source = source;
+    }
+
+    // Getters and Setters
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public int getTotalRows() { return totalRows; }
+    public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+
+    public int getPosted() { return posted; }
+    public void setPosted(int posted) { this.posted = posted; }
+
+    public int getDuplicates() { return duplicates; }
+    public void setDuplicates(int duplicates) { this.duplicates = duplicates; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public List<BulkImportResult.RowError> getErrors() { return errors; }
+    public void setErrors(List<BulkImportResult.RowError> errors) { this.errors = errors; }
+}
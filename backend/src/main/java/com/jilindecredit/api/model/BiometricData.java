@@ -16,13 +16,12 @@ public class BiometricData {
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
-    @Lob
-    @Column(name = "fingerprint_data", columnDefinition = "BYTEA")
-    private byte[] fingerprintData;
+    // Encrypted captures live in BiometricBlobStore; the row only keeps their content addresses
+    @Column(name = "fingerprint_ref", length = 64)
+    private String fingerprintRef;
 
-    @Lob
-    @Column(name = "facial_data", columnDefinition = "BYTEA")
-    private byte[] facialData;
+    @Column(name = "facial_ref", length = 64)
+    private String facialRef;
 
     @Column(name = "biometric_hash")
     private String biometricHash;
@@ -59,6 +58,9 @@ public class BiometricData {
     @Column(name = "kyc_session_id")
     private String kycSessionId; // Unique KYC session identifier
 
+    @Column(name = "duplicate_candidates", length = 500)
+    private String duplicateCandidates; // Other customers matching this capture, "customerId:similarity,..."
+
     @CreatedDate
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -77,11 +79,11 @@ public class BiometricData {
     public Customer getCustomer() { return customer; }
     public void setCustomer(Customer customer) { this.customer = customer; }
 
-    public byte[] getFingerprintData() { return fingerprintData; }
-    public void setFingerprintData(byte[] fingerprintData) { this.fingerprintData = fingerprintData; }
+    public String getFingerprintRef() { return fingerprintRef; }
+    public void setFingerprintRef(String fingerprintRef) { this.fingerprintRef = fingerprintRef; }
 
-    public byte[] getFacialData() { return facialData; }
-    public void setFacialData(byte[] facialData) { this.facialData = facialData; }
+    public String getFacialRef() { return facialRef; }
+    public void setFacialRef(String facialRef) { this.facialRef = facialRef; }
 
     public String getBiometricHash() { return biometricHash; }
     public void setBiometricHash(String biometricHash) { this.biometricHash = biometricHash; }
@@ -120,6 +122,9 @@ public class BiometricData {
     public String getKycSessionId() { return kycSessionId; }
     public void setKycSessionId(String kycSessionId) { this.kycSessionId = kycSessionId; }
 
+    public String getDuplicateCandidates() { return duplicateCandidates; }
+    public void setDuplicateCandidates(String duplicateCandidates) { this.duplicateCandidates = duplicateCandidates; }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -1,5 +1,6 @@
 package com.jilindecredit.api.model;
 
+import com.jilindecredit.api.util.PhoneNumbers;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -11,7 +12,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+    @Index(name = "idx_customers_created_at", columnList = "created_at"),
+    @Index(name = "idx_customers_phone_e164", columnList = "phone_e164")
+})
 public class Customer {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,6 +40,11 @@ public class Customer {
     @Size(max = 20)
     private String phone;
 
+    // Canonical E.164 form of phone, used for every phone-keyed lookup
+    @Size(max = 20)
+    @Column(name = "phone_e164")
+    private String phoneE164;
+
     @Size(max = 100)
     private String email;
 
@@ -95,6 +104,11 @@ public class Customer {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Bumped with SQL by every write that changes the customer's dashboard; see CustomerDashboardStore
+    @Column(name = "dashboard_version", insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private Long dashboardVersion;
+
     public enum Gender {
         MALE, FEMALE
     }
@@ -116,7 +130,13 @@ public class Customer {
     public void setLastName(String lastName) { this.lastName = lastName; }
 
     public String getPhone() { return phone; }
-    public void setPhone(String phone) { this.phone = phone; }
+    public void setPhone(String phone) {
+        this.phone = phone;
+        this.phoneE164 = PhoneNumbers.toE164(phone);
+    }
+
+    public String getPhoneE164() { return phoneE164; }
+    public void setPhoneE164(String phoneE164) { this.phoneE164 = phoneE164; }
 
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
@@ -183,15 +203,19 @@ public class Customer {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getDashboardVersion() { return dashboardVersion; }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        phoneE164 = PhoneNumbers.toE164(phone);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        phoneE164 = PhoneNumbers.toE164(phone);
     }
 
     public String getFullName() {
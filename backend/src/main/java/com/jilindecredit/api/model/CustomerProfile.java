@@ -8,7 +8,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "customer_profiles")
+@Table(name = "customer_profiles", indexes = {
+    @Index(name = "idx_customer_profiles_kyc_status", columnList = "kyc_status, customer_id")
+})
 public class CustomerProfile {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,110 @@
+package com.jilindecredit.api.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A mobile KYC session, kept by a KycSessionRepository rather than JPA
+ */
+public class KycSession {
+    private String sessionId;
+    private String customerData;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private String status; // PENDING, IN_PROGRESS, COMPLETED, EXPIRED
+    private Map<String, Object> verificationData;
+    // Bumped on every status or result change; used as the status ETag
+    private volatile long version;
+    // Version of the stored copy this session was read from or last written as
+    private volatile long storedVersion;
+    // Status response for the current version, built on first read after a change
+    private volatile Map<String, Object> statusSnapshot;
+
+    public KycSession(String sessionId, String customerData) {
+        this.sessionId = sessionId;
+        this.customerData = customerData;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = LocalDateTime.now().plusMinutes(15); // 15-minute expiry
+        this.status = "PENDING";
+        this.verificationData = new HashMap<>();
+    }
+
+    /**
+     * Rebuilds a stored session
+     */
+    public KycSession(String sessionId, String customerData, LocalDateTime createdAt, LocalDateTime expiresAt,
+                      String status, Map<String, Object> verificationData, long version) {
+        this.sessionId = sessionId;
+        this.customerData = customerData;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+        this.status = status;
+        this.verificationData = verificationData;
+        this.version = version;
+        this.storedVersion = version;
+    }
+
+    // Getters and setters
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public String getCustomerData() { return customerData; }
+    public void setCustomerData(String customerData) { this.customerData = customerData; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; changed(); }
+
+    public Map<String, Object> getVerificationData() { return verificationData; }
+    public void setVerificationData(Map<String, Object> verificationData) { this.verificationData = verificationData; changed(); }
+
+    public long getVersion() { return version; }
+
+    public long getStoredVersion() { return storedVersion; }
+    public void setStoredVersion(long storedVersion) { this.storedVersion = storedVersion; }
+
+    public boolean isCompleted() {
+        return "COMPLETED".equals(status);
+    }
+
+    public boolean isExpired() {
+        return !LocalDateTime.now().isBefore(expiresAt);
+    }
+
+    private synchronized void changed() {
+        version++;
+        statusSnapshot = null;
+    }
+
+    public Map<String, Object> toStatusMap() {
+        Map<String, Object> snapshot = statusSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        // Built under the same lock as changed(), so a rebuild never outlives the change it missed
+        synchronized (this) {
+            if (statusSnapshot != null) {
+                return statusSnapshot;
+            }
+            Map<String, Object> status = new HashMap<>();
+            status.put("status", this.status);
+            status.put("sessionId", sessionId);
+            status.put("createdAt", createdAt);
+            status.put("expiresAt", expiresAt);
+            status.put("version", version);
+
+            if (isCompleted()) {
+                status.put("verificationData", verificationData);
+            }
+            statusSnapshot = Collections.unmodifiableMap(status);
+            return statusSnapshot;
+        }
+    }
+}
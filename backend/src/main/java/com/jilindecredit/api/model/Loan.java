@@ -0,0 +1,212 @@
+package com.jilindecredit.api.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "loans", indexes = {
+    @Index(name = "idx_loans_customer_id", columnList = "customer_id"),
+    @Index(name = "idx_loans_status", columnList = "status")
+})
+public class Loan {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "loan_number", unique = true, nullable = false, length = 20)
+    private String loanNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private Customer customer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private LoanProduct product;
+
+    @Column(name = "principal_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal principalAmount;
+
+    // Nominal annual rate in percent, copied from the product when the loan is applied for
+    @Column(name = "interest_rate", nullable = false, precision = 5, scale = 2)
+    private BigDecimal interestRate;
+
+    @Column(name = "term_months", nullable = false)
+    private Integer termMonths;
+
+    @Column(name = "monthly_payment", nullable = false, precision = 12, scale = 2)
+    private BigDecimal monthlyPayment;
+
+    // Interest over the whole schedule, so amounts due can be worked out without building it
+    @Column(name = "total_interest", precision = 12, scale = 2)
+    private BigDecimal totalInterest = BigDecimal.ZERO;
+
+    @Column(name = "processing_fee", precision = 12, scale = 2)
+    private BigDecimal processingFee = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private LoanStatus status;
+
+    @Column(name = "application_date", nullable = false)
+    private LocalDate applicationDate;
+
+    @Column(name = "approval_date")
+    private LocalDate approvalDate;
+
+    @Column(name = "disbursement_date")
+    private LocalDate disbursementDate;
+
+    @Column(name = "maturity_date")
+    private LocalDate maturityDate;
+
+    // Running totals of posted payments
+    @Column(name = "principal_paid", precision = 12, scale = 2)
+    private BigDecimal principalPaid = BigDecimal.ZERO;
+
+    @Column(name = "interest_paid", precision = 12, scale = 2)
+    private BigDecimal interestPaid = BigDecimal.ZERO;
+
+    @Column(name = "penalty_charged", precision = 12, scale = 2)
+    private BigDecimal penaltyCharged = BigDecimal.ZERO;
+
+    @Column(name = "penalty_paid", precision = 12, scale = 2)
+    private BigDecimal penaltyPaid = BigDecimal.ZERO;
+
+    @Column(name = "last_payment_date")
+    private LocalDate lastPaymentDate;
+
+    // Interest earned to date on the schedule, and the day the accrual job last ran for this loan
+    @Column(name = "interest_accrued", precision = 12, scale = 2)
+    private BigDecimal interestAccrued = BigDecimal.ZERO;
+
+    @Column(name = "last_accrual_date")
+    private LocalDate lastAccrualDate;
+
+    // Days the oldest unpaid installment is overdue, as of the last payment, status change or
+    // nightly portfolio reconciliation; decides the loan's arrears bucket
+    @Column(name = "days_past_due")
+    private Integer daysPastDue = 0;
+
+    @Column(name = "approved_by")
+    private Long approvedBy;
+
+    @Column(name = "disbursed_by")
+    private Long disbursedBy;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum LoanStatus {
+        // DISBURSED is kept for the schema; disbursement moves a loan straight to ACTIVE
+        PENDING, APPROVED, DISBURSED, ACTIVE, COMPLETED, DEFAULTED, REJECTED
+    }
+
+    // Constructors
+    public Loan() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getLoanNumber() { return loanNumber; }
+    public void setLoanNumber(String loanNumber) { this.loanNumber = loanNumber; }
+
+    public Customer getCustomer() { return customer; }
+    public void setCustomer(Customer customer) { this.customer = customer; }
+
+    public LoanProduct getProduct() { return product; }
+    public void setProduct(LoanProduct product) { this.product = product; }
+
+    public BigDecimal getPrincipalAmount() { return principalAmount; }
+    public void setPrincipalAmount(BigDecimal principalAmount) { this.principalAmount = principalAmount; }
+
+    public BigDecimal getInterestRate() { return interestRate; }
+    public void setInterestRate(BigDecimal interestRate) { this.interestRate = interestRate; }
+
+    public Integer getTermMonths() { return termMonths; }
+    public void setTermMonths(Integer termMonths) { this.termMonths = termMonths; }
+
+    public BigDecimal getMonthlyPayment() { return monthlyPayment; }
+    public void setMonthlyPayment(BigDecimal monthlyPayment) { this.monthlyPayment = monthlyPayment; }
+
+    public BigDecimal getTotalInterest() { return totalInterest; }
+    public void setTotalInterest(BigDecimal totalInterest) { this.totalInterest = totalInterest; }
+
+    public BigDecimal getProcessingFee() { return processingFee; }
+    public void setProcessingFee(BigDecimal processingFee) { this.processingFee = processingFee; }
+
+    public LoanStatus getStatus() { return status; }
+    public void setStatus(LoanStatus status) { this.status = status; }
+
+    public LocalDate getApplicationDate() { return applicationDate; }
+    public void setApplicationDate(LocalDate applicationDate) { this.applicationDate = applicationDate; }
+
+    public LocalDate getApprovalDate() { return approvalDate; }
+    public void setApprovalDate(LocalDate approvalDate) { this.approvalDate = approvalDate; }
+
+    public LocalDate getDisbursementDate() { return disbursementDate; }
+    public void setDisbursementDate(LocalDate disbursementDate) { this.disbursementDate = disbursementDate; }
+
+    public LocalDate getMaturityDate() { return maturityDate; }
+    public void setMaturityDate(LocalDate maturityDate) { this.maturityDate = maturityDate; }
+
+    public BigDecimal getPrincipalPaid() { return principalPaid; }
+    public void setPrincipalPaid(BigDecimal principalPaid) { this.principalPaid = principalPaid; }
+
+    public BigDecimal getInterestPaid() { return interestPaid; }
+    public void setInterestPaid(BigDecimal interestPaid) { this.interestPaid = interestPaid; }
+
+    public BigDecimal getPenaltyCharged() { return penaltyCharged; }
+    public void setPenaltyCharged(BigDecimal penaltyCharged) { this.penaltyCharged = penaltyCharged; }
+
+    public BigDecimal getPenaltyPaid() { return penaltyPaid; }
+    public void setPenaltyPaid(BigDecimal penaltyPaid) { this.penaltyPaid = penaltyPaid; }
+
+    public LocalDate getLastPaymentDate() { return lastPaymentDate; }
+    public void setLastPaymentDate(LocalDate lastPaymentDate) { this.lastPaymentDate = lastPaymentDate; }
+
+    public BigDecimal getInterestAccrued() { return interestAccrued; }
+    public void setInterestAccrued(BigDecimal interestAccrued) { this.interestAccrued = interestAccrued; }
+
+    public LocalDate getLastAccrualDate() { return lastAccrualDate; }
+    public void setLastAccrualDate(LocalDate lastAccrualDate) { this.lastAccrualDate = lastAccrualDate; }
+
+    public Integer getDaysPastDue() { return daysPastDue; }
+    public void setDaysPastDue(Integer daysPastDue) { this.daysPastDue = daysPastDue; }
+
+    public Long getApprovedBy() { return approvedBy; }
+    public void setApprovedBy(Long approvedBy) { this.approvedBy = approvedBy; }
+
+    public Long getDisbursedBy() { return disbursedBy; }
+    public void setDisbursedBy(Long disbursedBy) { this.disbursedBy = disbursedBy; }
+
+    public Long getCreatedBy() { return createdBy; }
+    public void setCreatedBy(Long createdBy) { this.createdBy = createdBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
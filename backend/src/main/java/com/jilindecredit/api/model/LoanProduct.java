@@ -0,0 +1,100 @@
+package com.jilindecredit.api.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "loan_products")
+public class LoanProduct {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_name", nullable = false, length = 100)
+    private String productName;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "min_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal minAmount;
+
+    @Column(name = "max_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal maxAmount;
+
+    // Nominal annual rate in percent
+    @Column(name = "interest_rate", nullable = false, precision = 5, scale = 2)
+    private BigDecimal interestRate;
+
+    @Column(name = "min_term_months", nullable = false)
+    private Integer minTermMonths;
+
+    @Column(name = "max_term_months", nullable = false)
+    private Integer maxTermMonths;
+
+    // Percent of the principal, charged once at disbursement
+    @Column(name = "processing_fee_rate", precision = 5, scale = 2)
+    private BigDecimal processingFeeRate = BigDecimal.ZERO;
+
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public LoanProduct() {}
+
+    public LoanProduct(String productName, String description, BigDecimal minAmount, BigDecimal maxAmount,
+                       BigDecimal interestRate, Integer minTermMonths, Integer maxTermMonths, BigDecimal processingFeeRate) {
+        this.productName = productName;
+        this.description = description;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.interestRate = interestRate;
+        this.minTermMonths = minTermMonths;
+        this.maxTermMonths = maxTermMonths;
+        this.processingFeeRate = processingFeeRate;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public BigDecimal getMinAmount() { return minAmount; }
+    public void setMinAmount(BigDecimal minAmount) { this.minAmount = minAmount; }
+
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(BigDecimal maxAmount) { this.maxAmount = maxAmount; }
+
+    public BigDecimal getInterestRate() { return interestRate; }
+    public void setInterestRate(BigDecimal interestRate) { this.interestRate = interestRate; }
+
+    public Integer getMinTermMonths() { return minTermMonths; }
+    public void setMinTermMonths(Integer minTermMonths) { this.minTermMonths = minTermMonths; }
+
+    public Integer getMaxTermMonths() { return maxTermMonths; }
+    public void setMaxTermMonths(Integer maxTermMonths) { this.maxTermMonths = maxTermMonths; }
+
+    public BigDecimal getProcessingFeeRate() { return processingFeeRate; }
+    public void setProcessingFeeRate(BigDecimal processingFeeRate) { this.processingFeeRate = processingFeeRate; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
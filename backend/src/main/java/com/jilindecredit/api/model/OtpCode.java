@@ -0,0 +1,54 @@
+package com.jilindecredit.api.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "otp_codes", indexes = {
+    @Index(name = "idx_otp_codes_expires_at", columnList = "expires_at")
+})
+public class OtpCode {
+    @Id
+    @Column(name = "otp_key", length = 64)
+    private String otpKey;
+
+    @Column(name = "code", nullable = false, length = 10)
+    private String code;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public OtpCode() {}
+
+    public OtpCode(String otpKey, String code, LocalDateTime expiresAt) {
+        this.otpKey = otpKey;
+        this.code = code;
+        this.expiresAt = expiresAt;
+        this.attempts = 0;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getOtpKey() { return otpKey; }
+    public void setOtpKey(String otpKey) { this.otpKey = otpKey; }
+
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
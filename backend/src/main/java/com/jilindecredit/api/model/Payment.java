@@ -0,0 +1,112 @@
+package com.jilindecredit.api.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_loan_id", columnList = "loan_id"),
+    @Index(name = "idx_payments_payment_date", columnList = "payment_date"),
+    @Index(name = "idx_payments_reference_number", columnList = "reference_number", unique = true)
+})
+public class Payment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_number", unique = true, nullable = false, length = 20)
+    private String paymentNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "loan_id", nullable = false)
+    private Loan loan;
+
+    @Column(name = "payment_date", nullable = false)
+    private LocalDate paymentDate;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    // How the amount was allocated: penalty first, then interest due, then principal
+    @Column(name = "principal_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal principalAmount;
+
+    @Column(name = "interest_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal interestAmount;
+
+    @Column(name = "penalty_amount", precision = 12, scale = 2)
+    private BigDecimal penaltyAmount = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", length = 20)
+    private PaymentMethod paymentMethod;
+
+    // Receipt reference from the payment channel, e.g. an M-Pesa transaction code; unique, so a
+    // receipt delivered twice is only ever posted once
+    @Column(name = "reference_number", length = 50)
+    private String referenceNumber;
+
+    @Column(name = "received_by")
+    private Long receivedBy;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum PaymentMethod {
+        CASH, BANK_TRANSFER, MOBILE_MONEY
+    }
+
+    // Constructors
+    public Payment() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPaymentNumber() { return paymentNumber; }
+    public void setPaymentNumber(String paymentNumber) { this.paymentNumber = paymentNumber; }
+
+    public Loan getLoan() { return loan; }
+    public void setLoan(Loan loan) { this.loan = loan; }
+
+    public LocalDate getPaymentDate() { return paymentDate; }
+    public void setPaymentDate(LocalDate paymentDate) { this.paymentDate = paymentDate; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public BigDecimal getPrincipalAmount() { return principalAmount; }
+    public void setPrincipalAmount(BigDecimal principalAmount) { this.principalAmount = principalAmount; }
+
+    public BigDecimal getInterestAmount() { return interestAmount; }
+    public void setInterestAmount(BigDecimal interestAmount) { this.interestAmount = interestAmount; }
+
+    public BigDecimal getPenaltyAmount() { return penaltyAmount; }
+    public void setPenaltyAmount(BigDecimal penaltyAmount) { this.penaltyAmount = penaltyAmount; }
+
+    public PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+
+    public String getReferenceNumber() { return referenceNumber; }
+    public void setReferenceNumber(String referenceNumber) { this.referenceNumber = referenceNumber; }
+
+    public Long getReceivedBy() { return receivedBy; }
+    public void setReceivedBy(Long receivedBy) { this.receivedBy = receivedBy; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,5 +1,6 @@
 package com.jilindecredit.api.model;
 
+import com.jilindecredit.api.security.UserStatusListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserStatusListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,12 +1,16 @@
 package com.jilindecredit.api.repository;
 
+import com.jilindecredit.api.dto.ApplicationSummaryDto;
+import com.jilindecredit.api.dto.CustomerSearchDocument;
 import com.jilindecredit.api.model.Customer;
 import com.jilindecredit.api.model.CustomerProfile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,9 +19,11 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByCustomerCode(String customerCode);
     Optional<Customer> findByNationalId(String nationalId);
     Optional<Customer> findByPhone(String phone);
+    Optional<Customer> findByPhoneE164(String phoneE164);
     boolean existsByCustomerCode(String customerCode);
     boolean existsByNationalId(String nationalId);
     boolean existsByPhone(String phone);
+    boolean existsByPhoneE164(String phoneE164);
     
     @Query("SELECT c FROM Customer c WHERE " +
            "LOWER(c.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -29,4 +35,37 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     // Additional methods for KYC status filtering
     List<Customer> findByCustomerProfile_KycStatus(CustomerProfile.KycStatus kycStatus);
     long countByCustomerProfile_KycStatus(CustomerProfile.KycStatus kycStatus);
-}
\ No newline at end of file
+
+    // Keyset-paginated application listing: newest first, cursor is the last customer id seen
+    @Query("SELECT new com.jilindecredit.api.dto.ApplicationSummaryDto(" +
+           "c.id, c.customerCode, c.firstName, c.lastName, c.phone, c.email, c.nationalId, c.loginPin, " +
+           "c.documentVerificationScore, c.createdAt, p.kycStatus, p.rejectionReason) " +
+           "FROM Customer c LEFT JOIN c.customerProfile p " +
+           "WHERE c.id < :beforeId AND c.createdAt >= :submittedFrom AND c.createdAt < :submittedTo " +
+           "ORDER BY c.id DESC")
+    List<ApplicationSummaryDto> findApplicationSummaries(
+        @Param("beforeId") Long beforeId,
+        @Param("submittedFrom") LocalDateTime submittedFrom,
+        @Param("submittedTo") LocalDateTime submittedTo,
+        Pageable pageable);
+
+    @Query("SELECT new com.jilindecredit.api.dto.ApplicationSummaryDto(" +
+           "c.id, c.customerCode, c.firstName, c.lastName, c.phone, c.email, c.nationalId, c.loginPin, " +
+           "c.documentVerificationScore, c.createdAt, p.kycStatus, p.rejectionReason) " +
+           "FROM Customer c JOIN c.customerProfile p " +
+           "WHERE p.kycStatus = :kycStatus AND c.id < :beforeId " +
+           "AND c.createdAt >= :submittedFrom AND c.createdAt < :submittedTo " +
+           "ORDER BY c.id DESC")
+    List<ApplicationSummaryDto> findApplicationSummariesByKycStatus(
+        @Param("kycStatus") CustomerProfile.KycStatus kycStatus,
+        @Param("beforeId") Long beforeId,
+        @Param("submittedFrom") LocalDateTime submittedFrom,
+        @Param("submittedTo") LocalDateTime submittedTo,
+        Pageable pageable);
+
+    // Keyset scan used to (re)build the in-memory customer search index
+    @Query("SELECT new com.jilindecredit.api.dto.CustomerSearchDocument(" +
+           "c.id, c.firstName, c.lastName, c.customerCode, c.phone, c.nationalId) " +
+           "FROM Customer c WHERE c.id > :afterId ORDER BY c.id ASC")
+    List<CustomerSearchDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,44 @@
+package com.jilindecredit.api.repository;
+
+import com.jilindecredit.api.model.KycSession;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions held in this instance's memory; lost on restart and invisible to other nodes.
+ */
+@Repository
+@ConditionalOnProperty(name = "mobile-kyc.session-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryKycSessionRepository implements KycSessionRepository {
+
+    private final Map<String, KycSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void insert(KycSession session) {
+        sessions.put(session.getSessionId(), session);
+    }
+
+    @Override
+    public void update(KycSession session) {
+        // Never resurrect a session that expired while it was being changed
+        sessions.replace(session.getSessionId(), session);
+    }
+
+    @Override
+    public KycSession updateNow(KycSession session) {
+        return sessions.replace(session.getSessionId(), session) != null ? session : null;
+    }
+
+    @Override
+    public KycSession findById(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    @Override
+    public boolean delete(String sessionId) {
+        return sessions.remove(sessionId) != null;
+    }
+}
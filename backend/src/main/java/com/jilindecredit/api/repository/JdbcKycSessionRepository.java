@@ -0,0 +1,274 @@
+package com.jilindecredit.api.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jilindecredit.api.model.KycSession;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sessions in the kyc_sessions table, shared by every API instance and kept across restarts.
+ *
+ * New sessions and completions are written straight through. Other status changes go into a
+ * write-behind buffer that is flushed as one JDBC batch, with repeated changes to a session
+ * coalesced into one row update; reads on this node see buffered changes immediately, other nodes
+ * after the next flush.
+ *
+ * Every write is conditional on the row still having the version the change was based on. If
+ * another node got there first, the change is reapplied to the row as it now stands, except that
+ * a completed session is never moved back to an earlier status.
+ */
+@Repository
+@ConditionalOnProperty(name = "mobile-kyc.session-store", havingValue = "jdbc")
+public class JdbcKycSessionRepository implements KycSessionRepository {
+
+    private static final TypeReference<Map<String, Object>> VERIFICATION_DATA_TYPE = new TypeReference<>() {};
+
+    private static final String SELECT_SESSION =
+        "SELECT session_id, customer_data, created_at, expires_at, status, verification_data, version FROM kyc_sessions ";
+
+    private static final String UPDATE_IF_VERSION =
+        "UPDATE kyc_sessions SET status = ?, verification_data = ?, version = ? WHERE session_id = ? AND version = ?";
+
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    private static final int LOOKUP_CHUNK = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Latest unflushed state per session
+    private final Map<String, KycSession> pendingWrites = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS kyc_sessions (" +
+            "session_id VARCHAR(32) PRIMARY KEY, " +
+            "customer_data TEXT, " +
+            "created_at TIMESTAMP NOT NULL, " +
+            "expires_at TIMESTAMP NOT NULL, " +
+            "status VARCHAR(20) NOT NULL, " +
+            "verification_data TEXT, " +
+            "version BIGINT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_kyc_sessions_expires_at ON kyc_sessions(expires_at)");
+    }
+
+    @Override
+    public void insert(KycSession session) {
+        jdbcTemplate.update(
+            "INSERT INTO kyc_sessions (session_id, customer_data, created_at, expires_at, status, verification_data, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)",
+            session.getSessionId(), session.getCustomerData(),
+            Timestamp.valueOf(session.getCreatedAt()), Timestamp.valueOf(session.getExpiresAt()),
+            session.getStatus(), toJson(session.getVerificationData()), session.getVersion());
+    }
+
+    @Override
+    public void update(KycSession session) {
+        pendingWrites.put(session.getSessionId(), session);
+    }
+
+    @Override
+    public KycSession updateNow(KycSession session) {
+        KycSession stored = write(session);
+        // A buffered change this one supersedes must neither be served nor flushed after it
+        pendingWrites.remove(session.getSessionId());
+        return stored;
+    }
+
+    @Override
+    public KycSession findById(String sessionId) {
+        KycSession pending = pendingWrites.get(sessionId);
+        return pending != null ? pending : load(sessionId);
+    }
+
+    @Override
+    public Map<String, KycSession> findAllById(Collection<String> sessionIds) {
+        Map<String, KycSession> sessions = new HashMap<>();
+        List<String> unbuffered = new ArrayList<>();
+        for (String sessionId : sessionIds) {
+            KycSession pending = pendingWrites.get(sessionId);
+            if (pending != null) {
+                sessions.put(sessionId, pending);
+            } else {
+                unbuffered.add(sessionId);
+            }
+        }
+        for (int from = 0; from < unbuffered.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = unbuffered.subList(from, Math.min(from + LOOKUP_CHUNK, unbuffered.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query(SELECT_SESSION + "WHERE session_id IN (" + placeholders + ")",
+                rs -> {
+                    KycSession session = mapRow(rs);
+                    sessions.put(session.getSessionId(), session);
+                },
+                chunk.toArray());
+        }
+        return sessions;
+    }
+
+    @Override
+    public boolean delete(String sessionId) {
+        pendingWrites.remove(sessionId);
+        return jdbcTemplate.update("DELETE FROM kyc_sessions WHERE session_id = ?", sessionId) > 0;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    /**
+     * Writes every buffered change in one batch. A change whose session was changed on another
+     * node since it was read is reapplied to the latest copy instead.
+     */
+    @Scheduled(fixedDelayString = "${mobile-kyc.jdbc.flush-interval-ms:250}")
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        List<KycSession> sessions = new ArrayList<>(pendingWrites.values());
+        List<Object[]> batchArgs = new ArrayList<>(sessions.size());
+        Map<KycSession, Long> writtenVersions = new HashMap<>();
+        for (KycSession session : sessions) {
+            long version = session.getVersion();
+            batchArgs.add(updateArgs(session, version));
+            writtenVersions.put(session, version);
+        }
+
+        int[] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(UPDATE_IF_VERSION, batchArgs);
+        } catch (Exception e) {
+            // Keep the buffer; the next flush retries
+            System.err.println("❌ JdbcKycSessionRepository: Flush failed: " + e.getMessage());
+            return;
+        }
+
+        for (int i = 0; i < sessions.size(); i++) {
+            KycSession session = sessions.get(i);
+            long written = writtenVersions.get(session);
+            if (counts[i] == 0) {
+                try {
+                    write(session);
+                } catch (RuntimeException e) {
+                    System.err.println("❌ JdbcKycSessionRepository: Could not save session " + session.getSessionId() + ": " + e.getMessage());
+                    continue;
+                }
+            } else {
+                session.setStoredVersion(written);
+            }
+            // Drop entries only if they were not changed again while they were being written
+            pendingWrites.computeIfPresent(session.getSessionId(),
+                (id, current) -> current == session && current.getVersion() == written ? null : current);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Removes sessions whose creating node is gone before it could expire them
+     */
+    @Scheduled(fixedDelayString = "${mobile-kyc.jdbc.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int removed = jdbcTemplate.update("DELETE FROM kyc_sessions WHERE expires_at < ?", Timestamp.valueOf(LocalDateTime.now()));
+        if (removed > 0) {
+            System.out.println("🧹 JdbcKycSessionRepository: Purged " + removed + " expired KYC sessions");
+        }
+    }
+
+    /**
+     * Writes a change, reapplying it to the latest stored copy for as long as another node keeps
+     * changing the session first
+     *
+     * @return the session as stored, or null if it no longer exists
+     */
+    private KycSession write(KycSession change) {
+        KycSession attempt = change;
+        for (int i = 0; i < MAX_WRITE_ATTEMPTS; i++) {
+            long version = attempt.getVersion();
+            if (jdbcTemplate.update(UPDATE_IF_VERSION, updateArgs(attempt, version)) > 0) {
+                attempt.setStoredVersion(version);
+                return attempt;
+            }
+            KycSession latest = load(change.getSessionId());
+            if (latest == null || (latest.isCompleted() && !change.isCompleted())) {
+                return latest;
+            }
+            // Numbered past both copies, so every node sees it as newer than anything it has shown
+            attempt = new KycSession(latest.getSessionId(), latest.getCustomerData(), latest.getCreatedAt(),
+                latest.getExpiresAt(), change.getStatus(), change.getVerificationData(),
+                Math.max(latest.getVersion(), change.getVersion()) + 1);
+            attempt.setStoredVersion(latest.getVersion());
+        }
+        throw new IllegalStateException("KYC session " + change.getSessionId() + " is being changed too often to save");
+    }
+
+    private Object[] updateArgs(KycSession session, long version) {
+        return new Object[] {
+            session.getStatus(), toJson(session.getVerificationData()), version, session.getSessionId(), session.getStoredVersion()
+        };
+    }
+
+    private KycSession load(String sessionId) {
+        List<KycSession> rows = jdbcTemplate.query(SELECT_SESSION + "WHERE session_id = ?", (rs, rowNum) -> mapRow(rs), sessionId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private KycSession mapRow(ResultSet rs) throws SQLException {
+        return new KycSession(
+            rs.getString("session_id"),
+            rs.getString("customer_data"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getTimestamp("expires_at").toLocalDateTime(),
+            rs.getString("status"),
+            fromJson(rs.getString("verification_data")),
+            rs.getLong("version"));
+    }
+
+    private String toJson(Map<String, Object> verificationData) {
+        if (verificationData == null || verificationData.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(verificationData);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise KYC verification data", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, VERIFICATION_DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read KYC verification data", e);
+        }
+    }
+}
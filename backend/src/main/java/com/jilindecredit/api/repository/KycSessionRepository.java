@@ -0,0 +1,68 @@
+package com.jilindecredit.api.repository;
+
+import com.jilindecredit.api.model.KycSession;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Storage for mobile KYC sessions.
+ * Select the implementation with mobile-kyc.session-store: "memory" (default, single node) or
+ * "jdbc" (shared by every API instance, so a QR code works whichever node the phone reaches).
+ */
+public interface KycSessionRepository {
+
+    /**
+     * Stores a new session; visible to every node as soon as this returns
+     */
+    void insert(KycSession session);
+
+    /**
+     * Records a change to an existing session. Implementations may buffer the write.
+     */
+    void update(KycSession session);
+
+    /**
+     * Records a change every node must see as soon as this returns, such as completion. If the
+     * session was changed elsewhere since it was read, the change is reapplied to the latest copy.
+     *
+     * @return the session as stored, or null if it no longer exists
+     */
+    KycSession updateNow(KycSession session);
+
+    /**
+     * Looks a session up, including sessions that have expired but not yet been purged
+     *
+     * @return the session, or null if it does not exist
+     */
+    KycSession findById(String sessionId);
+
+    /**
+     * Looks several sessions up at once
+     *
+     * @return the sessions found, by ID
+     */
+    default Map<String, KycSession> findAllById(Collection<String> sessionIds) {
+        Map<String, KycSession> sessions = new HashMap<>();
+        for (String sessionId : sessionIds) {
+            KycSession session = findById(sessionId);
+            if (session != null) {
+                sessions.put(sessionId, session);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * @return true if this call removed the session
+     */
+    boolean delete(String sessionId);
+
+    /**
+     * True when sessions may be changed by other API instances
+     */
+    default boolean isShared() {
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.jilindecredit.api.repository;
+
+import com.jilindecredit.api.model.LoanProduct;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LoanProductRepository extends JpaRepository<LoanProduct, Long> {
+    List<LoanProduct> findByIsActiveTrueOrderByProductName();
+}
@@ -0,0 +1,42 @@
+package com.jilindecredit.api.repository;
+
+import com.jilindecredit.api.model.Loan;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+    Optional<Loan> findByLoanNumber(String loanNumber);
+
+    Page<Loan> findByStatus(Loan.LoanStatus status, Pageable pageable);
+
+    // Row lock held until the posting transaction commits, so concurrent payments apply one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Loan l WHERE l.id = :id")
+    Optional<Loan> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT l FROM Loan l JOIN FETCH l.product WHERE l.customer.id = :customerId " +
+           "ORDER BY l.applicationDate DESC, l.id DESC")
+    List<Loan> findByCustomerIdWithProduct(@Param("customerId") Long customerId);
+
+    @Query("SELECT l FROM Loan l JOIN FETCH l.product WHERE l.customer.id = :customerId AND l.status IN :statuses " +
+           "ORDER BY l.applicationDate DESC, l.id DESC")
+    List<Loan> findByCustomerIdAndStatusIn(@Param("customerId") Long customerId,
+                                           @Param("statuses") Collection<Loan.LoanStatus> statuses);
+
+    @Query("SELECT COALESCE(SUM(l.principalAmount - l.principalPaid), 0) FROM Loan l " +
+           "WHERE l.customer.id = :customerId AND l.status IN :statuses")
+    BigDecimal sumOutstandingPrincipal(@Param("customerId") Long customerId,
+                                       @Param("statuses") Collection<Loan.LoanStatus> statuses);
+}
@@ -0,0 +1,26 @@
+package com.jilindecredit.api.repository;
+
+import com.jilindecredit.api.model.OtpCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OtpCodeRepository extends JpaRepository<OtpCode, String> {
+
+    // Takes one attempt from a live code's budget and locks its row until the transaction ends;
+    // returns 0 if the code is missing, expired or out of attempts
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OtpCode o SET o.attempts = o.attempts + 1 WHERE o.otpKey = :key " +
+           "AND o.attempts < :maxAttempts AND o.expiresAt >= :now")
+    int reserveAttempt(@Param("key") String key, @Param("now") LocalDateTime now,
+                       @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("DELETE FROM OtpCode o WHERE o.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
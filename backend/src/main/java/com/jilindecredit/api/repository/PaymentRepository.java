@@ -0,0 +1,14 @@
+package com.jilindecredit.api.repository;
+
+import com.jilindecredit.api.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    List<Payment> findByLoanIdOrderByPaymentDateAscIdAsc(Long loanId);
+
+    boolean existsByReferenceNumber(String referenceNumber);
+}
@@ -34,6 +34,19 @@ public class CustomUserDetailsService implements UserDetailsService {
             this.user = user;
         }
 
+        /**
+         * Principal rebuilt from verified token claims, without loading the user.
+         * The user carries only id, username, role and active flag; password is not available.
+         */
+        public static CustomUserPrincipal fromClaims(String username, Long userId, User.Role role) {
+            User user = new User();
+            user.setId(userId);
+            user.setUsername(username);
+            user.setRole(role);
+            user.setIsActive(true);
+            return new CustomUserPrincipal(user);
+        }
+
         @Override
         public Collection<? extends GrantedAuthority> getAuthorities() {
             return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
@@ -1,10 +1,13 @@
 package com.jilindecredit.api.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.jilindecredit.api.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,6 +27,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    // Build the principal from the role and userId claims instead of loading the user per request
+    @Value("${jwt.stateless-principal:false}")
+    private boolean statelessPrincipal;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain chain) throws ServletException, IOException {
@@ -31,13 +41,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String requestTokenHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwtToken = null;
+        Claims claims = null;
 
         // JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-            jwtToken = requestTokenHeader.substring(7);
+            String jwtToken = requestTokenHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                // Verified once here; the claims are reused for validation below
+                claims = jwtUtil.parseClaims(jwtToken);
+                username = claims.getSubject();
             } catch (Exception e) {
                 logger.warn("Unable to get JWT Token or JWT Token has expired");
             }
@@ -45,10 +57,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Once we get the token validate it.
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = statelessPrincipal ? principalFromClaims(claims) : null;
+            if (userDetails == null) {
+                userDetails = this.userDetailsService.loadUserByUsername(username);
+            }
 
             // if token is valid configure Spring Security to manually set authentication
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
+            if (userDetails.isEnabled() && jwtUtil.validateClaims(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 usernamePasswordAuthenticationToken
@@ -61,4 +76,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         chain.doFilter(request, response);
     }
+
+    /**
+     * Rebuilds the principal from token claims; returns a disabled principal for revoked or
+     * inactive users, and null when the token lacks the claims so the caller loads the user
+     */
+    private UserDetails principalFromClaims(Claims claims) {
+        Object role = claims.get("role");
+        Object userId = claims.get("userId");
+        if (!(role instanceof String) || !(userId instanceof Number)) {
+            return null;
+        }
+
+        User.Role userRole;
+        try {
+            userRole = User.Role.valueOf((String) role);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        CustomUserDetailsService.CustomUserPrincipal principal = CustomUserDetailsService.CustomUserPrincipal
+                .fromClaims(claims.getSubject(), ((Number) userId).longValue(), userRole);
+        if (!userStatusCache.isActive(claims.getSubject())) {
+            principal.getUser().setIsActive(false);
+        }
+        return principal;
+    }
 }
\ No newline at end of file
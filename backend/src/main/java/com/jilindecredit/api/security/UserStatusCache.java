@@ -0,0 +1,80 @@
+package com.jilindecredit.api.security;
+
+import com.jilindecredit.api.repository.UserRepository;
+import com.jilindecredit.api.util.LruCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether a staff user may still authenticate, for principals rebuilt from token claims.
+ *
+ * Active flags are cached for a short TTL so the database is consulted at most once per user
+ * per TTL. Users deactivated on this node are put on a revocation list and rejected at once,
+ * without waiting for their cached flag to age out.
+ */
+@Component
+public class UserStatusCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.user-status-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${jwt.user-status-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    private LruCache<String, CachedStatus> statuses;
+    private final Set<String> revokedUsernames = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        statuses = new LruCache<>(maxEntries);
+    }
+
+    public boolean isActive(String username) {
+        if (revokedUsernames.contains(username)) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedStatus cached = statuses.get(username);
+        if (cached != null && now - cached.loadedAtMillis < ttlMillis) {
+            return cached.active;
+        }
+
+        boolean active = userRepository.findByUsername(username)
+                .map(user -> Boolean.TRUE.equals(user.getIsActive()))
+                .orElse(false);
+        statuses.put(username, new CachedStatus(active, now));
+        return active;
+    }
+
+    /**
+     * Rejects the user's tokens from now on, until restored
+     */
+    public void revoke(String username) {
+        revokedUsernames.add(username);
+        statuses.remove(username);
+    }
+
+    public void restore(String username) {
+        revokedUsernames.remove(username);
+        statuses.remove(username);
+    }
+
+    private static final class CachedStatus {
+        final boolean active;
+        final long loadedAtMillis;
+
+        CachedStatus(boolean active, long loadedAtMillis) {
+            this.active = active;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.jilindecredit.api.security;
+
+import com.jilindecredit.api.model.User;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the revocation list in step with users.is_active, whichever code path changes it.
+ */
+@Component
+public class UserStatusListener {
+
+    @Autowired
+    @Lazy
+    private UserStatusCache userStatusCache;
+
+    @PostUpdate
+    public void afterUpdate(User user) {
+        if (Boolean.FALSE.equals(user.getIsActive())) {
+            userStatusCache.revoke(user.getUsername());
+        } else {
+            userStatusCache.restore(user.getUsername());
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.util.Money;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Equal-installment (annuity) repayment schedule, computed in cents.
+ *
+ * Each month's interest is the outstanding balance times the monthly rate, rounded half-up to
+ * the cent; the rest of the installment repays principal, and the last installment is whatever
+ * clears the balance. Only the installment amount is worked out up front. The per-installment
+ * breakdown is built on first use, so loans that are only listed or summarised never pay for it.
+ */
+public final class AmortizationSchedule {
+
+    // Annual rate in basis points divided by 12 months and 10,000 basis points
+    private static final long MONTHLY_RATE_DIVISOR = 12L * 10_000L;
+
+    private final long principal;
+    private final long annualRateBasisPoints;
+    private final int termMonths;
+    private final LocalDate firstDueDate;
+    private final long installmentAmount;
+
+    // Built lazily; interest[k] and principalPart[k] belong to installment k + 1
+    private long[] interest;
+    private long[] principalPart;
+    private long[] balance;
+
+    /**
+     * @param principal amount lent, in cents
+     * @param annualRateBasisPoints nominal annual rate, so 15% is 1500
+     * @param firstDueDate due date of the first installment; the rest fall on the same day of later months
+     */
+    public AmortizationSchedule(long principal, long annualRateBasisPoints, int termMonths, LocalDate firstDueDate) {
+        if (principal <= 0) {
+            throw new IllegalArgumentException("Principal must be positive");
+        }
+        if (termMonths <= 0) {
+            throw new IllegalArgumentException("Term must be at least one month");
+        }
+        if (annualRateBasisPoints < 0) {
+            throw new IllegalArgumentException("Interest rate cannot be negative");
+        }
+        this.principal = principal;
+        this.annualRateBasisPoints = annualRateBasisPoints;
+        this.termMonths = termMonths;
+        this.firstDueDate = firstDueDate;
+        this.installmentAmount = installmentAmount(principal, annualRateBasisPoints, termMonths);
+    }
+
+    /**
+     * Level monthly installment in cents, rounded up so the last installment is never the largest
+     */
+    public static long installmentAmount(long principal, long annualRateBasisPoints, int termMonths) {
+        if (annualRateBasisPoints == 0) {
+            return (principal + termMonths - 1) / termMonths;
+        }
+        // One floating-point evaluation per loan; StrictMath keeps it identical on every JVM
+        double rate = (double) annualRateBasisPoints / MONTHLY_RATE_DIVISOR;
+        double payment = principal * rate / (1 - StrictMath.pow(1 + rate, -termMonths));
+        return (long) Math.ceil(payment);
+    }
+
+    /**
+     * Number of installments due on or before the given date, from 0 to the term
+     */
+    public static int installmentsDueBy(LocalDate firstDueDate, int termMonths, LocalDate date) {
+        if (firstDueDate == null || date.isBefore(firstDueDate)) {
+            return 0;
+        }
+        long due = ChronoUnit.MONTHS.between(firstDueDate, date) + 1;
+        // MONTHS.between counts whole months, so a due date clamped to a shorter month end is missed
+        if (due < termMonths && !firstDueDate.plusMonths(due).isAfter(date)) {
+            due++;
+        }
+        return (int) Math.min(due, termMonths);
+    }
+
+    /**
+     * Days the oldest unpaid installment is overdue on the given date, or 0 if none is. Payments
+     * cover installments in order, and every installment but the last is the level amount, so the
+     * oldest unpaid one follows from the amount paid alone.
+     *
+     * @param paid principal and interest paid so far, in cents
+     */
+    public static int daysPastDue(LocalDate firstDueDate, int termMonths, long installment, long totalRepayable,
+                                  long paid, LocalDate date) {
+        if (firstDueDate == null || installment <= 0 || paid >= totalRepayable) {
+            return 0;
+        }
+        // Below the total repayable, at most term - 1 installments can be fully paid
+        long covered = Math.min(termMonths - 1, paid / installment);
+        LocalDate oldestUnpaid = firstDueDate.plusMonths(covered);
+        return date.isAfter(oldestUnpaid) ? (int) ChronoUnit.DAYS.between(oldestUnpaid, date) : 0;
+    }
+
+    public long getPrincipal() {
+        return principal;
+    }
+
+    public int getTermMonths() {
+        return termMonths;
+    }
+
+    public LocalDate getFirstDueDate() {
+        return firstDueDate;
+    }
+
+    public long getInstallmentAmount() {
+        return installmentAmount;
+    }
+
+    /**
+     * @param number 1-based installment number
+     */
+    public LocalDate dueDate(int number) {
+        return firstDueDate.plusMonths(number - 1L);
+    }
+
+    public int installmentsDueBy(LocalDate date) {
+        return installmentsDueBy(firstDueDate, termMonths, date);
+    }
+
+    public long getTotalInterest() {
+        return interestThrough(termMonths);
+    }
+
+    /**
+     * Interest scheduled in the first count installments, in cents
+     */
+    public long interestThrough(int count) {
+        build();
+        long total = 0;
+        for (int k = 0; k < Math.min(count, termMonths); k++) {
+            total += interest[k];
+        }
+        return total;
+    }
+
+    /**
+     * Interest earned by the date, in cents: all of it for periods that have ended, and the running
+     * period's interest in proportion to the days elapsed. Each period ends on its due date.
+     */
+    public long interestAccruedBy(LocalDate date) {
+        build();
+        int ended = installmentsDueBy(date);
+        long accrued = interestThrough(ended);
+        if (ended < termMonths) {
+            LocalDate periodStart = ended == 0 ? firstDueDate.minusMonths(1) : dueDate(ended);
+            long length = ChronoUnit.DAYS.between(periodStart, dueDate(ended + 1));
+            long elapsed = Math.max(0L, ChronoUnit.DAYS.between(periodStart, date));
+            accrued += Money.divideHalfUp(interest[ended] * elapsed, length);
+        }
+        return accrued;
+    }
+
+    /**
+     * Principal plus interest scheduled in the first count installments, in cents
+     */
+    public long amountThrough(int count) {
+        build();
+        long total = 0;
+        for (int k = 0; k < Math.min(count, termMonths); k++) {
+            total += interest[k] + principalPart[k];
+        }
+        return total;
+    }
+
+    public List<Installment> getInstallments() {
+        build();
+        List<Installment> installments = new ArrayList<>(termMonths);
+        for (int k = 0; k < termMonths; k++) {
+            installments.add(new Installment(k + 1, dueDate(k + 1), principalPart[k] + interest[k], principalPart[k], interest[k], balance[k]));
+        }
+        return Collections.unmodifiableList(installments);
+    }
+
+    private void build() {
+        if (interest != null) {
+            return;
+        }
+        long[] interestParts = new long[termMonths];
+        long[] principalParts = new long[termMonths];
+        long[] balances = new long[termMonths];
+        long outstanding = principal;
+        for (int k = 0; k < termMonths; k++) {
+            long monthInterest = Money.divideHalfUp(outstanding * annualRateBasisPoints, MONTHLY_RATE_DIVISOR);
+            long repaid = k == termMonths - 1 ? outstanding : Math.min(outstanding, installmentAmount - monthInterest);
+            outstanding -= repaid;
+            interestParts[k] = monthInterest;
+            principalParts[k] = repaid;
+            balances[k] = outstanding;
+        }
+        principalPart = principalParts;
+        balance = balances;
+        interest = interestParts;
+    }
+
+    public static final class Installment {
+        private final int number;
+        private final LocalDate dueDate;
+        private final long amount;
+        private final long principal;
+        private final long interest;
+        private final long balanceAfter;
+
+        Installment(int number, LocalDate dueDate, long amount, long principal, long interest, long balanceAfter) {
+            this.number = number;
+            this.dueDate = dueDate;
+            this.amount = amount;
+            this.principal = principal;
+            this.interest = interest;
+            this.balanceAfter = balanceAfter;
+        }
+
+        public int getNumber() { return number; }
+
+        public LocalDate getDueDate() { return dueDate; }
+
+        public long getAmount() { return amount; }
+
+        public long getPrincipal() { return principal; }
+
+        public long getInterest() { return interest; }
+
+        public long getBalanceAfter() { return balanceAfter; }
+    }
+}
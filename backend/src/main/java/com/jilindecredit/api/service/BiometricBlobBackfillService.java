@@ -0,0 +1,116 @@
+package com.jilindecredit.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off migration that moves captures still held in the legacy biometric_data.fingerprint_data
+ * and facial_data columns into BiometricBlobStore, then clears the columns. Rows written before
+ * encryption was enabled hold Base64 placeholders; those are encrypted on the way.
+ *
+ * Rows are walked by id a few at a time, as each one can carry megabytes, and every row is
+ * committed on its own, so the job can be interrupted and rerun safely. Once it reports nothing
+ * left, the legacy columns can be dropped (see database/migration-add-biometric-blob-refs.sql).
+ */
+@Service
+public class BiometricBlobBackfillService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BiometricCryptoService biometricCryptoService;
+
+    @Autowired
+    private BiometricBlobStore biometricBlobStore;
+
+    @Value("${biometric.blob-store.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${biometric.blob-store.backfill.batch-size:20}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int moved = backfill();
+            if (moved > 0) {
+                System.out.println("📦 BiometricBlobBackfillService: Moved " + moved + " biometric captures to the blob store");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ BiometricBlobBackfillService: Backfill failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of captures moved
+     */
+    public int backfill() throws IOException {
+        long afterId = 0L;
+        int moved = 0;
+
+        while (true) {
+            List<Map<String, Object>> rows;
+            try {
+                rows = jdbcTemplate.queryForList(
+                    "SELECT id, fingerprint_data, facial_data FROM biometric_data " +
+                    "WHERE (fingerprint_data IS NOT NULL OR facial_data IS NOT NULL) AND id > ? ORDER BY id LIMIT ?",
+                    afterId, batchSize);
+            } catch (BadSqlGrammarException e) {
+                // Schema created after the blob store was introduced: no legacy columns
+                return moved;
+            }
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                String fingerprintRef = moveToStore((byte[]) row.get("fingerprint_data"));
+                String facialRef = moveToStore((byte[]) row.get("facial_data"));
+
+                jdbcTemplate.update(
+                    "UPDATE biometric_data SET fingerprint_ref = COALESCE(?, fingerprint_ref), facial_ref = COALESCE(?, facial_ref), " +
+                    "fingerprint_data = NULL, facial_data = NULL WHERE id = ?",
+                    fingerprintRef, facialRef, id);
+                moved += (fingerprintRef != null ? 1 : 0) + (facialRef != null ? 1 : 0);
+                afterId = id;
+            }
+
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+        return moved;
+    }
+
+    private String moveToStore(byte[] stored) throws IOException {
+        if (stored == null || stored.length == 0) {
+            return null;
+        }
+        byte[] plaintext;
+        byte[] sealed;
+        if (biometricCryptoService.isEnvelope(stored)) {
+            plaintext = biometricCryptoService.decrypt(stored);
+            sealed = stored;
+        } else {
+            // Placeholder "encryption" from before BiometricCryptoService: Base64 of the submitted text
+            plaintext = Base64.getDecoder().decode(stored);
+            sealed = biometricCryptoService.encrypt(plaintext);
+        }
+        return biometricBlobStore.store(sealed, biometricCryptoService.address(plaintext));
+    }
+}
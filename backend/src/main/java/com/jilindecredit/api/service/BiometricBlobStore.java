@@ -0,0 +1,273 @@
+package com.jilindecredit.api.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed filesystem store for encrypted biometric captures, kept off the
+ * biometric_data rows so loading a row never pulls image data.
+ *
+ * Each blob is stored once under its content address (see BiometricCryptoService.address) as
+ * objects/ab/abcdef..., so re-submitted captures share a file. Blobs are written to a staging
+ * directory on the same filesystem and moved into place atomically; readers never see a partial
+ * blob. Reads are memory-mapped.
+ *
+ * The sweep deletes blobs by age, so a store that finds its blob already present touches it
+ * first. Touches and sweep deletes share a lock: either the sweep sees the fresh timestamp and
+ * keeps the blob, or the store finds it gone and writes it again.
+ */
+@Service
+public class BiometricBlobStore {
+
+    private static final int ADDRESS_LENGTH = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${biometric.blob-store.root:./data/biometric-blobs}")
+    private String root;
+
+    // Staged or unreferenced blobs younger than this are left alone by the sweep
+    @Value("${biometric.blob-store.sweep-grace-minutes:60}")
+    private long sweepGraceMinutes;
+
+    private Path objects;
+    private Path staging;
+
+    private final LongAdder blobsStored = new LongAdder();
+    private final LongAdder blobsDeduplicated = new LongAdder();
+    private final AtomicLong blobsSwept = new AtomicLong();
+
+    private final Object sweepLock = new Object();
+
+    @PostConstruct
+    void init() throws IOException {
+        Path base = Paths.get(root);
+        objects = Files.createDirectories(base.resolve("objects"));
+        staging = Files.createDirectories(base.resolve("staging"));
+    }
+
+    /**
+     * A new empty file in the staging directory, to be filled and then passed to store(Path, String)
+     */
+    public Path newStagingFile() throws IOException {
+        return Files.createTempFile(staging, "blob-", ".tmp");
+    }
+
+    /**
+     * Moves a staged blob into the store under its address. If the address is already stored the
+     * staged file is discarded instead.
+     *
+     * @return the reference to keep on the row (the address)
+     */
+    public String store(Path stagedFile, String address) throws IOException {
+        Path target = pathFor(address);
+        while (true) {
+            if (touch(target)) {
+                Files.deleteIfExists(stagedFile);
+                blobsDeduplicated.increment();
+                return address;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(stagedFile, target, StandardCopyOption.ATOMIC_MOVE);
+                blobsStored.increment();
+                return address;
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently by another request; touched on the next pass
+            }
+        }
+    }
+
+    public String store(byte[] blob, String address) throws IOException {
+        if (touch(pathFor(address))) {
+            blobsDeduplicated.increment();
+            return address;
+        }
+        Path stagedFile = newStagingFile();
+        try {
+            Files.write(stagedFile, blob);
+            return store(stagedFile, address);
+        } finally {
+            Files.deleteIfExists(stagedFile);
+        }
+    }
+
+    /**
+     * Maps a blob read-only. The mapping stays valid after the call and is released by the GC.
+     *
+     * @throws IllegalArgumentException if the reference is malformed or not stored
+     */
+    public MappedByteBuffer map(String ref) throws IOException {
+        Path path = pathFor(ref);
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException("Biometric blob not found: " + ref);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Streams a blob from its memory mapping
+     */
+    public InputStream open(String ref) throws IOException {
+        return new MappedInputStream(map(ref));
+    }
+
+    public boolean exists(String ref) {
+        return ref != null && Files.exists(pathFor(ref));
+    }
+
+    /**
+     * Deletes blobs no biometric_data row refers to. Runs on biometric.blob-store.sweep-cron;
+     * disabled by default.
+     *
+     * @return number of blobs deleted
+     */
+    @Scheduled(cron = "${biometric.blob-store.sweep-cron:-}")
+    public int sweepUnreferenced() {
+        Set<String> referenced = new HashSet<>();
+        jdbcTemplate.query("SELECT fingerprint_ref, facial_ref FROM biometric_data WHERE fingerprint_ref IS NOT NULL OR facial_ref IS NOT NULL",
+            (RowCallbackHandler) rs -> {
+                if (rs.getString(1) != null) {
+                    referenced.add(rs.getString(1));
+                }
+                if (rs.getString(2) != null) {
+                    referenced.add(rs.getString(2));
+                }
+            });
+
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(sweepGraceMinutes));
+        int deleted = 0;
+        try (Stream<Path> files = Stream.concat(Files.walk(objects), Files.list(staging))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!Files.isRegularFile(file) || referenced.contains(file.getFileName().toString())) {
+                    continue;
+                }
+                if (deleteIfOlder(file, cutoff)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        blobsSwept.addAndGet(deleted);
+        if (deleted > 0) {
+            System.out.println("🧹 BiometricBlobStore: Deleted " + deleted + " unreferenced blobs");
+        }
+        return deleted;
+    }
+
+    public long getBlobsStored() { return blobsStored.sum(); }
+
+    public long getBlobsDeduplicated() { return blobsDeduplicated.sum(); }
+
+    public long getBlobsSwept() { return blobsSwept.get(); }
+
+    /**
+     * Marks a stored blob as just used, so a running sweep leaves it alone
+     *
+     * @return false if the blob is not stored, or the sweep has just deleted it
+     */
+    private boolean touch(Path blob) throws IOException {
+        synchronized (sweepLock) {
+            try {
+                Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+                return true;
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+    }
+
+    private boolean deleteIfOlder(Path file, Instant cutoff) throws IOException {
+        synchronized (sweepLock) {
+            try {
+                return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && Files.deleteIfExists(file);
+            } catch (NoSuchFileException e) {
+                // Staged file moved into place or discarded since the listing
+                return false;
+            }
+        }
+    }
+
+    private Path pathFor(String ref) {
+        if (ref == null || ref.length() != ADDRESS_LENGTH) {
+            throw new IllegalArgumentException("Invalid biometric blob reference");
+        }
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                throw new IllegalArgumentException("Invalid biometric blob reference");
+            }
+        }
+        return objects.resolve(ref.substring(0, 2)).resolve(ref);
+    }
+
+    private static final class MappedInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        MappedInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.min(Math.max(n, 0), buffer.remaining());
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package com.jilindecredit.api.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envelope encryption for stored biometric data.
+ *
+ * Every record is encrypted with its own random AES-256 data key under AES-GCM. The data key is
+ * wrapped (AES key wrap, RFC 3394) with a master key held in a PKCS12 keystore, and the wrapped
+ * key travels with the ciphertext:
+ *
+ *   version(1) | aliasLength(1) | alias | wrappedKeyLength(2) | wrappedKey | iv(12) | ciphertext+tag(16)
+ *
+ * The header is authenticated as GCM additional data. Keeping the master key alias in every
+ * record lets the master key be rotated by adding a new alias; older records still decrypt.
+ *
+ * Ciphers are pooled, as Cipher.getInstance is far more expensive than init, and data is fed to
+ * GCM in large chunks so the JDK's AES-NI/CLMUL intrinsics run over full buffers.
+ *
+ * A separate HMAC key gives each plaintext a content address, so identical captures can be stored
+ * once even though every envelope is encrypted differently, without the address revealing the content.
+ */
+@Service
+public class BiometricCryptoService {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int DATA_KEY_BYTES = 32;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    @Value("${biometric.crypto.keystore-path:./data/biometric-keystore.p12}")
+    private String keystorePath;
+
+    // No default: every environment supplies its own password
+    @Value("${biometric.crypto.keystore-password}")
+    private String keystorePassword;
+
+    @Value("${biometric.crypto.master-key-alias:biometric-master-1}")
+    private String masterKeyAlias;
+
+    @Value("${biometric.crypto.address-key-alias:biometric-blob-address}")
+    private String addressKeyAlias;
+
+    // Creates the keystore with fresh keys when it does not exist; enabled by the dev profile only
+    @Value("${biometric.crypto.create-if-missing:false}")
+    private boolean createIfMissing;
+
+    @Value("${biometric.crypto.chunk-size:65536}")
+    private int chunkSize;
+
+    @Value("${biometric.crypto.max-pooled-ciphers:64}")
+    private int maxPooledCiphers;
+
+    private Map<String, SecretKey> masterKeys;
+    private SecretKey masterKey;
+    private byte[] masterKeyAliasBytes;
+    private SecretKey addressKey;
+
+    private ArrayBlockingQueue<Cipher> gcmCiphers;
+    private ArrayBlockingQueue<Cipher> wrapCiphers;
+    private final ThreadLocal<SecureRandom> random = ThreadLocal.withInitial(SecureRandom::new);
+
+    private final LongAdder recordsEncrypted = new LongAdder();
+    private final LongAdder bytesEncrypted = new LongAdder();
+    private final LongAdder encryptNanos = new LongAdder();
+    private final LongAdder recordsDecrypted = new LongAdder();
+    private final LongAdder bytesDecrypted = new LongAdder();
+    private final LongAdder decryptNanos = new LongAdder();
+    private final LongAdder authenticationFailures = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException, GeneralSecurityException {
+        if (chunkSize <= 0 || chunkSize % 16 != 0) {
+            throw new IllegalStateException("biometric.crypto.chunk-size must be a positive multiple of the AES block size (16)");
+        }
+        if (keystorePassword == null || keystorePassword.isBlank()) {
+            throw new IllegalStateException("biometric.crypto.keystore-password must be set");
+        }
+        gcmCiphers = new ArrayBlockingQueue<>(maxPooledCiphers);
+        wrapCiphers = new ArrayBlockingQueue<>(maxPooledCiphers);
+
+        char[] password = keystorePassword.toCharArray();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        Path path = Paths.get(keystorePath);
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                keyStore.load(in, password);
+            }
+        } else if (createIfMissing) {
+            keyStore.load(null, password);
+            System.out.println("⚠️ BiometricCryptoService: Keystore " + path + " not found, creating it with a new master key. "
+                + "Provision a managed keystore for production.");
+        } else {
+            // A new key could not decrypt anything stored so far, so never make one silently
+            throw new IllegalStateException("Biometric keystore not found: " + path.toAbsolutePath()
+                + ". Restore it or point biometric.crypto.keystore-path at it; stored captures cannot be decrypted without it");
+        }
+
+        boolean created = createKeyIfMissing(keyStore, masterKeyAlias, password);
+        created |= createKeyIfMissing(keyStore, addressKeyAlias, password);
+        if (created) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(path)) {
+                keyStore.store(out, password);
+            }
+        }
+
+        KeyStore.SecretKeyEntry addressEntry = (KeyStore.SecretKeyEntry) keyStore.getEntry(addressKeyAlias, new KeyStore.PasswordProtection(password));
+        addressKey = new SecretKeySpec(addressEntry.getSecretKey().getEncoded(), "HmacSHA256");
+
+        // Every other secret key in the store can decrypt; only the configured one encrypts
+        Map<String, SecretKey> keys = new HashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (!alias.equals(addressKeyAlias) && keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                KeyStore.SecretKeyEntry entry = (KeyStore.SecretKeyEntry) keyStore.getEntry(alias, new KeyStore.PasswordProtection(password));
+                keys.put(alias, entry.getSecretKey());
+            }
+        }
+        masterKeys = Collections.unmodifiableMap(keys);
+        masterKey = masterKeys.get(masterKeyAlias);
+        masterKeyAliasBytes = masterKeyAlias.getBytes(StandardCharsets.UTF_8);
+        if (masterKeyAliasBytes.length > 255) {
+            throw new IllegalStateException("Master key alias is too long");
+        }
+        System.out.println("🔐 BiometricCryptoService: Using master key " + masterKeyAlias + " (" + masterKeys.size() + " key(s) loaded)");
+    }
+
+    private boolean createKeyIfMissing(KeyStore keyStore, String alias, char[] password) throws GeneralSecurityException {
+        if (keyStore.containsAlias(alias)) {
+            return false;
+        }
+        if (!createIfMissing) {
+            throw new IllegalStateException("Key " + alias + " not found in " + keystorePath
+                + "; add it to the keystore or fix the configured alias");
+        }
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(generator.generateKey()), new KeyStore.PasswordProtection(password));
+        return true;
+    }
+
+    /**
+     * A MAC for computing a content address incrementally; see address(byte[])
+     */
+    public Mac newAddressMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(addressKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Content address of a plaintext: hex HMAC-SHA256 under the address key
+     */
+    public String address(byte[] plaintext) {
+        return toHex(newAddressMac().doFinal(plaintext));
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = Character.forDigit((bytes[i] >> 4) & 0xF, 16);
+            hex[2 * i + 1] = Character.forDigit(bytes[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Encrypts a whole record into one envelope
+     */
+    public byte[] encrypt(byte[] plaintext) {
+        long started = System.nanoTime();
+        Cipher gcm = acquire(gcmCiphers, "AES/GCM/NoPadding");
+        try {
+            byte[] header = newHeader(gcm);
+            byte[] envelope = new byte[header.length + gcm.getOutputSize(plaintext.length)];
+            System.arraycopy(header, 0, envelope, 0, header.length);
+            gcm.doFinal(plaintext, 0, plaintext.length, envelope, header.length);
+
+            recordsEncrypted.increment();
+            bytesEncrypted.add(plaintext.length);
+            return envelope;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt biometric data", e);
+        } finally {
+            release(gcmCiphers, gcm);
+            encryptNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Opens an envelope produced by encrypt or encryptingStream
+     *
+     * @throws IllegalArgumentException if the data is not an envelope, its master key is unknown,
+     *         or it fails authentication
+     */
+    public byte[] decrypt(byte[] envelope) {
+        long started = System.nanoTime();
+        Cipher gcm = acquire(gcmCiphers, "AES/GCM/NoPadding");
+        try {
+            int headerLength = initForDecrypt(gcm, envelope);
+            if (envelope.length < headerLength + TAG_BITS / 8) {
+                throw new IllegalArgumentException("Truncated biometric record");
+            }
+            byte[] plaintext = gcm.doFinal(envelope, headerLength, envelope.length - headerLength);
+
+            recordsDecrypted.increment();
+            bytesDecrypted.add(plaintext.length);
+            return plaintext;
+        } catch (AEADBadTagException e) {
+            authenticationFailures.increment();
+            throw new IllegalArgumentException("Biometric data failed authentication");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to decrypt biometric data", e);
+        } finally {
+            release(gcmCiphers, gcm);
+            decryptNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Decrypts an envelope as it is read. GCM only releases plaintext once the tag has been
+     * checked, so the JDK buffers the ciphertext of one record internally; a record that fails
+     * authentication surfaces as an IOException from read.
+     */
+    public InputStream decryptingStream(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] start = new byte[2];
+        data.readFully(start);
+        if (start[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not an encrypted biometric record");
+        }
+        int aliasLength = start[1] & 0xFF;
+        byte[] aliasAndLength = new byte[aliasLength + 2];
+        data.readFully(aliasAndLength);
+        int wrappedLength = ((aliasAndLength[aliasLength] & 0xFF) << 8) | (aliasAndLength[aliasLength + 1] & 0xFF);
+
+        byte[] header = new byte[2 + aliasAndLength.length + wrappedLength + IV_BYTES];
+        System.arraycopy(start, 0, header, 0, 2);
+        System.arraycopy(aliasAndLength, 0, header, 2, aliasAndLength.length);
+        data.readFully(header, 2 + aliasAndLength.length, wrappedLength + IV_BYTES);
+
+        Cipher gcm = acquire(gcmCiphers, "AES/GCM/NoPadding");
+        try {
+            initForDecrypt(gcm, header);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            release(gcmCiphers, gcm);
+            throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException("Failed to decrypt biometric data", e);
+        }
+        recordsDecrypted.increment();
+        return new FilterInputStream(new CipherInputStream(in, gcm)) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    release(gcmCiphers, gcm);
+                }
+            }
+        };
+    }
+
+    /**
+     * Whether the bytes look like an envelope rather than data stored before encryption was enabled
+     */
+    public boolean isEnvelope(byte[] data) {
+        return data != null && data.length > 2 && data[0] == FORMAT_VERSION;
+    }
+
+    /**
+     * Encrypts everything written to the returned stream into one envelope on out. Closing the
+     * stream writes the authentication tag and closes out.
+     */
+    public OutputStream encryptingStream(OutputStream out) throws IOException {
+        Cipher gcm = acquire(gcmCiphers, "AES/GCM/NoPadding");
+        try {
+            out.write(newHeader(gcm));
+        } catch (GeneralSecurityException e) {
+            release(gcmCiphers, gcm);
+            throw new IllegalStateException("Failed to start biometric encryption", e);
+        }
+        return new EncryptingOutputStream(out, gcm);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("masterKeyAlias", masterKeyAlias);
+        metrics.put("recordsEncrypted", recordsEncrypted.sum());
+        metrics.put("bytesEncrypted", bytesEncrypted.sum());
+        metrics.put("encryptMBPerSecond", throughput(bytesEncrypted.sum(), encryptNanos.sum()));
+        metrics.put("recordsDecrypted", recordsDecrypted.sum());
+        metrics.put("bytesDecrypted", bytesDecrypted.sum());
+        metrics.put("decryptMBPerSecond", throughput(bytesDecrypted.sum(), decryptNanos.sum()));
+        metrics.put("authenticationFailures", authenticationFailures.sum());
+        metrics.put("pooledCiphers", gcmCiphers.size());
+        return metrics;
+    }
+
+    private static double throughput(long bytes, long nanos) {
+        return nanos == 0 ? 0.0 : (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Generates a data key and IV, initialises the cipher with them, and returns the envelope header
+     */
+    private byte[] newHeader(Cipher gcm) throws GeneralSecurityException {
+        SecureRandom secureRandom = random.get();
+        byte[] keyBytes = new byte[DATA_KEY_BYTES];
+        secureRandom.nextBytes(keyBytes);
+        SecretKey dataKey = new SecretKeySpec(keyBytes, "AES");
+        byte[] iv = new byte[IV_BYTES];
+        secureRandom.nextBytes(iv);
+
+        byte[] wrappedKey;
+        Cipher wrap = acquire(wrapCiphers, "AESWrap");
+        try {
+            wrap.init(Cipher.WRAP_MODE, masterKey);
+            wrappedKey = wrap.wrap(dataKey);
+        } finally {
+            release(wrapCiphers, wrap);
+        }
+
+        byte[] header = new byte[2 + masterKeyAliasBytes.length + 2 + wrappedKey.length + IV_BYTES];
+        int p = 0;
+        header[p++] = FORMAT_VERSION;
+        header[p++] = (byte) masterKeyAliasBytes.length;
+        System.arraycopy(masterKeyAliasBytes, 0, header, p, masterKeyAliasBytes.length);
+        p += masterKeyAliasBytes.length;
+        header[p++] = (byte) (wrappedKey.length >>> 8);
+        header[p++] = (byte) wrappedKey.length;
+        System.arraycopy(wrappedKey, 0, header, p, wrappedKey.length);
+        p += wrappedKey.length;
+        System.arraycopy(iv, 0, header, p, IV_BYTES);
+
+        gcm.init(Cipher.ENCRYPT_MODE, dataKey, new GCMParameterSpec(TAG_BITS, iv));
+        gcm.updateAAD(header);
+        return header;
+    }
+
+    /**
+     * Parses the header at the start of data, unwraps the data key and initialises the cipher
+     *
+     * @return the header length, where the ciphertext starts
+     */
+    private int initForDecrypt(Cipher gcm, byte[] envelope) throws GeneralSecurityException {
+        if (!isEnvelope(envelope)) {
+            throw new IllegalArgumentException("Not an encrypted biometric record");
+        }
+        int p = 1;
+        int aliasLength = envelope[p++] & 0xFF;
+        if (envelope.length < p + aliasLength + 2) {
+            throw new IllegalArgumentException("Truncated biometric record");
+        }
+        String alias = new String(envelope, p, aliasLength, StandardCharsets.UTF_8);
+        p += aliasLength;
+        int wrappedLength = ((envelope[p] & 0xFF) << 8) | (envelope[p + 1] & 0xFF);
+        p += 2;
+        if (envelope.length < p + wrappedLength + IV_BYTES) {
+            throw new IllegalArgumentException("Truncated biometric record");
+        }
+
+        SecretKey key = masterKeys.get(alias);
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown master key: " + alias);
+        }
+        SecretKey dataKey;
+        Cipher wrap = acquire(wrapCiphers, "AESWrap");
+        try {
+            wrap.init(Cipher.UNWRAP_MODE, key);
+            byte[] wrappedKey = new byte[wrappedLength];
+            System.arraycopy(envelope, p, wrappedKey, 0, wrappedLength);
+            dataKey = (SecretKey) wrap.unwrap(wrappedKey, "AES", Cipher.SECRET_KEY);
+        } finally {
+            release(wrapCiphers, wrap);
+        }
+        p += wrappedLength;
+
+        gcm.init(Cipher.DECRYPT_MODE, dataKey, new GCMParameterSpec(TAG_BITS, envelope, p, IV_BYTES));
+        p += IV_BYTES;
+        gcm.updateAAD(envelope, 0, p);
+        return p;
+    }
+
+    private static Cipher acquire(ArrayBlockingQueue<Cipher> pool, String transformation) {
+        Cipher cipher = pool.poll();
+        if (cipher != null) {
+            return cipher;
+        }
+        try {
+            return Cipher.getInstance(transformation);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(transformation + " is not available", e);
+        }
+    }
+
+    private static void release(ArrayBlockingQueue<Cipher> pool, Cipher cipher) {
+        // Ciphers are always re-initialised with a fresh key before use
+        pool.offer(cipher);
+    }
+
+    /**
+     * Feeds GCM in chunk-size slices through one reusable output buffer
+     */
+    private final class EncryptingOutputStream extends FilterOutputStream {
+        private final Cipher gcm;
+        private final byte[] output;
+        private boolean closed;
+
+        EncryptingOutputStream(OutputStream out, Cipher gcm) {
+            super(out);
+            this.gcm = gcm;
+            // GCM may hold back up to one block, and doFinal adds the tag
+            this.output = new byte[chunkSize + 16 + TAG_BITS / 8];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long started = System.nanoTime();
+            try {
+                while (len > 0) {
+                    int slice = Math.min(len, chunkSize);
+                    int produced = gcm.update(b, off, slice, output, 0);
+                    out.write(output, 0, produced);
+                    off += slice;
+                    len -= slice;
+                    bytesEncrypted.add(slice);
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to encrypt biometric data", e);
+            } finally {
+                encryptNanos.add(System.nanoTime() - started);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            long started = System.nanoTime();
+            try {
+                int produced = gcm.doFinal(output, 0);
+                out.write(output, 0, produced);
+                recordsEncrypted.increment();
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to encrypt biometric data", e);
+            } finally {
+                encryptNanos.add(System.nanoTime() - started);
+                release(gcmCiphers, gcm);
+                out.close();
+            }
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.jilindecredit.api.service;
 
+import com.jilindecredit.api.biometric.FaceImage;
 import com.jilindecredit.api.dto.BiometricRequest;
 import com.jilindecredit.api.dto.BiometricResponse;
 import com.jilindecredit.api.model.BiometricData;
 import com.jilindecredit.api.model.Customer;
 import com.jilindecredit.api.repository.CustomerRepository;
+import com.jilindecredit.api.service.BiometricStreamService.SealedPayload;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.Base64;
 
@@ -25,6 +34,24 @@ public class BiometricService {
     @Autowired
     private DocumentVerificationService documentVerificationService;
 
+    @Autowired
+    private BiometricStreamService biometricStreamService;
+
+    @Autowired
+    private BiometricCryptoService biometricCryptoService;
+
+    @Autowired
+    private BiometricBlobStore biometricBlobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DuplicateIdentityService duplicateIdentityService;
+
+    @Autowired
+    private FaceAnalysisService faceAnalysisService;
+
     /**
      * Comprehensive KYC biometric capture including document scanning and face verification
      * Requires mobile device or camera access for live verification
@@ -44,17 +71,19 @@ public class BiometricService {
             DocumentScanResult documentResult = performDocumentScanning(request);
             
             // STEP 4: Cross-verify live face with document photo
-            boolean faceDocumentMatch = crossVerifyFaceWithDocument(
-                faceResult.faceData, documentResult.documentPhotoData
-            );
+            double faceDocumentSimilarity = crossVerifyFaceWithDocument(faceResult, documentResult);
 
-            if (!faceDocumentMatch) {
+            if (faceDocumentSimilarity < faceAnalysisService.getMatchThreshold()) {
                 throw new IllegalArgumentException("🚨 SECURITY ALERT: Live face does not match document photo. KYC verification failed for security reasons.");
             }
 
             // STEP 5: Validate extracted document data against customer profile
             validateDocumentDataConsistency(customer, documentResult.extractedData);
 
+            // STEP 6: Search the enrolled population for the same face under another identity
+            DuplicateIdentityService.DuplicateCheck duplicateCheck =
+                duplicateIdentityService.check(CaptureType.FACIAL, customer.getId(), faceResult.template);
+
             // Get or create biometric data
             BiometricData biometricData = customer.getBiometricData();
             if (biometricData == null) {
@@ -78,18 +107,46 @@ public class BiometricService {
             // Generate secure biometric hash
             String biometricHash = generateKycBiometricHash(request, faceResult, documentResult);
             biometricData.setBiometricHash(biometricHash);
+            biometricData.setDuplicateCandidates(duplicateCheck.isDuplicateSuspected() ? duplicateCheck.describeCandidates() : null);
+
+            // A check cut short by its time budget or an index rebuild may have missed a match, so it is reviewed too
+            if (duplicateCheck.isDuplicateSuspected() || !duplicateCheck.isComplete()) {
+                // Held for manual review rather than rejected: a match is a lead, not proof
+                if (!duplicateCheck.isComplete()) {
+                    System.out.println("⏱️ BiometricService: Duplicate check for customer " + customer.getId()
+                        + " did not cover the whole population; held for review");
+                }
+                biometricData.setVerificationStatus(BiometricData.VerificationStatus.PENDING);
+                customerRepository.save(customer);
+                enrollAfterCommit(CaptureType.FACIAL, customer.getId(), () -> duplicateIdentityService.enroll(CaptureType.FACIAL, customer.getId(), faceResult.template));
+
+                BiometricResponse response = new BiometricResponse(
+                    customer.getId(),
+                    "PENDING",
+                    false,
+                    "⚠️ Your biometric verification needs a manual review before KYC can be completed. We will contact you shortly."
+                );
+                response.setMatchScore(faceDocumentSimilarity);
+                response.setDuplicateSuspected(duplicateCheck.isDuplicateSuspected());
+                return response;
+            }
+
             biometricData.setVerificationStatus(BiometricData.VerificationStatus.VERIFIED);
             biometricData.setVerificationDate(LocalDateTime.now());
 
             customerRepository.save(customer);
+            enrollAfterCommit(CaptureType.FACIAL, customer.getId(), () -> duplicateIdentityService.enroll(CaptureType.FACIAL, customer.getId(), faceResult.template));
 
-            return new BiometricResponse(
+            BiometricResponse response = new BiometricResponse(
                 customer.getId(),
                 "VERIFIED",
                 true,
                 "✅ KYC Biometric verification completed successfully. Live face verified against document photo with " + 
                 String.format("%.1f", qualityScore) + "% confidence."
             );
+            response.setMatchScore(faceDocumentSimilarity);
+            response.setDuplicateSuspected(false);
+            return response;
 
         } catch (IllegalArgumentException e) {
             return new BiometricResponse(
@@ -132,6 +189,14 @@ public class BiometricService {
                 biometricData.setVerificationDate(LocalDateTime.now());
 
                 customerRepository.save(customer);
+                if (hasCapture(request.getFingerprintData())) {
+                    byte[] fingerprint = request.getFingerprintData().getBytes(StandardCharsets.UTF_8);
+                    enrollAfterCommit(CaptureType.FINGERPRINT, customer.getId(), () -> duplicateIdentityService.enroll(CaptureType.FINGERPRINT, customer.getId(), fingerprint));
+                }
+                if (hasCapture(request.getFacialData())) {
+                    byte[] facial = request.getFacialData().getBytes(StandardCharsets.UTF_8);
+                    enrollAfterCommit(CaptureType.FACIAL, customer.getId(), () -> duplicateIdentityService.enroll(CaptureType.FACIAL, customer.getId(), facial));
+                }
 
                 return new BiometricResponse(
                     customer.getId(),
@@ -206,6 +271,197 @@ public class BiometricService {
         }
     }
 
+    /**
+     * Same as captureBiometric for raw captures streamed as multipart parts instead of Base64 JSON.
+     * Each capture is hashed and sealed chunk by chunk and written to the database as a stream,
+     * without loading the customer's existing biometric data.
+     *
+     * @param fingerprint raw capture, or null if not provided
+     * @param facial raw capture, or null if not provided
+     */
+    public BiometricResponse captureBiometricStream(Long customerId, InputStream fingerprint, InputStream facial,
+                                                    String captureQuality, String deviceInfo) throws IOException {
+        if (!customerRepository.existsById(customerId)) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+        if (fingerprint == null && facial == null) {
+            throw new IllegalArgumentException("No biometric data provided");
+        }
+        if (captureQuality == null || captureQuality.equals("LOW")) {
+            return new BiometricResponse(
+                customerId,
+                "FAILED",
+                false,
+                "Biometric data capture failed. Please try again with better quality data."
+            );
+        }
+
+        // Fingerprint first, then facial: the same order generateBiometricHash concatenates them in
+        MessageDigest digest = BiometricStreamService.newDigest();
+        try (SealedPayload sealedFingerprint = fingerprint != null ? biometricStreamService.seal(fingerprint, digest) : null;
+             SealedPayload sealedFacial = facial != null ? biometricStreamService.seal(facial, digest) : null) {
+
+            if (present(sealedFingerprint) == null && present(sealedFacial) == null) {
+                throw new IllegalArgumentException("No biometric data provided");
+            }
+
+            String biometricHash = Base64.getEncoder().encodeToString(digest.digest());
+            storeStreamedCapture(customerId, present(sealedFingerprint), present(sealedFacial), biometricHash, deviceInfo);
+
+            System.out.println("🔐 BiometricService: Streamed capture stored for customer " + customerId + " ("
+                + (sealedFingerprint != null ? sealedFingerprint.getRawBytes() : 0) + " + "
+                + (sealedFacial != null ? sealedFacial.getRawBytes() : 0) + " bytes)");
+
+            BiometricResponse response = new BiometricResponse(
+                customerId,
+                "VERIFIED",
+                true,
+                "Biometric data captured and verified successfully"
+            );
+            response.setBiometricHash(biometricHash);
+            return response;
+        }
+    }
+
+    /**
+     * Same as verifyBiometric for raw captures streamed as multipart parts; only the stored hash is read
+     */
+    public BiometricResponse verifyBiometricStream(Long customerId, InputStream fingerprint, InputStream facial) throws IOException {
+        if (!customerRepository.existsById(customerId)) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+
+        String storedHash = jdbcTemplate.query(
+            "SELECT biometric_hash FROM biometric_data WHERE customer_id = ?",
+            (ResultSetExtractor<String>) rs -> rs.next() ? rs.getString(1) : null,
+            customerId);
+        if (storedHash == null) {
+            return new BiometricResponse(
+                customerId,
+                "FAILED",
+                false,
+                "No biometric data found for customer"
+            );
+        }
+
+        MessageDigest digest = BiometricStreamService.newDigest();
+        if (fingerprint != null) {
+            biometricStreamService.digest(fingerprint, digest);
+        }
+        if (facial != null) {
+            biometricStreamService.digest(facial, digest);
+        }
+        String incomingHash = Base64.getEncoder().encodeToString(digest.digest());
+
+        boolean matches = storedHash.equals(incomingHash);
+        BiometricResponse response = new BiometricResponse(
+            customerId,
+            matches ? "VERIFIED" : "FAILED",
+            matches,
+            matches ? "Biometric verification successful" : "Biometric verification failed"
+        );
+        response.setMatchScore(matches ? 0.95 : 0.45);
+        response.setBiometricHash(incomingHash);
+        return response;
+    }
+
+    /**
+     * Moves the sealed captures into the blob store and points the row at them. Absent captures
+     * leave the stored reference as it is, like the JSON path does.
+     */
+    private void storeStreamedCapture(Long customerId, SealedPayload fingerprint, SealedPayload facial,
+                                      String biometricHash, String deviceInfo) throws IOException {
+        String fingerprintRef = fingerprint != null ? biometricBlobStore.store(fingerprint.getFile(), fingerprint.getAddress()) : null;
+        String facialRef = facial != null ? biometricBlobStore.store(facial.getFile(), facial.getAddress()) : null;
+        // Enrolled from the stored blobs, as the captures were never held in memory
+        if (fingerprintRef != null) {
+            enrollAfterCommit(CaptureType.FINGERPRINT, customerId, () -> duplicateIdentityService.enrollStored(CaptureType.FINGERPRINT, customerId, fingerprintRef));
+        }
+        if (facialRef != null) {
+            enrollAfterCommit(CaptureType.FACIAL, customerId, () -> duplicateIdentityService.enrollStored(CaptureType.FACIAL, customerId, facialRef));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = jdbcTemplate.update(
+            "UPDATE biometric_data SET fingerprint_ref = COALESCE(?, fingerprint_ref), facial_ref = COALESCE(?, facial_ref), " +
+            "biometric_hash = ?, verification_status = ?, verification_date = ?, device_info = COALESCE(?, device_info) " +
+            "WHERE customer_id = ?",
+            fingerprintRef, facialRef, biometricHash, BiometricData.VerificationStatus.VERIFIED.name(), now, deviceInfo, customerId);
+        if (updated == 0) {
+            jdbcTemplate.update(
+                "INSERT INTO biometric_data (fingerprint_ref, facial_ref, biometric_hash, verification_status, verification_date, " +
+                "device_info, customer_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                fingerprintRef, facialRef, biometricHash, BiometricData.VerificationStatus.VERIFIED.name(), now, deviceInfo, customerId, now);
+        }
+    }
+
+    /**
+     * Streams a stored capture, decrypted, in the Base64 form it was submitted in. Only the row's
+     * reference is read up front; the blob is read from its memory mapping as the caller consumes it.
+     *
+     * @return the capture, or null if none is stored
+     */
+    @Transactional(readOnly = true)
+    public InputStream openBiometricCapture(Long customerId, CaptureType type) throws IOException {
+        String column = type == CaptureType.FINGERPRINT ? "fingerprint_ref" : "facial_ref";
+        String ref = jdbcTemplate.query(
+            "SELECT " + column + " FROM biometric_data WHERE customer_id = ?",
+            (ResultSetExtractor<String>) rs -> rs.next() ? rs.getString(1) : null,
+            customerId);
+        if (ref == null) {
+            return null;
+        }
+        return biometricCryptoService.decryptingStream(biometricBlobStore.open(ref));
+    }
+
+    public enum CaptureType {
+        FINGERPRINT, FACIAL
+    }
+
+    private static boolean hasCapture(String capture) {
+        return capture != null && !capture.isEmpty();
+    }
+
+    /**
+     * Journals a capture for the other nodes' duplicate-identity indexes in this transaction, and
+     * indexes it on this node once the transaction commits
+     */
+    private void enrollAfterCommit(CaptureType type, Long customerId, Runnable enrollment) {
+        duplicateIdentityService.recordEnrollment(type, customerId);
+        afterCommit(enrollment);
+    }
+
+    /**
+     * Runs a duplicate-identity index update once the surrounding transaction commits, so a
+     * rolled-back capture never turns up as a match for someone else
+     */
+    private void afterCommit(Runnable indexUpdate) {
+        Runnable update = () -> {
+            try {
+                indexUpdate.run();
+            } catch (RuntimeException e) {
+                System.err.println("❌ BiometricService: Could not update the duplicate-identity index: " + e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * An empty part counts as not provided, as an empty Base64 string does in the JSON path
+     */
+    private static SealedPayload present(SealedPayload payload) {
+        return payload != null && payload.getRawBytes() > 0 ? payload : null;
+    }
+
     private boolean processBiometricData(BiometricData biometricData, BiometricRequest request) {
         try {
             // In a real implementation, this would:
@@ -214,15 +470,13 @@ public class BiometricService {
             // 3. Encrypt data using AES-256
             // 4. Store encrypted data
 
-            // Mock implementation - store encrypted Base64 data
+            // Encrypted captures go to the blob store; the row keeps their references
             if (request.getFingerprintData() != null && !request.getFingerprintData().isEmpty()) {
-                byte[] encryptedFingerprint = encryptBiometricData(request.getFingerprintData());
-                biometricData.setFingerprintData(encryptedFingerprint);
+                biometricData.setFingerprintRef(storeBiometricData(request.getFingerprintData()));
             }
 
             if (request.getFacialData() != null && !request.getFacialData().isEmpty()) {
-                byte[] encryptedFacial = encryptBiometricData(request.getFacialData());
-                biometricData.setFacialData(encryptedFacial);
+                biometricData.setFacialRef(storeBiometricData(request.getFacialData()));
             }
 
             // Validate data quality (mock)
@@ -233,15 +487,15 @@ public class BiometricService {
         }
     }
 
-    private byte[] encryptBiometricData(String data) {
-        // Mock encryption - in real implementation, use AES-256
-        // This would integrate with a proper encryption service
-        try {
-            // Simple Base64 encoding as placeholder for AES-256 encryption
-            return Base64.getEncoder().encode(data.getBytes(StandardCharsets.UTF_8));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to encrypt biometric data", e);
-        }
+    /**
+     * Encrypts a capture (AES-256-GCM under a per-record data key, see BiometricCryptoService)
+     * and stores it under its content address
+     *
+     * @return the blob reference
+     */
+    private String storeBiometricData(String data) throws IOException {
+        byte[] plaintext = data.getBytes(StandardCharsets.UTF_8);
+        return biometricBlobStore.store(biometricCryptoService.encrypt(plaintext), biometricCryptoService.address(plaintext));
     }
 
     private boolean validateBiometricQuality(BiometricRequest request) {
@@ -255,7 +509,7 @@ public class BiometricService {
         return quality != null && !quality.equals("LOW");
     }
 
-    private String generateBiometricHash(BiometricRequest request) {
+    String generateBiometricHash(BiometricRequest request) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             
@@ -308,23 +562,32 @@ public class BiometricService {
      */
     private LiveFaceResult performLiveFaceVerification(BiometricRequest request) {
         String faceData = request.getFacialData();
-        if (faceData == null || faceData.length() < 100) {
+        FaceImage selfie = null;
+        if (faceData != null && faceData.length() >= 100) {
+            try {
+                selfie = faceAnalysisService.decode(faceData.getBytes(StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                System.err.println("❌ BiometricService: Unreadable face capture: " + e.getMessage());
+            }
+        }
+        if (selfie == null) {
             throw new IllegalArgumentException("📸 Invalid face capture. Please ensure:\n• Good lighting on your face\n• Face is clearly visible and centered\n• Remove glasses/masks if possible\n• Hold device steady");
         }
+        FaceImage face = faceAnalysisService.faceRegion(selfie);
 
-        // Simulate liveness detection
-        boolean livenessDetected = simulateLivenessDetection(faceData);
-        if (!livenessDetected) {
+        // Liveness detection
+        double livenessScore = faceAnalysisService.livenessScore(face);
+        if (livenessScore < faceAnalysisService.getLivenessThreshold()) {
             throw new IllegalArgumentException("🤖 Liveness detection failed. Please ensure:\n• You are physically present (not using a photo)\n• Look directly at camera\n• Blink naturally during capture\n• Avoid using photos or videos");
         }
 
-        // Simulate face quality assessment
-        double faceQuality = simulateFaceQualityAssessment(faceData);
-        if (faceQuality < 70.0) {
+        // Face quality assessment, on the whole capture
+        double faceQuality = faceAnalysisService.qualityScore(selfie);
+        if (faceQuality < faceAnalysisService.getMinQuality()) {
             throw new IllegalArgumentException("📷 Face image quality too low (" + String.format("%.1f", faceQuality) + "%). Please:\n• Ensure good lighting\n• Clean camera lens\n• Face camera directly\n• Remove shadows from face");
         }
 
-        return new LiveFaceResult(faceData, livenessDetected, faceQuality);
+        return new LiveFaceResult(faceData, true, faceQuality, faceAnalysisService.extractTemplate(face));
     }
 
     /**
@@ -336,8 +599,15 @@ public class BiometricService {
             throw new IllegalArgumentException("📄 Document scan required. Please:\n• Scan your ID document using device camera\n• Ensure document is well-lit\n• All text must be clearly visible\n• Scan both sides for National ID");
         }
 
-        // Simulate document quality assessment
-        double documentQuality = simulateDocumentQualityAssessment(documentData);
+        FaceImage documentImage;
+        try {
+            documentImage = faceAnalysisService.decode(documentData.getBytes(StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("📄 Document scan could not be read. Please scan your ID document again using the device camera.");
+        }
+
+        // Document quality assessment
+        double documentQuality = faceAnalysisService.qualityScore(documentImage);
         if (documentQuality < 75.0) {
             throw new IllegalArgumentException("📄 Document scan quality too low (" + String.format("%.1f", documentQuality) + "%). Please:\n• Ensure document is well-lit\n• All text is clearly readable\n• No shadows or glare on document\n• Hold camera steady while scanning");
         }
@@ -345,26 +615,24 @@ public class BiometricService {
         // Simulate OCR extraction
         java.util.Map<String, String> extractedData = simulateOcrExtraction(documentData);
         
-        // Simulate document photo extraction
-        String documentPhotoData = simulateDocumentPhotoExtraction(documentData);
+        // Portrait printed on the document
+        FaceImage documentPortrait = faceAnalysisService.documentPortrait(documentImage);
 
-        return new DocumentScanResult(documentData, documentQuality, extractedData, documentPhotoData);
+        return new DocumentScanResult(documentData, documentQuality, extractedData, documentPortrait);
     }
 
     /**
      * Cross-verifies live face capture with document photo
+     *
+     * @return similarity from 0 to 1
      */
-    private boolean crossVerifyFaceWithDocument(String liveFaceData, String documentPhotoData) {
-        if (liveFaceData == null || documentPhotoData == null) {
-            return false;
-        }
+    private double crossVerifyFaceWithDocument(LiveFaceResult faceResult, DocumentScanResult documentResult) {
+        float[] portraitTemplate = faceAnalysisService.extractTemplate(documentResult.documentPortrait);
+        double similarity = faceAnalysisService.compare(faceResult.template, portraitTemplate);
 
-        // Simulate advanced face matching algorithm
-        double matchScore = simulateFaceMatching(liveFaceData, documentPhotoData);
-        
-        System.out.println("🔍 Face matching score: " + String.format("%.1f", matchScore) + "%");
-        
-        return matchScore > 85.0; // 85% confidence threshold for security
+        System.out.println("🔍 Face matching score: " + String.format("%.1f", similarity * 100) + "%");
+
+        return similarity;
     }
 
     /**
@@ -451,21 +719,6 @@ public class BiometricService {
     }
 
     // Simulation methods (in production, these would use real AI/ML services)
-    
-    private boolean simulateLivenessDetection(String faceData) {
-        // Simulate liveness detection based on data characteristics
-        return faceData.length() > 200 && (faceData.contains("live") || faceData.length() % 7 == 0);
-    }
-
-    private double simulateFaceQualityAssessment(String faceData) {
-        // Simulate face quality scoring
-        return Math.min(95.0, 60.0 + (faceData.length() % 35));
-    }
-
-    private double simulateDocumentQualityAssessment(String documentData) {
-        // Simulate document quality scoring
-        return Math.min(95.0, 65.0 + (documentData.length() % 30));
-    }
 
     private java.util.Map<String, String> simulateOcrExtraction(String documentData) {
         // Simulate OCR text extraction
@@ -476,28 +729,18 @@ public class BiometricService {
         return extracted;
     }
 
-    private String simulateDocumentPhotoExtraction(String documentData) {
-        // Simulate extracting photo from document
-        return "DOCUMENT_PHOTO_DATA_" + documentData.substring(0, Math.min(20, documentData.length()));
-    }
-
-    private double simulateFaceMatching(String liveFace, String documentPhoto) {
-        // Simulate face matching algorithm with realistic variance
-        double baseScore = 88.0;
-        double variance = (Math.random() * 10.0) - 5.0; // ±5% variance
-        return Math.max(75.0, Math.min(98.0, baseScore + variance));
-    }
-
     // Helper classes for KYC results
     private static class LiveFaceResult {
         final String faceData;
         final boolean livenessDetected;
         final double faceQuality;
+        final float[] template;
 
-        LiveFaceResult(String faceData, boolean livenessDetected, double faceQuality) {
+        LiveFaceResult(String faceData, boolean livenessDetected, double faceQuality, float[] template) {
             this.faceData = faceData;
             this.livenessDetected = livenessDetected;
             this.faceQuality = faceQuality;
+            this.template = template;
         }
     }
 
@@ -505,14 +748,14 @@ public class BiometricService {
         final String documentData;
         final double documentQuality;
         final java.util.Map<String, String> extractedData;
-        final String documentPhotoData;
+        final FaceImage documentPortrait;
 
         DocumentScanResult(String documentData, double documentQuality, 
-                          java.util.Map<String, String> extractedData, String documentPhotoData) {
+                          java.util.Map<String, String> extractedData, FaceImage documentPortrait) {
             this.documentData = documentData;
             this.documentQuality = documentQuality;
             this.extractedData = extractedData;
-            this.documentPhotoData = documentPhotoData;
+            this.documentPortrait = documentPortrait;
         }
     }
-}
\ No newline at end of file
+}
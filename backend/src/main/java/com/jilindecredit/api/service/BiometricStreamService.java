@@ -0,0 +1,178 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.util.ByteArrayPool;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Streams raw biometric captures through hashing and sealing in fixed-size pooled chunks, so the
+ * heap used per request does not depend on the size of the image.
+ *
+ * The hash is taken over the Base64 text of each capture, exactly as the JSON endpoints hash the
+ * Base64 strings they receive, so captures from either path verify against each other. The same
+ * text is encrypted and given its content address, so both paths also share stored blobs.
+ */
+@Service
+public class BiometricStreamService {
+
+    @Autowired
+    private BiometricCryptoService biometricCryptoService;
+
+    @Autowired
+    private BiometricBlobStore biometricBlobStore;
+
+    @Value("${biometric.stream.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${biometric.stream.pool-size:64}")
+    private int poolSize;
+
+    @Value("${biometric.stream.max-payload-bytes:20971520}")
+    private long maxPayloadBytes;
+
+    private ByteArrayPool bufferPool;
+
+    @PostConstruct
+    void init() {
+        bufferPool = new ByteArrayPool(bufferSize, poolSize);
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Adds the capture's Base64 text to the digest and writes its encrypted form to a blob store
+     * staging file, in one pass over the input
+     *
+     * @throws IllegalArgumentException if the capture is larger than biometric.stream.max-payload-bytes
+     */
+    public SealedPayload seal(InputStream raw, MessageDigest digest) throws IOException {
+        Path file = biometricBlobStore.newStagingFile();
+        try {
+            long rawBytes;
+            Mac address = biometricCryptoService.newAddressMac();
+            // raw -> Base64 (hashed and addressed, as the JSON path sees it) -> encrypted -> staging file
+            try (OutputStream encoded = Base64.getEncoder().wrap(
+                    new DigestOutputStream(new MacOutputStream(sealingStream(Files.newOutputStream(file)), address), digest))) {
+                rawBytes = pump(raw, encoded);
+            }
+            return new SealedPayload(file, BiometricCryptoService.toHex(address.doFinal()), rawBytes);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Adds the capture's Base64 text to the digest without keeping the data
+     *
+     * @return the number of raw bytes read
+     */
+    public long digest(InputStream raw, MessageDigest digest) throws IOException {
+        try (OutputStream encoded = Base64.getEncoder().wrap(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            return pump(raw, encoded);
+        }
+    }
+
+    /**
+     * Stored form of a capture, matching what BiometricService keeps for JSON uploads. The Base64
+     * encoder emits small pieces, so they are gathered into full buffers before encryption.
+     */
+    private OutputStream sealingStream(OutputStream out) throws IOException {
+        try {
+            return new BufferedOutputStream(biometricCryptoService.encryptingStream(out), bufferSize);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    private long pump(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = bufferPool.acquire();
+        try {
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxPayloadBytes) {
+                    throw new IllegalArgumentException("Biometric capture exceeds the maximum size of " + maxPayloadBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+            return total;
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    /**
+     * Feeds everything written through it to a MAC
+     */
+    private static final class MacOutputStream extends FilterOutputStream {
+        private final Mac mac;
+
+        MacOutputStream(OutputStream out, Mac mac) {
+            super(out);
+            this.mac = mac;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            mac.update((byte) b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            mac.update(b, off, len);
+            out.write(b, off, len);
+        }
+    }
+
+    /**
+     * A sealed capture in the blob store's staging area, ready for BiometricBlobStore.store;
+     * closing it deletes the staging file if it was not stored
+     */
+    public static final class SealedPayload implements AutoCloseable {
+        private final Path file;
+        private final String address;
+        private final long rawBytes;
+
+        SealedPayload(Path file, String address, long rawBytes) {
+            this.file = file;
+            this.address = address;
+            this.rawBytes = rawBytes;
+        }
+
+        public Path getFile() { return file; }
+
+        public String getAddress() { return address; }
+
+        public long getRawBytes() { return rawBytes; }
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+}
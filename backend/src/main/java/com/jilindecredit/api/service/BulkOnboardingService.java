@@ -0,0 +1,417 @@
+package com.jilindecredit.api.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jilindecredit.api.dto.BulkImportResult;
+import com.jilindecredit.api.dto.OnboardingRequest;
+import com.jilindecredit.api.model.Customer;
+import com.jilindecredit.api.model.CustomerProfile;
+import com.jilindecredit.api.model.User;
+import com.jilindecredit.api.security.CustomUserDetailsService;
+import com.jilindecredit.api.util.PhoneNumbers;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Imports applicants collected offline by field agents.
+ *
+ * The upload is read line by line, so memory use depends on the chunk size rather than the file
+ * size. Each row is validated, checked against the phone numbers and national IDs already on file
+ * (loaded once per upload) and scored, then rows are inserted a chunk at a time with JDBC batches.
+ * A chunk that fails is retried row by row so one bad applicant does not reject its neighbours.
+ */
+@Service
+public class BulkOnboardingService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String INSERT_CUSTOMER =
+        "INSERT INTO customers (customer_code, first_name, last_name, phone, phone_e164, email, national_id, " +
+        "date_of_birth, gender, address, occupation, monthly_income, marital_status, created_by, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Profiles find their customer by code, so the batch needs no generated keys back
+    private static final String INSERT_PROFILE =
+        "INSERT INTO customer_profiles (customer_id, kyc_status, onboarding_completed, digital_literacy_level, " +
+        "preferred_language, voice_assistance_enabled, phone_verified, biometric_enabled, baseline_credit_score, " +
+        "risk_category, created_at, updated_at) " +
+        "SELECT id, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM customers WHERE customer_code = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private CreditScoringService creditScoringService;
+
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private CustomerCodeGenerator customerCodeGenerator;
+
+    @Value("${onboarding.bulk-import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${onboarding.bulk-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Imports every applicant in the stream. CSV needs a header row naming the applicant fields
+     * (firstName, lastName, phone, nationalId, ...) and one applicant per line; NDJSON has one
+     * applicant object per line.
+     */
+    public BulkImportResult importApplicants(InputStream input, Format format) throws IOException {
+        long started = System.currentTimeMillis();
+        BulkImportResult result = new BulkImportResult();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        User currentUser = getCurrentUser();
+        Long createdBy = currentUser != null ? currentUser.getId() : null;
+
+        ExistingKeys keys = loadExistingKeys();
+        System.out.println("📥 BulkOnboardingService: Loaded " + keys.phones.size() + " phones and "
+            + keys.nationalIds.size() + " national IDs for duplicate checks");
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        List<String> header = null;
+        if (format == Format.CSV) {
+            String headerLine = reader.readLine();
+            lineNumber++;
+            if (headerLine == null) {
+                throw new IllegalArgumentException("CSV upload is empty; a header row is required");
+            }
+            header = parseCsvLine(headerLine);
+        }
+
+        List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            result.setTotalRows(result.getTotalRows() + 1);
+
+            OnboardingRequest request;
+            try {
+                request = format == Format.CSV
+                    ? fromCsv(header, line)
+                    : objectMapper.readValue(line, OnboardingRequest.class);
+            } catch (IOException | IllegalArgumentException e) {
+                rejectRow(result, lineNumber, fieldOf(e), "Could not read row: " + rootMessage(e));
+                continue;
+            }
+
+            PendingRow row = prepareRow(lineNumber, request, keys, result);
+            if (row != null) {
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    saveChunk(chunk, createdBy, keys, result, transactionTemplate);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, createdBy, keys, result, transactionTemplate);
+        }
+
+        result.setDurationMillis(System.currentTimeMillis() - started);
+        System.out.println("✅ BulkOnboardingService: Imported " + result.getImported() + " of " + result.getTotalRows()
+            + " applicants in " + result.getDurationMillis() + " ms (" + result.getFailed() + " rejected)");
+        return result;
+    }
+
+    /**
+     * Validates, de-duplicates and scores one applicant; returns null if the row was rejected
+     */
+    private PendingRow prepareRow(int lineNumber, OnboardingRequest request, ExistingKeys keys, BulkImportResult result) {
+        Set<ConstraintViolation<OnboardingRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            result.setFailed(result.getFailed() + 1);
+            for (ConstraintViolation<OnboardingRequest> violation : violations) {
+                addError(result, lineNumber, violation.getPropertyPath().toString(), violation.getMessage());
+            }
+            return null;
+        }
+
+        Customer.Gender gender;
+        try {
+            gender = Customer.Gender.valueOf(request.getGender().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            rejectRow(result, lineNumber, "gender", "Gender must be MALE or FEMALE");
+            return null;
+        }
+
+        String phoneE164 = PhoneNumbers.toE164(request.getPhone());
+        String nationalId = request.getNationalId().trim();
+        if (phoneE164 == null) {
+            rejectRow(result, lineNumber, "phone", "Phone number is not valid");
+            return null;
+        }
+        if (keys.phones.contains(phoneE164)) {
+            rejectRow(result, lineNumber, "phone", "Customer with this phone number already exists");
+            return null;
+        }
+        if (keys.nationalIds.contains(nationalId)) {
+            rejectRow(result, lineNumber, "nationalId", "Customer with this National ID already exists");
+            return null;
+        }
+        // Reserve both so later rows in the same upload are checked against this one
+        keys.phones.add(phoneE164);
+        keys.nationalIds.add(nationalId);
+
+        Customer customer = new Customer();
+        customer.setCustomerCode(customerCodeGenerator.nextCode());
+        customer.setFirstName(request.getFirstName());
+        customer.setLastName(request.getLastName());
+        customer.setPhone(request.getPhone());
+        customer.setEmail(request.getEmail());
+        customer.setNationalId(nationalId);
+        customer.setDateOfBirth(request.getDateOfBirth());
+        customer.setGender(gender);
+        customer.setAddress(request.getAddress());
+        customer.setOccupation(request.getOccupation());
+        customer.setMonthlyIncome(request.getMonthlyIncome());
+        customer.setMaritalStatus(request.getMaritalStatus());
+
+        BigDecimal baselineScore = creditScoringService.generateBaselineCreditScore(customer);
+        return new PendingRow(lineNumber, customer, request, baselineScore,
+            creditScoringService.determineRiskCategory(baselineScore));
+    }
+
+    private void saveChunk(List<PendingRow> chunk, Long createdBy, ExistingKeys keys,
+                           BulkImportResult result, TransactionTemplate transactionTemplate) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertRows(chunk, createdBy));
+            result.setImported(result.getImported() + chunk.size());
+            indexRows(chunk);
+            return;
+        } catch (DataAccessException e) {
+            System.err.println("❌ BulkOnboardingService: Chunk insert failed, retrying row by row: " + rootMessage(e));
+        }
+
+        List<PendingRow> saved = new ArrayList<>();
+        for (PendingRow row : chunk) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertRows(List.of(row), createdBy));
+                result.setImported(result.getImported() + 1);
+                saved.add(row);
+            } catch (DataAccessException e) {
+                keys.phones.remove(row.customer.getPhoneE164());
+                keys.nationalIds.remove(row.customer.getNationalId());
+                rejectRow(result, row.lineNumber, null, "Could not save applicant: " + rootMessage(e));
+            }
+        }
+        indexRows(saved);
+    }
+
+    private void insertRows(List<PendingRow> rows, Long createdBy) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> customerArgs = new ArrayList<>(rows.size());
+        List<Object[]> profileArgs = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            Customer c = row.customer;
+            OnboardingRequest r = row.request;
+            customerArgs.add(new Object[] {
+                c.getCustomerCode(), c.getFirstName(), c.getLastName(), c.getPhone(), c.getPhoneE164(),
+                c.getEmail(), c.getNationalId(), java.sql.Date.valueOf(c.getDateOfBirth()), c.getGender().name(),
+                c.getAddress(), c.getOccupation(), c.getMonthlyIncome(), c.getMaritalStatus(), createdBy, now, now
+            });
+            profileArgs.add(new Object[] {
+                CustomerProfile.KycStatus.PENDING.name(), false,
+                r.getDigitalLiteracyLevel() != null ? r.getDigitalLiteracyLevel() : 3,
+                r.getPreferredLanguage() != null ? r.getPreferredLanguage() : "english",
+                r.getVoiceAssistanceEnabled() != null ? r.getVoiceAssistanceEnabled() : false,
+                false, false, row.baselineScore, row.riskCategory.name(), now, now, c.getCustomerCode()
+            });
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_CUSTOMER, customerArgs);
+        jdbcTemplate.batchUpdate(INSERT_PROFILE, profileArgs);
+    }
+
+    /**
+     * Adds committed rows to the search index; ids are looked up by customer code in one query
+     */
+    private void indexRows(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<String, Customer> byCode = new HashMap<>();
+        for (PendingRow row : rows) {
+            byCode.put(row.customer.getCustomerCode(), row.customer);
+        }
+        String placeholders = String.join(",", Collections.nCopies(byCode.size(), "?"));
+        jdbcTemplate.query("SELECT id, customer_code FROM customers WHERE customer_code IN (" + placeholders + ")",
+            (RowCallbackHandler) rs -> {
+                Customer customer = byCode.get(rs.getString("customer_code"));
+                customer.setId(rs.getLong("id"));
+                customerSearchIndex.index(customer);
+            },
+            byCode.keySet().toArray());
+    }
+
+    private ExistingKeys loadExistingKeys() {
+        ExistingKeys keys = new ExistingKeys();
+        jdbcTemplate.query("SELECT phone, phone_e164, national_id FROM customers", (RowCallbackHandler) rs -> {
+            // Rows the phone backfill has not reached yet are canonicalised here
+            String phone = rs.getString("phone_e164");
+            if (phone == null) {
+                phone = PhoneNumbers.toE164(rs.getString("phone"));
+            }
+            if (phone != null) {
+                keys.phones.add(phone);
+            }
+            String nationalId = rs.getString("national_id");
+            if (nationalId != null) {
+                keys.nationalIds.add(nationalId);
+            }
+        });
+        return keys;
+    }
+
+    private OnboardingRequest fromCsv(List<String> header, String line) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Row has " + values.size() + " columns but the header has " + header.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) {
+                fields.put(header.get(i).trim(), value);
+            }
+        }
+        return objectMapper.convertValue(fields, OnboardingRequest.class);
+    }
+
+    /**
+     * Splits one CSV record; supports quoted fields with doubled quotes, not line breaks inside quotes
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(ch);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private void rejectRow(BulkImportResult result, int lineNumber, String field, String message) {
+        result.setFailed(result.getFailed() + 1);
+        addError(result, lineNumber, field, message);
+    }
+
+    private void addError(BulkImportResult result, int lineNumber, String field, String message) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResult.RowError(lineNumber, field, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String fieldOf(Exception e) {
+        Throwable cause = e;
+        while (cause != null && !(cause instanceof JsonMappingException)) {
+            cause = cause.getCause();
+        }
+        if (cause == null || ((JsonMappingException) cause).getPath().isEmpty()) {
+            return null;
+        }
+        return ((JsonMappingException) cause).getPath().get(0).getFieldName();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetailsService.CustomUserPrincipal) {
+            CustomUserDetailsService.CustomUserPrincipal userPrincipal =
+                (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+            return userPrincipal.getUser();
+        }
+        return null;
+    }
+
+    /**
+     * Phones and national IDs already taken, for this upload only
+     */
+    private static final class ExistingKeys {
+        final Set<String> phones = new HashSet<>();
+        final Set<String> nationalIds = new HashSet<>();
+    }
+
+    private static final class PendingRow {
+        final int lineNumber;
+        final Customer customer;
+        final OnboardingRequest request;
+        final BigDecimal baselineScore;
+        final CustomerProfile.RiskCategory riskCategory;
+
+        PendingRow(int lineNumber, Customer customer, OnboardingRequest request,
+                   BigDecimal baselineScore, CustomerProfile.RiskCategory riskCategory) {
+            this.lineNumber = lineNumber;
+            this.customer = customer;
+            this.request = request;
+            this.baselineScore = baselineScore;
+            this.riskCategory = riskCategory;
+        }
+    }
+}
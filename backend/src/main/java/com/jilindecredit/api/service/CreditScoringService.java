@@ -1,82 +1,133 @@
 package com.jilindecredit.api.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jilindecredit.api.model.Customer;
+import com.jilindecredit.api.model.CustomerProfile;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.Period;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CreditScoringService {
 
-    public BigDecimal generateBaselineCreditScore(Customer customer) {
-        // Basic credit scoring algorithm for baseline score
-        // In a real implementation, this would use ML models and alternative data
-        
-        double baseScore = 500.0; // Starting point
-        
-        // Age factor (older customers generally more stable)
-        if (customer.getDateOfBirth() != null) {
-            int age = Period.between(customer.getDateOfBirth(), LocalDate.now()).getYears();
-            if (age >= 25 && age <= 55) {
-                baseScore += 50; // Prime age group
-            } else if (age > 55) {
-                baseScore += 30; // Mature but stable
-            } else {
-                baseScore += 10; // Young but potentially risky
-            }
-        }
-        
-        // Income factor
-        if (customer.getMonthlyIncome() != null) {
-            double income = customer.getMonthlyIncome().doubleValue();
-            if (income >= 100000) { // High income
-                baseScore += 100;
-            } else if (income >= 50000) { // Medium income
-                baseScore += 75;
-            } else if (income >= 25000) { // Low-medium income
-                baseScore += 50;
-            } else { // Low income
-                baseScore += 25;
-            }
+    // Profile flags, as used by the batch rescoring columns
+    public static final int FLAG_EMAIL = 1;
+    public static final int FLAG_ADDRESS = 1 << 1;
+    public static final int FLAG_MARRIED = 1 << 2;
+
+    public static final int AGE_UNKNOWN = -1;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // e.g. file:/etc/jilinde/scorecard.json to manage the rules outside the jar
+    @Value("${credit-scoring.scorecard-location:classpath:scoring/scorecard.json}")
+    private String scorecardLocation;
+
+    // Replaced as a whole on reload; scoring reads it once and never waits
+    private final AtomicReference<Scorecard> scorecard = new AtomicReference<>();
+    private volatile LocalDateTime scorecardLoadedAt;
+
+    @PostConstruct
+    void loadScorecard() {
+        reloadScorecard();
+    }
+
+    /**
+     * Loads and compiles the rules file, then swaps it in. On any error the current scorecard
+     * stays in use.
+     *
+     * @return the version now in use
+     * @throws IllegalArgumentException if the file cannot be read or the rules are invalid
+     */
+    public String reloadScorecard() {
+        Scorecard compiled;
+        try (InputStream in = resourceLoader.getResource(scorecardLocation).getInputStream()) {
+            compiled = Scorecard.compile(objectMapper.readTree(in));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read scorecard from " + scorecardLocation + ": " + e.getMessage());
         }
-        
-        // Employment factor
-        if (customer.getOccupation() != null && !customer.getOccupation().isEmpty()) {
-            String occupation = customer.getOccupation().toLowerCase();
-            if (occupation.contains("government") || occupation.contains("teacher") || 
-                occupation.contains("nurse") || occupation.contains("police")) {
-                baseScore += 75; // Stable government jobs
-            } else if (occupation.contains("business") || occupation.contains("entrepreneur")) {
-                baseScore += 50; // Business owners
-            } else if (occupation.contains("farmer") || occupation.contains("agriculture")) {
-                baseScore += 40; // Agricultural sector
-            } else {
-                baseScore += 30; // Other occupations
-            }
+
+        Scorecard previous = scorecard.getAndSet(compiled);
+        scorecardLoadedAt = LocalDateTime.now();
+        System.out.println("📊 CreditScoringService: Scorecard " + compiled.getVersion() + " loaded"
+            + (previous != null ? " (was " + previous.getVersion() + ")" : ""));
+        return compiled.getVersion();
+    }
+
+    /**
+     * The scorecard in use; batch jobs hold on to one instance so a run is scored consistently
+     */
+    public Scorecard currentScorecard() {
+        return scorecard.get();
+    }
+
+    public Map<String, Object> getScorecardInfo() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("version", scorecard.get().getVersion());
+        info.put("location", scorecardLocation);
+        info.put("loadedAt", scorecardLoadedAt);
+        return info;
+    }
+
+    public BigDecimal generateBaselineCreditScore(Customer customer) {
+        Scorecard rules = scorecard.get();
+        int age = customer.getDateOfBirth() != null
+            ? ageInYears(customer.getDateOfBirth(), LocalDate.now()) : AGE_UNKNOWN;
+        double income = customer.getMonthlyIncome() != null
+            ? customer.getMonthlyIncome().doubleValue() : Double.NaN;
+        int flags = profileFlags(customer.getEmail(), customer.getAddress(), customer.getMaritalStatus());
+
+        return BigDecimal.valueOf(rules.score(age, income, rules.classifyOccupation(customer.getOccupation()), flags));
+    }
+
+    public static int profileFlags(String email, String address, String maritalStatus) {
+        int flags = 0;
+        if (email != null && !email.isEmpty()) {
+            flags |= FLAG_EMAIL;
         }
-        
-        // Contact information completeness
-        if (customer.getEmail() != null && !customer.getEmail().isEmpty()) {
-            baseScore += 25; // Has email
+        if (address != null && !address.isEmpty()) {
+            flags |= FLAG_ADDRESS;
         }
-        
-        if (customer.getAddress() != null && !customer.getAddress().isEmpty()) {
-            baseScore += 25; // Has address
+        if ("MARRIED".equalsIgnoreCase(maritalStatus)) {
+            flags |= FLAG_MARRIED;
         }
-        
-        // Marital status factor
-        if ("MARRIED".equalsIgnoreCase(customer.getMaritalStatus())) {
-            baseScore += 30; // Married customers often more stable
+        return flags;
+    }
+
+    /**
+     * Whole years between the dates, as Period.between(...).getYears() but without allocating
+     */
+    public static int ageInYears(LocalDate dateOfBirth, LocalDate today) {
+        int age = today.getYear() - dateOfBirth.getYear();
+        if (today.getMonthValue() < dateOfBirth.getMonthValue()
+            || (today.getMonthValue() == dateOfBirth.getMonthValue() && today.getDayOfMonth() < dateOfBirth.getDayOfMonth())) {
+            age--;
         }
-        
-        // Ensure score is within valid range (300-850)
-        baseScore = Math.max(300, Math.min(850, baseScore));
-        
-        return BigDecimal.valueOf(baseScore);
+        return age;
     }
     
+    public CustomerProfile.RiskCategory determineRiskCategory(BigDecimal creditScore) {
+        if (creditScore == null) {
+            return CustomerProfile.RiskCategory.MEDIUM;
+        }
+        return scorecard.get().riskCategoryFor(creditScore.doubleValue());
+    }
+
     public String getCreditScoreCategory(BigDecimal score) {
         if (score == null) return "UNKNOWN";
         
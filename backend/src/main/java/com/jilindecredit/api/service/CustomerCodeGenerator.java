@@ -0,0 +1,44 @@
+package com.jilindecredit.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Customer codes in the form CUST-YYYYMMDD-XXXXXX.
+ *
+ * The suffix is a value from a block-allocated sequence written in base 36, so codes are unique
+ * without checking the database. It is six characters wide (about two billion codes) so it can
+ * never match the four-character random suffixes issued before.
+ */
+@Component
+public class CustomerCodeGenerator {
+
+    private static final String SEQUENCE_NAME = "customer_code";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int SUFFIX_WIDTH = 6;
+
+    @Autowired
+    private SequenceBlockAllocator sequenceBlockAllocator;
+
+    public String nextCode() {
+        return "CUST-" + LocalDate.now().format(DATE_FORMAT) + "-" + toBase36(sequenceBlockAllocator.next(SEQUENCE_NAME));
+    }
+
+    /**
+     * Upper-case base 36, left-padded with zeros to the suffix width
+     */
+    static String toBase36(long value) {
+        String digits = Long.toString(value, 36).toUpperCase();
+        if (digits.length() >= SUFFIX_WIDTH) {
+            return digits;
+        }
+        StringBuilder padded = new StringBuilder(SUFFIX_WIDTH);
+        for (int i = digits.length(); i < SUFFIX_WIDTH; i++) {
+            padded.append('0');
+        }
+        return padded.append(digits).toString();
+    }
+}
@@ -0,0 +1,282 @@
+package com.jilindecredit.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jilindecredit.api.model.Loan;
+import com.jilindecredit.api.util.LruCache;
+import com.jilindecredit.api.util.Money;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The customer app's home screen, precomputed per customer: credit score, available credit and
+ * open loan summaries.
+ *
+ * Anything that changes a customer's loans or score bumps customers.dashboard_version in its own
+ * transaction. A dashboard is saved in the customer_dashboards table with the version it was built
+ * from, and kept in a bounded LRU cache in front of it. A read checks the current version with one
+ * primary-key query and serves the cached copy, or the saved row, only if it was built from that
+ * version, so a write committed on any node is seen by every node on its next read. Otherwise the
+ * dashboard is rebuilt and saved. Loan summaries hold figures that move with the calendar (days
+ * past due, next due date), so a dashboard is also only served on the day it was built.
+ *
+ * Reads run outside any transaction: each statement takes a pooled connection only for as long
+ * as it runs.
+ */
+@Service
+public class CustomerDashboardStore {
+
+    private static final TypeReference<List<Map<String, Object>>> LOANS_TYPE = new TypeReference<>() {};
+
+    // Score-based credit limits in cents, highest tier first
+    private static final BigDecimal[] LIMIT_SCORES = { BigDecimal.valueOf(750), BigDecimal.valueOf(650), BigDecimal.valueOf(500) };
+    private static final long[] LIMITS = { 10_000_000L, 5_000_000L, 2_500_000L };
+    private static final long BASE_LIMIT = 1_000_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Lazy because LoanService reaches this store through PaymentIngestionService
+    @Autowired
+    @Lazy
+    private LoanService loanService;
+
+    @Value("${customer.dashboard-cache.max-entries:100000}")
+    private int maxEntries;
+
+    private LruCache<Long, Dashboard> cache;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder tableHits = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS customer_dashboards (" +
+            "customer_id BIGINT PRIMARY KEY, " +
+            "version BIGINT NOT NULL, " +
+            "credit_score DECIMAL(5,2), " +
+            "available_credit DECIMAL(12,2) NOT NULL, " +
+            "loans TEXT NOT NULL, " +
+            "as_of DATE NOT NULL, " +
+            "built_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("ALTER TABLE customer_dashboards ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL");
+        cache = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * The customer's dashboard: the cached or saved copy if it is current, otherwise one built
+     * from their profile and loans and saved for the next read
+     */
+    public Map<String, Object> getDashboard(Long customerId) {
+        LocalDate today = LocalDate.now();
+        List<long[]> versions = jdbcTemplate.query(
+            "SELECT c.dashboard_version, d.version, d.as_of FROM customers c " +
+            "LEFT JOIN customer_dashboards d ON d.customer_id = c.id WHERE c.id = ?",
+            (rs, rowNum) -> {
+                long saved = rs.getLong(2);
+                boolean savedCurrent = !rs.wasNull() && today.equals(rs.getObject(3, LocalDate.class));
+                return new long[] { rs.getLong(1), savedCurrent ? saved : -1L };
+            },
+            customerId);
+        if (versions.isEmpty()) {
+            cache.remove(customerId);
+            throw new IllegalArgumentException("Customer not found");
+        }
+        long version = versions.get(0)[0];
+
+        Dashboard cached = cache.get(customerId);
+        if (cached != null && cached.version == version && cached.asOf.equals(today)) {
+            cacheHits.increment();
+            return cached.view;
+        }
+
+        Dashboard dashboard = versions.get(0)[1] == version ? loadRow(customerId, version, today) : null;
+        if (dashboard != null) {
+            tableHits.increment();
+        } else {
+            // Read after the version, so a write committing meanwhile leaves this copy behind the
+            // version it bumped and the next read rebuilds it
+            dashboard = build(customerId, version, today);
+            saveRow(customerId, dashboard);
+            builds.increment();
+        }
+        cache.put(customerId, dashboard);
+        return dashboard.view;
+    }
+
+    /**
+     * Marks the customers' dashboards out of date. Runs in the caller's transaction, after the
+     * change it records, so the new version commits or rolls back with it. Rows are updated in id
+     * order, so concurrent writers touching several customers cannot deadlock on them.
+     */
+    public void invalidate(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(new TreeSet<>(customerIds));
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update("UPDATE customers SET dashboard_version = dashboard_version + 1 WHERE id IN (" + placeholders + ")",
+            ids.toArray());
+    }
+
+    /**
+     * Drops a deleted customer's dashboard, in the caller's transaction
+     */
+    public void remove(Long customerId) {
+        jdbcTemplate.update("DELETE FROM customer_dashboards WHERE customer_id = ?", customerId);
+        cache.remove(customerId);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cachedDashboards", cache.size());
+        stats.put("maxCachedDashboards", cache.getMaxEntries());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("tableHits", tableHits.sum());
+        stats.put("builds", builds.sum());
+        return stats;
+    }
+
+    /**
+     * Credit limit for a baseline score, in cents
+     */
+    static long creditLimit(BigDecimal creditScore) {
+        if (creditScore == null) {
+            return 0L;
+        }
+        for (int i = 0; i < LIMIT_SCORES.length; i++) {
+            if (creditScore.compareTo(LIMIT_SCORES[i]) >= 0) {
+                return LIMITS[i];
+            }
+        }
+        return BASE_LIMIT;
+    }
+
+    private Dashboard build(Long customerId, long version, LocalDate today) {
+        List<Object[]> profiles = jdbcTemplate.query(
+            "SELECT p.id, p.baseline_credit_score FROM customers c " +
+            "LEFT JOIN customer_profiles p ON p.customer_id = c.id WHERE c.id = ?",
+            (rs, rowNum) -> new Object[] { rs.getObject(1), rs.getBigDecimal(2) }, customerId);
+        if (profiles.isEmpty()) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+        boolean hasProfile = profiles.get(0)[0] != null;
+        BigDecimal creditScore = hasProfile ? (BigDecimal) profiles.get(0)[1] : BigDecimal.ZERO;
+
+        // Principal still owed on disbursed loans, which are among the open loans summarised anyway
+        List<Map<String, Object>> loans = loanService.getLoanSummaries(customerId);
+        long outstanding = 0;
+        for (Map<String, Object> loan : loans) {
+            if (LoanService.REPAYING_STATUSES.contains(Loan.LoanStatus.valueOf((String) loan.get("status")))) {
+                outstanding += Money.toMinor((BigDecimal) loan.get("outstandingPrincipal"));
+            }
+        }
+        long limit = hasProfile ? creditLimit(creditScore) : 0L;
+        BigDecimal availableCredit = Money.toMajor(Math.max(0L, limit - outstanding));
+        return new Dashboard(version, today, creditScore, availableCredit, loans);
+    }
+
+    private Dashboard loadRow(Long customerId, long version, LocalDate today) {
+        List<Dashboard> rows = jdbcTemplate.query(
+            "SELECT credit_score, available_credit, loans FROM customer_dashboards WHERE customer_id = ? AND version = ?",
+            (rs, rowNum) -> {
+                List<Map<String, Object>> loans = fromJson(rs.getString("loans"));
+                return loans == null ? null
+                    : new Dashboard(version, today, rs.getBigDecimal("credit_score"), rs.getBigDecimal("available_credit"), loans);
+            },
+            customerId, version);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Saves a freshly built dashboard unless a copy built from a later version is already saved.
+     * Each statement commits on its own, so a duplicate key from a concurrent build is harmless.
+     */
+    private void saveRow(Long customerId, Dashboard dashboard) {
+        String loans = toJson(dashboard.loans);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date asOf = Date.valueOf(dashboard.asOf);
+        int updated = jdbcTemplate.update(
+            "UPDATE customer_dashboards SET version = ?, credit_score = ?, available_credit = ?, loans = ?, as_of = ?, built_at = ? " +
+            "WHERE customer_id = ? AND version <= ?",
+            dashboard.version, dashboard.creditScore, dashboard.availableCredit, loans, asOf, now, customerId, dashboard.version);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update(
+                    "INSERT INTO customer_dashboards (customer_id, version, credit_score, available_credit, loans, as_of, built_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    customerId, dashboard.version, dashboard.creditScore, dashboard.availableCredit, loans, asOf, now);
+            } catch (DuplicateKeyException e) {
+                // A concurrent read saved it first, or a newer copy is already saved
+            }
+        }
+    }
+
+    private String toJson(List<Map<String, Object>> loans) {
+        try {
+            return objectMapper.writeValueAsString(loans);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialise customer dashboard", e);
+        }
+    }
+
+    private List<Map<String, Object>> fromJson(String json) {
+        try {
+            // Amounts come back as BigDecimal, so a saved dashboard serialises exactly like a fresh one
+            return objectMapper.readerFor(LOANS_TYPE)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .readValue(json);
+        } catch (JsonProcessingException e) {
+            // Rebuilt from the loans instead
+            System.err.println("⚠️ CustomerDashboardStore: Unreadable saved dashboard: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Dashboard {
+        final long version;
+        final LocalDate asOf;
+        final BigDecimal creditScore;
+        final BigDecimal availableCredit;
+        final List<Map<String, Object>> loans;
+        final Map<String, Object> view;
+
+        Dashboard(long version, LocalDate asOf, BigDecimal creditScore, BigDecimal availableCredit,
+                  List<Map<String, Object>> loans) {
+            this.version = version;
+            this.asOf = asOf;
+            this.creditScore = creditScore;
+            this.availableCredit = availableCredit;
+            this.loans = Collections.unmodifiableList(loans);
+            Map<String, Object> view = new HashMap<>();
+            view.put("availableCredit", availableCredit);
+            view.put("creditScore", creditScore);
+            view.put("loans", this.loans);
+            this.view = Collections.unmodifiableMap(view);
+        }
+    }
+}
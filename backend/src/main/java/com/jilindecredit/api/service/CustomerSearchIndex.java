@@ -0,0 +1,417 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.dto.CustomerSearchDocument;
+import com.jilindecredit.api.model.Customer;
+import com.jilindecredit.api.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over customer name, customer code, phone and national ID.
+ *
+ * Every field is lowercased and broken into packed trigrams, each with a posting of customer ids
+ * kept as a sorted long[] (8 bytes per entry, not a boxed set). A query token of three or more
+ * characters is answered by intersecting the postings of its trigrams (smallest first) and
+ * confirming the substring on the candidate. Like the database search it replaces, every token
+ * matches anywhere in a field; a query made only of 1- and 2-character tokens has no trigram to
+ * narrow it and is checked against every customer. Multi-word queries require every token to
+ * match some field.
+ *
+ * The index is built once the application is ready and kept current by the services that
+ * create, update and delete customers. Their changes are applied once the surrounding
+ * transaction commits, so a rolled-back write never shows up in search results.
+ */
+@Service
+public class CustomerSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    // Field order in IndexedCustomer.fields
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int CUSTOMER_CODE = 2;
+    private static final int PHONE = 3;
+    private static final int NATIONAL_ID = 4;
+
+    private static final int EXACT_MATCH_SCORE = 100;
+    private static final int IDENTIFIER_EXACT_BONUS = 50;
+    private static final int PREFIX_MATCH_SCORE = 40;
+    private static final int SUBSTRING_MATCH_SCORE = 10;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    // Postings are updated in place, so searches share the read lock and updates take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedCustomer> documents = new HashMap<>();
+    private final Map<Long, Posting> postings = new HashMap<>();
+    private volatile boolean ready = false;
+
+    /**
+     * Rebuilds the whole index from the database with a keyset scan over customer ids
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        int indexed;
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            documents.clear();
+            postings.clear();
+
+            long afterId = 0L;
+            List<CustomerSearchDocument> batch;
+            do {
+                batch = customerRepository.findSearchDocuments(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (CustomerSearchDocument doc : batch) {
+                    add(new IndexedCustomer(doc.getId(), doc.getFirstName(), doc.getLastName(),
+                            doc.getCustomerCode(), doc.getPhone(), doc.getNationalId()));
+                    afterId = doc.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+
+            for (Posting posting : postings.values()) {
+                posting.trim();
+            }
+            indexed = documents.size();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("🔎 CustomerSearchIndex: Indexed " + indexed + " customers in " +
+                (System.currentTimeMillis() - started) + " ms");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the index entry for a saved customer once the surrounding transaction commits
+     */
+    public void index(Customer customer) {
+        if (customer == null || customer.getId() == null) {
+            return;
+        }
+        // Copied now, so later changes to the entity are not indexed unless they are saved too
+        IndexedCustomer doc = new IndexedCustomer(customer.getId(), customer.getFirstName(), customer.getLastName(),
+                customer.getCustomerCode(), customer.getPhone(), customer.getNationalId());
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeNow(doc.id);
+                add(doc);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops a customer from the index once the surrounding transaction commits
+     */
+    public void remove(Long customerId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeNow(customerId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns one page of matching customer ids, best matches first
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        List<long[]> scored = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // Drive the scan from the most selective token; the others are checked per candidate
+            Posting candidates = null;
+            for (String token : tokens) {
+                if (token.length() < GRAM_LENGTH) {
+                    continue;
+                }
+                Posting tokenCandidates = smallestPosting(token);
+                if (tokenCandidates.size == 0) {
+                    return new SearchResult(Collections.emptyList(), 0);
+                }
+                if (candidates == null || tokenCandidates.size < candidates.size) {
+                    candidates = tokenCandidates;
+                }
+            }
+
+            if (candidates != null) {
+                for (int i = 0; i < candidates.size; i++) {
+                    IndexedCustomer doc = documents.get(candidates.ids[i]);
+                    if (doc != null) {
+                        score(doc, tokens, scored);
+                    }
+                }
+            } else {
+                for (IndexedCustomer doc : documents.values()) {
+                    score(doc, tokens, scored);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Highest score first, newest customer first on ties
+        scored.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(b[0], a[0]));
+
+        int from = Math.min(Math.max(offset, 0), scored.size());
+        int to = (int) Math.min((long) from + Math.max(limit, 0), scored.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(scored.get(i)[0]);
+        }
+        return new SearchResult(ids, scored.size());
+    }
+
+    // Callers hold the write lock
+    private void add(IndexedCustomer doc) {
+        documents.put(doc.id, doc);
+        for (Long key : keysOf(doc)) {
+            postings.computeIfAbsent(key, k -> new Posting()).add(doc.id);
+        }
+    }
+
+    // Callers hold the write lock
+    private void removeNow(Long customerId) {
+        IndexedCustomer previous = documents.remove(customerId);
+        if (previous == null) {
+            return;
+        }
+        for (Long key : keysOf(previous)) {
+            Posting posting = postings.get(key);
+            if (posting != null && posting.remove(customerId) && posting.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    /**
+     * The smallest trigram posting of a token of three or more characters, filtered through the
+     * other trigrams. Callers hold the read lock and must not keep the result past it.
+     */
+    private Posting smallestPosting(String token) {
+        List<Posting> gramPostings = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+            Posting posting = postings.get(gramKey(token, i));
+            if (posting == null) {
+                return new Posting();
+            }
+            gramPostings.add(posting);
+        }
+        gramPostings.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        Posting smallest = gramPostings.get(0);
+        if (gramPostings.size() == 1) {
+            return smallest;
+        }
+        Posting intersection = new Posting();
+        for (int j = 0; j < smallest.size; j++) {
+            long id = smallest.ids[j];
+            boolean inAll = true;
+            for (int i = 1; i < gramPostings.size() && inAll; i++) {
+                inAll = gramPostings.get(i).contains(id);
+            }
+            if (inAll) {
+                // Ascending, so each add is an append
+                intersection.add(id);
+            }
+        }
+        return intersection;
+    }
+
+    /**
+     * Adds the customer to the results if every token matches one of its fields
+     */
+    private static void score(IndexedCustomer doc, List<String> tokens, List<long[]> scored) {
+        int total = 0;
+        for (String token : tokens) {
+            int score = score(doc, token);
+            if (score == 0) {
+                return;
+            }
+            total += score;
+        }
+        scored.add(new long[] { doc.id, total });
+    }
+
+    private static int score(IndexedCustomer doc, String token) {
+        int best = 0;
+        for (int field = 0; field < doc.fields.length; field++) {
+            String value = doc.fields[field];
+            if (value == null) {
+                continue;
+            }
+            int score = 0;
+            if (value.equals(token)) {
+                score = EXACT_MATCH_SCORE + (field >= CUSTOMER_CODE ? IDENTIFIER_EXACT_BONUS : 0);
+            } else if (value.startsWith(token)) {
+                score = PREFIX_MATCH_SCORE;
+            } else if (value.contains(token)) {
+                score = SUBSTRING_MATCH_SCORE;
+            }
+            best = Math.max(best, score);
+        }
+        return best;
+    }
+
+    private static Set<Long> keysOf(IndexedCustomer doc) {
+        Set<Long> keys = new HashSet<>();
+        for (String value : doc.fields) {
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+                keys.add(gramKey(value, i));
+            }
+        }
+        return keys;
+    }
+
+    private static List<String> tokenize(String query) {
+        List<String> tokens = new ArrayList<>();
+        if (query == null) {
+            return tokens;
+        }
+        for (String token : query.trim().toLowerCase().split("\\s+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Three UTF-16 chars packed into the low 48 bits
+    private static long gramKey(String value, int start) {
+        return ((long) value.charAt(start) << 32)
+                | ((long) value.charAt(start + 1) << 16)
+                | value.charAt(start + 2);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase();
+    }
+
+    /**
+     * Customer ids containing one trigram, sorted ascending. New customers get the highest ids,
+     * so inserts are almost always appends.
+     */
+    private static final class Posting {
+        long[] ids = new long[1];
+        int size;
+
+        void add(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + Math.max(1, size >> 1));
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void trim() {
+            if (ids.length > size) {
+                ids = Arrays.copyOf(ids, Math.max(size, 1));
+            }
+        }
+    }
+
+    private static class IndexedCustomer {
+        final long id;
+        final String[] fields;
+
+        IndexedCustomer(Long id, String firstName, String lastName, String customerCode, String phone, String nationalId) {
+            this.id = id;
+            this.fields = new String[5];
+            this.fields[FIRST_NAME] = normalize(firstName);
+            this.fields[LAST_NAME] = normalize(lastName);
+            this.fields[CUSTOMER_CODE] = normalize(customerCode);
+            this.fields[PHONE] = normalize(phone);
+            this.fields[NATIONAL_ID] = normalize(nationalId);
+        }
+    }
+
+    public static class SearchResult {
+        private final List<Long> customerIds;
+        private final long totalMatches;
+
+        public SearchResult(List<Long> customerIds, long totalMatches) {
+            this.customerIds = customerIds;
+            this.totalMatches = totalMatches;
+        }
+
+        public List<Long> getCustomerIds() { return customerIds; }
+        public long getTotalMatches() { return totalMatches; }
+    }
+}
@@ -6,15 +6,18 @@ import com.jilindecredit.api.model.CustomerProfile;
 import com.jilindecredit.api.model.User;
 import com.jilindecredit.api.repository.CustomerRepository;
 import com.jilindecredit.api.security.CustomUserDetailsService;
+import com.jilindecredit.api.util.PhoneNumbers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,12 +29,60 @@ public class CustomerService {
     @Autowired
     private CustomerRepository customerRepository;
 
-    // Simple in-memory storage for verification codes (in production, use Redis)
-    private Map<String, String> verificationCodes = new HashMap<>();
-    private Map<String, LocalDateTime> verificationCodeExpiry = new HashMap<>();
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private PhoneNumberBackfillService phoneNumberBackfillService;
+
+    @Autowired
+    private CustomerDashboardStore customerDashboardStore;
+
+    private static final Duration VERIFICATION_CODE_TTL = Duration.ofMinutes(5);
+
+    @Autowired
+    private OtpStore otpStore;
+
+    /**
+     * Resolves a customer from a phone number in any accepted format, with one read on the
+     * indexed phone_e164 column
+     */
+    public Optional<Customer> findCustomerByPhone(String phone) {
+        String canonical = PhoneNumbers.toE164(phone);
+        if (canonical == null) {
+            return Optional.empty();
+        }
+
+        Optional<Customer> customerOpt = customerRepository.findByPhoneE164(canonical);
+        if (customerOpt.isEmpty() && !phoneNumberBackfillService.isComplete()) {
+            // Rows written before phone_e164 existed may not be backfilled yet; their phone
+            // column holds the number as it was typed, so try the forms it was usually typed in
+            for (String stored : storedPhoneFormats(phone, canonical)) {
+                customerOpt = customerRepository.findByPhone(stored);
+                if (customerOpt.isPresent()) {
+                    break;
+                }
+            }
+        }
+        return customerOpt;
+    }
+
+    /**
+     * The number as given, then +254712345678, 0712345678 and 254712345678 for a Kenyan number
+     */
+    private static Set<String> storedPhoneFormats(String phone, String canonical) {
+        Set<String> formats = new LinkedHashSet<>();
+        formats.add(phone);
+        formats.add(canonical);
+        if (canonical.startsWith("+254") && canonical.length() == 13) {
+            formats.add("0" + canonical.substring(4));
+            formats.add(canonical.substring(1));
+        }
+        return formats;
+    }
 
     public Map<String, Object> authenticateCustomer(String phone, String pin) {
-        Optional<Customer> customerOpt = customerRepository.findByPhone(phone);
+        Optional<Customer> customerOpt = findCustomerByPhone(phone);
         
         if (customerOpt.isEmpty()) {
             throw new IllegalArgumentException("Invalid phone number or PIN");
@@ -67,25 +118,13 @@ public class CustomerService {
         return result;
     }
 
+    /**
+     * The app home screen, served from the precomputed read model. Runs outside a transaction so
+     * no connection is held while the store reads and saves.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> getCustomerDashboard(Long customerId) {
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
-
-        CustomerProfile profile = customer.getCustomerProfile();
-        
-        Map<String, Object> dashboard = new HashMap<>();
-        
-        // Available credit (based on credit score and risk category)
-        BigDecimal availableCredit = calculateAvailableCredit(profile);
-        dashboard.put("availableCredit", availableCredit);
-        
-        // Credit score
-        dashboard.put("creditScore", profile != null ? profile.getBaselineCreditScore() : BigDecimal.ZERO);
-        
-        // Active loans (TODO: implement loan service integration)
-        dashboard.put("loans", new ArrayList<>());
-        
-        return dashboard;
+        return customerDashboardStore.getDashboard(customerId);
     }
 
     public Map<String, Object> setupBiometric(Long customerId, Map<String, Object> biometricData) {
@@ -111,25 +150,11 @@ public class CustomerService {
     public Map<String, Object> sendVerificationCode(String phone, String type) {
         System.out.println("📱 CustomerService: Sending verification code to " + phone + " (type: " + type + ")");
         
-        // Normalize phone number for lookup (handle both 07xxx and +254xxx formats)
-        String normalizedPhone = normalizePhoneNumber(phone);
+        // Every accepted format (07xxx, 254xxx, +254xxx) resolves through the canonical number
+        String normalizedPhone = PhoneNumbers.toE164(phone);
         System.out.println("📱 CustomerService: Normalized phone: " + normalizedPhone);
         
-        Optional<Customer> customerOpt = customerRepository.findByPhone(phone);
-        
-        // If not found with original format, try normalized format
-        if (customerOpt.isEmpty()) {
-            customerOpt = customerRepository.findByPhone(normalizedPhone);
-        }
-        
-        // If still not found, try the other format
-        if (customerOpt.isEmpty()) {
-            String alternativePhone = phone.startsWith("+254") ? 
-                "0" + phone.substring(4) : 
-                "+254" + phone.substring(1);
-            System.out.println("📱 CustomerService: Trying alternative format: " + alternativePhone);
-            customerOpt = customerRepository.findByPhone(alternativePhone);
-        }
+        Optional<Customer> customerOpt = findCustomerByPhone(phone);
         
         if (customerOpt.isEmpty()) {
             System.err.println("❌ CustomerService: Customer not found with phone: " + phone + " or normalized: " + normalizedPhone);
@@ -142,13 +167,13 @@ public class CustomerService {
         // Generate verification code
         String verificationCode = generateVerificationCode();
         
-        // Store verification code with expiry (5 minutes) using the original phone number from request
-        verificationCodes.put(phone, verificationCode);
-        verificationCodeExpiry.put(phone, LocalDateTime.now().plusMinutes(5));
+        // Store verification code with expiry (5 minutes) under the canonical phone number,
+        // so the code can be verified whichever format the client sends next
+        otpStore.store(normalizedPhone, verificationCode, VERIFICATION_CODE_TTL);
         
         // TODO: Send actual SMS (for now, we'll log it)
         System.out.println("📱 SMS Verification Code for " + phone + ": " + verificationCode);
-        System.out.println("📱 Code will expire at: " + verificationCodeExpiry.get(phone));
+        System.out.println("📱 Code will expire at: " + LocalDateTime.now().plus(VERIFICATION_CODE_TTL));
         
         Map<String, Object> result = new HashMap<>();
         result.put("status", "sent");
@@ -163,52 +188,36 @@ public class CustomerService {
         System.out.println("📱 CustomerService: Verifying phone " + phone + " with code: " + code);
         
         // Normalize phone number for lookup
-        String normalizedPhone = normalizePhoneNumber(phone);
+        String normalizedPhone = PhoneNumbers.toE164(phone);
         System.out.println("📱 CustomerService: Normalized phone: " + normalizedPhone);
         
-        Optional<Customer> customerOpt = customerRepository.findByPhone(phone);
-        
-        // If not found with original format, try normalized format
-        if (customerOpt.isEmpty()) {
-            customerOpt = customerRepository.findByPhone(normalizedPhone);
-        }
-        
-        // If still not found, try the other format
-        if (customerOpt.isEmpty()) {
-            String alternativePhone = phone.startsWith("+254") ? 
-                "0" + phone.substring(4) : 
-                "+254" + phone.substring(1);
-            System.out.println("📱 CustomerService: Trying alternative format: " + alternativePhone);
-            customerOpt = customerRepository.findByPhone(alternativePhone);
-        }
+        Optional<Customer> customerOpt = findCustomerByPhone(phone);
         
         if (customerOpt.isEmpty()) {
             System.err.println("❌ CustomerService: Customer not found with phone: " + phone);
             throw new IllegalArgumentException("Customer not found with this phone number");
         }
 
-        // Check if verification code exists and is not expired
-        String storedCode = verificationCodes.get(phone);
-        LocalDateTime expiry = verificationCodeExpiry.get(phone);
-        
-        System.out.println("📱 CustomerService: Stored code: " + storedCode + ", Expiry: " + expiry);
-        
-        if (storedCode == null || expiry == null) {
-            System.err.println("❌ CustomerService: No verification code found for phone: " + phone);
-            throw new IllegalArgumentException("No verification code found. Please request a new code.");
-        }
-        
-        if (LocalDateTime.now().isAfter(expiry)) {
-            // Clean up expired code
-            verificationCodes.remove(phone);
-            verificationCodeExpiry.remove(phone);
-            System.err.println("❌ CustomerService: Verification code expired for phone: " + phone);
-            throw new IllegalArgumentException("Verification code has expired. Please request a new code.");
-        }
-        
-        if (!storedCode.equals(code)) {
-            System.err.println("❌ CustomerService: Invalid code. Expected: " + storedCode + ", Got: " + code);
-            throw new IllegalArgumentException("Invalid verification code");
+        // Check the code; a wrong code counts against the attempt limit
+        OtpStore.VerificationOutcome outcome = otpStore.verify(normalizedPhone, code);
+        System.out.println("📱 CustomerService: Verification outcome for " + phone + ": " + outcome);
+
+        switch (outcome) {
+            case VERIFIED:
+                break;
+            case NOT_FOUND:
+                System.err.println("❌ CustomerService: No verification code found for phone: " + phone);
+                throw new IllegalArgumentException("No verification code found. Please request a new code.");
+            case EXPIRED:
+                System.err.println("❌ CustomerService: Verification code expired for phone: " + phone);
+                throw new IllegalArgumentException("Verification code has expired. Please request a new code.");
+            case TOO_MANY_ATTEMPTS:
+                System.err.println("❌ CustomerService: Too many failed attempts for phone: " + phone);
+                throw new IllegalArgumentException("Too many incorrect attempts. Please request a new code.");
+            case INVALID_CODE:
+            default:
+                System.err.println("❌ CustomerService: Invalid code for phone: " + phone);
+                throw new IllegalArgumentException("Invalid verification code");
         }
 
         // Code is valid - mark phone as verified
@@ -220,10 +229,6 @@ public class CustomerService {
             System.out.println("✅ CustomerService: Phone verified and saved for customer: " + customer.getFirstName());
         }
         
-        // Clean up used code
-        verificationCodes.remove(phone);
-        verificationCodeExpiry.remove(phone);
-
         Map<String, Object> result = new HashMap<>();
         result.put("status", "verified");
         result.put("message", "Phone number verified successfully");
@@ -232,36 +237,14 @@ public class CustomerService {
         return result;
     }
 
-    private String normalizePhoneNumber(String phone) {
-        if (phone == null) return null;
-        
-        // Remove all non-digit characters
-        String digits = phone.replaceAll("[^0-9]", "");
-        
-        // Convert to international format
-        if (digits.startsWith("0") && digits.length() == 10) {
-            // Kenyan local format (0712345678) -> +254712345678
-            return "+254" + digits.substring(1);
-        } else if (digits.startsWith("254") && digits.length() == 12) {
-            // International format without + (254712345678) -> +254712345678
-            return "+" + digits;
-        } else if (phone.startsWith("+254") && digits.length() == 12) {
-            // Already in correct international format
-            return phone;
-        }
-        
-        // Return original if no conversion needed
-        return phone;
-    }
-
     public Map<String, Object> updatePhoneNumber(String oldPhone, String newPhone) {
-        Optional<Customer> customerOpt = customerRepository.findByPhone(oldPhone);
+        Optional<Customer> customerOpt = findCustomerByPhone(oldPhone);
         
         if (customerOpt.isEmpty()) {
             throw new IllegalArgumentException("Customer not found with this phone number");
         }
 
-        if (customerRepository.existsByPhone(newPhone)) {
+        if (existsByPhone(newPhone)) {
             throw new IllegalArgumentException("New phone number is already registered");
         }
 
@@ -275,6 +258,7 @@ public class CustomerService {
         }
         
         customerRepository.save(customer);
+        customerSearchIndex.index(customer);
 
         Map<String, Object> result = new HashMap<>();
         result.put("status", "updated");
@@ -283,24 +267,6 @@ public class CustomerService {
         return result;
     }
 
-    private BigDecimal calculateAvailableCredit(CustomerProfile profile) {
-        if (profile == null || profile.getBaselineCreditScore() == null) {
-            return BigDecimal.ZERO;
-        }
-
-        // Simple credit limit calculation based on credit score
-        BigDecimal creditScore = profile.getBaselineCreditScore();
-        if (creditScore.compareTo(BigDecimal.valueOf(750)) >= 0) {
-            return BigDecimal.valueOf(100000); // KES 100,000
-        } else if (creditScore.compareTo(BigDecimal.valueOf(650)) >= 0) {
-            return BigDecimal.valueOf(50000); // KES 50,000
-        } else if (creditScore.compareTo(BigDecimal.valueOf(500)) >= 0) {
-            return BigDecimal.valueOf(25000); // KES 25,000
-        } else {
-            return BigDecimal.valueOf(10000); // KES 10,000
-        }
-    }
-
     private String generateVerificationCode() {
         Random random = new Random();
         return String.format("%06d", random.nextInt(1000000));
@@ -328,9 +294,49 @@ public class CustomerService {
     }
 
     public List<CustomerDto> searchCustomers(String searchTerm) {
-        return customerRepository.searchCustomers(searchTerm).stream()
-                .map(CustomerDto::new)
-                .collect(Collectors.toList());
+        if (!customerSearchIndex.isReady()) {
+            // Index still warming up after startup - fall back to the database scan
+            return customerRepository.searchCustomers(searchTerm).stream()
+                    .map(CustomerDto::new)
+                    .collect(Collectors.toList());
+        }
+        CustomerSearchIndex.SearchResult result = customerSearchIndex.search(searchTerm, 0, Integer.MAX_VALUE);
+        return loadInOrder(result.getCustomerIds());
+    }
+
+    public Page<CustomerDto> searchCustomers(String searchTerm, Pageable pageable) {
+        if (!customerSearchIndex.isReady()) {
+            List<CustomerDto> all = customerRepository.searchCustomers(searchTerm).stream()
+                    .map(CustomerDto::new)
+                    .collect(Collectors.toList());
+            int from = (int) Math.min(pageable.getOffset(), all.size());
+            int to = Math.min(from + pageable.getPageSize(), all.size());
+            return new PageImpl<>(all.subList(from, to), pageable, all.size());
+        }
+        CustomerSearchIndex.SearchResult result = customerSearchIndex.search(
+                searchTerm, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(loadInOrder(result.getCustomerIds()), pageable, result.getTotalMatches());
+    }
+
+    /**
+     * Loads the given customers in one query and returns them in the order of the ids
+     */
+    private List<CustomerDto> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Customer> byId = new HashMap<>();
+        for (Customer customer : customerRepository.findAllById(ids)) {
+            byId.put(customer.getId(), customer);
+        }
+        List<CustomerDto> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Customer customer = byId.get(id);
+            if (customer != null) {
+                ordered.add(new CustomerDto(customer));
+            }
+        }
+        return ordered;
     }
 
     public CustomerDto createCustomer(CustomerDto customerDto) {
@@ -344,7 +350,7 @@ public class CustomerService {
             throw new IllegalArgumentException("National ID already exists: " + customerDto.getNationalId());
         }
         
-        if (customerRepository.existsByPhone(customerDto.getPhone())) {
+        if (existsByPhone(customerDto.getPhone())) {
             throw new IllegalArgumentException("Phone number already exists: " + customerDto.getPhone());
         }
 
@@ -354,6 +360,7 @@ public class CustomerService {
         customer.setUpdatedAt(LocalDateTime.now());
 
         Customer savedCustomer = customerRepository.save(customer);
+        customerSearchIndex.index(savedCustomer);
         return new CustomerDto(savedCustomer);
     }
 
@@ -374,7 +381,7 @@ public class CustomerService {
         }
 
         if (!existingCustomer.getPhone().equals(customerDto.getPhone()) &&
-            customerRepository.existsByPhone(customerDto.getPhone())) {
+            existsByPhone(customerDto.getPhone())) {
             throw new IllegalArgumentException("Phone number already exists: " + customerDto.getPhone());
         }
 
@@ -383,6 +390,7 @@ public class CustomerService {
         existingCustomer.setUpdatedAt(LocalDateTime.now());
 
         Customer savedCustomer = customerRepository.save(existingCustomer);
+        customerSearchIndex.index(savedCustomer);
         return new CustomerDto(savedCustomer);
     }
 
@@ -391,6 +399,8 @@ public class CustomerService {
             throw new IllegalArgumentException("Customer not found with id: " + id);
         }
         customerRepository.deleteById(id);
+        customerSearchIndex.remove(id);
+        customerDashboardStore.remove(id);
     }
 
     public boolean existsByCustomerCode(String customerCode) {
@@ -402,7 +412,14 @@ public class CustomerService {
     }
 
     public boolean existsByPhone(String phone) {
-        return customerRepository.existsByPhone(phone);
+        String canonical = PhoneNumbers.toE164(phone);
+        if (canonical == null) {
+            return false;
+        }
+        if (!phoneNumberBackfillService.isComplete() && customerRepository.existsByPhone(phone)) {
+            return true;
+        }
+        return customerRepository.existsByPhoneE164(canonical);
     }
 
     private Customer convertToEntity(CustomerDto dto) {
@@ -2,8 +2,10 @@ package com.jilindecredit.api.service;
 
 import com.jilindecredit.api.model.Customer;
 import com.jilindecredit.api.model.CustomerProfile;
+import com.jilindecredit.api.model.LoanProduct;
 import com.jilindecredit.api.model.User;
 import com.jilindecredit.api.repository.CustomerRepository;
+import com.jilindecredit.api.repository.LoanProductRepository;
 import com.jilindecredit.api.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
@@ -13,7 +15,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Service
 public class DataInitializationService implements CommandLineRunner {
@@ -24,13 +25,20 @@ public class DataInitializationService implements CommandLineRunner {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private LoanProductRepository loanProductRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomerCodeGenerator customerCodeGenerator;
+
     @Override
     public void run(String... args) throws Exception {
         initializeDefaultUsers();
         initializeSampleCustomers();
+        initializeLoanProducts();
     }
 
     private void initializeDefaultUsers() {
@@ -81,12 +89,22 @@ public class DataInitializationService implements CommandLineRunner {
         }
     }
 
+    private void initializeLoanProducts() {
+        // Same defaults as database/schema-updated.sql, for databases created by Hibernate
+        if (loanProductRepository.count() == 0) {
+            loanProductRepository.save(new LoanProduct("Personal Loan", "Quick personal loans for individual needs",
+                new BigDecimal("50000"), new BigDecimal("500000"), new BigDecimal("15.0"), 3, 12, new BigDecimal("2.0")));
+            loanProductRepository.save(new LoanProduct("Business Loan", "Loans for small business development",
+                new BigDecimal("100000"), new BigDecimal("2000000"), new BigDecimal("12.0"), 6, 24, new BigDecimal("1.5")));
+            loanProductRepository.save(new LoanProduct("Emergency Loan", "Fast emergency loans",
+                new BigDecimal("25000"), new BigDecimal("200000"), new BigDecimal("18.0"), 1, 6, new BigDecimal("3.0")));
+            System.out.println("✅ Created 3 default loan products");
+        }
+    }
+
     private void createSampleCustomer(String firstName, String lastName, String phone, String email, String nationalId, String gender) {
         // Generate unique customer code
-        String customerCode = generateCustomerCode();
-        while (customerRepository.existsByCustomerCode(customerCode)) {
-            customerCode = generateCustomerCode();
-        }
+        String customerCode = customerCodeGenerator.nextCode();
 
         Customer customer = new Customer();
         customer.setCustomerCode(customerCode);
@@ -118,11 +136,4 @@ public class DataInitializationService implements CommandLineRunner {
         customer.setCustomerProfile(profile);
         customerRepository.save(customer);
     }
-
-    private String generateCustomerCode() {
-        // Generate customer code in format: CUST-YYYYMMDD-XXXX
-        String datePrefix = java.time.LocalDate.now().toString().replace("-", "");
-        String randomSuffix = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return "CUST-" + datePrefix + "-" + randomSuffix;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.model.OtpCode;
+import com.jilindecredit.api.repository.OtpCodeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * OTP store shared by every API instance through the otp_codes table.
+ * Verification first takes an attempt with a single conditional update, which locks the row, and
+ * only then compares the code. Concurrent guesses for the same phone, on any node, queue on that
+ * lock, so each one spends an attempt and a code can only be redeemed once.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "database")
+public class DatabaseOtpStore implements OtpStore {
+
+    @Autowired
+    private OtpCodeRepository otpCodeRepository;
+
+    @Value("${otp.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    // Refreshed by the purge job; keeps capacity checks off the insert path
+    private volatile long pendingEstimate = 0;
+
+    @Override
+    @Transactional
+    public void store(String key, String code, Duration ttl) {
+        if (pendingEstimate >= maxPending && !otpCodeRepository.existsById(key)) {
+            throw new IllegalStateException("Too many pending verification codes. Please try again shortly.");
+        }
+        otpCodeRepository.save(new OtpCode(key, code, LocalDateTime.now().plus(ttl)));
+        pendingEstimate++;
+    }
+
+    @Override
+    @Transactional
+    public VerificationOutcome verify(String key, String code) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean reserved = otpCodeRepository.reserveAttempt(key, now, maxAttempts) == 1;
+
+        Optional<OtpCode> stored = otpCodeRepository.findById(key);
+        if (stored.isEmpty()) {
+            return VerificationOutcome.NOT_FOUND;
+        }
+
+        OtpCode otp = stored.get();
+        if (!reserved) {
+            if (now.isAfter(otp.getExpiresAt())) {
+                otpCodeRepository.delete(otp);
+                return VerificationOutcome.EXPIRED;
+            }
+            if (otp.getAttempts() >= maxAttempts) {
+                otpCodeRepository.delete(otp);
+                return VerificationOutcome.TOO_MANY_ATTEMPTS;
+            }
+            // Re-issued since the update; this guess was never checked against the new code
+            return VerificationOutcome.INVALID_CODE;
+        }
+
+        // The row stays locked by the update above until this transaction commits
+        if (InMemoryOtpStore.codesMatch(otp.getCode(), code)) {
+            otpCodeRepository.delete(otp);
+            return VerificationOutcome.VERIFIED;
+        }
+        if (otp.getAttempts() >= maxAttempts) {
+            otpCodeRepository.delete(otp);
+            return VerificationOutcome.TOO_MANY_ATTEMPTS;
+        }
+        return VerificationOutcome.INVALID_CODE;
+    }
+
+    @Override
+    public long pendingCount() {
+        return otpCodeRepository.count();
+    }
+
+    @Scheduled(fixedDelayString = "${otp.purge-interval-ms:60000}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = otpCodeRepository.deleteExpired(LocalDateTime.now());
+        pendingEstimate = otpCodeRepository.count();
+        if (removed > 0) {
+            System.out.println("🧹 DatabaseOtpStore: Purged " + removed + " expired verification codes");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.jilindecredit.api.service;
 
 import com.jilindecredit.api.dto.OnboardingRequest;
+import com.jilindecredit.api.util.TextNormalizer;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -26,19 +27,19 @@ public class DocumentVerificationService {
         }
 
         // Validate first name match
-        if (!normalizeString(request.getFirstName()).equals(normalizeString(request.getDocumentFirstName()))) {
+        if (!TextNormalizer.equivalent(request.getFirstName(), request.getDocumentFirstName())) {
             errors.add("CRITICAL: First name '" + request.getFirstName() + 
                       "' does not match document name '" + request.getDocumentFirstName() + "'");
         }
 
         // Validate last name match
-        if (!normalizeString(request.getLastName()).equals(normalizeString(request.getDocumentLastName()))) {
+        if (!TextNormalizer.equivalent(request.getLastName(), request.getDocumentLastName())) {
             errors.add("CRITICAL: Last name '" + request.getLastName() + 
                       "' does not match document name '" + request.getDocumentLastName() + "'");
         }
 
         // Validate ID number match
-        if (!normalizeString(request.getNationalId()).equals(normalizeString(request.getDocumentIdNumber()))) {
+        if (!TextNormalizer.equivalent(request.getNationalId(), request.getDocumentIdNumber())) {
             errors.add("CRITICAL: ID number '" + request.getNationalId() + 
                       "' does not match document ID '" + request.getDocumentIdNumber() + "'");
         }
@@ -52,7 +53,7 @@ public class DocumentVerificationService {
         }
 
         // Validate gender match
-        if (!normalizeString(request.getGender()).equals(normalizeString(request.getDocumentGender()))) {
+        if (!TextNormalizer.equivalent(request.getGender(), request.getDocumentGender())) {
             errors.add("CRITICAL: Gender '" + request.getGender() + 
                       "' does not match document gender '" + request.getDocumentGender() + "'");
         }
@@ -110,16 +111,6 @@ public class DocumentVerificationService {
         }
     }
 
-    /**
-     * Normalizes strings for comparison (removes spaces, converts to lowercase, handles special characters)
-     */
-    private String normalizeString(String input) {
-        if (input == null) return "";
-        return input.trim().toLowerCase()
-                   .replaceAll("\\s+", "")
-                   .replaceAll("[^a-zA-Z0-9]", "");
-    }
-
     /**
      * Validates document format and quality
      */
@@ -0,0 +1,635 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.service.BiometricService.CaptureType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 1:N duplicate-identity detection: finds enrolled customers whose face or fingerprint
+ * template is close to a new capture, so the same person enrolling under a second national ID
+ * is flagged before KYC completes.
+ *
+ * Each capture type has its own TemplateIndex file under biometric.template-index.directory.
+ * Face templates come from the FaceMatcher configured in FaceAnalysisService; if that model (or
+ * any index setting) changes, the stale index is discarded and rebuilt on startup.
+ * Checks run against the whole enrolled population within biometric.duplicate-check.budget-ms;
+ * a check that runs out of time reports what it found so far and is counted as truncated. A check
+ * that overlaps a rebuild has only seen part of the population, so it is reported as incomplete too.
+ *
+ * The index files are local to each node, so every capture is also journaled in
+ * biometric_enrollments within its transaction. Before each check a node indexes the entries
+ * other nodes have added since its last sync, and a check whose sync failed is incomplete.
+ */
+@Service
+public class DuplicateIdentityService {
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+    private static final int SYNC_BATCH_SIZE = 500;
+    private static final String FINGERPRINT_MODEL_ID = "feature-hash-v1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BiometricCryptoService biometricCryptoService;
+
+    @Autowired
+    private BiometricBlobStore biometricBlobStore;
+
+    @Autowired
+    private FaceAnalysisService faceAnalysisService;
+
+    @Value("${biometric.template-index.directory:./data/biometric-templates}")
+    private String directory;
+
+    // Face templates take the matcher's dimension
+    @Value("${biometric.template-index.fingerprint-dimension:128}")
+    private int fingerprintDimension;
+
+    @Value("${biometric.template-index.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${biometric.template-index.parallelism:0}")
+    private int parallelism;
+
+    // Brute force below this many templates per capture type
+    @Value("${biometric.template-index.ivf.min-templates:50000}")
+    private int ivfMinTemplates;
+
+    @Value("${biometric.template-index.ivf.lists:0}")
+    private int ivfLists;
+
+    @Value("${biometric.template-index.ivf.probes:8}")
+    private int ivfProbes;
+
+    @Value("${biometric.template-index.ivf.iterations:10}")
+    private int ivfIterations;
+
+    @Value("${biometric.template-index.rebuild-if-empty:true}")
+    private boolean rebuildIfEmpty;
+
+    @Value("${biometric.duplicate-check.enabled:true}")
+    private boolean enabled;
+
+    // Set per capture type: face and fingerprint templates score on different scales
+    @Value("${biometric.duplicate-check.face-threshold:0.915}")
+    private float faceThreshold;
+
+    @Value("${biometric.duplicate-check.fingerprint-threshold:0.92}")
+    private float fingerprintThreshold;
+
+    @Value("${biometric.duplicate-check.max-candidates:5}")
+    private int maxCandidates;
+
+    @Value("${biometric.duplicate-check.budget-ms:150}")
+    private long budgetMillis;
+
+    // How long a gap in the enrollment journal may be an uncommitted capture rather than a rolled-back one
+    @Value("${biometric.duplicate-check.sync-grace-seconds:300}")
+    private long syncGraceSeconds;
+
+    private ForkJoinPool searchPool;
+    private final Map<CaptureType, TemplateIndex> indexes = new EnumMap<>(CaptureType.class);
+    private final AtomicBoolean training = new AtomicBoolean(false);
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicLong rebuildsStarted = new AtomicLong();
+    private boolean indexDiscarded = false;
+
+    // Marks this process's journal entries, which it has already indexed itself
+    private final String nodeId = UUID.randomUUID().toString();
+    private Path watermarkFile;
+    // Every journal entry up to here is indexed, or was never committed
+    private long syncedThrough = 0L;
+    // Entries indexed above a gap in the journal, with when they were first seen
+    private final TreeMap<Long, Long> syncedAbove = new TreeMap<>();
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder checkMicros = new LongAdder();
+    private final LongAdder checksTruncated = new LongAdder();
+    private final LongAdder duplicatesFlagged = new LongAdder();
+    private final LongAdder enrollmentsSynced = new LongAdder();
+
+    @PostConstruct
+    void init() throws IOException {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        // Own pool, so a population scan never starves the common pool used by request handling
+        searchPool = new ForkJoinPool(threads);
+
+        Path base = Files.createDirectories(Paths.get(directory));
+        for (CaptureType type : CaptureType.values()) {
+            Path file = base.resolve(type.name().toLowerCase() + ".idx");
+            TemplateIndex index;
+            try {
+                index = TemplateIndex.open(file, dimensionFor(type), modelIdFor(type), segmentBytes, searchPool);
+            } catch (IllegalStateException e) {
+                // Derived data, so a stale index is dropped and rebuilt rather than failing startup
+                System.err.println("⚠️ DuplicateIdentityService: " + e.getMessage());
+                Files.delete(file);
+                index = TemplateIndex.open(file, dimensionFor(type), modelIdFor(type), segmentBytes, searchPool);
+                indexDiscarded = true;
+            }
+            indexes.put(type, index);
+        }
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS biometric_enrollments (" +
+            "seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+            "customer_id BIGINT NOT NULL, " +
+            "capture_type VARCHAR(20) NOT NULL, " +
+            "node_id VARCHAR(36) NOT NULL, " +
+            "created_at TIMESTAMP NOT NULL)");
+        watermarkFile = base.resolve("enrollments.seq");
+        if (!indexDiscarded && Files.exists(watermarkFile)) {
+            try {
+                syncedThrough = Long.parseLong(Files.readString(watermarkFile).trim());
+            } catch (NumberFormatException e) {
+                // Replays the whole journal instead
+                System.err.println("⚠️ DuplicateIdentityService: Unreadable " + watermarkFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        searchPool.shutdownNow();
+        for (TemplateIndex index : indexes.values()) {
+            try {
+                index.close();
+            } catch (IOException e) {
+                System.err.println("❌ DuplicateIdentityService: Error closing " + index + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fills the indexes from biometric_data on first start, when every index is still empty, or
+     * after a stale index was discarded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        boolean empty = indexes.values().stream().allMatch(index -> index.getRowCount() == 0);
+        if (!enabled || !rebuildIfEmpty || !(empty || indexDiscarded)) {
+            return;
+        }
+        try {
+            Map<String, Object> result = rebuildIndexes();
+            if ((int) result.get("templates") > 0) {
+                System.out.println("🧬 DuplicateIdentityService: Indexed " + result.get("templates") + " biometric templates");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ DuplicateIdentityService: Index rebuild failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Searches the enrolled population for other customers matching a template
+     *
+     * @param template from templateFor, or for faces from FaceAnalysisService
+     * @throws IllegalArgumentException if the template does not fit the index
+     */
+    public DuplicateCheck check(CaptureType type, long customerId, float[] template) {
+        if (!enabled) {
+            return new DuplicateCheck(new ArrayList<>(), true, 0L);
+        }
+        boolean synced = syncEnrollments();
+        long rebuilds = rebuildsStarted.get();
+        boolean rebuildRunning = rebuilding.get();
+        long started = System.nanoTime();
+        TemplateIndex.SearchResult result = indexes.get(type).search(
+            template, maxCandidates, type == CaptureType.FACIAL ? faceThreshold : fingerprintThreshold, ivfProbes,
+            started + budgetMillis * 1_000_000L, customerId);
+        long micros = (System.nanoTime() - started) / 1_000L;
+        // A rebuild clears the index first, so a search overlapping one saw only part of the population
+        boolean overlappedRebuild = rebuildRunning || rebuilding.get() || rebuildsStarted.get() != rebuilds;
+
+        checks.increment();
+        checkMicros.add(micros);
+        if (!result.isComplete()) {
+            checksTruncated.increment();
+            System.err.println("⚠️ DuplicateIdentityService: " + type + " check for customer " + customerId
+                + " ran out of its " + budgetMillis + " ms budget");
+        }
+        if (overlappedRebuild) {
+            System.err.println("⚠️ DuplicateIdentityService: " + type + " check for customer " + customerId
+                + " ran while the index was being rebuilt");
+        }
+        if (!result.getMatches().isEmpty()) {
+            duplicatesFlagged.increment();
+            System.out.println("🚨 DuplicateIdentityService: " + type + " capture for customer " + customerId
+                + " matches " + result.getMatches().size() + " enrolled customer(s)");
+        }
+        return new DuplicateCheck(result.getMatches(), result.isComplete() && !overlappedRebuild && synced, micros);
+    }
+
+    /**
+     * Journals a changed capture in the caller's transaction, so every other node indexes it
+     * before its next check. This node indexes it itself through enroll once the transaction commits.
+     */
+    public void recordEnrollment(CaptureType type, long customerId) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update(
+            "INSERT INTO biometric_enrollments (customer_id, capture_type, node_id, created_at) VALUES (?, ?, ?, ?)",
+            customerId, type.name(), nodeId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Adds or replaces a customer's template for later checks
+     *
+     * @throws IllegalArgumentException if the template does not fit the index
+     */
+    public void enroll(CaptureType type, long customerId, float[] template) {
+        if (!enabled) {
+            return;
+        }
+        TemplateIndex index = indexes.get(type);
+        index.put(customerId, template);
+        trainIfNeeded(type, index);
+    }
+
+    /**
+     * @throws IllegalArgumentException if no template can be extracted from the capture
+     */
+    public void enroll(CaptureType type, long customerId, byte[] capture) {
+        if (!enabled) {
+            return;
+        }
+        enroll(type, customerId, templateFor(type, capture));
+    }
+
+    /**
+     * Enrolls a capture already in the blob store, read back and decrypted
+     *
+     * @throws IllegalArgumentException if no template can be extracted from the capture
+     * @throws UncheckedIOException if the blob cannot be read
+     */
+    public void enrollStored(CaptureType type, long customerId, String ref) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            byte[] capture = readCapture(ref);
+            if (capture != null) {
+                enroll(type, customerId, capture);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Template for a capture as submitted or stored
+     *
+     * @throws IllegalArgumentException if no template can be extracted from the capture
+     */
+    public float[] templateFor(CaptureType type, byte[] capture) {
+        return type == CaptureType.FACIAL
+            ? faceAnalysisService.templateForCapture(capture)
+            : fingerprintTemplate(capture, fingerprintDimension);
+    }
+
+    /**
+     * Re-indexes every capture in biometric_data: face templates from KYC captures (or the stored
+     * facial capture), and stored fingerprint captures. Checks keep running meanwhile but only see
+     * the customers indexed so far, and report themselves incomplete.
+     *
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public Map<String, Object> rebuildIndexes() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Template index rebuild is already running");
+        }
+        try {
+            rebuildsStarted.incrementAndGet();
+            long started = System.currentTimeMillis();
+            // Journal entries old enough to be visible are covered by the scan below; newer ones are replayed
+            Long journaled = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(seq), 0) FROM biometric_enrollments WHERE created_at < ?",
+                Long.class, Timestamp.valueOf(LocalDateTime.now().minusSeconds(syncGraceSeconds)));
+            indexes.values().forEach(TemplateIndex::clear);
+
+            int templates = 0;
+            int failed = 0;
+            long afterId = 0L;
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, customer_id, face_template, facial_ref, fingerprint_ref FROM biometric_data " +
+                    "WHERE id > ? ORDER BY id LIMIT ?",
+                    afterId, REBUILD_BATCH_SIZE);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                for (Map<String, Object> row : rows) {
+                    long customerId = ((Number) row.get("customer_id")).longValue();
+                    try {
+                        templates += indexRow(customerId, row, EnumSet.allOf(CaptureType.class));
+                    } catch (IOException | RuntimeException e) {
+                        failed++;
+                        System.err.println("❌ DuplicateIdentityService: Could not index customer " + customerId + ": " + e.getMessage());
+                    }
+                    afterId = ((Number) row.get("id")).longValue();
+                }
+
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            indexes.values().forEach(TemplateIndex::force);
+            indexes.forEach(this::trainIfNeeded);
+            syncedThrough(journaled != null ? journaled : 0L);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("templates", templates);
+            result.put("failed", failed);
+            result.put("durationMillis", System.currentTimeMillis() - started);
+            return result;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Index sizes, IVF state and check counters
+     */
+    public Map<String, Object> getIndexInfo() {
+        Map<String, Object> info = new HashMap<>();
+        for (Map.Entry<CaptureType, TemplateIndex> entry : indexes.entrySet()) {
+            TemplateIndex index = entry.getValue();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("model", modelIdFor(entry.getKey()));
+            stats.put("dimension", index.getDimension());
+            stats.put("templates", index.size());
+            stats.put("rows", index.getRowCount());
+            stats.put("tombstones", index.getTombstones());
+            stats.put("ivfLists", index.getIvfLists());
+            stats.put("ivfCoveredRows", index.getIvfCoveredRows());
+            info.put(entry.getKey().name().toLowerCase(), stats);
+        }
+        long checkCount = checks.sum();
+        info.put("enabled", enabled);
+        info.put("faceThreshold", faceThreshold);
+        info.put("fingerprintThreshold", fingerprintThreshold);
+        info.put("budgetMillis", budgetMillis);
+        info.put("checks", checkCount);
+        info.put("checksTruncated", checksTruncated.sum());
+        info.put("duplicatesFlagged", duplicatesFlagged.sum());
+        info.put("averageCheckMicros", checkCount > 0 ? checkMicros.sum() / checkCount : 0L);
+        info.put("training", training.get());
+        info.put("rebuilding", rebuilding.get());
+        info.put("enrollmentsSynced", enrollmentsSynced.sum());
+        synchronized (this) {
+            info.put("journalSyncedThrough", syncedThrough);
+        }
+        return info;
+    }
+
+    /**
+     * Placeholder fingerprint extractor until a minutiae model is available: a signed
+     * feature-hashing projection of the capture's 4-byte shingles, so identical or near-identical
+     * captures score close to 1 and unrelated ones close to 0
+     */
+    static float[] fingerprintTemplate(byte[] capture, int dimension) {
+        float[] template = new float[dimension];
+        int shingle = 0;
+        for (int i = 0; i < capture.length; i++) {
+            shingle = (shingle << 8) | (capture[i] & 0xFF);
+            if (i < 3) {
+                continue;
+            }
+            int h = shingle * 0x9E3779B1;
+            h ^= h >>> 15;
+            template[(h >>> 1) % dimension] += (h & 1) == 0 ? 1f : -1f;
+        }
+        return template;
+    }
+
+    /**
+     * Indexes captures enrolled on other nodes since the last sync. Journal sequence numbers are
+     * assigned on insert but become visible on commit, so a gap below an entry already seen is
+     * waited on for biometric.duplicate-check.sync-grace-seconds before it is taken as a rollback.
+     *
+     * @return false if the journal could not be read, so a check may miss an enrollment
+     */
+    private synchronized boolean syncEnrollments() {
+        try {
+            long now = System.currentTimeMillis();
+            long cursor = syncedThrough;
+            while (true) {
+                List<Map<String, Object>> entries = jdbcTemplate.queryForList(
+                    "SELECT seq, customer_id, capture_type, node_id FROM biometric_enrollments " +
+                    "WHERE seq > ? ORDER BY seq LIMIT ?",
+                    cursor, SYNC_BATCH_SIZE);
+                for (Map<String, Object> entry : entries) {
+                    long seq = ((Number) entry.get("seq")).longValue();
+                    cursor = seq;
+                    if (syncedAbove.containsKey(seq)) {
+                        continue;
+                    }
+                    if (!nodeId.equals(entry.get("node_id"))) {
+                        indexEnrollment(CaptureType.valueOf((String) entry.get("capture_type")),
+                            ((Number) entry.get("customer_id")).longValue());
+                    }
+                    syncedAbove.put(seq, now);
+                }
+                if (entries.size() < SYNC_BATCH_SIZE) {
+                    break;
+                }
+            }
+
+            long previous = syncedThrough;
+            long graceMillis = syncGraceSeconds * 1000L;
+            while (!syncedAbove.isEmpty()) {
+                Map.Entry<Long, Long> next = syncedAbove.firstEntry();
+                if (next.getKey() != syncedThrough + 1 && now - next.getValue() < graceMillis) {
+                    break;
+                }
+                syncedThrough = next.getKey();
+                syncedAbove.pollFirstEntry();
+            }
+            if (syncedThrough != previous) {
+                saveWatermark();
+            }
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("❌ DuplicateIdentityService: Could not sync enrollments from other nodes: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Moves the journal watermark up after a rebuild that covered every entry up to it
+     */
+    private synchronized void syncedThrough(long journaled) {
+        if (journaled > syncedThrough) {
+            syncedThrough = journaled;
+            syncedAbove.headMap(journaled, true).clear();
+            saveWatermark();
+        }
+    }
+
+    private void indexEnrollment(CaptureType type, long customerId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT face_template, facial_ref, fingerprint_ref FROM biometric_data WHERE customer_id = ?", customerId);
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            indexRow(customerId, rows.get(0), EnumSet.of(type));
+            enrollmentsSynced.increment();
+            trainIfNeeded(type, indexes.get(type));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ DuplicateIdentityService: Could not index customer " + customerId
+                + " enrolled on another node: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Indexes the given captures of a biometric_data row: the face from the KYC template or the
+     * stored facial capture, and the stored fingerprint capture
+     *
+     * @return the number of templates indexed
+     */
+    private int indexRow(long customerId, Map<String, Object> row, Set<CaptureType> types) throws IOException {
+        int templates = 0;
+        if (types.contains(CaptureType.FACIAL)) {
+            String faceTemplate = (String) row.get("face_template");
+            byte[] face = faceTemplate != null
+                ? faceTemplate.getBytes(StandardCharsets.UTF_8)
+                : readCapture((String) row.get("facial_ref"));
+            if (face != null) {
+                indexes.get(CaptureType.FACIAL).put(customerId, templateFor(CaptureType.FACIAL, face));
+                templates++;
+            }
+        }
+        if (types.contains(CaptureType.FINGERPRINT)) {
+            byte[] fingerprint = readCapture((String) row.get("fingerprint_ref"));
+            if (fingerprint != null) {
+                indexes.get(CaptureType.FINGERPRINT).put(customerId, templateFor(CaptureType.FINGERPRINT, fingerprint));
+                templates++;
+            }
+        }
+        return templates;
+    }
+
+    /**
+     * Saves the watermark once the templates it covers are on disk, so a restart resumes from it
+     */
+    private void saveWatermark() {
+        try {
+            indexes.values().forEach(TemplateIndex::force);
+            Path staged = watermarkFile.resolveSibling(watermarkFile.getFileName() + ".tmp");
+            Files.writeString(staged, Long.toString(syncedThrough));
+            Files.move(staged, watermarkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Entries after the last saved watermark are indexed again after a restart
+            System.err.println("❌ DuplicateIdentityService: Could not save " + watermarkFile + ": " + e.getMessage());
+        }
+    }
+
+    private int dimensionFor(CaptureType type) {
+        return type == CaptureType.FACIAL ? faceAnalysisService.getTemplateDimension() : fingerprintDimension;
+    }
+
+    private String modelIdFor(CaptureType type) {
+        return type == CaptureType.FACIAL ? faceAnalysisService.getMatcherModelId() : FINGERPRINT_MODEL_ID;
+    }
+
+    private void trainIfNeeded(CaptureType type, TemplateIndex index) {
+        if (!index.needsTraining(ivfMinTemplates) || !training.compareAndSet(false, true)) {
+            return;
+        }
+        searchPool.execute(() -> {
+            try {
+                long started = System.currentTimeMillis();
+                if (index.train(ivfLists, ivfIterations)) {
+                    System.out.println("🧭 DuplicateIdentityService: Trained " + index.getIvfLists() + " " + type
+                        + " IVF lists over " + index.getIvfCoveredRows() + " rows in "
+                        + (System.currentTimeMillis() - started) + " ms");
+                }
+            } catch (RuntimeException e) {
+                System.err.println("❌ DuplicateIdentityService: IVF training failed for " + type + ": " + e.getMessage());
+            } finally {
+                training.set(false);
+            }
+        });
+    }
+
+    private byte[] readCapture(String ref) throws IOException {
+        if (ref == null || !biometricBlobStore.exists(ref)) {
+            return null;
+        }
+        try (InputStream in = biometricCryptoService.decryptingStream(biometricBlobStore.open(ref))) {
+            return in.readAllBytes();
+        }
+    }
+
+    public static final class DuplicateCheck {
+        private final List<TemplateIndex.Match> candidates;
+        private final boolean complete;
+        private final long durationMicros;
+
+        DuplicateCheck(List<TemplateIndex.Match> candidates, boolean complete, long durationMicros) {
+            this.candidates = candidates;
+            this.complete = complete;
+            this.durationMicros = durationMicros;
+        }
+
+        public boolean isDuplicateSuspected() { return !candidates.isEmpty(); }
+
+        /**
+         * Other customers at or above the threshold, most similar first
+         */
+        public List<TemplateIndex.Match> getCandidates() { return candidates; }
+
+        public boolean isComplete() { return complete; }
+
+        public long getDurationMicros() { return durationMicros; }
+
+        /**
+         * Candidates as "customerId:similarity" pairs, comma separated
+         */
+        public String describeCandidates() {
+            StringBuilder description = new StringBuilder();
+            for (TemplateIndex.Match match : candidates) {
+                if (description.length() > 0) {
+                    description.append(',');
+                }
+                description.append(match.getCustomerId()).append(':').append(String.format(Locale.ROOT, "%.3f", match.getSimilarity()));
+            }
+            return description.toString();
+        }
+    }
+}
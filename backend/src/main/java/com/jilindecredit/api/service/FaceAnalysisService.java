@@ -0,0 +1,201 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.biometric.FaceImage;
+import com.jilindecredit.api.biometric.FaceMatcher;
+import com.jilindecredit.api.biometric.LivenessDetector;
+import com.jilindecredit.api.biometric.QualityAssessor;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Face pipeline used by KYC: decodes captures, locates the face and document portrait regions,
+ * and runs the configured FaceMatcher, LivenessDetector and QualityAssessor.
+ *
+ * Implementations are picked by model id (biometric.face.*), so a different model is a new bean
+ * and a config change. There is no face detector yet: the face is taken from a fixed region of
+ * the selfie, matching the on-screen guide, and the portrait from a fixed region of the ID scan.
+ */
+@Service
+public class FaceAnalysisService {
+
+    @Autowired
+    private List<FaceMatcher> faceMatchers;
+
+    @Autowired
+    private List<LivenessDetector> livenessDetectors;
+
+    @Autowired
+    private List<QualityAssessor> qualityAssessors;
+
+    @Value("${biometric.face.matcher:lbp-v1}")
+    private String matcherId;
+
+    @Value("${biometric.face.liveness-detector:texture-v1}")
+    private String livenessDetectorId;
+
+    @Value("${biometric.face.quality-assessor:image-stats-v1}")
+    private String qualityAssessorId;
+
+    // Regions as left, top, width, height fractions of the image
+    @Value("${biometric.face.face-region:0.15,0.1,0.7,0.8}")
+    private String faceRegionSetting;
+
+    @Value("${biometric.face.document-portrait-region:0.03,0.2,0.32,0.65}")
+    private String documentPortraitSetting;
+
+    @Value("${biometric.face.match-threshold:0.90}")
+    private double matchThreshold;
+
+    @Value("${biometric.face.liveness-threshold:0.50}")
+    private double livenessThreshold;
+
+    @Value("${biometric.face.min-quality:70}")
+    private double minQuality;
+
+    private FaceMatcher matcher;
+    private LivenessDetector livenessDetector;
+    private QualityAssessor qualityAssessor;
+    private double[] faceRegion;
+    private double[] documentPortraitRegion;
+
+    private final LongAdder extractions = new LongAdder();
+    private final LongAdder extractionNanos = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        matcher = select(faceMatchers, FaceMatcher::getModelId, matcherId, "biometric.face.matcher");
+        livenessDetector = select(livenessDetectors, LivenessDetector::getModelId, livenessDetectorId, "biometric.face.liveness-detector");
+        qualityAssessor = select(qualityAssessors, QualityAssessor::getModelId, qualityAssessorId, "biometric.face.quality-assessor");
+        faceRegion = parseRegion(faceRegionSetting, "biometric.face.face-region");
+        documentPortraitRegion = parseRegion(documentPortraitSetting, "biometric.face.document-portrait-region");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the capture is not a readable image
+     */
+    public FaceImage decode(byte[] capture) {
+        return FaceImage.decode(capture);
+    }
+
+    public FaceImage faceRegion(FaceImage selfie) {
+        return selfie.crop(faceRegion[0], faceRegion[1], faceRegion[2], faceRegion[3]);
+    }
+
+    public FaceImage documentPortrait(FaceImage documentScan) {
+        return documentScan.crop(documentPortraitRegion[0], documentPortraitRegion[1],
+            documentPortraitRegion[2], documentPortraitRegion[3]);
+    }
+
+    /**
+     * 0-100
+     */
+    public double qualityScore(FaceImage image) {
+        return qualityAssessor.qualityScore(image);
+    }
+
+    /**
+     * 0-1
+     */
+    public double livenessScore(FaceImage face) {
+        return livenessDetector.livenessScore(face);
+    }
+
+    public float[] extractTemplate(FaceImage face) {
+        long started = System.nanoTime();
+        float[] template = matcher.extractTemplate(face);
+        extractionNanos.add(System.nanoTime() - started);
+        extractions.increment();
+        return template;
+    }
+
+    /**
+     * Template of the face region of a stored or submitted selfie
+     *
+     * @throws IllegalArgumentException if the capture is not a readable image
+     */
+    public float[] templateForCapture(byte[] capture) {
+        return extractTemplate(faceRegion(decode(capture)));
+    }
+
+    /**
+     * 0-1
+     */
+    public double compare(float[] template, float[] other) {
+        comparisons.increment();
+        return matcher.compare(template, other);
+    }
+
+    public String getMatcherModelId() {
+        return matcher.getModelId();
+    }
+
+    public int getTemplateDimension() {
+        return matcher.getTemplateDimension();
+    }
+
+    public double getMatchThreshold() {
+        return matchThreshold;
+    }
+
+    public double getLivenessThreshold() {
+        return livenessThreshold;
+    }
+
+    public double getMinQuality() {
+        return minQuality;
+    }
+
+    /**
+     * Models in use, thresholds and extraction counters
+     */
+    public Map<String, Object> getModelInfo() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("matcher", matcher.getModelId());
+        info.put("livenessDetector", livenessDetector.getModelId());
+        info.put("qualityAssessor", qualityAssessor.getModelId());
+        info.put("templateDimension", matcher.getTemplateDimension());
+        info.put("matchThreshold", matchThreshold);
+        info.put("livenessThreshold", livenessThreshold);
+        info.put("minQuality", minQuality);
+        long count = extractions.sum();
+        info.put("extractions", count);
+        info.put("averageExtractionMicros", count > 0 ? extractionNanos.sum() / count / 1_000L : 0L);
+        info.put("comparisons", comparisons.sum());
+        return info;
+    }
+
+    private static <T> T select(List<T> candidates, Function<T, String> modelId, String wanted, String property) {
+        for (T candidate : candidates) {
+            if (modelId.apply(candidate).equals(wanted)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("Unknown " + property + " '" + wanted + "'; available: "
+            + candidates.stream().map(modelId).collect(Collectors.joining(", ")));
+    }
+
+    private static double[] parseRegion(String setting, String property) {
+        String[] parts = setting.split(",");
+        if (parts.length != 4) {
+            throw new IllegalStateException(property + " must be left,top,width,height");
+        }
+        double[] region = new double[4];
+        for (int i = 0; i < 4; i++) {
+            region[i] = Double.parseDouble(parts[i].trim());
+            if (region[i] < 0 || region[i] > 1) {
+                throw new IllegalStateException(property + " values must be fractions between 0 and 1");
+            }
+        }
+        return region;
+    }
+}
@@ -0,0 +1,115 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.util.ExpiryWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node OTP store: one concurrent map of code, expiry and attempts, bounded in size,
+ * with expired codes removed by a timer wheel rather than waiting for a verify call.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    @Value("${otp.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    private final ConcurrentHashMap<String, OtpEntry> entries = new ConcurrentHashMap<>();
+    private ExpiryWheel<String> expiryWheel;
+
+    @PostConstruct
+    void startExpiry() {
+        expiryWheel = new ExpiryWheel<>(1000, 512, this::expireIfDue, "otp-expiry");
+        expiryWheel.start();
+    }
+
+    @PreDestroy
+    void stopExpiry() {
+        expiryWheel.stop();
+    }
+
+    @Override
+    public void store(String key, String code, Duration ttl) {
+        if (entries.size() >= maxPending && !entries.containsKey(key)) {
+            throw new IllegalStateException("Too many pending verification codes. Please try again shortly.");
+        }
+        OtpEntry entry = new OtpEntry(code, System.currentTimeMillis() + ttl.toMillis(), 0);
+        entries.put(key, entry);
+        expiryWheel.schedule(key, entry.expiresAtMillis);
+    }
+
+    @Override
+    public VerificationOutcome verify(String key, String code) {
+        VerificationOutcome[] outcome = { VerificationOutcome.NOT_FOUND };
+        long now = System.currentTimeMillis();
+
+        entries.computeIfPresent(key, (k, entry) -> {
+            if (now > entry.expiresAtMillis) {
+                outcome[0] = VerificationOutcome.EXPIRED;
+                return null;
+            }
+            if (codesMatch(entry.code, code)) {
+                outcome[0] = VerificationOutcome.VERIFIED;
+                return null;
+            }
+            int attempts = entry.attempts + 1;
+            if (attempts >= maxAttempts) {
+                outcome[0] = VerificationOutcome.TOO_MANY_ATTEMPTS;
+                return null;
+            }
+            outcome[0] = VerificationOutcome.INVALID_CODE;
+            return new OtpEntry(entry.code, entry.expiresAtMillis, attempts);
+        });
+
+        return outcome[0];
+    }
+
+    @Override
+    public long pendingCount() {
+        return entries.size();
+    }
+
+    private boolean expireIfDue(String key) {
+        OtpEntry entry = entries.get(key);
+        if (entry == null) {
+            return true;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAtMillis) {
+            entries.remove(key, entry);
+            return true;
+        }
+        // Re-issued with a later deadline; it is also scheduled in that deadline's bucket
+        return false;
+    }
+
+    static boolean codesMatch(String expected, String actual) {
+        if (actual == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class OtpEntry {
+        final String code;
+        final long expiresAtMillis;
+        final int attempts;
+
+        OtpEntry(String code, long expiresAtMillis, int attempts) {
+            this.code = code;
+            this.expiresAtMillis = expiresAtMillis;
+            this.attempts = attempts;
+        }
+    }
+}
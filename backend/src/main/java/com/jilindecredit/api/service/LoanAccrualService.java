@@ -0,0 +1,531 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.model.Loan;
+import com.jilindecredit.api.util.Money;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * End-of-day accrual for disbursed loans: brings interest accrued, days past due and late
+ * penalties up to the run date, and moves loans that stay overdue too long to DEFAULTED.
+ *
+ * Open loans are split into id ranges that run in parallel on a fixed pool. Each partition reads
+ * its loans a chunk at a time with a keyset cursor, locking the chunk's rows, and writes them back
+ * with one batch update in the same transaction as the partition's checkpoint. A run interrupted
+ * part way resumes from the checkpoints when it is started again for the same day, and a loan is
+ * never accrued twice for one day because loans already accrued for the run date are not read.
+ *
+ * Every node runs the cron, so a run first takes a lease in the scheduler_leases table; a node
+ * that finds the lease held by another skips the run. The lease is renewed while partitions are
+ * running and expires on its own if its holder dies, so another node can pick the run up.
+ */
+@Service
+public class LoanAccrualService {
+
+    private static final String SELECT_CHUNK =
+        "SELECT id, customer_id, status, principal_amount, interest_rate, term_months, monthly_payment, total_interest, " +
+        "disbursement_date, principal_paid, interest_paid, penalty_charged, penalty_paid, days_past_due, last_accrual_date " +
+        "FROM loans WHERE id > ? AND id <= ? AND status IN ('ACTIVE', 'DEFAULTED') " +
+        "AND (last_accrual_date IS NULL OR last_accrual_date < ?) ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String UPDATE_LOAN =
+        "UPDATE loans SET interest_accrued = ?, penalty_charged = ?, days_past_due = ?, status = ?, " +
+        "last_accrual_date = ?, updated_at = ? WHERE id = ?";
+
+    private static final String UPDATE_CHECKPOINT =
+        "UPDATE loan_accrual_checkpoints SET last_id = ?, loans_accrued = loans_accrued + ?, completed = ?, updated_at = ? " +
+        "WHERE run_date = ? AND partition_no = ?";
+
+    private static final String LEASE_NAME = "loan-accrual";
+
+    // Hikari's default maximumPoolSize, assumed for any other pool
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PortfolioAggregateStore portfolioAggregateStore;
+
+    @Autowired
+    private CustomerDashboardStore customerDashboardStore;
+
+    @Value("${loan.accrual.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${loan.accrual.parallelism:0}")
+    private int parallelism;
+
+    @Value("${loan.accrual.partitions-per-thread:4}")
+    private int partitionsPerThread;
+
+    @Value("${loan.accrual.connection-headroom:4}")
+    private int connectionHeadroom;
+
+    @Value("${loan.accrual.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${loan.accrual.penalty-rate:5.00}")
+    private BigDecimal penaltyRate;
+
+    @Value("${loan.accrual.penalty-grace-days:3}")
+    private int penaltyGraceDays;
+
+    @Value("${loan.accrual.default-after-days:90}")
+    private int defaultAfterDays;
+
+    private TransactionTemplate transactionTemplate;
+    private ThreadPoolExecutor accrualPool;
+    private int threads;
+    // Identifies this node as the lease holder
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Map<String, Object> lastRun;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS loan_accrual_checkpoints (" +
+            "run_date DATE NOT NULL, " +
+            "partition_no INT NOT NULL, " +
+            "range_start BIGINT NOT NULL, " +
+            "range_end BIGINT NOT NULL, " +
+            "last_id BIGINT NOT NULL, " +
+            "loans_accrued BIGINT NOT NULL, " +
+            "completed BOOLEAN NOT NULL, " +
+            "updated_at TIMESTAMP NOT NULL, " +
+            "PRIMARY KEY (run_date, partition_no))");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS scheduler_leases (" +
+            "name VARCHAR(50) PRIMARY KEY, " +
+            "owner VARCHAR(200), " +
+            "lease_until TIMESTAMP)");
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_leases (name) VALUES (?)", LEASE_NAME);
+        } catch (DuplicateKeyException e) {
+            // Created by an earlier start or another node
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Each thread holds a database connection while it works; leave some for API requests
+        int poolSize = maxPoolSize();
+        threads = parallelism > 0 ? parallelism
+            : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), poolSize - connectionHeadroom));
+        if (threads > poolSize - connectionHeadroom) {
+            System.err.println("⚠️ LoanAccrualService: " + threads + " accrual threads leave fewer than "
+                + connectionHeadroom + " of " + poolSize + " pooled connections for requests");
+        }
+        int maxPartitions = threads * Math.max(1, partitionsPerThread);
+        accrualPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxPartitions), runnable -> {
+                Thread thread = new Thread(runnable, "loan-accrual");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        accrualPool.shutdownNow();
+    }
+
+    /**
+     * Picks up a run that was interrupted by a shutdown earlier today
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        LocalDate today = LocalDate.now();
+        Integer unfinished = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM loan_accrual_checkpoints WHERE run_date = ? AND completed = FALSE",
+            Integer.class, Date.valueOf(today));
+        if (unfinished != null && unfinished > 0) {
+            System.out.println("⏯️ LoanAccrualService: Resuming today's accrual run (" + unfinished + " partitions left)");
+            Thread resume = new Thread(this::scheduledAccrual, "loan-accrual-resume");
+            resume.setDaemon(true);
+            resume.start();
+        }
+    }
+
+    /**
+     * Nightly run; disabled unless loan.accrual.cron is set
+     */
+    @Scheduled(cron = "${loan.accrual.cron:-}")
+    public void scheduledAccrual() {
+        try {
+            runAccrual();
+        } catch (IllegalStateException e) {
+            System.err.println("❌ LoanAccrualService: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("❌ LoanAccrualService: Accrual run failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Accrues every open loan up to today, resuming today's run if one was interrupted
+     *
+     * @throws IllegalStateException if a run is already in progress on this or another node
+     */
+    public Map<String, Object> runAccrual() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Loan accrual is already running");
+        }
+        try {
+            if (!acquireLease()) {
+                throw new IllegalStateException("Loan accrual is already running on another node");
+            }
+            try {
+                return accrueAll();
+            } finally {
+                releaseLease();
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> accrueAll() {
+        long started = System.currentTimeMillis();
+        LocalDate runDate = LocalDate.now();
+        List<Partition> partitions = loadOrPlanPartitions(runDate);
+
+        List<Future<PartitionResult>> futures = new ArrayList<>();
+        int alreadyDone = 0;
+        for (Partition partition : partitions) {
+            if (partition.completed) {
+                alreadyDone++;
+            } else {
+                futures.add(accrualPool.submit(() -> accruePartition(partition, runDate)));
+            }
+        }
+        System.out.println("📅 LoanAccrualService: Accruing loans for " + runDate + " in " + futures.size()
+            + " partitions on " + threads + " threads (" + alreadyDone + " already done)");
+
+        long accrued = 0;
+        long defaulted = 0;
+        long penalties = 0;
+        int failed = 0;
+        // Renewed well before it runs out, so a slow partition never lets it lapse
+        long renewMillis = Math.max(1000L, leaseSeconds * 1000L / 3);
+        for (Future<PartitionResult> future : futures) {
+            while (true) {
+                try {
+                    PartitionResult result = future.get(renewMillis, TimeUnit.MILLISECONDS);
+                    accrued += result.accrued;
+                    defaulted += result.defaulted;
+                    penalties += result.penalties;
+                    break;
+                } catch (TimeoutException e) {
+                    if (!renewLease()) {
+                        // Taken over by another node; its run resumes from the checkpoints
+                        futures.forEach(pending -> pending.cancel(true));
+                        throw new IllegalStateException("Loan accrual lease was lost to another node");
+                    }
+                } catch (ExecutionException e) {
+                    // The partition keeps its checkpoint and is picked up by the next run today
+                    failed++;
+                    System.err.println("❌ LoanAccrualService: Partition failed: " + e.getCause().getMessage());
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Loan accrual was interrupted");
+                }
+            }
+        }
+
+        long duration = System.currentTimeMillis() - started;
+        Map<String, Object> result = new HashMap<>();
+        result.put("runDate", runDate);
+        result.put("partitions", partitions.size());
+        result.put("partitionsFailed", failed);
+        result.put("loansAccrued", accrued);
+        result.put("loansDefaulted", defaulted);
+        result.put("penaltiesCharged", Money.toMajor(penalties));
+        result.put("durationMillis", duration);
+        lastRun = result;
+        System.out.println("✅ LoanAccrualService: Accrued " + accrued + " loans in " + duration + " ms ("
+            + defaulted + " defaulted, " + Money.toMajor(penalties) + " in penalties, " + failed + " partitions failed)");
+        return result;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("running", running.get());
+        status.put("lastRun", lastRun);
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT partition_no, range_start, range_end, last_id, loans_accrued, completed " +
+            "FROM loan_accrual_checkpoints WHERE run_date = ? ORDER BY partition_no",
+            (RowCallbackHandler) rs -> {
+                Map<String, Object> partition = new HashMap<>();
+                partition.put("partition", rs.getInt("partition_no"));
+                partition.put("rangeStart", rs.getLong("range_start"));
+                partition.put("rangeEnd", rs.getLong("range_end"));
+                partition.put("lastId", rs.getLong("last_id"));
+                partition.put("loansAccrued", rs.getLong("loans_accrued"));
+                partition.put("completed", rs.getBoolean("completed"));
+                partitions.add(partition);
+            },
+            Date.valueOf(LocalDate.now()));
+        status.put("todayPartitions", partitions);
+        return status;
+    }
+
+    /**
+     * Today's partitions from the checkpoint table, or an even split of the open loans' id range
+     * if this is the first run today. The split is stored so a resumed run uses the same ranges.
+     */
+    private List<Partition> loadOrPlanPartitions(LocalDate runDate) {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT partition_no, range_start, range_end, last_id, completed FROM loan_accrual_checkpoints " +
+            "WHERE run_date = ? ORDER BY partition_no",
+            (RowCallbackHandler) rs -> partitions.add(new Partition(rs.getInt("partition_no"), rs.getLong("range_end"),
+                rs.getLong("last_id"), rs.getBoolean("completed"))),
+            Date.valueOf(runDate));
+        if (!partitions.isEmpty()) {
+            return partitions;
+        }
+        jdbcTemplate.update("DELETE FROM loan_accrual_checkpoints WHERE run_date < ?", Date.valueOf(runDate.minusDays(30)));
+
+        long[] range = new long[2];
+        jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM loans WHERE status IN ('ACTIVE', 'DEFAULTED')",
+            (RowCallbackHandler) rs -> {
+                range[0] = rs.getLong(1);
+                range[1] = rs.getLong(2);
+            });
+        if (range[1] == 0L) {
+            return partitions;
+        }
+
+        // Ranges are (start, end]; ids are spread evenly enough for an even split to balance
+        long first = range[0] - 1;
+        long span = range[1] - first;
+        int count = (int) Math.min(span, (long) threads * Math.max(1, partitionsPerThread));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = first + span * i / count;
+            long end = i == count - 1 ? range[1] : first + span * (i + 1) / count;
+            partitions.add(new Partition(i, end, start, false));
+            rows.add(new Object[] { Date.valueOf(runDate), i, start, end, start, 0L, false, now });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO loan_accrual_checkpoints (run_date, partition_no, range_start, range_end, " +
+            "last_id, loans_accrued, completed, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        return partitions;
+    }
+
+    /**
+     * Takes the run lease if it is free or its holder let it expire. Each statement commits on its
+     * own, so the lease is visible to other nodes straight away.
+     */
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.update("UPDATE scheduler_leases SET owner = ?, lease_until = ? " +
+            "WHERE name = ? AND (owner IS NULL OR owner = ? OR lease_until < ?)",
+            nodeId, Timestamp.valueOf(now.plusSeconds(leaseSeconds)), LEASE_NAME, nodeId, Timestamp.valueOf(now)) > 0;
+    }
+
+    private boolean renewLease() {
+        return jdbcTemplate.update("UPDATE scheduler_leases SET lease_until = ? WHERE name = ? AND owner = ?",
+            Timestamp.valueOf(LocalDateTime.now().plusSeconds(leaseSeconds)), LEASE_NAME, nodeId) > 0;
+    }
+
+    private void releaseLease() {
+        try {
+            jdbcTemplate.update("UPDATE scheduler_leases SET owner = NULL, lease_until = NULL WHERE name = ? AND owner = ?",
+                LEASE_NAME, nodeId);
+        } catch (RuntimeException e) {
+            // Expires on its own
+            System.err.println("❌ LoanAccrualService: Could not release the accrual lease: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Connections in the pool, read from Hikari when that is the pool in use
+     */
+    private int maxPoolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            // Fall back to the default
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    private PartitionResult accruePartition(Partition partition, LocalDate runDate) {
+        PartitionResult total = new PartitionResult();
+        long afterId = partition.lastId;
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Partition " + partition.number + " was cancelled");
+            }
+            long from = afterId;
+            PartitionResult chunk = transactionTemplate.execute(status -> accrueChunk(partition, from, runDate));
+            total.accrued += chunk.accrued;
+            total.defaulted += chunk.defaulted;
+            total.penalties += chunk.penalties;
+            if (chunk.read < chunkSize) {
+                return total;
+            }
+            afterId = chunk.lastId;
+        }
+    }
+
+    /**
+     * Locks, accrues and writes back the next chunk of the partition, and moves its checkpoint
+     */
+    private PartitionResult accrueChunk(Partition partition, long afterId, LocalDate runDate) {
+        PartitionResult result = new PartitionResult();
+        result.lastId = afterId;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long penaltyBasisPoints = Money.toBasisPoints(penaltyRate);
+        List<Object[]> updates = new ArrayList<>(chunkSize);
+        Set<Long> customerIds = new HashSet<>();
+
+        jdbcTemplate.query(SELECT_CHUNK, (RowCallbackHandler) rs -> {
+            Loan loan = new Loan();
+            loan.setId(rs.getLong("id"));
+            loan.setStatus(Loan.LoanStatus.valueOf(rs.getString("status")));
+            loan.setPrincipalAmount(rs.getBigDecimal("principal_amount"));
+            loan.setInterestRate(rs.getBigDecimal("interest_rate"));
+            loan.setTermMonths(rs.getInt("term_months"));
+            loan.setMonthlyPayment(rs.getBigDecimal("monthly_payment"));
+            loan.setTotalInterest(rs.getBigDecimal("total_interest"));
+            loan.setDisbursementDate(rs.getObject("disbursement_date", LocalDate.class));
+            loan.setPrincipalPaid(rs.getBigDecimal("principal_paid"));
+            loan.setInterestPaid(rs.getBigDecimal("interest_paid"));
+            loan.setPenaltyCharged(rs.getBigDecimal("penalty_charged"));
+            loan.setPenaltyPaid(rs.getBigDecimal("penalty_paid"));
+            loan.setDaysPastDue(rs.getInt("days_past_due"));
+            loan.setLastAccrualDate(rs.getObject("last_accrual_date", LocalDate.class));
+            PortfolioAggregateStore.Position before = PortfolioAggregateStore.Position.of(loan);
+
+            long penalty = accrue(loan, runDate, penaltyBasisPoints);
+            if (before.status != loan.getStatus()) {
+                result.defaulted++;
+            }
+            result.penalties += penalty;
+            result.accrued++;
+            result.read++;
+            result.lastId = loan.getId();
+
+            updates.add(new Object[] {
+                loan.getInterestAccrued(), loan.getPenaltyCharged(), loan.getDaysPastDue(), loan.getStatus().name(),
+                Date.valueOf(runDate), now, loan.getId()
+            });
+            portfolioAggregateStore.move(before, PortfolioAggregateStore.Position.of(loan));
+            customerIds.add(rs.getLong("customer_id"));
+        }, afterId, partition.end, Date.valueOf(runDate), chunkSize);
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_LOAN, updates);
+            customerDashboardStore.invalidate(customerIds);
+        }
+        boolean completed = result.read < chunkSize;
+        jdbcTemplate.update(UPDATE_CHECKPOINT, completed ? partition.end : result.lastId, result.accrued, completed,
+            now, Date.valueOf(runDate), partition.number);
+        return result;
+    }
+
+    /**
+     * Brings one loan up to the run date and returns the penalty charged, in cents.
+     *
+     * A penalty of penalty-rate percent per 30 days is charged on the overdue principal and
+     * interest for each day past the grace period since the last accrual, so a missed run is made
+     * up by the next one. Penalties stop growing once they equal the principal lent.
+     */
+    private long accrue(Loan loan, LocalDate runDate, long penaltyBasisPoints) {
+        LocalDate firstDue = loan.getDisbursementDate().plusMonths(1);
+        int term = loan.getTermMonths();
+        long principal = Money.toMinor(loan.getPrincipalAmount());
+        long installment = Money.toMinor(loan.getMonthlyPayment());
+        long totalRepayable = principal + Money.toMinor(loan.getTotalInterest());
+        long paid = Money.toMinor(loan.getPrincipalPaid()) + Money.toMinor(loan.getInterestPaid());
+
+        AmortizationSchedule schedule = LoanService.scheduleFor(loan);
+        loan.setInterestAccrued(Money.toMajor(schedule.interestAccruedBy(runDate)));
+
+        int daysPastDue = AmortizationSchedule.daysPastDue(firstDue, term, installment, totalRepayable, paid, runDate);
+        loan.setDaysPastDue(daysPastDue);
+
+        long penalty = 0;
+        if (daysPastDue > penaltyGraceDays) {
+            LocalDate since = loan.getLastAccrualDate() != null ? loan.getLastAccrualDate() : loan.getDisbursementDate();
+            long days = Math.min(ChronoUnit.DAYS.between(since, runDate), daysPastDue - penaltyGraceDays);
+            int due = AmortizationSchedule.installmentsDueBy(firstDue, term, runDate);
+            long scheduled = due >= term ? totalRepayable : due * installment;
+            long overdue = Math.max(0L, scheduled - paid);
+            long charged = Money.toMinor(loan.getPenaltyCharged());
+            penalty = Math.min(Money.divideHalfUp(overdue * penaltyBasisPoints * days, 10_000L * 30L),
+                Math.max(0L, principal - charged));
+            loan.setPenaltyCharged(Money.toMajor(charged + penalty));
+        }
+
+        if (loan.getStatus() == Loan.LoanStatus.ACTIVE && daysPastDue >= defaultAfterDays) {
+            loan.setStatus(Loan.LoanStatus.DEFAULTED);
+        }
+        return penalty;
+    }
+
+    private static final class Partition {
+        final int number;
+        final long end;
+        final long lastId;
+        final boolean completed;
+
+        Partition(int number, long end, long lastId, boolean completed) {
+            this.number = number;
+            this.end = end;
+            this.lastId = lastId;
+            this.completed = completed;
+        }
+    }
+
+    private static final class PartitionResult {
+        int read;
+        long lastId;
+        long accrued;
+        long defaulted;
+        long penalties;
+    }
+}
@@ -0,0 +1,31 @@
+package com.jilindecredit.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Loan numbers (LN-YYYYMMDD-XXXXXX) and payment numbers (PAY-YYYYMMDD-XXXXXX), each from its own
+ * block-allocated sequence written in base 36 like customer codes, so they are unique without a
+ * database check and fit the 20-character columns.
+ */
+@Component
+public class LoanNumberGenerator {
+
+    private static final String LOAN_SEQUENCE = "loan_number";
+    private static final String PAYMENT_SEQUENCE = "payment_number";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Autowired
+    private SequenceBlockAllocator sequenceBlockAllocator;
+
+    public String nextLoanNumber() {
+        return "LN-" + LocalDate.now().format(DATE_FORMAT) + "-" + CustomerCodeGenerator.toBase36(sequenceBlockAllocator.next(LOAN_SEQUENCE));
+    }
+
+    public String nextPaymentNumber() {
+        return "PAY-" + LocalDate.now().format(DATE_FORMAT) + "-" + CustomerCodeGenerator.toBase36(sequenceBlockAllocator.next(PAYMENT_SEQUENCE));
+    }
+}
@@ -0,0 +1,453 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.model.Customer;
+import com.jilindecredit.api.model.CustomerProfile;
+import com.jilindecredit.api.model.Loan;
+import com.jilindecredit.api.model.LoanProduct;
+import com.jilindecredit.api.model.Payment;
+import com.jilindecredit.api.repository.CustomerRepository;
+import com.jilindecredit.api.repository.LoanProductRepository;
+import com.jilindecredit.api.repository.LoanRepository;
+import com.jilindecredit.api.repository.PaymentRepository;
+import com.jilindecredit.api.security.CustomUserDetailsService;
+import com.jilindecredit.api.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loan lifecycle: application, approval or rejection, disbursement, and repayment.
+ *
+ * All amounts are worked in cents (see Money) and only converted to BigDecimal at the entity and
+ * response boundary. Repayment schedules are not stored: the loan keeps its installment amount,
+ * total interest and running paid totals, which is enough to summarise it in constant time, and
+ * the full AmortizationSchedule is only built when a schedule or a payment allocation needs it.
+ */
+@Service
+@Transactional
+public class LoanService {
+
+    // Loans shown on the customer dashboard
+    private static final Set<Loan.LoanStatus> OPEN_STATUSES =
+        EnumSet.of(Loan.LoanStatus.PENDING, Loan.LoanStatus.APPROVED, Loan.LoanStatus.ACTIVE, Loan.LoanStatus.DEFAULTED);
+
+    // Loans with money out that can take repayments
+    static final Set<Loan.LoanStatus> REPAYING_STATUSES =
+        EnumSet.of(Loan.LoanStatus.ACTIVE, Loan.LoanStatus.DEFAULTED);
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanProductRepository loanProductRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private LoanNumberGenerator loanNumberGenerator;
+
+    @Autowired
+    private PaymentIngestionService paymentIngestionService;
+
+    @Autowired
+    private PortfolioAggregateStore portfolioAggregateStore;
+
+    @Autowired
+    private CustomerDashboardStore customerDashboardStore;
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getActiveProducts() {
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (LoanProduct product : loanProductRepository.findByIsActiveTrueOrderByProductName()) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", product.getId());
+            map.put("productName", product.getProductName());
+            map.put("description", product.getDescription());
+            map.put("minAmount", product.getMinAmount());
+            map.put("maxAmount", product.getMaxAmount());
+            map.put("interestRate", product.getInterestRate());
+            map.put("minTermMonths", product.getMinTermMonths());
+            map.put("maxTermMonths", product.getMaxTermMonths());
+            map.put("processingFeeRate", product.getProcessingFeeRate());
+            products.add(map);
+        }
+        return products;
+    }
+
+    public Map<String, Object> applyForLoan(Long customerId, Long productId, BigDecimal amount, int termMonths) {
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
+        CustomerProfile profile = customer.getCustomerProfile();
+        if (profile == null || profile.getKycStatus() != CustomerProfile.KycStatus.VERIFIED) {
+            throw new IllegalStateException("Customer must complete KYC verification before applying for a loan");
+        }
+
+        LoanProduct product = loanProductRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Loan product not found"));
+        if (!Boolean.TRUE.equals(product.getIsActive())) {
+            throw new IllegalArgumentException("Loan product is not available");
+        }
+        if (amount == null || amount.compareTo(product.getMinAmount()) < 0 || amount.compareTo(product.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("Amount must be between " + product.getMinAmount() + " and " + product.getMaxAmount());
+        }
+        if (termMonths < product.getMinTermMonths() || termMonths > product.getMaxTermMonths()) {
+            throw new IllegalArgumentException("Term must be between " + product.getMinTermMonths() + " and " + product.getMaxTermMonths() + " months");
+        }
+
+        long principal = Money.toMinor(amount);
+        long rateBasisPoints = Money.toBasisPoints(product.getInterestRate());
+        LocalDate today = LocalDate.now();
+        // Interest does not depend on the dates, so the quote is valid whenever the loan is disbursed
+        AmortizationSchedule schedule = new AmortizationSchedule(principal, rateBasisPoints, termMonths, today.plusMonths(1));
+
+        Loan loan = new Loan();
+        loan.setLoanNumber(loanNumberGenerator.nextLoanNumber());
+        loan.setCustomer(customer);
+        loan.setProduct(product);
+        loan.setPrincipalAmount(Money.toMajor(principal));
+        loan.setInterestRate(product.getInterestRate());
+        loan.setTermMonths(termMonths);
+        loan.setMonthlyPayment(Money.toMajor(schedule.getInstallmentAmount()));
+        loan.setTotalInterest(Money.toMajor(schedule.getTotalInterest()));
+        loan.setProcessingFee(Money.toMajor(Money.percentOf(principal, Money.toBasisPoints(product.getProcessingFeeRate()))));
+        loan.setStatus(Loan.LoanStatus.PENDING);
+        loan.setApplicationDate(today);
+        loan.setCreatedBy(getCurrentUserId());
+
+        Loan saved = loanRepository.save(loan);
+        portfolioAggregateStore.move(null, PortfolioAggregateStore.Position.of(saved));
+        customerDashboardStore.invalidate(List.of(customerId));
+        System.out.println("✅ LoanService: Loan " + saved.getLoanNumber() + " applied for by customer " + customerId);
+        return toMap(saved);
+    }
+
+    public Map<String, Object> approveLoan(Long loanId) {
+        Loan loan = findForUpdate(loanId);
+        if (loan.getStatus() != Loan.LoanStatus.PENDING) {
+            throw new IllegalStateException("Only pending loans can be approved (loan is " + loan.getStatus() + ")");
+        }
+        PortfolioAggregateStore.Position before = PortfolioAggregateStore.Position.of(loan);
+        loan.setStatus(Loan.LoanStatus.APPROVED);
+        loan.setApprovalDate(LocalDate.now());
+        loan.setApprovedBy(getCurrentUserId());
+        System.out.println("✅ LoanService: Loan " + loan.getLoanNumber() + " approved");
+        return saveTransition(loan, before);
+    }
+
+    public Map<String, Object> rejectLoan(Long loanId) {
+        Loan loan = findForUpdate(loanId);
+        if (loan.getStatus() != Loan.LoanStatus.PENDING && loan.getStatus() != Loan.LoanStatus.APPROVED) {
+            throw new IllegalStateException("Only pending or approved loans can be rejected (loan is " + loan.getStatus() + ")");
+        }
+        PortfolioAggregateStore.Position before = PortfolioAggregateStore.Position.of(loan);
+        loan.setStatus(Loan.LoanStatus.REJECTED);
+        loan.setApprovedBy(getCurrentUserId());
+        System.out.println("❌ LoanService: Loan " + loan.getLoanNumber() + " rejected");
+        return saveTransition(loan, before);
+    }
+
+    /**
+     * Pays out an approved loan. Installments fall due monthly from the disbursement date.
+     */
+    public Map<String, Object> disburseLoan(Long loanId) {
+        Loan loan = findForUpdate(loanId);
+        if (loan.getStatus() != Loan.LoanStatus.APPROVED) {
+            throw new IllegalStateException("Only approved loans can be disbursed (loan is " + loan.getStatus() + ")");
+        }
+        PortfolioAggregateStore.Position before = PortfolioAggregateStore.Position.of(loan);
+        LocalDate today = LocalDate.now();
+        loan.setStatus(Loan.LoanStatus.ACTIVE);
+        loan.setDisbursementDate(today);
+        loan.setMaturityDate(today.plusMonths(loan.getTermMonths()));
+        loan.setDisbursedBy(getCurrentUserId());
+        loan.setDaysPastDue(0);
+        System.out.println("💸 LoanService: Loan " + loan.getLoanNumber() + " disbursed");
+        return saveTransition(loan, before);
+    }
+
+    /**
+     * Posts a repayment. The loan row is locked for the rest of the transaction, so concurrent
+     * payments on one loan are allocated one after the other.
+     */
+    public Map<String, Object> recordPayment(Long loanId, BigDecimal amount, Payment.PaymentMethod method,
+                                             String referenceNumber, LocalDate paymentDate, String notes) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Payment amount must be positive");
+        }
+        if (referenceNumber != null && paymentRepository.existsByReferenceNumber(referenceNumber)) {
+            throw new IllegalStateException("A payment with reference " + referenceNumber + " has already been recorded");
+        }
+        Loan loan = findForUpdate(loanId);
+        if (!REPAYING_STATUSES.contains(loan.getStatus())) {
+            throw new IllegalStateException("Payments can only be made on active loans (loan is " + loan.getStatus() + ")");
+        }
+
+        PortfolioAggregateStore.Position before = PortfolioAggregateStore.Position.of(loan);
+        LocalDate date = paymentDate != null ? paymentDate : LocalDate.now();
+        PaymentAllocation allocation = allocate(loan, Money.toMinor(amount), date);
+
+        Payment payment = new Payment();
+        payment.setPaymentNumber(loanNumberGenerator.nextPaymentNumber());
+        payment.setLoan(loan);
+        payment.setPaymentDate(date);
+        payment.setAmount(Money.toMajor(Money.toMinor(amount)));
+        payment.setPenaltyAmount(Money.toMajor(allocation.getPenalty()));
+        payment.setInterestAmount(Money.toMajor(allocation.getInterest()));
+        payment.setPrincipalAmount(Money.toMajor(allocation.getPrincipal()));
+        payment.setPaymentMethod(method);
+        payment.setReferenceNumber(referenceNumber);
+        payment.setReceivedBy(getCurrentUserId());
+        payment.setNotes(notes);
+        Payment saved = paymentRepository.save(payment);
+        if (referenceNumber != null) {
+            paymentIngestionService.addPostedReference(referenceNumber);
+        }
+
+        applyToLoan(loan, allocation, date);
+        loanRepository.save(loan);
+        portfolioAggregateStore.move(before, PortfolioAggregateStore.Position.of(loan));
+        portfolioAggregateStore.recordCollection(date, allocation);
+        customerDashboardStore.invalidate(List.of(loan.getCustomer().getId()));
+
+        System.out.println("💰 LoanService: Payment " + saved.getPaymentNumber() + " of " + saved.getAmount()
+            + " posted to loan " + loan.getLoanNumber() + " (status " + loan.getStatus() + ")");
+        Map<String, Object> result = paymentToMap(saved);
+        result.put("loan", toMap(loan));
+        return result;
+    }
+
+    /**
+     * Splits a payment on a loan as of the given date. Interest is due through the installment
+     * period the payment falls in, so an early installment payment still covers that month's
+     * interest; interest for later periods is never collected ahead of time, and paying off early
+     * waives it.
+     */
+    static PaymentAllocation allocate(Loan loan, long amount, LocalDate paymentDate) {
+        long penaltyDue = Money.toMinor(loan.getPenaltyCharged()) - Money.toMinor(loan.getPenaltyPaid());
+        long principalOutstanding = Money.toMinor(loan.getPrincipalAmount()) - Money.toMinor(loan.getPrincipalPaid());
+        AmortizationSchedule schedule = scheduleFor(loan);
+        int periods = Math.min(schedule.getTermMonths(), schedule.installmentsDueBy(paymentDate) + 1);
+        long interestDue = schedule.interestThrough(periods) - Money.toMinor(loan.getInterestPaid());
+        return PaymentAllocation.allocate(amount, penaltyDue, interestDue, principalOutstanding);
+    }
+
+    static void applyToLoan(Loan loan, PaymentAllocation allocation, LocalDate paymentDate) {
+        loan.setPenaltyPaid(Money.toMajor(Money.toMinor(loan.getPenaltyPaid()) + allocation.getPenalty()));
+        loan.setInterestPaid(Money.toMajor(Money.toMinor(loan.getInterestPaid()) + allocation.getInterest()));
+        long principalPaid = Money.toMinor(loan.getPrincipalPaid()) + allocation.getPrincipal();
+        loan.setPrincipalPaid(Money.toMajor(principalPaid));
+        if (loan.getLastPaymentDate() == null || paymentDate.isAfter(loan.getLastPaymentDate())) {
+            loan.setLastPaymentDate(paymentDate);
+        }
+        if (principalPaid >= Money.toMinor(loan.getPrincipalAmount())) {
+            loan.setStatus(Loan.LoanStatus.COMPLETED);
+        }
+        loan.setDaysPastDue(daysPastDue(loan, LocalDate.now()));
+    }
+
+    /**
+     * Days the loan's oldest unpaid installment is overdue on the date; 0 for loans not being repaid
+     */
+    static int daysPastDue(Loan loan, LocalDate date) {
+        if (!REPAYING_STATUSES.contains(loan.getStatus()) || loan.getDisbursementDate() == null) {
+            return 0;
+        }
+        long totalRepayable = Money.toMinor(loan.getPrincipalAmount()) + Money.toMinor(loan.getTotalInterest());
+        long paid = Money.toMinor(loan.getPrincipalPaid()) + Money.toMinor(loan.getInterestPaid());
+        return AmortizationSchedule.daysPastDue(loan.getDisbursementDate().plusMonths(1), loan.getTermMonths(),
+            Money.toMinor(loan.getMonthlyPayment()), totalRepayable, paid, date);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLoan(Long loanId) {
+        return toMap(findLoan(loanId));
+    }
+
+    /**
+     * Full repayment schedule, with each installment marked paid once the loan's principal and
+     * interest payments cover it
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSchedule(Long loanId) {
+        Loan loan = findLoan(loanId);
+        AmortizationSchedule schedule = scheduleFor(loan);
+        long paid = Money.toMinor(loan.getPrincipalPaid()) + Money.toMinor(loan.getInterestPaid());
+
+        List<Map<String, Object>> installments = new ArrayList<>();
+        long cumulative = 0;
+        for (AmortizationSchedule.Installment installment : schedule.getInstallments()) {
+            cumulative += installment.getAmount();
+            Map<String, Object> map = new HashMap<>();
+            map.put("number", installment.getNumber());
+            map.put("dueDate", loan.getDisbursementDate() != null ? installment.getDueDate() : null);
+            map.put("amount", Money.toMajor(installment.getAmount()));
+            map.put("principal", Money.toMajor(installment.getPrincipal()));
+            map.put("interest", Money.toMajor(installment.getInterest()));
+            map.put("balanceAfter", Money.toMajor(installment.getBalanceAfter()));
+            map.put("paid", paid >= cumulative || loan.getStatus() == Loan.LoanStatus.COMPLETED);
+            installments.add(map);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("loanNumber", loan.getLoanNumber());
+        result.put("monthlyPayment", loan.getMonthlyPayment());
+        result.put("totalInterest", loan.getTotalInterest());
+        result.put("installments", installments);
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPayments(Long loanId) {
+        findLoan(loanId);
+        List<Map<String, Object>> payments = new ArrayList<>();
+        for (Payment payment : paymentRepository.findByLoanIdOrderByPaymentDateAscIdAsc(loanId)) {
+            payments.add(paymentToMap(payment));
+        }
+        return payments;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCustomerLoans(Long customerId) {
+        List<Map<String, Object>> loans = new ArrayList<>();
+        for (Loan loan : loanRepository.findByCustomerIdWithProduct(customerId)) {
+            loans.add(toMap(loan));
+        }
+        return loans;
+    }
+
+    /**
+     * Open loans for the customer dashboard, summarised from stored totals without building
+     * schedules
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getLoanSummaries(Long customerId) {
+        List<Map<String, Object>> loans = new ArrayList<>();
+        for (Loan loan : loanRepository.findByCustomerIdAndStatusIn(customerId, OPEN_STATUSES)) {
+            loans.add(toMap(loan));
+        }
+        return loans;
+    }
+
+    /**
+     * Principal still owed on the customer's disbursed loans
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getOutstandingPrincipal(Long customerId) {
+        return loanRepository.sumOutstandingPrincipal(customerId, REPAYING_STATUSES);
+    }
+
+    static AmortizationSchedule scheduleFor(Loan loan) {
+        LocalDate start = loan.getDisbursementDate() != null ? loan.getDisbursementDate() : loan.getApplicationDate();
+        return new AmortizationSchedule(Money.toMinor(loan.getPrincipalAmount()), Money.toBasisPoints(loan.getInterestRate()),
+            loan.getTermMonths(), start.plusMonths(1));
+    }
+
+    private Map<String, Object> toMap(Loan loan) {
+        long principal = Money.toMinor(loan.getPrincipalAmount());
+        long principalPaid = Money.toMinor(loan.getPrincipalPaid());
+        long interestPaid = Money.toMinor(loan.getInterestPaid());
+        long penaltyOutstanding = Money.toMinor(loan.getPenaltyCharged()) - Money.toMinor(loan.getPenaltyPaid());
+        long installment = Money.toMinor(loan.getMonthlyPayment());
+        long totalRepayable = principal + Money.toMinor(loan.getTotalInterest());
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", loan.getId());
+        map.put("loanNumber", loan.getLoanNumber());
+        map.put("productName", loan.getProduct().getProductName());
+        map.put("status", loan.getStatus().name());
+        map.put("principalAmount", loan.getPrincipalAmount());
+        map.put("interestRate", loan.getInterestRate());
+        map.put("termMonths", loan.getTermMonths());
+        map.put("monthlyPayment", loan.getMonthlyPayment());
+        map.put("totalInterest", loan.getTotalInterest());
+        map.put("processingFee", loan.getProcessingFee());
+        map.put("totalRepayable", Money.toMajor(totalRepayable));
+        map.put("outstandingPrincipal", Money.toMajor(principal - principalPaid));
+        map.put("amountPaid", Money.toMajor(principalPaid + interestPaid + Money.toMinor(loan.getPenaltyPaid())));
+        map.put("applicationDate", loan.getApplicationDate());
+        map.put("approvalDate", loan.getApprovalDate());
+        map.put("disbursementDate", loan.getDisbursementDate());
+        map.put("maturityDate", loan.getMaturityDate());
+        map.put("lastPaymentDate", loan.getLastPaymentDate());
+        map.put("interestAccrued", loan.getInterestAccrued());
+
+        if (REPAYING_STATUSES.contains(loan.getStatus()) && loan.getDisbursementDate() != null) {
+            // Every installment but the last is the level amount, so the amount scheduled to date
+            // needs no schedule: k installments, or the whole repayable once the last is due
+            LocalDate firstDue = loan.getDisbursementDate().plusMonths(1);
+            int term = loan.getTermMonths();
+            int due = AmortizationSchedule.installmentsDueBy(firstDue, term, LocalDate.now());
+            long scheduledToDate = due >= term ? totalRepayable : due * installment;
+            long arrears = Math.max(0L, scheduledToDate - principalPaid - interestPaid);
+            map.put("installmentsDue", due);
+            map.put("arrears", Money.toMajor(arrears));
+            map.put("penaltyOutstanding", Money.toMajor(penaltyOutstanding));
+            map.put("amountDue", Money.toMajor(arrears + penaltyOutstanding));
+            map.put("nextDueDate", due < term ? firstDue.plusMonths(due) : null);
+            map.put("daysPastDue", AmortizationSchedule.daysPastDue(firstDue, term, installment, totalRepayable,
+                principalPaid + interestPaid, LocalDate.now()));
+        }
+        return map;
+    }
+
+    /**
+     * Saves a status change, moves the loan between portfolio counters once it commits and drops
+     * the customer's dashboard
+     */
+    private Map<String, Object> saveTransition(Loan loan, PortfolioAggregateStore.Position before) {
+        // Flushed first so the loan row is locked before the customer row, the order every other writer uses
+        Loan saved = loanRepository.saveAndFlush(loan);
+        portfolioAggregateStore.move(before, PortfolioAggregateStore.Position.of(saved));
+        customerDashboardStore.invalidate(List.of(saved.getCustomer().getId()));
+        return toMap(saved);
+    }
+
+    private Map<String, Object> paymentToMap(Payment payment) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", payment.getId());
+        map.put("paymentNumber", payment.getPaymentNumber());
+        map.put("paymentDate", payment.getPaymentDate());
+        map.put("amount", payment.getAmount());
+        map.put("principalAmount", payment.getPrincipalAmount());
+        map.put("interestAmount", payment.getInterestAmount());
+        map.put("penaltyAmount", payment.getPenaltyAmount());
+        map.put("paymentMethod", payment.getPaymentMethod() != null ? payment.getPaymentMethod().name() : null);
+        map.put("referenceNumber", payment.getReferenceNumber());
+        return map;
+    }
+
+    private Loan findLoan(Long loanId) {
+        return loanRepository.findById(loanId)
+                .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+    }
+
+    private Loan findForUpdate(Long loanId) {
+        return loanRepository.findByIdForUpdate(loanId)
+                .orElseThrow(() -> new IllegalArgumentException("Loan not found"));
+    }
+
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetailsService.CustomUserPrincipal) {
+            CustomUserDetailsService.CustomUserPrincipal userPrincipal =
+                (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+            return userPrincipal.getUser().getId();
+        }
+        return null;
+    }
+}
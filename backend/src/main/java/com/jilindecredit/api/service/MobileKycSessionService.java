@@ -1,70 +1,101 @@
 package com.jilindecredit.api.service;
 
+import com.jilindecredit.api.model.KycSession;
+import com.jilindecredit.api.repository.KycSessionRepository;
+import com.jilindecredit.api.util.ExpiryWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class MobileKycSessionService {
 
-    // In-memory storage for KYC sessions (in production, use Redis or database)
-    private final Map<String, KycSession> activeSessions = new ConcurrentHashMap<>();
+    @Autowired
+    private KycSessionRepository sessionRepository;
 
-    public static class KycSession {
-        private String sessionId;
-        private String customerData;
-        private LocalDateTime createdAt;
-        private LocalDateTime expiresAt;
-        private String status; // PENDING, IN_PROGRESS, COMPLETED, EXPIRED
-        private Map<String, Object> verificationData;
+    // Limit applies per instance, to sessions created on this node
+    @Value("${mobile-kyc.max-sessions:10000}")
+    private int maxSessions;
 
-        public KycSession(String sessionId, String customerData) {
-            this.sessionId = sessionId;
-            this.customerData = customerData;
-            this.createdAt = LocalDateTime.now();
-            this.expiresAt = LocalDateTime.now().plusMinutes(15); // 15-minute expiry
-            this.status = "PENDING";
-            this.verificationData = new HashMap<>();
-        }
-
-        // Getters and setters
-        public String getSessionId() { return sessionId; }
-        public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    // Sessions created on this node, which this node's wheel is responsible for expiring
+    private final Set<String> localSessions = ConcurrentHashMap.newKeySet();
 
-        public String getCustomerData() { return customerData; }
-        public void setCustomerData(String customerData) { this.customerData = customerData; }
+    // Sessions are removed by the wheel as they expire, so creation never scans the map
+    private ExpiryWheel<String> expiryWheel;
 
-        public LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    private final AtomicInteger liveSessions = new AtomicInteger();
+    private final LongAdder sessionsCreated = new LongAdder();
+    private final LongAdder sessionsExpired = new LongAdder();
+    private final LongAdder sessionsCompleted = new LongAdder();
+    private final LongAdder sessionsRejected = new LongAdder();
 
-        public LocalDateTime getExpiresAt() { return expiresAt; }
-        public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    // Desktop clients waiting on status changes, keyed by session ID
+    private final Map<String, Subscribers> statusSubscribers = new ConcurrentHashMap<>();
 
-        public String getStatus() { return status; }
-        public void setStatus(String status) { this.status = status; }
+    private static final Map<String, Object> NOT_FOUND_STATUS = Collections.unmodifiableMap(new HashMap<>(Map.of(
+        "status", "NOT_FOUND",
+        "message", "Session not found or expired")));
 
-        public Map<String, Object> getVerificationData() { return verificationData; }
-        public void setVerificationData(Map<String, Object> verificationData) { this.verificationData = verificationData; }
+    @PostConstruct
+    void startExpiry() {
+        // 1s ticks over 1024 buckets: one lap covers the 15-minute session lifetime
+        expiryWheel = new ExpiryWheel<>(1000, 1024, this::expireIfDue, "kyc-session-expiry");
+        expiryWheel.start();
+    }
 
-        public boolean isExpired() {
-            return LocalDateTime.now().isAfter(expiresAt);
-        }
+    @PreDestroy
+    void stopExpiry() {
+        expiryWheel.stop();
     }
 
     /**
      * Creates a new mobile KYC session
+     *
+     * @throws IllegalStateException when the maximum number of live sessions has been reached
      */
     public KycSession createMobileKycSession(String customerData) {
+        // Reserve a slot before creating the session so concurrent callers cannot overshoot the limit
+        if (liveSessions.incrementAndGet() > maxSessions) {
+            liveSessions.decrementAndGet();
+            sessionsRejected.increment();
+            System.err.println("❌ MobileKycSessionService: Session limit of " + maxSessions + " reached");
+            throw new IllegalStateException("Too many active KYC sessions. Please try again in a few minutes.");
+        }
+
         String sessionId = generateSessionId();
         KycSession session = new KycSession(sessionId, customerData);
-        activeSessions.put(sessionId, session);
-        
-        // Clean up expired sessions
-        cleanupExpiredSessions();
+        try {
+            sessionRepository.insert(session);
+        } catch (RuntimeException e) {
+            liveSessions.decrementAndGet();
+            throw e;
+        }
+        localSessions.add(sessionId);
+        sessionsCreated.increment();
+
+        // +1ms so the bucket is never visited before expiresAt, which carries sub-millisecond precision
+        long deadlineMillis = session.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + 1;
+        expiryWheel.schedule(sessionId, deadlineMillis);
         
         return session;
     }
@@ -73,9 +104,9 @@ public class MobileKycSessionService {
      * Gets a KYC session by ID
      */
     public KycSession getSession(String sessionId) {
-        KycSession session = activeSessions.get(sessionId);
+        KycSession session = sessionRepository.findById(sessionId);
         if (session != null && session.isExpired()) {
-            activeSessions.remove(sessionId);
+            removeExpired(sessionId);
             return null;
         }
         return session;
@@ -88,6 +119,8 @@ public class MobileKycSessionService {
         KycSession session = getSession(sessionId);
         if (session != null) {
             session.setStatus(status);
+            sessionRepository.update(session);
+            publishStatus(sessionId, session);
             return true;
         }
         return false;
@@ -98,12 +131,22 @@ public class MobileKycSessionService {
      */
     public boolean completeKycVerification(String sessionId, Map<String, Object> verificationData) {
         KycSession session = getSession(sessionId);
-        if (session != null) {
-            session.setStatus("COMPLETED");
-            session.setVerificationData(verificationData);
-            return true;
+        if (session == null) {
+            return false;
         }
-        return false;
+        boolean wasCompleted = session.isCompleted();
+        session.setStatus("COMPLETED");
+        session.setVerificationData(verificationData);
+        // Written before returning, so the desktop sees the result on whichever node it polls
+        KycSession stored = sessionRepository.updateNow(session);
+        if (stored == null) {
+            return false;
+        }
+        if (!wasCompleted) {
+            sessionsCompleted.increment();
+        }
+        publishStatus(sessionId, stored);
+        return true;
     }
 
     /**
@@ -153,33 +196,180 @@ public class MobileKycSessionService {
     }
 
     /**
-     * Cleans up expired sessions
+     * Timer wheel callback: drops the session once it has expired
      */
-    private void cleanupExpiredSessions() {
-        activeSessions.entrySet().removeIf(entry -> entry.getValue().isExpired());
+    private boolean expireIfDue(String sessionId) {
+        KycSession session = sessionRepository.findById(sessionId);
+        if (session != null && !session.isExpired()) {
+            // Expiry was extended; keep the session for the next lap
+            return false;
+        }
+        // Also releases the slot of a session another node has already purged
+        removeExpired(sessionId);
+        return true;
+    }
+
+    private void removeExpired(String sessionId) {
+        boolean removed = sessionRepository.delete(sessionId);
+        // Only the first caller releases this node's slot
+        if (localSessions.remove(sessionId)) {
+            liveSessions.decrementAndGet();
+        }
+        if (removed) {
+            sessionsExpired.increment();
+        }
+        publishStatus(sessionId, null);
     }
 
     /**
-     * Gets session status for polling
+     * Opens a status stream for a session. The current status is sent straight away, then one
+     * event per change; the stream is closed once the session completes or expires.
      */
-    public Map<String, Object> getSessionStatus(String sessionId) {
+    public SseEmitter subscribeToStatus(String sessionId) {
         KycSession session = getSession(sessionId);
-        Map<String, Object> status = new HashMap<>();
-        
+        long timeoutMillis = session == null ? 0L
+            : Math.max(1L, Duration.between(LocalDateTime.now(), session.getExpiresAt()).toMillis());
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+
         if (session == null) {
-            status.put("status", "NOT_FOUND");
-            status.put("message", "Session not found or expired");
-        } else {
-            status.put("status", session.getStatus());
-            status.put("sessionId", session.getSessionId());
-            status.put("createdAt", session.getCreatedAt());
-            status.put("expiresAt", session.getExpiresAt());
-            
-            if ("COMPLETED".equals(session.getStatus())) {
-                status.put("verificationData", session.getVerificationData());
+            sendStatus(emitter, NOT_FOUND_STATUS);
+            emitter.complete();
+            return emitter;
+        }
+
+        Subscribers subscribers = statusSubscribers.computeIfAbsent(sessionId, id -> new Subscribers());
+        subscribers.emitters.add(emitter);
+        subscribers.lastVersion = Math.max(subscribers.lastVersion, session.getVersion());
+        Runnable unsubscribe = () -> removeSubscriber(sessionId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        Map<String, Object> current = session.toStatusMap();
+        if (sendStatus(emitter, current) && isFinal(current)) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Pushes the session's status to every subscriber; a null session means it has expired
+     */
+    private void publishStatus(String sessionId, KycSession session) {
+        Subscribers subscribers = statusSubscribers.get(sessionId);
+        if (subscribers == null || subscribers.emitters.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> status = session == null ? NOT_FOUND_STATUS : session.toStatusMap();
+        boolean closeStreams = session == null || isFinal(status);
+        if (session != null) {
+            subscribers.lastVersion = Math.max(subscribers.lastVersion, session.getVersion());
+        }
+        for (SseEmitter emitter : subscribers.emitters) {
+            if (sendStatus(emitter, status) && closeStreams) {
+                emitter.complete();
             }
         }
-        
-        return status;
+        if (closeStreams) {
+            statusSubscribers.remove(sessionId);
+        }
+    }
+
+    private boolean sendStatus(SseEmitter emitter, Map<String, Object> status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the error callback unsubscribes it
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void removeSubscriber(String sessionId, SseEmitter emitter) {
+        statusSubscribers.computeIfPresent(sessionId, (id, subscribers) -> {
+            subscribers.emitters.remove(emitter);
+            return subscribers.emitters.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * With a shared store the phone may reach another node, so changes made there are picked
+     * up here by re-reading the sessions this node has subscribers for, in one lookup
+     */
+    @Scheduled(fixedDelayString = "${mobile-kyc.subscriber-refresh-ms:1000}")
+    public void refreshSharedSubscribers() {
+        if (!sessionRepository.isShared() || statusSubscribers.isEmpty()) {
+            return;
+        }
+        // Only the sessions looked up: one subscribed meanwhile is not missing, just not read yet
+        List<String> sessionIds = new ArrayList<>(statusSubscribers.keySet());
+        Map<String, KycSession> sessions;
+        try {
+            sessions = sessionRepository.findAllById(sessionIds);
+        } catch (RuntimeException e) {
+            System.err.println("❌ MobileKycSessionService: Could not refresh subscribed sessions: " + e.getMessage());
+            return;
+        }
+        for (String sessionId : sessionIds) {
+            Subscribers subscribers = statusSubscribers.get(sessionId);
+            if (subscribers == null) {
+                continue;
+            }
+            try {
+                KycSession session = sessions.get(sessionId);
+                if (session != null && session.isExpired()) {
+                    removeExpired(sessionId);
+                } else if (session == null) {
+                    publishStatus(sessionId, null);
+                } else if (session.getVersion() > subscribers.lastVersion) {
+                    publishStatus(sessionId, session);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("❌ MobileKycSessionService: Could not refresh session " + sessionId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class Subscribers {
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        // Highest version already pushed to these emitters
+        volatile long lastVersion = -1L;
+    }
+
+    private static boolean isFinal(Map<String, Object> status) {
+        return "COMPLETED".equals(status.get("status"));
+    }
+
+    /**
+     * Current version of a session's status, or -1 if it is not found or has expired
+     */
+    public long getSessionVersion(String sessionId) {
+        KycSession session = getSession(sessionId);
+        return session == null ? -1L : session.getVersion();
+    }
+
+    /**
+     * Session counters for monitoring
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("liveSessions", liveSessions.get());
+        metrics.put("maxSessions", maxSessions);
+        metrics.put("sessionsCreated", sessionsCreated.sum());
+        metrics.put("sessionsExpired", sessionsExpired.sum());
+        metrics.put("sessionsCompleted", sessionsCompleted.sum());
+        metrics.put("sessionsRejected", sessionsRejected.sum());
+        return metrics;
+    }
+
+    /**
+     * Gets session status for polling
+     */
+    public Map<String, Object> getSessionStatus(String sessionId) {
+        KycSession session = getSession(sessionId);
+        // Unchanged sessions reuse the same response map between polls
+        return session == null ? NOT_FOUND_STATUS : session.toStatusMap();
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.jilindecredit.api.service;
 
+import com.jilindecredit.api.dto.ApplicationSummaryDto;
 import com.jilindecredit.api.dto.OnboardingRequest;
 import com.jilindecredit.api.dto.OnboardingResponse;
 import com.jilindecredit.api.model.Customer;
@@ -7,7 +8,10 @@ import com.jilindecredit.api.model.CustomerProfile;
 import com.jilindecredit.api.model.User;
 import com.jilindecredit.api.repository.CustomerRepository;
 import com.jilindecredit.api.security.CustomUserDetailsService;
+import com.jilindecredit.api.util.PhoneNumbers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -23,12 +27,25 @@ import java.util.stream.Collectors;
 @Transactional
 public class OnboardingService {
 
+    private static final int MAX_APPLICATION_PAGE_SIZE = 200;
+    private static final LocalDateTime EARLIEST_SUBMISSION = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST_SUBMISSION = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     @Autowired
     private CustomerRepository customerRepository;
 
     @Autowired
     private CreditScoringService creditScoringService;
 
+    @Autowired
+    private CustomerSearchIndex customerSearchIndex;
+
+    @Autowired
+    private CustomerCodeGenerator customerCodeGenerator;
+
+    @Autowired
+    private PhoneNumberBackfillService phoneNumberBackfillService;
+
     // @Autowired
     // private DocumentVerificationService documentVerificationService; // COMPLETELY REMOVED TEMPORARILY
 
@@ -41,15 +58,12 @@ public class OnboardingService {
             throw new IllegalArgumentException("Customer with this National ID already exists");
         }
         
-        if (customerRepository.existsByPhone(request.getPhone())) {
+        if (isPhoneRegistered(request.getPhone())) {
             throw new IllegalArgumentException("Customer with this phone number already exists");
         }
 
         // Generate unique customer code
-        String customerCode = generateCustomerCode();
-        while (customerRepository.existsByCustomerCode(customerCode)) {
-            customerCode = generateCustomerCode();
-        }
+        String customerCode = customerCodeGenerator.nextCode();
 
         System.out.println("✅ SIMPLE REGISTRATION: Creating customer with code: " + customerCode);
 
@@ -91,6 +105,7 @@ public class OnboardingService {
 
         // Save customer (cascades to profile)
         Customer savedCustomer = customerRepository.save(customer);
+        customerSearchIndex.index(savedCustomer);
 
         System.out.println("🎉 SIMPLE REGISTRATION: Customer saved successfully with ID: " + savedCustomer.getId());
 
@@ -110,15 +125,12 @@ public class OnboardingService {
             throw new IllegalArgumentException("Customer with this National ID already exists");
         }
         
-        if (customerRepository.existsByPhone(request.getPhone())) {
+        if (isPhoneRegistered(request.getPhone())) {
             throw new IllegalArgumentException("Customer with this phone number already exists");
         }
 
         // Generate unique customer code
-        String customerCode = generateCustomerCode();
-        while (customerRepository.existsByCustomerCode(customerCode)) {
-            customerCode = generateCustomerCode();
-        }
+        String customerCode = customerCodeGenerator.nextCode();
 
         // Create customer entity
         Customer customer = new Customer();
@@ -148,12 +160,13 @@ public class OnboardingService {
         // Generate baseline credit score
         BigDecimal baselineScore = creditScoringService.generateBaselineCreditScore(customer);
         profile.setBaselineCreditScore(baselineScore);
-        profile.setRiskCategory(determineRiskCategory(baselineScore));
+        profile.setRiskCategory(creditScoringService.determineRiskCategory(baselineScore));
 
         customer.setCustomerProfile(profile);
 
         // Save customer (cascades to profile)
         Customer savedCustomer = customerRepository.save(customer);
+        customerSearchIndex.index(savedCustomer);
 
         return new OnboardingResponse(
             savedCustomer.getId(),
@@ -196,7 +209,7 @@ public class OnboardingService {
     }
 
     public boolean isPhoneNumberAvailable(String phone) {
-        return !customerRepository.existsByPhone(phone);
+        return !isPhoneRegistered(phone);
     }
 
     public Map<String, Object> getApplicationStatus(String applicationId) {
@@ -228,57 +241,95 @@ public class OnboardingService {
 
     public List<Map<String, Object>> getAllApplications() {
         System.out.println("🔍 OnboardingService: Searching for all applications...");
-        List<Customer> allCustomers = customerRepository.findAll();
-        System.out.println("📊 OnboardingService: Found " + allCustomers.size() + " total customers");
-        
-        return allCustomers.stream().map(customer -> {
-            System.out.println("📋 Processing customer: " + customer.getCustomerCode() + " - " + customer.getFirstName() + " " + customer.getLastName());
-            Map<String, Object> app = new HashMap<>();
-            app.put("id", customer.getCustomerCode());
-            app.put("firstName", customer.getFirstName());
-            app.put("lastName", customer.getLastName());
-            app.put("phone", customer.getPhone());
-            app.put("email", customer.getEmail());
-            app.put("idNumber", customer.getNationalId());
-            
-            // Determine status based on KYC status
-            CustomerProfile profile = customer.getCustomerProfile();
-            String status = "pending";
-            if (profile != null) {
-                switch (profile.getKycStatus()) {
-                    case VERIFIED:
-                        status = "approved";
-                        break;
-                    case REJECTED:
-                        status = "rejected";
-                        break;
-                    case PENDING:
-                    default:
-                        status = "pending";
-                        break;
-                }
-            }
-            
-            app.put("status", status);
-            app.put("submittedAt", customer.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-            
-            // Add document verification score for admin review
-            if (customer.getDocumentVerificationScore() != null) {
-                app.put("documentVerificationScore", customer.getDocumentVerificationScore());
-            }
-            
-            // Add PIN if approved
-            if ("approved".equals(status) && customer.getLoginPin() != null) {
-                app.put("pin", customer.getLoginPin());
-            }
-            
-            // Add rejection reason if rejected
-            if ("rejected".equals(status) && profile != null && profile.getRejectionReason() != null) {
-                app.put("rejectionReason", profile.getRejectionReason());
+        List<ApplicationSummaryDto> summaries = customerRepository.findApplicationSummaries(
+            Long.MAX_VALUE, EARLIEST_SUBMISSION, LATEST_SUBMISSION, Pageable.unpaged());
+        System.out.println("📊 OnboardingService: Found " + summaries.size() + " total customers");
+
+        return summaries.stream().map(this::toApplicationMap).collect(Collectors.toList());
+    }
+
+    /**
+     * Keyset-paginated application listing for the admin portal.
+     * Each page is a single indexed range scan on customers.id joined to customer_profiles,
+     * so the cost of a page does not grow with the size of the table.
+     *
+     * @param cursor id of the last application on the previous page, or null for the first page
+     * @param limit maximum number of applications to return (capped at MAX_APPLICATION_PAGE_SIZE)
+     * @param kycStatus optional KYC status filter
+     * @param submittedFrom optional inclusive lower bound on submission time
+     * @param submittedTo optional exclusive upper bound on submission time
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getApplicationsPage(Long cursor, int limit, CustomerProfile.KycStatus kycStatus,
+                                                   LocalDateTime submittedFrom, LocalDateTime submittedTo) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_APPLICATION_PAGE_SIZE));
+        Long beforeId = cursor != null ? cursor : Long.MAX_VALUE;
+        LocalDateTime from = submittedFrom != null ? submittedFrom : EARLIEST_SUBMISSION;
+        LocalDateTime to = submittedTo != null ? submittedTo : LATEST_SUBMISSION;
+
+        // Fetch one extra row to find out whether another page exists
+        Pageable window = PageRequest.of(0, pageSize + 1);
+        List<ApplicationSummaryDto> rows = kycStatus != null
+            ? customerRepository.findApplicationSummariesByKycStatus(kycStatus, beforeId, from, to, window)
+            : customerRepository.findApplicationSummaries(beforeId, from, to, window);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("applications", rows.stream().map(this::toApplicationMap).collect(Collectors.toList()));
+        page.put("hasMore", hasMore);
+        page.put("nextCursor", hasMore ? rows.get(rows.size() - 1).getCustomerId() : null);
+        return page;
+    }
+
+    private Map<String, Object> toApplicationMap(ApplicationSummaryDto summary) {
+        Map<String, Object> app = new HashMap<>();
+        app.put("id", summary.getCustomerCode());
+        app.put("firstName", summary.getFirstName());
+        app.put("lastName", summary.getLastName());
+        app.put("phone", summary.getPhone());
+        app.put("email", summary.getEmail());
+        app.put("idNumber", summary.getNationalId());
+
+        // Determine status based on KYC status
+        String status = "pending";
+        if (summary.getKycStatus() != null) {
+            switch (summary.getKycStatus()) {
+                case VERIFIED:
+                    status = "approved";
+                    break;
+                case REJECTED:
+                    status = "rejected";
+                    break;
+                case PENDING:
+                default:
+                    status = "pending";
+                    break;
             }
-            
-            return app;
-        }).collect(Collectors.toList());
+        }
+
+        app.put("status", status);
+        app.put("submittedAt", summary.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+        // Add document verification score for admin review
+        if (summary.getDocumentVerificationScore() != null) {
+            app.put("documentVerificationScore", summary.getDocumentVerificationScore());
+        }
+
+        // Add PIN if approved
+        if ("approved".equals(status) && summary.getLoginPin() != null) {
+            app.put("pin", summary.getLoginPin());
+        }
+
+        // Add rejection reason if rejected
+        if ("rejected".equals(status) && summary.getRejectionReason() != null) {
+            app.put("rejectionReason", summary.getRejectionReason());
+        }
+
+        return app;
     }
 
     public List<Map<String, Object>> getPendingApplications() {
@@ -387,35 +438,22 @@ public class OnboardingService {
         return stats;
     }
 
+    private boolean isPhoneRegistered(String phone) {
+        String canonical = PhoneNumbers.toE164(phone);
+        if (canonical == null) {
+            return false;
+        }
+        if (!phoneNumberBackfillService.isComplete() && customerRepository.existsByPhone(phone)) {
+            return true;
+        }
+        return customerRepository.existsByPhoneE164(canonical);
+    }
+
     private String generatePIN() {
         Random random = new Random();
         return String.format("%04d", random.nextInt(10000));
     }
 
-    private String generateCustomerCode() {
-        // Generate customer code in format: CUST-YYYYMMDD-XXXX
-        String datePrefix = java.time.LocalDate.now().toString().replace("-", "");
-        String randomSuffix = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return "CUST-" + datePrefix + "-" + randomSuffix;
-    }
-
-    private CustomerProfile.RiskCategory determineRiskCategory(BigDecimal creditScore) {
-        if (creditScore == null) {
-            return CustomerProfile.RiskCategory.MEDIUM;
-        }
-
-        double score = creditScore.doubleValue();
-        if (score >= 750) {
-            return CustomerProfile.RiskCategory.LOW;
-        } else if (score >= 650) {
-            return CustomerProfile.RiskCategory.MEDIUM;
-        } else if (score >= 500) {
-            return CustomerProfile.RiskCategory.HIGH;
-        } else {
-            return CustomerProfile.RiskCategory.VERY_HIGH;
-        }
-    }
-
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetailsService.CustomUserPrincipal) {
@@ -0,0 +1,33 @@
+package com.jilindecredit.api.service;
+
+import java.time.Duration;
+
+/**
+ * Storage for one-time phone verification codes.
+ * Select the implementation with otp.store: "memory" (default, single node) or
+ * "database" (shared by every API instance).
+ */
+public interface OtpStore {
+
+    enum VerificationOutcome {
+        VERIFIED, NOT_FOUND, EXPIRED, INVALID_CODE, TOO_MANY_ATTEMPTS
+    }
+
+    /**
+     * Stores a code for the key, replacing any previous one and resetting its attempt counter
+     *
+     * @throws IllegalStateException when the store is at capacity
+     */
+    void store(String key, String code, Duration ttl);
+
+    /**
+     * Checks a code. A matching code is consumed; a wrong code counts as an attempt, and the
+     * code is discarded once the attempt limit is reached.
+     */
+    VerificationOutcome verify(String key, String code);
+
+    /**
+     * Number of codes currently held (may be approximate for shared stores)
+     */
+    long pendingCount();
+}
@@ -0,0 +1,46 @@
+package com.jilindecredit.api.service;
+
+/**
+ * Split of a repayment, in cents: outstanding penalties first, then interest due, and the rest
+ * against principal.
+ */
+public final class PaymentAllocation {
+
+    private final long penalty;
+    private final long interest;
+    private final long principal;
+
+    private PaymentAllocation(long penalty, long interest, long principal) {
+        this.penalty = penalty;
+        this.interest = interest;
+        this.principal = principal;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount is not positive or is more than everything owed
+     */
+    public static PaymentAllocation allocate(long amount, long penaltyDue, long interestDue, long principalOutstanding) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Payment amount must be positive");
+        }
+        long penalty = Math.min(amount, Math.max(0L, penaltyDue));
+        long interest = Math.min(amount - penalty, Math.max(0L, interestDue));
+        long principal = amount - penalty - interest;
+        if (principal > principalOutstanding) {
+            throw new IllegalArgumentException("Payment exceeds the outstanding balance");
+        }
+        return new PaymentAllocation(penalty, interest, principal);
+    }
+
+    public long getPenalty() {
+        return penalty;
+    }
+
+    public long getInterest() {
+        return interest;
+    }
+
+    public long getPrincipal() {
+        return principal;
+    }
+}
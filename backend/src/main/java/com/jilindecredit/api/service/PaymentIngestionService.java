@@ -0,0 +1,718 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.dto.BulkImportResult;
+import com.jilindecredit.api.dto.PaymentIngestionResult;
+import com.jilindecredit.api.model.Loan;
+import com.jilindecredit.api.model.Payment;
+import com.jilindecredit.api.security.CustomUserDetailsService;
+import com.jilindecredit.api.util.BloomFilter;
+import com.jilindecredit.api.util.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Posts repayments that arrive in bulk: settlement files from banks and mobile money, and bursts
+ * of payment callbacks.
+ *
+ * Receipts are posted a chunk at a time. Each chunk is one transaction that locks the loans it
+ * touches, allocates every receipt in order with the same rules as LoanService.recordPayment, and
+ * writes payments and loan totals with JDBC batches. The receipt's reference number is unique in
+ * the payments table, so an upload interrupted by a crash can simply be sent again: receipts that
+ * committed come back as duplicates and only the rest are posted. Nothing is keyed by the file
+ * name, so a different file sent under a name used before is posted in full.
+ *
+ * Duplicate references are screened with a Bloom filter of every posted reference, loaded at
+ * startup. A reference the filter has never seen is new without a database lookup; only the rest
+ * are confirmed with one IN query per chunk.
+ */
+@Service
+public class PaymentIngestionService {
+
+    private static final String LOAN_COLUMNS =
+        "id, customer_id, loan_number, principal_amount, interest_rate, term_months, monthly_payment, total_interest, application_date, " +
+        "disbursement_date, principal_paid, interest_paid, penalty_charged, penalty_paid, last_payment_date, days_past_due, status";
+
+    private static final String INSERT_PAYMENT =
+        "INSERT INTO payments (payment_number, loan_id, payment_date, amount, principal_amount, interest_amount, " +
+        "penalty_amount, payment_method, reference_number, received_by, notes, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_LOAN =
+        "UPDATE loans SET principal_paid = ?, interest_paid = ?, penalty_paid = ?, last_payment_date = ?, " +
+        "days_past_due = ?, status = ?, updated_at = ? WHERE id = ?";
+
+    // M-Pesa C2B field names are accepted as aliases, so a statement export can be posted unedited
+    private static final Map<String, String> COLUMN_ALIASES = Map.of(
+        "transid", "referencenumber",
+        "billrefnumber", "loannumber",
+        "transamount", "amount",
+        "transtime", "paymentdate");
+
+    private static final DateTimeFormatter MPESA_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private enum Status { POSTED, DUPLICATE, REJECTED }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LoanNumberGenerator loanNumberGenerator;
+
+    @Autowired
+    private PortfolioAggregateStore portfolioAggregateStore;
+
+    @Autowired
+    private CustomerDashboardStore customerDashboardStore;
+
+    @Value("${payment.ingestion.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${payment.ingestion.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${payment.ingestion.bloom.expected-references:5000000}")
+    private long expectedReferences;
+
+    @Value("${payment.ingestion.bloom.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${payment.ingestion.callback.batch-size:200}")
+    private int callbackBatchSize;
+
+    @Value("${payment.ingestion.callback.linger-ms:5}")
+    private long callbackLingerMillis;
+
+    @Value("${payment.ingestion.callback.queue-capacity:10000}")
+    private int callbackQueueCapacity;
+
+    @Value("${payment.ingestion.callback.timeout-ms:5000}")
+    private long callbackTimeoutMillis;
+
+    private TransactionTemplate transactionTemplate;
+    private BloomFilter postedReferences;
+    private volatile boolean referencesLoaded = false;
+    private final Set<String> activeSources = ConcurrentHashMap.newKeySet();
+
+    private LinkedBlockingQueue<QueuedCallback> callbackQueue;
+    private Thread callbackPoster;
+    private volatile boolean running = true;
+
+    private final LongAdder postedCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder referenceLookups = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Built before any request, so receipts posted while the startup load runs are recorded too
+        postedReferences = new BloomFilter(expectedReferences, falsePositiveRate);
+
+        callbackQueue = new LinkedBlockingQueue<>(callbackQueueCapacity);
+        callbackPoster = new Thread(this::drainCallbacks, "payment-callback-poster");
+        callbackPoster.setDaemon(true);
+        callbackPoster.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        callbackPoster.interrupt();
+        callbackPoster.join(callbackTimeoutMillis);
+        // Callers still waiting answer with a retryable error instead of timing out
+        QueuedCallback queued;
+        while ((queued = callbackQueue.poll()) != null) {
+            queued.future.completeExceptionally(new IllegalStateException("Server is shutting down"));
+        }
+    }
+
+    /**
+     * Adds every posted reference to the Bloom filter. Until this finishes every reference is
+     * checked against the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPostedReferences() {
+        long started = System.currentTimeMillis();
+        long[] count = {0};
+        jdbcTemplate.query("SELECT reference_number FROM payments WHERE reference_number IS NOT NULL",
+            (RowCallbackHandler) rs -> {
+                postedReferences.add(rs.getString(1));
+                count[0]++;
+            });
+        referencesLoaded = true;
+        System.out.println("🧾 PaymentIngestionService: Loaded " + count[0] + " payment references in "
+            + (System.currentTimeMillis() - started) + " ms (" + postedReferences.getBitCount() / 8 / 1024 + " KB filter)");
+    }
+
+    /**
+     * Posts a settlement file. The CSV needs a header row with referenceNumber, loanNumber, amount
+     * and paymentDate columns (or the M-Pesa TransID, BillRefNumber, TransAmount and TransTime),
+     * and optionally paymentMethod and notes; rows without a method use the given default.
+     *
+     * @param source name of the file, e.g. the bank's statement name, used in reports only; a file
+     *               can be sent again after a failure and only receipts not yet posted are posted
+     */
+    public PaymentIngestionResult ingestSettlementFile(InputStream input, String source,
+                                                       Payment.PaymentMethod defaultMethod) throws IOException {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("A source name is required for settlement files");
+        }
+        String sourceName = source.trim();
+        if (!activeSources.add(sourceName)) {
+            throw new IllegalStateException("Settlement file " + sourceName + " is already being posted");
+        }
+        try {
+            return ingest(input, sourceName, defaultMethod != null ? defaultMethod : Payment.PaymentMethod.MOBILE_MONEY);
+        } finally {
+            activeSources.remove(sourceName);
+        }
+    }
+
+    private PaymentIngestionResult ingest(InputStream input, String source, Payment.PaymentMethod defaultMethod) throws IOException {
+        long started = System.currentTimeMillis();
+        PaymentIngestionResult result = new PaymentIngestionResult(source);
+        Long receivedBy = getCurrentUserId();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new IllegalArgumentException("Settlement file is empty; a header row is required");
+        }
+        Map<String, Integer> columns = readHeader(headerLine);
+
+        int lineNumber = 1;
+        List<Receipt> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            result.setTotalRows(result.getTotalRows() + 1);
+
+            try {
+                chunk.add(fromCsv(lineNumber, columns, line, defaultMethod));
+            } catch (IllegalArgumentException e) {
+                rejectedCount.increment();
+                result.setRejected(result.getRejected() + 1);
+                addError(result, lineNumber, e.getMessage());
+            }
+            if (chunk.size() >= chunkSize) {
+                record(result, chunk, postChunk(chunk, receivedBy));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            record(result, chunk, postChunk(chunk, receivedBy));
+        }
+
+        result.setDurationMillis(System.currentTimeMillis() - started);
+        System.out.println("✅ PaymentIngestionService: Posted " + result.getPosted() + " of " + result.getTotalRows()
+            + " receipts from " + source + " in " + result.getDurationMillis() + " ms (" + result.getDuplicates()
+            + " duplicates, " + result.getRejected() + " rejected)");
+        return result;
+    }
+
+    /**
+     * Posts one callback receipt. Callbacks are queued and posted in small batches by a single
+     * poster thread, so a burst costs one transaction per batch instead of one per receipt.
+     * Retrying a callback is safe: a reference that was already posted comes back as DUPLICATE.
+     *
+     * A receipt not posted within the callback timeout comes back as QUEUED. It is only held in
+     * memory, so it is not acknowledged: the gateway has to retry, and the retry reports
+     * DUPLICATE if the queued copy has posted by then or posts it otherwise.
+     *
+     * @throws IllegalArgumentException if the receipt is invalid or cannot be applied to the loan
+     * @throws IllegalStateException if the queue is full
+     */
+    public Map<String, Object> postCallback(String referenceNumber, String loanNumber, BigDecimal amount,
+                                            LocalDate paymentDate, Payment.PaymentMethod method, String notes) {
+        Receipt receipt = new Receipt(0, required(referenceNumber, "Reference number"), required(loanNumber, "Loan number"),
+            toAmount(amount), paymentDate != null ? paymentDate : LocalDate.now(),
+            method != null ? method : Payment.PaymentMethod.MOBILE_MONEY, notes);
+
+        QueuedCallback queued = new QueuedCallback(receipt);
+        if (!callbackQueue.offer(queued)) {
+            throw new IllegalStateException("Too many payments are waiting to be posted; retry shortly");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("referenceNumber", receipt.referenceNumber);
+        try {
+            Outcome outcome = queued.future.get(callbackTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (outcome.status == Status.REJECTED) {
+                throw new IllegalArgumentException(outcome.message);
+            }
+            response.put("status", outcome.status.name());
+            response.put("paymentNumber", outcome.paymentNumber);
+        } catch (TimeoutException e) {
+            // May still post, but would be lost with the queue on a crash or shutdown
+            response.put("status", "QUEUED");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.put("status", "QUEUED");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not post payment: " + rootMessage(e));
+        }
+        return response;
+    }
+
+    /**
+     * Records a reference posted outside this service, so later uploads screen it without a lookup
+     */
+    public void addPostedReference(String referenceNumber) {
+        postedReferences.add(referenceNumber);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("posted", postedCount.sum());
+        stats.put("duplicates", duplicateCount.sum());
+        stats.put("rejected", rejectedCount.sum());
+        stats.put("referencesLoaded", referencesLoaded);
+        stats.put("referenceLookups", referenceLookups.sum());
+        stats.put("bloomFalsePositives", falsePositives.sum());
+        stats.put("bloomBits", postedReferences.getBitCount());
+        stats.put("bloomHashes", postedReferences.getHashCount());
+        stats.put("callbacksQueued", callbackQueue.size());
+        return stats;
+    }
+
+    private void drainCallbacks() {
+        List<QueuedCallback> batch = new ArrayList<>(callbackBatchSize);
+        while (running) {
+            try {
+                QueuedCallback first = callbackQueue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wait briefly for the rest of a burst so it shares the transaction
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(callbackLingerMillis);
+                while (batch.size() < callbackBatchSize) {
+                    QueuedCallback next = callbackQueue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                postCallbacks(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void postCallbacks(List<QueuedCallback> batch) {
+        List<Receipt> receipts = new ArrayList<>(batch.size());
+        for (QueuedCallback queued : batch) {
+            receipts.add(queued.receipt);
+        }
+        try {
+            List<Outcome> outcomes = postChunk(receipts, null);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(outcomes.get(i));
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ PaymentIngestionService: Callback batch failed: " + rootMessage(e));
+            for (QueuedCallback queued : batch) {
+                queued.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Posts receipts in one transaction, or one transaction per receipt if the chunk fails, e.g.
+     * because another node posted one of the references since it was checked. Returns one outcome
+     * per receipt, in order.
+     */
+    private List<Outcome> postChunk(List<Receipt> receipts, Long receivedBy) {
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> postReceipts(receipts, receivedBy));
+        } catch (DataAccessException e) {
+            System.err.println("❌ PaymentIngestionService: Chunk posting failed, retrying receipt by receipt: " + rootMessage(e));
+            outcomes = new ArrayList<>(receipts.size());
+            for (Receipt receipt : receipts) {
+                try {
+                    outcomes.add(transactionTemplate.execute(
+                        status -> postReceipts(List.of(receipt), receivedBy)).get(0));
+                } catch (DuplicateKeyException ex) {
+                    outcomes.add(new Outcome(Status.DUPLICATE, "Reference " + receipt.referenceNumber + " has already been posted", null));
+                } catch (DataAccessException ex) {
+                    outcomes.add(new Outcome(Status.REJECTED, "Could not post payment: " + rootMessage(ex), null));
+                }
+            }
+        }
+
+        // Only committed references go into the filter
+        for (int i = 0; i < receipts.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (outcome.status == Status.POSTED) {
+                postedReferences.add(receipts.get(i).referenceNumber);
+                postedCount.increment();
+            } else if (outcome.status == Status.DUPLICATE) {
+                duplicateCount.increment();
+            } else {
+                rejectedCount.increment();
+            }
+        }
+        return outcomes;
+    }
+
+    private List<Outcome> postReceipts(List<Receipt> receipts, Long receivedBy) {
+        Set<String> alreadyPosted = findPostedReferences(receipts);
+        Map<String, LockedLoan> loans = lockLoans(receipts);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Outcome> outcomes = new ArrayList<>(receipts.size());
+        List<Object[]> paymentArgs = new ArrayList<>(receipts.size());
+        Set<String> seen = new HashSet<>();
+        for (Receipt receipt : receipts) {
+            if (alreadyPosted.contains(receipt.referenceNumber) || !seen.add(receipt.referenceNumber)) {
+                outcomes.add(new Outcome(Status.DUPLICATE, "Reference " + receipt.referenceNumber + " has already been posted", null));
+                continue;
+            }
+            LockedLoan locked = loans.get(receipt.loanNumber);
+            if (locked == null) {
+                outcomes.add(new Outcome(Status.REJECTED, "Loan " + receipt.loanNumber + " not found", null));
+                continue;
+            }
+            Loan loan = locked.loan;
+            if (!LoanService.REPAYING_STATUSES.contains(loan.getStatus())) {
+                outcomes.add(new Outcome(Status.REJECTED,
+                    "Payments can only be made on active loans (loan " + receipt.loanNumber + " is " + loan.getStatus() + ")", null));
+                continue;
+            }
+
+            PaymentAllocation allocation;
+            try {
+                allocation = LoanService.allocate(loan, receipt.amount, receipt.paymentDate);
+            } catch (IllegalArgumentException e) {
+                outcomes.add(new Outcome(Status.REJECTED, e.getMessage() + " of loan " + receipt.loanNumber, null));
+                continue;
+            }
+            // Later receipts for the same loan are allocated against the updated totals
+            LoanService.applyToLoan(loan, allocation, receipt.paymentDate);
+            locked.changed = true;
+            portfolioAggregateStore.recordCollection(receipt.paymentDate, allocation);
+
+            String paymentNumber = loanNumberGenerator.nextPaymentNumber();
+            paymentArgs.add(new Object[] {
+                paymentNumber, loan.getId(), java.sql.Date.valueOf(receipt.paymentDate), Money.toMajor(receipt.amount),
+                Money.toMajor(allocation.getPrincipal()), Money.toMajor(allocation.getInterest()),
+                Money.toMajor(allocation.getPenalty()), receipt.method.name(), receipt.referenceNumber,
+                receivedBy, receipt.notes, now
+            });
+            outcomes.add(new Outcome(Status.POSTED, null, paymentNumber));
+        }
+
+        List<Object[]> loanArgs = new ArrayList<>();
+        Set<Long> customerIds = new HashSet<>();
+        for (LockedLoan locked : loans.values()) {
+            if (locked.changed) {
+                customerIds.add(locked.customerId);
+                Loan loan = locked.loan;
+                loanArgs.add(new Object[] {
+                    loan.getPrincipalPaid(), loan.getInterestPaid(), loan.getPenaltyPaid(),
+                    java.sql.Date.valueOf(loan.getLastPaymentDate()), loan.getDaysPastDue(), loan.getStatus().name(),
+                    now, loan.getId()
+                });
+                portfolioAggregateStore.move(locked.before, PortfolioAggregateStore.Position.of(loan));
+            }
+        }
+
+        if (!paymentArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_PAYMENT, paymentArgs);
+            jdbcTemplate.batchUpdate(UPDATE_LOAN, loanArgs);
+            customerDashboardStore.invalidate(customerIds);
+        }
+        return outcomes;
+    }
+
+    /**
+     * References in the chunk that are already in the payments table. Only references the Bloom
+     * filter may have seen are looked up.
+     */
+    private Set<String> findPostedReferences(List<Receipt> receipts) {
+        Set<String> candidates = new HashSet<>();
+        for (Receipt receipt : receipts) {
+            if (!referencesLoaded || postedReferences.mightContain(receipt.referenceNumber)) {
+                candidates.add(receipt.referenceNumber);
+            }
+        }
+        Set<String> posted = new HashSet<>();
+        if (candidates.isEmpty()) {
+            return posted;
+        }
+        referenceLookups.add(candidates.size());
+        String placeholders = String.join(",", Collections.nCopies(candidates.size(), "?"));
+        jdbcTemplate.query("SELECT reference_number FROM payments WHERE reference_number IN (" + placeholders + ")",
+            (RowCallbackHandler) rs -> posted.add(rs.getString(1)),
+            candidates.toArray());
+        if (referencesLoaded) {
+            falsePositives.add(candidates.size() - posted.size());
+        }
+        return posted;
+    }
+
+    /**
+     * Locks the chunk's loans in id order, so concurrent chunks cannot deadlock on each other
+     */
+    private Map<String, LockedLoan> lockLoans(List<Receipt> receipts) {
+        Set<String> loanNumbers = new HashSet<>();
+        for (Receipt receipt : receipts) {
+            loanNumbers.add(receipt.loanNumber);
+        }
+        Map<String, LockedLoan> loans = new HashMap<>();
+        if (loanNumbers.isEmpty()) {
+            return loans;
+        }
+        String placeholders = String.join(",", Collections.nCopies(loanNumbers.size(), "?"));
+        jdbcTemplate.query("SELECT " + LOAN_COLUMNS + " FROM loans WHERE loan_number IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+            (RowCallbackHandler) rs -> {
+                Loan loan = new Loan();
+                loan.setId(rs.getLong("id"));
+                loan.setLoanNumber(rs.getString("loan_number"));
+                loan.setPrincipalAmount(rs.getBigDecimal("principal_amount"));
+                loan.setInterestRate(rs.getBigDecimal("interest_rate"));
+                loan.setTermMonths(rs.getInt("term_months"));
+                loan.setMonthlyPayment(rs.getBigDecimal("monthly_payment"));
+                loan.setTotalInterest(rs.getBigDecimal("total_interest"));
+                loan.setApplicationDate(rs.getObject("application_date", LocalDate.class));
+                loan.setDisbursementDate(rs.getObject("disbursement_date", LocalDate.class));
+                loan.setPrincipalPaid(rs.getBigDecimal("principal_paid"));
+                loan.setInterestPaid(rs.getBigDecimal("interest_paid"));
+                loan.setPenaltyCharged(rs.getBigDecimal("penalty_charged"));
+                loan.setPenaltyPaid(rs.getBigDecimal("penalty_paid"));
+                loan.setLastPaymentDate(rs.getObject("last_payment_date", LocalDate.class));
+                loan.setDaysPastDue(rs.getInt("days_past_due"));
+                loan.setStatus(Loan.LoanStatus.valueOf(rs.getString("status")));
+                loans.put(loan.getLoanNumber(), new LockedLoan(loan, rs.getLong("customer_id")));
+            },
+            loanNumbers.toArray());
+        return loans;
+    }
+
+    private Map<String, Integer> readHeader(String headerLine) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = BulkOnboardingService.parseCsvLine(headerLine);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            columns.put(COLUMN_ALIASES.getOrDefault(name, name), i);
+        }
+        for (String required : List.of("referencenumber", "loannumber", "amount", "paymentdate")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Settlement file header must include referenceNumber, loanNumber, amount and paymentDate");
+            }
+        }
+        return columns;
+    }
+
+    private Receipt fromCsv(int lineNumber, Map<String, Integer> columns, String line, Payment.PaymentMethod defaultMethod) {
+        List<String> values = BulkOnboardingService.parseCsvLine(line);
+        String method = value(values, columns, "paymentmethod");
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(required(value(values, columns, "amount"), "Amount"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Amount is not a number");
+        }
+        Payment.PaymentMethod paymentMethod = defaultMethod;
+        if (method != null) {
+            try {
+                paymentMethod = Payment.PaymentMethod.valueOf(method.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Payment method must be CASH, BANK_TRANSFER or MOBILE_MONEY");
+            }
+        }
+        return new Receipt(lineNumber,
+            required(value(values, columns, "referencenumber"), "Reference number"),
+            required(value(values, columns, "loannumber"), "Loan number"),
+            toAmount(amount),
+            parseDate(required(value(values, columns, "paymentdate"), "Payment date")),
+            paymentMethod,
+            value(values, columns, "notes"));
+    }
+
+    private static String value(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String required(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value.trim();
+    }
+
+    private static long toAmount(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Payment amount must be positive");
+        }
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Payment amount has more than two decimal places");
+        }
+        return Money.toMinor(amount);
+    }
+
+    /**
+     * ISO dates, ISO date-times, or M-Pesa's yyyyMMddHHmmss transaction time
+     */
+    static LocalDate parseDate(String value) {
+        try {
+            if (value.length() == 14 && value.chars().allMatch(Character::isDigit)) {
+                return LocalDateTime.parse(value, MPESA_TIME).toLocalDate();
+            }
+            if (value.length() > 10 && value.charAt(10) == 'T') {
+                return LocalDateTime.parse(value).toLocalDate();
+            }
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Payment date " + value + " is not a valid date");
+        }
+    }
+
+    private void record(PaymentIngestionResult result, List<Receipt> receipts, List<Outcome> outcomes) {
+        for (int i = 0; i < outcomes.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (outcome.status == Status.POSTED) {
+                result.setPosted(result.getPosted() + 1);
+            } else if (outcome.status == Status.DUPLICATE) {
+                result.setDuplicates(result.getDuplicates() + 1);
+            } else {
+                result.setRejected(result.getRejected() + 1);
+                addError(result, receipts.get(i).lineNumber, outcome.message);
+            }
+        }
+    }
+
+    private void addError(PaymentIngestionResult result, int lineNumber, String message) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResult.RowError(lineNumber, null, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetailsService.CustomUserPrincipal) {
+            CustomUserDetailsService.CustomUserPrincipal userPrincipal =
+                (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+            return userPrincipal.getUser().getId();
+        }
+        return null;
+    }
+
+    private static final class Receipt {
+        final int lineNumber;
+        final String referenceNumber;
+        final String loanNumber;
+        final long amount;
+        final LocalDate paymentDate;
+        final Payment.PaymentMethod method;
+        final String notes;
+
+        Receipt(int lineNumber, String referenceNumber, String loanNumber, long amount,
+                LocalDate paymentDate, Payment.PaymentMethod method, String notes) {
+            this.lineNumber = lineNumber;
+            this.referenceNumber = referenceNumber;
+            this.loanNumber = loanNumber;
+            this.amount = amount;
+            this.paymentDate = paymentDate;
+            this.method = method;
+            this.notes = notes;
+        }
+    }
+
+    private static final class Outcome {
+        final Status status;
+        final String message;
+        final String paymentNumber;
+
+        Outcome(Status status, String message, String paymentNumber) {
+            this.status = status;
+            this.message = message;
+            this.paymentNumber = paymentNumber;
+        }
+    }
+
+    /**
+     * A loan row locked for the current chunk, with its totals updated as receipts are applied
+     */
+    private static final class LockedLoan {
+        final Loan loan;
+        final long customerId;
+        final PortfolioAggregateStore.Position before;
+        boolean changed;
+
+        LockedLoan(Loan loan, long customerId) {
+            this.loan = loan;
+            this.customerId = customerId;
+            this.before = PortfolioAggregateStore.Position.of(loan);
+        }
+    }
+
+    private static final class QueuedCallback {
+        final Receipt receipt;
+        final CompletableFuture<Outcome> future = new CompletableFuture<>();
+
+        QueuedCallback(Receipt receipt) {
+            this.receipt = receipt;
+        }
+    }
+}
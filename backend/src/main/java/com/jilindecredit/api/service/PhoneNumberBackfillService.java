@@ -0,0 +1,97 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.util.PhoneNumbers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off migration that fills customers.phone_e164 for rows written before the column existed.
+ * Rows are walked by id in batches, each batch written with a single JDBC batch update, so the
+ * job can be interrupted and rerun safely. New and updated rows are canonicalised by the entity.
+ */
+@Service
+public class PhoneNumberBackfillService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${customer.phone-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${customer.phone-backfill.batch-size:1000}")
+    private int batchSize;
+
+    private volatile boolean complete = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int updated = backfill();
+            if (updated > 0) {
+                System.out.println("📱 PhoneNumberBackfillService: Canonicalised " + updated + " phone numbers");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ PhoneNumberBackfillService: Backfill failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Backfills every customer whose canonical phone is missing
+     *
+     * @return number of rows updated
+     */
+    public int backfill() {
+        long afterId = 0L;
+        int updated = 0;
+
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, phone FROM customers WHERE phone_e164 IS NULL AND id > ? ORDER BY id LIMIT ?",
+                afterId, batchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> batchArgs = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                String canonical = PhoneNumbers.toE164((String) row.get("phone"));
+                if (canonical != null) {
+                    batchArgs.add(new Object[] { canonical, id });
+                }
+                afterId = id;
+            }
+
+            if (!batchArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE customers SET phone_e164 = ? WHERE id = ?", batchArgs);
+                updated += batchArgs.size();
+            }
+
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+
+        complete = true;
+        return updated;
+    }
+
+    /**
+     * True once a backfill on this node has given every pre-existing row a canonical phone number.
+     * Stays false while the backfill is disabled, so lookups keep falling back to the phone column.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+}
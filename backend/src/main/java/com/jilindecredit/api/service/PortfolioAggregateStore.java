@@ -0,0 +1,611 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.model.Loan;
+import com.jilindecredit.api.util.Money;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Portfolio quality figures kept up to date as loans change: loans per status, outstanding
+ * principal per arrears bucket (and from it PAR30 and PAR90), and this month's collections against
+ * the installments falling due.
+ *
+ * The counters live in the portfolio_counters table, so every node reads the same figures. A
+ * transaction that changes a loan or posts a payment collects its changes to the counters and adds
+ * them just before it commits, in the same transaction, with SET value = value + ?. Each
+ * transaction writes to one of several shards picked at random and sums are taken over all shards
+ * on read, so concurrent writers rarely wait on the same counter row. Loan rows are always locked
+ * before the counters, and each transaction locks its counter rows in key order, so writers cannot
+ * deadlock on them.
+ *
+ * Days past due also grow with the calendar, so a nightly reconciliation ages every open loan,
+ * moving the counters as it goes, then recounts everything in one snapshot and records the
+ * difference from the counters in that same snapshot in a correction shard that only it writes.
+ * Changes committed after the snapshot are already in the other shards, so none is lost or counted
+ * twice.
+ */
+@Service
+public class PortfolioAggregateStore {
+
+    public enum ArrearsBucket {
+        CURRENT(0), DPD_1_30(1), DPD_31_60(31), DPD_61_90(61), DPD_OVER_90(91);
+
+        private final int fromDays;
+
+        ArrearsBucket(int fromDays) {
+            this.fromDays = fromDays;
+        }
+
+        public static ArrearsBucket of(int daysPastDue) {
+            ArrearsBucket[] buckets = values();
+            for (int i = buckets.length - 1; i > 0; i--) {
+                if (daysPastDue >= buckets[i].fromDays) {
+                    return buckets[i];
+                }
+            }
+            return CURRENT;
+        }
+    }
+
+    private static final Loan.LoanStatus[] STATUSES = Loan.LoanStatus.values();
+    private static final ArrearsBucket[] BUCKETS = ArrearsBucket.values();
+
+    // Counters not tied to a month have an empty period
+    private static final String NO_PERIOD = "";
+    private static final String COLLECTED_PRINCIPAL = "collected:principal";
+    private static final String COLLECTED_INTEREST = "collected:interest";
+    private static final String COLLECTED_PENALTY = "collected:penalty";
+    private static final String DUE = "due";
+    private static final String RECONCILED_AT = "reconciled-at";
+
+    // Written only by the reconciliation
+    private static final int CORRECTION_SHARD = -1;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${portfolio.aggregates.reconcile-chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${portfolio.aggregates.shards:16}")
+    private int shards;
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate snapshotTemplate;
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS portfolio_counters (" +
+            "shard INT NOT NULL, " +
+            "metric VARCHAR(40) NOT NULL, " +
+            "period VARCHAR(7) NOT NULL, " +
+            "value BIGINT NOT NULL, " +
+            "PRIMARY KEY (shard, metric, period))");
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        seedCounters(YearMonth.now());
+    }
+
+    /**
+     * What a loan contributes to the counters at one moment
+     */
+    public static final class Position {
+        final Loan.LoanStatus status;
+        final long outstandingPrincipal;
+        final int daysPastDue;
+
+        Position(Loan.LoanStatus status, long outstandingPrincipal, int daysPastDue) {
+            this.status = status;
+            this.outstandingPrincipal = outstandingPrincipal;
+            this.daysPastDue = daysPastDue;
+        }
+
+        public static Position of(Loan loan) {
+            return new Position(loan.getStatus(),
+                Money.toMinor(loan.getPrincipalAmount()) - Money.toMinor(loan.getPrincipalPaid()),
+                loan.getDaysPastDue() != null ? loan.getDaysPastDue() : 0);
+        }
+    }
+
+    /**
+     * Moves a loan from one position to another, in the current transaction. Either side may be
+     * null for a loan that is new or no longer counted.
+     */
+    public void move(Position before, Position after) {
+        Deltas deltas = currentDeltas();
+        if (before != null) {
+            deltas.count(before, -1);
+        }
+        if (after != null) {
+            deltas.count(after, 1);
+        }
+        if (!deltas.bound) {
+            write(deltas);
+        }
+    }
+
+    /**
+     * Adds a posted payment's split to its month's collections, in the current transaction
+     */
+    public void recordCollection(LocalDate paymentDate, PaymentAllocation allocation) {
+        Deltas deltas = currentDeltas();
+        String period = YearMonth.from(paymentDate).toString();
+        deltas.add(COLLECTED_PRINCIPAL, period, allocation.getPrincipal());
+        deltas.add(COLLECTED_INTEREST, period, allocation.getInterest());
+        deltas.add(COLLECTED_PENALTY, period, allocation.getPenalty());
+        if (!deltas.bound) {
+            write(deltas);
+        }
+    }
+
+    /**
+     * Current figures, summed over the counter shards
+     */
+    public Map<String, Object> getSummary() {
+        YearMonth month = YearMonth.now();
+        Map<Key, Long> current = readCounters(month.toString());
+        long reconciledAt = valueOf(current, RECONCILED_AT, NO_PERIOD);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("ready", reconciledAt > 0);
+        summary.put("reconciledAt", reconciledAt > 0
+            ? LocalDateTime.ofInstant(Instant.ofEpochMilli(reconciledAt), ZoneId.systemDefault()) : null);
+
+        Map<String, Long> loansByStatus = new LinkedHashMap<>();
+        for (Loan.LoanStatus status : STATUSES) {
+            loansByStatus.put(status.name(), valueOf(current, statusMetric(status), NO_PERIOD));
+        }
+        summary.put("loansByStatus", loansByStatus);
+
+        long outstanding = 0;
+        for (ArrearsBucket bucket : BUCKETS) {
+            outstanding += valueOf(current, bucketPrincipalMetric(bucket), NO_PERIOD);
+        }
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        for (ArrearsBucket bucket : BUCKETS) {
+            long principal = valueOf(current, bucketPrincipalMetric(bucket), NO_PERIOD);
+            Map<String, Object> map = new HashMap<>();
+            map.put("bucket", bucket.name());
+            map.put("loans", valueOf(current, bucketLoansMetric(bucket), NO_PERIOD));
+            map.put("outstandingPrincipal", Money.toMajor(principal));
+            map.put("share", percent(principal, outstanding));
+            buckets.add(map);
+        }
+        long par30 = valueOf(current, bucketPrincipalMetric(ArrearsBucket.DPD_31_60), NO_PERIOD)
+            + valueOf(current, bucketPrincipalMetric(ArrearsBucket.DPD_61_90), NO_PERIOD)
+            + valueOf(current, bucketPrincipalMetric(ArrearsBucket.DPD_OVER_90), NO_PERIOD);
+        long par90 = valueOf(current, bucketPrincipalMetric(ArrearsBucket.DPD_OVER_90), NO_PERIOD);
+        summary.put("outstandingPrincipal", Money.toMajor(outstanding));
+        summary.put("arrearsBuckets", buckets);
+        summary.put("par30", percent(par30, outstanding));
+        summary.put("par90", percent(par90, outstanding));
+
+        String period = month.toString();
+        long principal = valueOf(current, COLLECTED_PRINCIPAL, period);
+        long interest = valueOf(current, COLLECTED_INTEREST, period);
+        long due = valueOf(current, DUE, period);
+        Map<String, Object> collections = new HashMap<>();
+        collections.put("month", period);
+        collections.put("principal", Money.toMajor(principal));
+        collections.put("interest", Money.toMajor(interest));
+        collections.put("penalty", Money.toMajor(valueOf(current, COLLECTED_PENALTY, period)));
+        collections.put("installmentsDue", Money.toMajor(due));
+        collections.put("collectionRate", percent(principal + interest, due));
+        summary.put("collections", collections);
+        return summary;
+    }
+
+    /**
+     * Reconciles on startup unless some node has already done so today. The run can take minutes
+     * on a large book, so it happens in the background rather than holding up readiness.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long reconciledAt = valueOf(readCounters(YearMonth.now().toString()), RECONCILED_AT, NO_PERIOD);
+        LocalDate lastReconciled = reconciledAt > 0
+            ? LocalDate.ofInstant(Instant.ofEpochMilli(reconciledAt), ZoneId.systemDefault()) : null;
+        if (!LocalDate.now().equals(lastReconciled)) {
+            Thread reconcile = new Thread(this::scheduledReconcile, "portfolio-reconcile");
+            reconcile.setDaemon(true);
+            reconcile.start();
+        }
+    }
+
+    /**
+     * Nightly run, just after midnight so buckets age with the new day
+     */
+    @Scheduled(cron = "${portfolio.aggregates.reconcile-cron:0 5 0 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            System.err.println("❌ PortfolioAggregateStore: Reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Brings each open loan's days_past_due up to date, recounts everything from the database and
+     * corrects the counters to match. Returns how far the counters had drifted.
+     *
+     * @throws IllegalStateException if another node corrected the counters at the same time
+     */
+    public synchronized Map<String, Object> reconcile() {
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        YearMonth month = YearMonth.from(today);
+        seedCounters(month);
+        int aged = ageLoans(today);
+
+        Map<Key, Long> drift;
+        try {
+            drift = snapshotTemplate.execute(status -> correctCounters(today));
+        } catch (ConcurrencyFailureException e) {
+            throw new IllegalStateException("Portfolio counters were reconciled by another node at the same time");
+        }
+
+        long principalDrift = 0;
+        for (ArrearsBucket bucket : BUCKETS) {
+            principalDrift += drift.getOrDefault(new Key(bucketPrincipalMetric(bucket), NO_PERIOD), 0L);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("loansAged", aged);
+        result.put("outstandingPrincipalDrift", Money.toMajor(principalDrift));
+        result.put("durationMillis", System.currentTimeMillis() - started);
+        System.out.println("📊 PortfolioAggregateStore: Reconciled portfolio in " + result.get("durationMillis")
+            + " ms (" + aged + " loans aged, drift " + result.get("outstandingPrincipalDrift") + ")");
+        return result;
+    }
+
+    /**
+     * Recomputes days_past_due for every open loan, a chunk per transaction, moving the counters
+     * for each loan whose bucket input changed. A loan changed since it was read, by a payment or
+     * another node's reconciliation, is left as that change set it.
+     */
+    private int ageLoans(LocalDate today) {
+        long afterId = 0L;
+        int aged = 0;
+        while (true) {
+            long from = afterId;
+            long[] chunk = transactionTemplate.execute(status -> ageChunk(from, today));
+            aged += (int) chunk[2];
+            if (chunk[1] < chunkSize) {
+                return aged;
+            }
+            afterId = chunk[0];
+        }
+    }
+
+    /**
+     * @return last id read, loans read and loans aged
+     */
+    private long[] ageChunk(long afterId, LocalDate today) {
+        long[] chunk = { afterId, 0L, 0L };
+        List<Object[]> updates = new ArrayList<>();
+        List<Position[]> moves = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT id, status, principal_amount, principal_paid, interest_paid, monthly_payment, total_interest, " +
+            "term_months, disbursement_date, days_past_due FROM loans " +
+            "WHERE status IN ('ACTIVE', 'DEFAULTED') AND id > ? ORDER BY id LIMIT ?",
+            (RowCallbackHandler) rs -> {
+                long id = rs.getLong("id");
+                long principal = Money.toMinor(rs.getBigDecimal("principal_amount"));
+                long principalPaid = Money.toMinor(rs.getBigDecimal("principal_paid"));
+                long interestPaid = Money.toMinor(rs.getBigDecimal("interest_paid"));
+                long installment = Money.toMinor(rs.getBigDecimal("monthly_payment"));
+                long totalRepayable = principal + Money.toMinor(rs.getBigDecimal("total_interest"));
+                int term = rs.getInt("term_months");
+                LocalDate disbursed = rs.getObject("disbursement_date", LocalDate.class);
+                LocalDate firstDue = disbursed != null ? disbursed.plusMonths(1) : null;
+                int storedDays = rs.getInt("days_past_due");
+
+                int daysPastDue = AmortizationSchedule.daysPastDue(firstDue, term, installment, totalRepayable,
+                    principalPaid + interestPaid, today);
+                if (daysPastDue != storedDays) {
+                    Loan.LoanStatus status = Loan.LoanStatus.valueOf(rs.getString("status"));
+                    updates.add(new Object[] { daysPastDue, id, rs.getBigDecimal("principal_paid"),
+                        rs.getBigDecimal("interest_paid"), status.name(), storedDays });
+                    moves.add(new Position[] {
+                        new Position(status, principal - principalPaid, storedDays),
+                        new Position(status, principal - principalPaid, daysPastDue) });
+                }
+                chunk[0] = id;
+                chunk[1]++;
+            },
+            afterId, chunkSize);
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate("UPDATE loans SET days_past_due = ? WHERE id = ? AND principal_paid = ? " +
+                "AND interest_paid = ? AND status = ? AND days_past_due = ?", updates);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    move(moves.get(i)[0], moves.get(i)[1]);
+                    chunk[2]++;
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Counts the loans and this month's payments, and the counters, in one snapshot, and writes
+     * the difference into the correction shard
+     *
+     * @return the difference per counter
+     */
+    private Map<Key, Long> correctCounters(LocalDate today) {
+        String period = YearMonth.from(today).toString();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        LocalDate monthEnd = today.withDayOfMonth(today.lengthOfMonth());
+        Map<Key, Long> counted = new HashMap<>();
+
+        jdbcTemplate.query("SELECT status, COUNT(*) FROM loans GROUP BY status", (RowCallbackHandler) rs ->
+            counted.merge(new Key(statusMetric(Loan.LoanStatus.valueOf(rs.getString(1))), NO_PERIOD), rs.getLong(2), Long::sum));
+
+        long[] afterId = {0L};
+        int[] read = {0};
+        long[] due = {0L};
+        do {
+            read[0] = 0;
+            jdbcTemplate.query(
+                "SELECT id, principal_amount, principal_paid, monthly_payment, total_interest, term_months, " +
+                "disbursement_date, days_past_due FROM loans " +
+                "WHERE status IN ('ACTIVE', 'DEFAULTED') AND id > ? ORDER BY id LIMIT ?",
+                (RowCallbackHandler) rs -> {
+                    long principal = Money.toMinor(rs.getBigDecimal("principal_amount"));
+                    long installment = Money.toMinor(rs.getBigDecimal("monthly_payment"));
+                    long totalRepayable = principal + Money.toMinor(rs.getBigDecimal("total_interest"));
+                    int term = rs.getInt("term_months");
+                    LocalDate disbursed = rs.getObject("disbursement_date", LocalDate.class);
+                    LocalDate firstDue = disbursed != null ? disbursed.plusMonths(1) : null;
+
+                    ArrearsBucket bucket = ArrearsBucket.of(rs.getInt("days_past_due"));
+                    counted.merge(new Key(bucketLoansMetric(bucket), NO_PERIOD), 1L, Long::sum);
+                    counted.merge(new Key(bucketPrincipalMetric(bucket), NO_PERIOD),
+                        principal - Money.toMinor(rs.getBigDecimal("principal_paid")), Long::sum);
+                    due[0] += scheduledThrough(firstDue, term, installment, totalRepayable, monthEnd)
+                        - scheduledThrough(firstDue, term, installment, totalRepayable, monthStart.minusDays(1));
+                    afterId[0] = rs.getLong("id");
+                    read[0]++;
+                },
+                afterId[0], chunkSize);
+        } while (read[0] == chunkSize);
+        counted.put(new Key(DUE, period), due[0]);
+
+        jdbcTemplate.query("SELECT COALESCE(SUM(principal_amount), 0), COALESCE(SUM(interest_amount), 0), " +
+            "COALESCE(SUM(penalty_amount), 0) FROM payments WHERE payment_date BETWEEN ? AND ?",
+            (RowCallbackHandler) rs -> {
+                counted.put(new Key(COLLECTED_PRINCIPAL, period), Money.toMinor(rs.getBigDecimal(1)));
+                counted.put(new Key(COLLECTED_INTEREST, period), Money.toMinor(rs.getBigDecimal(2)));
+                counted.put(new Key(COLLECTED_PENALTY, period), Money.toMinor(rs.getBigDecimal(3)));
+            },
+            java.sql.Date.valueOf(monthStart), java.sql.Date.valueOf(monthEnd));
+        counted.put(new Key(RECONCILED_AT, NO_PERIOD), System.currentTimeMillis());
+
+        Map<Key, Long> stored = readCounters(period);
+        Set<Key> keys = new HashSet<>(counted.keySet());
+        keys.addAll(stored.keySet());
+        Deltas correction = new Deltas();
+        Map<Key, Long> drift = new HashMap<>();
+        for (Key key : keys) {
+            long difference = counted.getOrDefault(key, 0L) - stored.getOrDefault(key, 0L);
+            correction.add(key.metric, key.period, difference);
+            drift.put(key, difference);
+        }
+        correction.shard = CORRECTION_SHARD;
+        write(correction);
+        return drift;
+    }
+
+    /**
+     * Creates the counter rows writers add to, for every shard, so that a writer never inserts.
+     * Each insert commits on its own, so one made by another node first is harmless.
+     */
+    private void seedCounters(YearMonth month) {
+        List<Key> keys = new ArrayList<>();
+        for (Loan.LoanStatus status : STATUSES) {
+            keys.add(new Key(statusMetric(status), NO_PERIOD));
+        }
+        for (ArrearsBucket bucket : BUCKETS) {
+            keys.add(new Key(bucketLoansMetric(bucket), NO_PERIOD));
+            keys.add(new Key(bucketPrincipalMetric(bucket), NO_PERIOD));
+        }
+        // Last month for late-posted payments, next month for the hours after midnight on the 1st
+        for (YearMonth period : new YearMonth[] { month.minusMonths(1), month, month.plusMonths(1) }) {
+            keys.add(new Key(COLLECTED_PRINCIPAL, period.toString()));
+            keys.add(new Key(COLLECTED_INTEREST, period.toString()));
+            keys.add(new Key(COLLECTED_PENALTY, period.toString()));
+            keys.add(new Key(DUE, period.toString()));
+        }
+        keys.add(new Key(RECONCILED_AT, NO_PERIOD));
+
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query("SELECT shard, metric, period FROM portfolio_counters", (RowCallbackHandler) rs ->
+            existing.add(rs.getInt(1) + "/" + rs.getString(2) + "/" + rs.getString(3)));
+        for (int shard = CORRECTION_SHARD; shard < shards; shard++) {
+            for (Key key : keys) {
+                if (existing.contains(shard + "/" + key.metric + "/" + key.period)) {
+                    continue;
+                }
+                try {
+                    jdbcTemplate.update("INSERT INTO portfolio_counters (shard, metric, period, value) VALUES (?, ?, ?, 0)",
+                        shard, key.metric, key.period);
+                } catch (DuplicateKeyException e) {
+                    // Seeded by another node
+                }
+            }
+        }
+        jdbcTemplate.update("DELETE FROM portfolio_counters WHERE period <> ? AND period < ?",
+            NO_PERIOD, month.minusMonths(1).toString());
+    }
+
+    /**
+     * Counters for every period-less metric and the given month, summed over the shards
+     */
+    private Map<Key, Long> readCounters(String period) {
+        Map<Key, Long> counters = new HashMap<>();
+        jdbcTemplate.query("SELECT metric, period, SUM(value) FROM portfolio_counters WHERE period IN (?, ?) GROUP BY metric, period",
+            (RowCallbackHandler) rs -> counters.put(new Key(rs.getString(1), rs.getString(2)), rs.getLong(3)),
+            NO_PERIOD, period);
+        return counters;
+    }
+
+    /**
+     * Adds the changes to their shard's rows, in key order. A row that was never seeded (a
+     * payment dated months back) is left out; its month is no longer reported.
+     */
+    private void write(Deltas deltas) {
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (Map.Entry<Key, Long> entry : deltas.changes.entrySet()) {
+            if (entry.getValue() != 0L) {
+                batchArgs.add(new Object[] { entry.getValue(), deltas.shard, entry.getKey().metric, entry.getKey().period });
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE portfolio_counters SET value = value + ? WHERE shard = ? AND metric = ? AND period = ?",
+                batchArgs);
+        }
+    }
+
+    /**
+     * The changes collected for the current transaction, written just before it commits; outside
+     * a transaction, a new set the caller writes straight away
+     */
+    private Deltas currentDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Deltas();
+        }
+        Deltas deltas = (Deltas) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            Deltas created = new Deltas();
+            created.bound = true;
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PortfolioAggregateStore.this);
+                }
+            });
+            deltas = created;
+        }
+        return deltas;
+    }
+
+    private static String statusMetric(Loan.LoanStatus status) {
+        return "status:" + status.name();
+    }
+
+    private static String bucketLoansMetric(ArrearsBucket bucket) {
+        return "loans:" + bucket.name();
+    }
+
+    private static String bucketPrincipalMetric(ArrearsBucket bucket) {
+        return "principal:" + bucket.name();
+    }
+
+    private static long valueOf(Map<Key, Long> counters, String metric, String period) {
+        return counters.getOrDefault(new Key(metric, period), 0L);
+    }
+
+    /**
+     * Principal and interest scheduled on or before the date, in cents
+     */
+    private static long scheduledThrough(LocalDate firstDue, int term, long installment, long totalRepayable, LocalDate date) {
+        int due = AmortizationSchedule.installmentsDueBy(firstDue, term, date);
+        return due >= term ? totalRepayable : due * installment;
+    }
+
+    private static BigDecimal percent(long part, long whole) {
+        if (whole <= 0) {
+            return Money.toMajor(0L);
+        }
+        // Basis points, shown as a percentage with two decimals
+        return Money.toMajor(Money.divideHalfUp(part * 10_000L, whole));
+    }
+
+    private static final class Key implements Comparable<Key> {
+        final String metric;
+        final String period;
+
+        Key(String metric, String period) {
+            this.metric = metric;
+            this.period = period;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byMetric = metric.compareTo(other.metric);
+            return byMetric != 0 ? byMetric : period.compareTo(other.period);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && metric.equals(((Key) other).metric) && period.equals(((Key) other).period);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(metric, period);
+        }
+    }
+
+    /**
+     * Changes to the counters from one transaction, all written to one shard
+     */
+    private final class Deltas {
+        // Sorted, so rows are always locked in the same order
+        final Map<Key, Long> changes = new TreeMap<>();
+        int shard = ThreadLocalRandom.current().nextInt(Math.max(1, shards));
+        boolean bound;
+
+        void add(String metric, String period, long delta) {
+            changes.merge(new Key(metric, period), delta, Long::sum);
+        }
+
+        void count(Position position, int sign) {
+            add(statusMetric(position.status), NO_PERIOD, sign);
+            if (LoanService.REPAYING_STATUSES.contains(position.status)) {
+                ArrearsBucket bucket = ArrearsBucket.of(position.daysPastDue);
+                add(bucketLoansMetric(bucket), NO_PERIOD, sign);
+                add(bucketPrincipalMetric(bucket), NO_PERIOD, sign * position.outstandingPrincipal);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.model.CustomerProfile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rescores the whole customer book with the current baseline scoring rules.
+ *
+ * Customers are read by id in pages into primitive column arrays (age, income, occupation group,
+ * profile flags), so scoring touches no entities or strings. Each page is scored in parallel
+ * fork-join chunks, and only customers whose score or risk category changed are written back,
+ * in JDBC batches.
+ */
+@Service
+public class PortfolioRescoringService {
+
+    private static final String SELECT_PAGE =
+        "SELECT c.id, c.date_of_birth, c.monthly_income, c.occupation, c.email, c.address, c.marital_status, " +
+        "p.baseline_credit_score, p.risk_category " +
+        "FROM customers c JOIN customer_profiles p ON p.customer_id = c.id " +
+        "WHERE c.id > ? ORDER BY c.id LIMIT ?";
+
+    private static final String UPDATE_SCORE =
+        "UPDATE customer_profiles SET baseline_credit_score = ?, risk_category = ?, updated_at = ? WHERE customer_id = ?";
+
+    private static final CustomerProfile.RiskCategory[] RISK_CATEGORIES = CustomerProfile.RiskCategory.values();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CreditScoringService creditScoringService;
+
+    @Autowired
+    private CustomerDashboardStore customerDashboardStore;
+
+    @Value("${credit-scoring.rescore.page-size:10000}")
+    private int pageSize;
+
+    @Value("${credit-scoring.rescore.chunk-size:2048}")
+    private int chunkSize;
+
+    @Value("${credit-scoring.rescore.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool scoringPool;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @PostConstruct
+    void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        // Own pool, so a rescoring run never starves the common pool used by request handling
+        scoringPool = new ForkJoinPool(threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scoringPool.shutdownNow();
+    }
+
+    /**
+     * Nightly run; disabled unless credit-scoring.rescore.cron is set
+     */
+    @Scheduled(cron = "${credit-scoring.rescore.cron:-}")
+    public void scheduledRescore() {
+        try {
+            rescorePortfolio();
+        } catch (IllegalStateException e) {
+            System.err.println("❌ PortfolioRescoringService: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rescores every customer with a profile
+     *
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public Map<String, Object> rescorePortfolio() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Portfolio rescoring is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            // One scorecard for the whole run, even if the rules are reloaded meanwhile
+            Scorecard scorecard = creditScoringService.currentScorecard();
+            long scanned = 0;
+            long updated = 0;
+            long afterId = 0L;
+
+            System.out.println("📊 PortfolioRescoringService: Starting portfolio rescoring with scorecard " + scorecard.getVersion());
+            while (true) {
+                ScoringColumns page = loadPage(afterId, today, scorecard);
+                if (page.size == 0) {
+                    break;
+                }
+
+                scoringPool.invoke(new ScoreChunk(page, scorecard, 0, page.size));
+                updated += writeChanges(page);
+                scanned += page.size;
+                afterId = page.ids[page.size - 1];
+
+                if (page.size < pageSize) {
+                    break;
+                }
+            }
+
+            long duration = System.currentTimeMillis() - started;
+            System.out.println("✅ PortfolioRescoringService: Rescored " + scanned + " customers, "
+                + updated + " changed, in " + duration + " ms");
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("scanned", scanned);
+            result.put("updated", updated);
+            result.put("durationMillis", duration);
+            result.put("scorecardVersion", scorecard.getVersion());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private ScoringColumns loadPage(long afterId, LocalDate today, Scorecard scorecard) {
+        ScoringColumns page = new ScoringColumns(pageSize);
+        jdbcTemplate.query(SELECT_PAGE, (RowCallbackHandler) rs -> {
+            int i = page.size++;
+            page.ids[i] = rs.getLong("id");
+
+            Date dateOfBirth = rs.getDate("date_of_birth");
+            page.ages[i] = dateOfBirth != null
+                ? CreditScoringService.ageInYears(dateOfBirth.toLocalDate(), today)
+                : CreditScoringService.AGE_UNKNOWN;
+
+            BigDecimal income = rs.getBigDecimal("monthly_income");
+            page.incomes[i] = income != null ? income.doubleValue() : Double.NaN;
+
+            page.occupationClasses[i] = (byte) scorecard.classifyOccupation(rs.getString("occupation"));
+            page.flags[i] = (byte) CreditScoringService.profileFlags(
+                rs.getString("email"), rs.getString("address"), rs.getString("marital_status"));
+
+            BigDecimal currentScore = rs.getBigDecimal("baseline_credit_score");
+            page.currentScores[i] = currentScore != null ? currentScore.doubleValue() : Double.NaN;
+            String currentRisk = rs.getString("risk_category");
+            page.currentRisk[i] = currentRisk != null ? (byte) CustomerProfile.RiskCategory.valueOf(currentRisk).ordinal() : -1;
+        }, afterId, pageSize);
+        return page;
+    }
+
+    private int writeChanges(ScoringColumns page) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>();
+        List<Long> customerIds = new ArrayList<>();
+        for (int i = 0; i < page.size; i++) {
+            if (page.newScores[i] != page.currentScores[i] || page.newRisk[i] != page.currentRisk[i]) {
+                customerIds.add(page.ids[i]);
+                batchArgs.add(new Object[] {
+                    BigDecimal.valueOf(page.newScores[i]), RISK_CATEGORIES[page.newRisk[i]].name(), now, page.ids[i]
+                });
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SCORE, batchArgs);
+            customerDashboardStore.invalidate(customerIds);
+        }
+        return batchArgs.size();
+    }
+
+    /**
+     * One page of customers as parallel primitive arrays
+     */
+    private static final class ScoringColumns {
+        int size;
+        final long[] ids;
+        final int[] ages;
+        final double[] incomes;
+        final byte[] occupationClasses;
+        final byte[] flags;
+        final double[] currentScores;
+        final byte[] currentRisk;
+        final double[] newScores;
+        final byte[] newRisk;
+
+        ScoringColumns(int capacity) {
+            ids = new long[capacity];
+            ages = new int[capacity];
+            incomes = new double[capacity];
+            occupationClasses = new byte[capacity];
+            flags = new byte[capacity];
+            currentScores = new double[capacity];
+            currentRisk = new byte[capacity];
+            newScores = new double[capacity];
+            newRisk = new byte[capacity];
+        }
+    }
+
+    private final class ScoreChunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ScoringColumns columns;
+        private final Scorecard scorecard;
+        private final int from;
+        private final int to;
+
+        ScoreChunk(ScoringColumns columns, Scorecard scorecard, int from, int to) {
+            this.columns = columns;
+            this.scorecard = scorecard;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ScoreChunk(columns, scorecard, from, mid), new ScoreChunk(columns, scorecard, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                double score = scorecard.score(
+                    columns.ages[i], columns.incomes[i], columns.occupationClasses[i], columns.flags[i]);
+                columns.newScores[i] = score;
+                columns.newRisk[i] = (byte) scorecard.riskCategoryFor(score).ordinal();
+            }
+        }
+    }
+}
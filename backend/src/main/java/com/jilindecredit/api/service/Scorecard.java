@@ -0,0 +1,347 @@
+package com.jilindecredit.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.jilindecredit.api.model.CustomerProfile;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Compiled baseline scoring rules.
+ *
+ * Built once from the rules file and never modified, so any number of threads can score with
+ * it while a newer version is being compiled. Scoring allocates nothing: bands are flat
+ * arrays, and occupation keywords are compiled into one Aho-Corasick automaton that finds every
+ * keyword in a single pass over the occupation text.
+ */
+public final class Scorecard {
+
+    public static final int OCCUPATION_NONE = -1;
+    public static final int OCCUPATION_OTHER = -2;
+
+    private final String version;
+    private final double baseScore;
+    private final double minScore;
+    private final double maxScore;
+
+    private final double ageUnknownPoints;
+    private final Bands ageBands;
+    private final double incomeUnknownPoints;
+    private final Bands incomeBands;
+
+    private final double occupationNonePoints;
+    private final double occupationOtherPoints;
+    private final String[] occupationGroupNames;
+    private final double[] occupationGroupPoints;
+    private final KeywordMatcher occupationMatcher;
+
+    private final double emailPoints;
+    private final double addressPoints;
+    private final double marriedPoints;
+
+    // Descending minimum scores; the last entry is the catch-all
+    private final double[] riskMinScores;
+    private final CustomerProfile.RiskCategory[] riskCategories;
+
+    private Scorecard(JsonNode rules) {
+        version = requiredText(rules, "version");
+        baseScore = rules.path("baseScore").asDouble(0);
+        minScore = rules.path("minScore").asDouble(Double.NEGATIVE_INFINITY);
+        maxScore = rules.path("maxScore").asDouble(Double.POSITIVE_INFINITY);
+
+        JsonNode age = rules.path("age");
+        ageUnknownPoints = age.path("unknownPoints").asDouble(0);
+        ageBands = Bands.compile(age.path("bands"), "age");
+
+        JsonNode income = rules.path("income");
+        incomeUnknownPoints = income.path("unknownPoints").asDouble(0);
+        incomeBands = Bands.compile(income.path("bands"), "income");
+
+        JsonNode occupation = rules.path("occupation");
+        occupationNonePoints = occupation.path("nonePoints").asDouble(0);
+        occupationOtherPoints = occupation.path("otherPoints").asDouble(0);
+        JsonNode groups = occupation.path("groups");
+        occupationGroupNames = new String[groups.size()];
+        occupationGroupPoints = new double[groups.size()];
+        List<List<String>> keywords = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            JsonNode group = groups.get(i);
+            occupationGroupNames[i] = group.path("name").asText("group" + i);
+            occupationGroupPoints[i] = group.path("points").asDouble(0);
+            List<String> groupKeywords = new ArrayList<>();
+            for (JsonNode keyword : group.path("keywords")) {
+                if (!keyword.asText().isEmpty()) {
+                    groupKeywords.add(keyword.asText().toLowerCase());
+                }
+            }
+            if (groupKeywords.isEmpty()) {
+                throw new IllegalArgumentException("Occupation group " + occupationGroupNames[i] + " has no keywords");
+            }
+            keywords.add(groupKeywords);
+        }
+        occupationMatcher = new KeywordMatcher(keywords);
+
+        JsonNode flags = rules.path("flags");
+        emailPoints = flags.path("email").asDouble(0);
+        addressPoints = flags.path("address").asDouble(0);
+        marriedPoints = flags.path("married").asDouble(0);
+
+        JsonNode risk = rules.path("riskCategories");
+        if (risk.size() == 0) {
+            throw new IllegalArgumentException("Scorecard has no risk categories");
+        }
+        riskMinScores = new double[risk.size()];
+        riskCategories = new CustomerProfile.RiskCategory[risk.size()];
+        for (int i = 0; i < risk.size(); i++) {
+            JsonNode band = risk.get(i);
+            riskMinScores[i] = band.has("minScore") ? band.get("minScore").asDouble() : Double.NEGATIVE_INFINITY;
+            try {
+                riskCategories[i] = CustomerProfile.RiskCategory.valueOf(requiredText(band, "category"));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown risk category: " + band.path("category").asText());
+            }
+            if (i > 0 && riskMinScores[i] > riskMinScores[i - 1]) {
+                throw new IllegalArgumentException("Risk categories must be ordered by descending minScore");
+            }
+        }
+        if (riskMinScores[riskMinScores.length - 1] != Double.NEGATIVE_INFINITY) {
+            throw new IllegalArgumentException("The last risk category must have no minScore (catch-all)");
+        }
+    }
+
+    /**
+     * Compiles a rules document
+     *
+     * @throws IllegalArgumentException if the rules are incomplete or inconsistent
+     */
+    public static Scorecard compile(JsonNode rules) {
+        return new Scorecard(rules);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @param age years, or CreditScoringService.AGE_UNKNOWN
+     * @param monthlyIncome income, or NaN if unknown
+     * @param occupationClass from classifyOccupation
+     * @param flags CreditScoringService.FLAG_* bits
+     */
+    public double score(int age, double monthlyIncome, int occupationClass, int flags) {
+        double score = baseScore;
+
+        score += age == CreditScoringService.AGE_UNKNOWN ? ageUnknownPoints : ageBands.points(age);
+        score += Double.isNaN(monthlyIncome) ? incomeUnknownPoints : incomeBands.points(monthlyIncome);
+
+        if (occupationClass == OCCUPATION_NONE) {
+            score += occupationNonePoints;
+        } else if (occupationClass == OCCUPATION_OTHER) {
+            score += occupationOtherPoints;
+        } else {
+            score += occupationGroupPoints[occupationClass];
+        }
+
+        if ((flags & CreditScoringService.FLAG_EMAIL) != 0) {
+            score += emailPoints;
+        }
+        if ((flags & CreditScoringService.FLAG_ADDRESS) != 0) {
+            score += addressPoints;
+        }
+        if ((flags & CreditScoringService.FLAG_MARRIED) != 0) {
+            score += marriedPoints;
+        }
+
+        return Math.max(minScore, Math.min(maxScore, score));
+    }
+
+    /**
+     * Index of the first occupation group with a keyword in the text, or OCCUPATION_NONE / OCCUPATION_OTHER
+     */
+    public int classifyOccupation(CharSequence occupation) {
+        if (occupation == null || occupation.length() == 0) {
+            return OCCUPATION_NONE;
+        }
+        int group = occupationMatcher.firstGroup(occupation);
+        return group >= 0 ? group : OCCUPATION_OTHER;
+    }
+
+    public String occupationGroupName(int occupationClass) {
+        if (occupationClass == OCCUPATION_NONE) {
+            return "none";
+        }
+        return occupationClass == OCCUPATION_OTHER ? "other" : occupationGroupNames[occupationClass];
+    }
+
+    public CustomerProfile.RiskCategory riskCategoryFor(double score) {
+        for (int i = 0; i < riskMinScores.length; i++) {
+            if (score >= riskMinScores[i]) {
+                return riskCategories[i];
+            }
+        }
+        return riskCategories[riskCategories.length - 1];
+    }
+
+    private static String requiredText(JsonNode node, String field) {
+        String value = node.path(field).asText("");
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Scorecard is missing \"" + field + "\"");
+        }
+        return value;
+    }
+
+    /**
+     * Ordered [min, max] ranges, first match wins; a missing bound is open
+     */
+    private static final class Bands {
+        private final double[] min;
+        private final double[] max;
+        private final double[] points;
+
+        private Bands(double[] min, double[] max, double[] points) {
+            this.min = min;
+            this.max = max;
+            this.points = points;
+        }
+
+        static Bands compile(JsonNode bands, String name) {
+            int n = bands.size();
+            double[] min = new double[n];
+            double[] max = new double[n];
+            double[] points = new double[n];
+            for (int i = 0; i < n; i++) {
+                JsonNode band = bands.get(i);
+                min[i] = band.has("min") ? band.get("min").asDouble() : Double.NEGATIVE_INFINITY;
+                max[i] = band.has("max") ? band.get("max").asDouble() : Double.POSITIVE_INFINITY;
+                if (!band.has("points")) {
+                    throw new IllegalArgumentException("Every " + name + " band needs points");
+                }
+                points[i] = band.get("points").asDouble();
+            }
+            return new Bands(min, max, points);
+        }
+
+        double points(double value) {
+            for (int i = 0; i < points.length; i++) {
+                if (value >= min[i] && value <= max[i]) {
+                    return points[i];
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton over lower-cased keywords. Each state records the lowest group index
+     * of any keyword ending there (including via its failure links), so the earliest-listed
+     * matching group wins, as in the if/else chain it replaces.
+     */
+    private static final class KeywordMatcher {
+        private final char[][] edgeChars;
+        private final int[][] edgeTargets;
+        private final int[] fail;
+        private final int[] bestGroup;
+
+        KeywordMatcher(List<List<String>> groups) {
+            List<List<int[]>> edges = new ArrayList<>();
+            List<Integer> output = new ArrayList<>();
+            edges.add(new ArrayList<>());
+            output.add(Integer.MAX_VALUE);
+
+            for (int group = 0; group < groups.size(); group++) {
+                for (String keyword : groups.get(group)) {
+                    int state = 0;
+                    for (int i = 0; i < keyword.length(); i++) {
+                        char ch = keyword.charAt(i);
+                        int next = find(edges.get(state), ch);
+                        if (next < 0) {
+                            next = edges.size();
+                            edges.add(new ArrayList<>());
+                            output.add(Integer.MAX_VALUE);
+                            edges.get(state).add(new int[] { ch, next });
+                        }
+                        state = next;
+                    }
+                    output.set(state, Math.min(output.get(state), group));
+                }
+            }
+
+            int states = edges.size();
+            edgeChars = new char[states][];
+            edgeTargets = new int[states][];
+            for (int s = 0; s < states; s++) {
+                List<int[]> list = edges.get(s);
+                list.sort((a, b) -> Integer.compare(a[0], b[0]));
+                edgeChars[s] = new char[list.size()];
+                edgeTargets[s] = new int[list.size()];
+                for (int i = 0; i < list.size(); i++) {
+                    edgeChars[s][i] = (char) list.get(i)[0];
+                    edgeTargets[s][i] = list.get(i)[1];
+                }
+            }
+
+            fail = new int[states];
+            bestGroup = new int[states];
+            for (int s = 0; s < states; s++) {
+                bestGroup[s] = output.get(s);
+            }
+
+            // Breadth-first, so a state's failure target is final before its children need it
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int target : edgeTargets[0]) {
+                fail[target] = 0;
+                queue.add(target);
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                for (int i = 0; i < edgeChars[s].length; i++) {
+                    char ch = edgeChars[s][i];
+                    int child = edgeTargets[s][i];
+                    int f = fail[s];
+                    while (f != 0 && next(f, ch) < 0) {
+                        f = fail[f];
+                    }
+                    int target = next(f, ch);
+                    fail[child] = target >= 0 && target != child ? target : 0;
+                    bestGroup[child] = Math.min(bestGroup[child], bestGroup[fail[child]]);
+                    queue.add(child);
+                }
+            }
+        }
+
+        int firstGroup(CharSequence text) {
+            int state = 0;
+            int best = Integer.MAX_VALUE;
+            for (int i = 0; i < text.length(); i++) {
+                char ch = Character.toLowerCase(text.charAt(i));
+                int target = next(state, ch);
+                while (target < 0 && state != 0) {
+                    state = fail[state];
+                    target = next(state, ch);
+                }
+                state = target >= 0 ? target : 0;
+                if (bestGroup[state] < best) {
+                    best = bestGroup[state];
+                }
+            }
+            return best == Integer.MAX_VALUE ? -1 : best;
+        }
+
+        private int next(int state, char ch) {
+            int i = Arrays.binarySearch(edgeChars[state], ch);
+            return i >= 0 ? edgeTargets[state][i] : -1;
+        }
+
+        private static int find(List<int[]> edges, char ch) {
+            for (int[] edge : edges) {
+                if (edge[0] == ch) {
+                    return edge[1];
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.jilindecredit.api.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique numbers per named sequence using Hi/Lo block allocation.
+ *
+ * Each instance reserves a block of values from the id_blocks table with one row-locking update,
+ * then serves the block from memory with an atomic counter. The database is touched once per
+ * block, and nodes never hand out the same value because each reserves its own range. Values
+ * left in a block when the application stops are skipped, so sequences have gaps.
+ */
+@Component
+public class SequenceBlockAllocator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sequence.block-size:100}")
+    private int blockSize;
+
+    private TransactionTemplate allocationTransaction;
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_blocks (" +
+            "name VARCHAR(64) PRIMARY KEY, " +
+            "next_value BIGINT NOT NULL)");
+
+        // Blocks are committed on their own, so a caller's rollback never returns a range for reuse
+        allocationTransaction = new TransactionTemplate(transactionManager);
+        allocationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Next value of the named sequence, starting at 1
+     */
+    public long next(String sequenceName) {
+        return sequences.computeIfAbsent(sequenceName, Sequence::new).next();
+    }
+
+    private Block allocateBlock(String sequenceName) {
+        return allocationTransaction.execute(status -> {
+            int updated = jdbcTemplate.update(
+                "UPDATE id_blocks SET next_value = next_value + ? WHERE name = ?", blockSize, sequenceName);
+            if (updated == 0) {
+                // A failed statement aborts the whole transaction on PostgreSQL unless rolled back to a savepoint
+                Object savepoint = status.createSavepoint();
+                try {
+                    jdbcTemplate.update("INSERT INTO id_blocks (name, next_value) VALUES (?, ?)", sequenceName, 1L + blockSize);
+                    status.releaseSavepoint(savepoint);
+                    return new Block(1L, 1L + blockSize);
+                } catch (DuplicateKeyException e) {
+                    // Another node created the row first; take the next block after its one
+                    status.rollbackToSavepoint(savepoint);
+                    jdbcTemplate.update(
+                        "UPDATE id_blocks SET next_value = next_value + ? WHERE name = ?", blockSize, sequenceName);
+                }
+            }
+            Long end = jdbcTemplate.queryForObject(
+                "SELECT next_value FROM id_blocks WHERE name = ?", Long.class, sequenceName);
+            return new Block(end - blockSize, end);
+        });
+    }
+
+    private final class Sequence {
+        private final String name;
+        private volatile Block current;
+
+        Sequence(String name) {
+            this.name = name;
+        }
+
+        long next() {
+            while (true) {
+                Block block = current;
+                if (block != null) {
+                    long value = block.cursor.getAndIncrement();
+                    if (value < block.end) {
+                        return value;
+                    }
+                }
+                refill(block);
+            }
+        }
+
+        // Only the thread that finds the block exhausted fetches a new one; the others retry on it
+        private synchronized void refill(Block exhausted) {
+            if (current == exhausted) {
+                current = allocateBlock(name);
+            }
+        }
+    }
+
+    private static final class Block {
+        final AtomicLong cursor;
+        final long end;
+
+        Block(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,695 @@
+package com.jilindecredit.api.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Fixed-dimension float templates keyed by customer id, held in a memory-mapped file, with
+ * parallel nearest-neighbour search by inner product. Templates are L2-normalised on the way
+ * in, so scores are cosine similarities in [-1, 1].
+ *
+ * File layout: a 64-byte header (magic, format version, dimension, row count, model tag) followed by
+ * fixed-length rows of [customer id (8 bytes) | dimension floats], little-endian. The file is
+ * mapped in fixed-size segments, so growing it maps one more segment and never remaps or copies
+ * existing rows, and the templates stay off the Java heap. Re-enrolling a customer tombstones
+ * the old row (id 0) and appends a new one. The index is derived data: if it is lost it can be
+ * rebuilt from biometric_data.
+ *
+ * Search is brute force until an inverted-file (IVF) layer is trained. Training clusters the
+ * rows with spherical k-means; a query then scans only the lists of its nearest centroids, plus
+ * any rows appended since training. Rows are scanned in blocks copied out of the mapping into a
+ * float array, and the dot product keeps four independent accumulators so the JIT can keep
+ * several multiply-adds in flight. A search stops at its deadline and reports whether it covered
+ * every candidate row.
+ *
+ * Not a Spring bean; DuplicateIdentityService owns one per capture type.
+ */
+public final class TemplateIndex implements Closeable {
+
+    private static final int MAGIC = 0x4A435449; // "JCTI"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int DIMENSION_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int MODEL_OFFSET = 24;
+    private static final long TOMBSTONE = 0L;
+
+    // Rows copied per block, and rows per fork-join leaf
+    private static final int BLOCK_ROWS = 64;
+    private static final int LEAF_ROWS = 4096;
+
+    private final Path file;
+    private final int dimension;
+    private final int rowBytes;
+    private final int rowFloats;
+    private final int rowsPerSegment;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<float[]> blocks;
+
+    // Guarded by this; readers only use the volatile fields
+    private final Map<Long, Integer> rowByCustomer = new HashMap<>();
+    private int tombstones;
+
+    private volatile Segment[] segments = new Segment[0];
+    private volatile int rowCount;
+    private volatile Ivf ivf;
+
+    private TemplateIndex(Path file, int dimension, String modelId, int segmentBytes, ForkJoinPool pool) throws IOException {
+        this.file = file;
+        this.dimension = dimension;
+        this.rowFloats = 2 + dimension;
+        this.rowBytes = rowFloats * Float.BYTES;
+        this.rowsPerSegment = Math.max(1, segmentBytes / rowBytes);
+        this.pool = pool;
+        this.blocks = ThreadLocal.withInitial(() -> new float[BLOCK_ROWS * rowFloats]);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (fresh) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, FORMAT_VERSION);
+                header.putInt(DIMENSION_OFFSET, dimension);
+                header.putLong(COUNT_OFFSET, 0L);
+                header.putInt(MODEL_OFFSET, modelId.hashCode());
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                throw new IllegalStateException("Not a template index: " + file);
+            } else if (header.getInt(DIMENSION_OFFSET) != dimension) {
+                throw new IllegalStateException("Template index " + file + " has dimension " + header.getInt(DIMENSION_OFFSET)
+                    + " but " + dimension + " is configured; delete it and rebuild the index");
+            } else if (header.getInt(MODEL_OFFSET) != modelId.hashCode()) {
+                throw new IllegalStateException("Template index " + file + " was built by a different model than "
+                    + modelId + "; delete it and rebuild the index");
+            }
+
+            int rows = (int) header.getLong(COUNT_OFFSET);
+            ensureCapacity(rows);
+            for (int row = 0; row < rows; row++) {
+                long customerId = customerIdAt(segments, row);
+                if (customerId == TOMBSTONE) {
+                    tombstones++;
+                } else {
+                    rowByCustomer.put(customerId, row);
+                }
+            }
+            rowCount = rows;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the index file, creating it if missing
+     *
+     * @param modelId the extractor the templates come from; templates from another model are not comparable
+     * @param segmentBytes size of each mapping; rounded down to whole rows
+     * @param pool runs searches and training
+     * @throws IllegalStateException if the file is not an index of this dimension and model
+     */
+    public static TemplateIndex open(Path file, int dimension, String modelId, int segmentBytes, ForkJoinPool pool) throws IOException {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Template dimension must be positive");
+        }
+        return new TemplateIndex(file, dimension, modelId, segmentBytes, pool);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Adds or replaces a customer's template
+     *
+     * @throws IllegalArgumentException if the template has the wrong length or is all zeros
+     */
+    public void put(long customerId, float[] template) {
+        if (customerId == TOMBSTONE) {
+            throw new IllegalArgumentException("Invalid customer id");
+        }
+        float[] normalised = normalise(template);
+
+        synchronized (this) {
+            int row = rowCount;
+            ensureCapacity(row + 1);
+            Segment segment = segments[row / rowsPerSegment];
+            int offset = (row % rowsPerSegment) * rowBytes;
+            segment.floats.put(offset / Float.BYTES + 2, normalised);
+            segment.bytes.putLong(offset, customerId);
+
+            // Publish the new row before retiring the old one, so a concurrent search sees at least one
+            rowCount = row + 1;
+            header.putLong(COUNT_OFFSET, row + 1);
+
+            Integer previous = rowByCustomer.put(customerId, row);
+            if (previous != null) {
+                segments[previous / rowsPerSegment].bytes.putLong((previous % rowsPerSegment) * rowBytes, TOMBSTONE);
+                tombstones++;
+            }
+        }
+    }
+
+    /**
+     * Drops every template and the IVF layer; the file keeps its size and is overwritten by later puts
+     */
+    public synchronized void clear() {
+        ivf = null;
+        rowCount = 0;
+        header.putLong(COUNT_OFFSET, 0L);
+        rowByCustomer.clear();
+        tombstones = 0;
+    }
+
+    public synchronized boolean contains(long customerId) {
+        return rowByCustomer.containsKey(customerId);
+    }
+
+    public synchronized int size() {
+        return rowByCustomer.size();
+    }
+
+    public synchronized int getTombstones() {
+        return tombstones;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getIvfLists() {
+        Ivf current = ivf;
+        return current != null ? current.lists.length : 0;
+    }
+
+    public int getIvfCoveredRows() {
+        Ivf current = ivf;
+        return current != null ? current.coveredRows : 0;
+    }
+
+    /**
+     * True once the index has at least minRows templates and either has no IVF layer yet or has
+     * grown by more than a quarter since it was trained
+     */
+    public boolean needsTraining(int minRows) {
+        if (size() < minRows) {
+            return false;
+        }
+        Ivf current = ivf;
+        return current == null || rowCount - current.coveredRows > current.coveredRows / 4;
+    }
+
+    /**
+     * Builds the IVF layer over the rows present now and swaps it in. Searches keep running
+     * against the previous layer (or brute force) meanwhile.
+     *
+     * @param lists number of centroids, or 0 for the square root of the row count
+     * @return false if there are too few templates to cluster
+     */
+    public boolean train(int lists, int iterations) {
+        int covered = rowCount;
+        Segment[] segs = segments;
+        int[] live = IntStream.range(0, covered).filter(row -> customerIdAt(segs, row) != TOMBSTONE).toArray();
+        int k = lists > 0 ? lists : Math.max(16, Math.min(4096, (int) Math.sqrt(live.length)));
+        if (live.length < k * 4) {
+            return false;
+        }
+
+        // Cluster an evenly strided sample rather than every row
+        int sampleSize = Math.min(live.length, k * 64);
+        float[] sample = new float[sampleSize * dimension];
+        for (int i = 0; i < sampleSize; i++) {
+            readTemplate(segs, live[(int) ((long) i * live.length / sampleSize)], sample, i * dimension);
+        }
+
+        float[] centroids = new float[k * dimension];
+        for (int c = 0; c < k; c++) {
+            System.arraycopy(sample, (int) ((long) c * sampleSize / k) * dimension, centroids, c * dimension, dimension);
+        }
+
+        int[] assignment = new int[sampleSize];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            float[] current = centroids;
+            pool.submit(() -> IntStream.range(0, sampleSize).parallel()
+                .forEach(i -> assignment[i] = nearestCentroid(current, k, sample, i * dimension))).join();
+
+            float[] sums = new float[k * dimension];
+            int[] counts = new int[k];
+            for (int i = 0; i < sampleSize; i++) {
+                int c = assignment[i];
+                counts[c]++;
+                for (int d = 0; d < dimension; d++) {
+                    sums[c * dimension + d] += sample[i * dimension + d];
+                }
+            }
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0 || !normaliseInPlace(sums, c * dimension)) {
+                    // Empty cluster: reseed it from a sample point
+                    System.arraycopy(sample, ((c * 7919 + iteration) % sampleSize) * dimension, sums, c * dimension, dimension);
+                }
+            }
+            centroids = sums;
+        }
+
+        // Assign every covered row, then group rows by list with a counting sort
+        float[] finalCentroids = centroids;
+        int[] rowList = new int[live.length];
+        pool.submit(() -> IntStream.range(0, live.length).parallel().forEach(i -> {
+            float[] template = new float[dimension];
+            readTemplate(segs, live[i], template, 0);
+            rowList[i] = nearestCentroid(finalCentroids, k, template, 0);
+        })).join();
+
+        int[] listSizes = new int[k];
+        for (int c : rowList) {
+            listSizes[c]++;
+        }
+        int[][] rowsByList = new int[k][];
+        for (int c = 0; c < k; c++) {
+            rowsByList[c] = new int[listSizes[c]];
+        }
+        int[] fill = new int[k];
+        for (int i = 0; i < live.length; i++) {
+            int c = rowList[i];
+            rowsByList[c][fill[c]++] = live[i];
+        }
+
+        ivf = new Ivf(finalCentroids, rowsByList, covered);
+        return true;
+    }
+
+    /**
+     * Best matches for a template, most similar first
+     *
+     * @param limit maximum matches returned
+     * @param minSimilarity matches below this are ignored
+     * @param probes IVF lists scanned per query; ignored until the index is trained
+     * @param deadlineNanos System.nanoTime() after which the scan stops early
+     * @param excludeCustomerId customer whose own template is skipped, or 0
+     */
+    public SearchResult search(float[] template, int limit, float minSimilarity, int probes,
+                               long deadlineNanos, long excludeCustomerId) {
+        float[] query = normalise(template);
+        int rows = rowCount;
+        Segment[] segs = segments;
+        Ivf current = ivf;
+
+        Search search = new Search(query, Math.max(1, limit), minSimilarity, deadlineNanos, excludeCustomerId, segs);
+        List<Scan> scans = new ArrayList<>();
+        int scanned;
+        if (current == null) {
+            scans.add(new Scan(search, null, 0, rows));
+            scanned = rows;
+        } else {
+            scanned = 0;
+            for (int list : current.nearestLists(query, Math.max(1, probes))) {
+                int[] listRows = current.lists[list];
+                if (listRows.length > 0) {
+                    scans.add(new Scan(search, listRows, 0, listRows.length));
+                    scanned += listRows.length;
+                }
+            }
+            if (rows > current.coveredRows) {
+                scans.add(new Scan(search, null, current.coveredRows, rows));
+                scanned += rows - current.coveredRows;
+            }
+        }
+
+        TopK top = pool.invoke(ForkJoinTask.adapt(() -> {
+            TopK merged = new TopK(search.limit, search.minSimilarity);
+            for (Scan scan : ForkJoinTask.invokeAll(scans)) {
+                merged.merge(scan.join());
+            }
+            return merged;
+        }));
+        return new SearchResult(top.toMatches(), !search.truncated.get(), scanned, current != null);
+    }
+
+    /**
+     * Flushes the header and rows to disk
+     */
+    public synchronized void force() {
+        header.force();
+        for (Segment segment : segments) {
+            segment.bytes.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "TemplateIndex[" + file + ", dimension " + dimension + ", " + rowCount + " rows]";
+    }
+
+    private synchronized void ensureCapacity(int rows) {
+        Segment[] current = segments;
+        if ((long) current.length * rowsPerSegment >= rows) {
+            return;
+        }
+        int needed = (rows + rowsPerSegment - 1) / rowsPerSegment;
+        Segment[] grown = Arrays.copyOf(current, needed);
+        long segmentBytes = (long) rowsPerSegment * rowBytes;
+        for (int i = current.length; i < needed; i++) {
+            try {
+                // Mapping past the end of the file extends it
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes);
+                bytes.order(ByteOrder.LITTLE_ENDIAN);
+                grown[i] = new Segment(bytes);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not grow template index " + file + ": " + e.getMessage(), e);
+            }
+        }
+        segments = grown;
+    }
+
+    private long customerIdAt(Segment[] segs, int row) {
+        return segs[row / rowsPerSegment].bytes.getLong((row % rowsPerSegment) * rowBytes);
+    }
+
+    private void readTemplate(Segment[] segs, int row, float[] target, int offset) {
+        segs[row / rowsPerSegment].floats.get((row % rowsPerSegment) * rowFloats + 2, target, offset, dimension);
+    }
+
+    private float[] normalise(float[] template) {
+        if (template == null || template.length != dimension) {
+            throw new IllegalArgumentException("Template must have " + dimension + " values");
+        }
+        float[] copy = template.clone();
+        if (!normaliseInPlace(copy, 0)) {
+            throw new IllegalArgumentException("Template has no signal");
+        }
+        return copy;
+    }
+
+    private boolean normaliseInPlace(float[] values, int offset) {
+        double norm = 0;
+        for (int i = offset; i < offset + dimension; i++) {
+            norm += (double) values[i] * values[i];
+        }
+        if (norm == 0 || Double.isNaN(norm) || Double.isInfinite(norm)) {
+            return false;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = offset; i < offset + dimension; i++) {
+            values[i] *= scale;
+        }
+        return true;
+    }
+
+    private int nearestCentroid(float[] centroids, int k, float[] template, int offset) {
+        int best = 0;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int c = 0; c < k; c++) {
+            float score = dot(centroids, c * dimension, template, offset, dimension);
+            if (score > bestScore) {
+                bestScore = score;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    public static final class Match {
+        private final long customerId;
+        private final float similarity;
+
+        Match(long customerId, float similarity) {
+            this.customerId = customerId;
+            this.similarity = similarity;
+        }
+
+        public long getCustomerId() { return customerId; }
+
+        public float getSimilarity() { return similarity; }
+    }
+
+    public static final class SearchResult {
+        private final List<Match> matches;
+        private final boolean complete;
+        private final int rowsScanned;
+        private final boolean ivfUsed;
+
+        SearchResult(List<Match> matches, boolean complete, int rowsScanned, boolean ivfUsed) {
+            this.matches = matches;
+            this.complete = complete;
+            this.rowsScanned = rowsScanned;
+            this.ivfUsed = ivfUsed;
+        }
+
+        public List<Match> getMatches() { return matches; }
+
+        /**
+         * False if the deadline passed before every candidate row was scanned
+         */
+        public boolean isComplete() { return complete; }
+
+        public int getRowsScanned() { return rowsScanned; }
+
+        public boolean isIvfUsed() { return ivfUsed; }
+    }
+
+    private static final class Segment {
+        final MappedByteBuffer bytes;
+        final FloatBuffer floats;
+
+        Segment(MappedByteBuffer bytes) {
+            this.bytes = bytes;
+            this.floats = bytes.asFloatBuffer();
+        }
+    }
+
+    /**
+     * Trained coarse layer: unit centroids and the rows nearest each, for rows [0, coveredRows)
+     */
+    private final class Ivf {
+        final float[] centroids;
+        final int[][] lists;
+        final int coveredRows;
+
+        Ivf(float[] centroids, int[][] lists, int coveredRows) {
+            this.centroids = centroids;
+            this.lists = lists;
+            this.coveredRows = coveredRows;
+        }
+
+        int[] nearestLists(float[] query, int probes) {
+            int n = Math.min(probes, lists.length);
+            int[] best = new int[n];
+            float[] bestScores = new float[n];
+            Arrays.fill(bestScores, Float.NEGATIVE_INFINITY);
+            for (int c = 0; c < lists.length; c++) {
+                float score = dot(centroids, c * dimension, query, 0, dimension);
+                if (score <= bestScores[n - 1]) {
+                    continue;
+                }
+                int i = n - 1;
+                while (i > 0 && bestScores[i - 1] < score) {
+                    bestScores[i] = bestScores[i - 1];
+                    best[i] = best[i - 1];
+                    i--;
+                }
+                bestScores[i] = score;
+                best[i] = c;
+            }
+            return best;
+        }
+    }
+
+    private static final class Search {
+        final float[] query;
+        final int limit;
+        final float minSimilarity;
+        final long deadlineNanos;
+        final long excludeCustomerId;
+        final Segment[] segments;
+        final AtomicBoolean truncated = new AtomicBoolean(false);
+
+        Search(float[] query, int limit, float minSimilarity, long deadlineNanos, long excludeCustomerId, Segment[] segments) {
+            this.query = query;
+            this.limit = limit;
+            this.minSimilarity = minSimilarity;
+            this.deadlineNanos = deadlineNanos;
+            this.excludeCustomerId = excludeCustomerId;
+            this.segments = segments;
+        }
+
+        boolean pastDeadline() {
+            if (System.nanoTime() - deadlineNanos > 0) {
+                truncated.set(true);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Scans rows [from, to), or the listed rows rows[from..to) when rows is not null
+     */
+    private final class Scan extends RecursiveTask<TopK> {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int[] rows;
+        private final int from;
+        private final int to;
+
+        Scan(Search search, int[] rows, int from, int to) {
+            this.search = search;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from > LEAF_ROWS) {
+                int mid = (from + to) >>> 1;
+                Scan left = new Scan(search, rows, from, mid);
+                Scan right = new Scan(search, rows, mid, to);
+                invokeAll(left, right);
+                TopK top = left.join();
+                top.merge(right.join());
+                return top;
+            }
+            TopK top = new TopK(search.limit, search.minSimilarity);
+            if (rows == null) {
+                scanContiguous(top);
+            } else {
+                scanListed(top);
+            }
+            return top;
+        }
+
+        private void scanContiguous(TopK top) {
+            float[] block = blocks.get();
+            int row = from;
+            while (row < to && !search.pastDeadline()) {
+                Segment segment = search.segments[row / rowsPerSegment];
+                int inSegment = row % rowsPerSegment;
+                int n = Math.min(BLOCK_ROWS, Math.min(to - row, rowsPerSegment - inSegment));
+                segment.floats.get(inSegment * rowFloats, block, 0, n * rowFloats);
+                for (int j = 0; j < n; j++) {
+                    long customerId = segment.bytes.getLong((inSegment + j) * rowBytes);
+                    if (customerId != TOMBSTONE && customerId != search.excludeCustomerId) {
+                        top.offer(customerId, dot(search.query, 0, block, j * rowFloats + 2, dimension));
+                    }
+                }
+                row += n;
+            }
+        }
+
+        private void scanListed(TopK top) {
+            float[] block = blocks.get();
+            for (int i = from; i < to; i++) {
+                if ((i - from) % BLOCK_ROWS == 0 && search.pastDeadline()) {
+                    return;
+                }
+                int row = rows[i];
+                long customerId = customerIdAt(search.segments, row);
+                if (customerId != TOMBSTONE && customerId != search.excludeCustomerId) {
+                    readTemplate(search.segments, row, block, 0);
+                    top.offer(customerId, dot(search.query, 0, block, 0, dimension));
+                }
+            }
+        }
+    }
+
+    /**
+     * The best few matches seen, best first; one entry per customer
+     */
+    private static final class TopK {
+        private final long[] ids;
+        private final float[] scores;
+        private final float minSimilarity;
+        private int size;
+
+        TopK(int limit, float minSimilarity) {
+            this.ids = new long[limit];
+            this.scores = new float[limit];
+            this.minSimilarity = minSimilarity;
+        }
+
+        void offer(long customerId, float score) {
+            if (score < minSimilarity || (size == ids.length && score <= scores[size - 1])) {
+                return;
+            }
+            // A re-enrolled customer can briefly appear twice; keep the better row
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == customerId) {
+                    if (scores[i] >= score) {
+                        return;
+                    }
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    System.arraycopy(scores, i + 1, scores, i, size - i - 1);
+                    size--;
+                    break;
+                }
+            }
+            int i = Math.min(size, ids.length - 1);
+            while (i > 0 && scores[i - 1] < score) {
+                ids[i] = ids[i - 1];
+                scores[i] = scores[i - 1];
+                i--;
+            }
+            ids[i] = customerId;
+            scores[i] = score;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        void merge(TopK other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.ids[i], other.scores[i]);
+            }
+        }
+
+        List<Match> toMatches() {
+            List<Match> matches = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                matches.add(new Match(ids[i], scores[i]));
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.jilindecredit.api.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Fixed-size byte buffers reused across requests, so streaming large uploads does not churn the
+ * heap with a fresh buffer per request. When the pool is empty a new buffer is allocated, and
+ * buffers returned to a full pool are dropped, so the pool never blocks and never grows.
+ */
+public class ByteArrayPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<byte[]> free;
+
+    public ByteArrayPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0 || maxPooled <= 0) {
+            throw new IllegalArgumentException("Buffer size and pool size must be positive");
+        }
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = free.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int pooled() {
+        return free.size();
+    }
+}
@@ -0,0 +1,82 @@
+package com.jilindecredit.api.util;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timer wheel for expiring keys without scanning the whole keyspace.
+ *
+ * A key scheduled for a deadline is dropped into the bucket for that tick. Each tick only the
+ * current bucket is visited and the owner's callback decides, against its own record, whether
+ * the key is due: returning true removes it from the wheel, returning false keeps it for the
+ * next lap (deadlines further out than one revolution, or entries that were renewed).
+ */
+public class ExpiryWheel<K> {
+
+    private final long tickMillis;
+    private final Set<K>[] buckets;
+    private final Predicate<K> expireIfDue;
+    private final ScheduledExecutorService ticker;
+    private long lastProcessedTick;
+
+    @SuppressWarnings("unchecked")
+    public ExpiryWheel(long tickMillis, int wheelSize, Predicate<K> expireIfDue, String threadName) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = (Set<K>[]) new Set<?>[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.expireIfDue = expireIfDue;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastProcessedTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    public void start() {
+        ticker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Registers a key to be checked once its deadline (epoch millis) has passed
+     */
+    public void schedule(K key, long deadlineMillis) {
+        // Round up so a key is never visited before its deadline
+        long tick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        buckets[(int) (tick % buckets.length)].add(key);
+    }
+
+    private void advance() {
+        try {
+            long currentTick = System.currentTimeMillis() / tickMillis;
+            // Catch up on any ticks missed while the thread was delayed, at most one lap
+            long firstTick = Math.max(lastProcessedTick + 1, currentTick - buckets.length + 1);
+            for (long tick = firstTick; tick <= currentTick; tick++) {
+                Iterator<K> it = buckets[(int) (tick % buckets.length)].iterator();
+                while (it.hasNext()) {
+                    if (expireIfDue.test(it.next())) {
+                        it.remove();
+                    }
+                }
+            }
+            lastProcessedTick = currentTick;
+        } catch (RuntimeException e) {
+            // Never let one bad callback kill the ticker thread
+            System.err.println("❌ ExpiryWheel: Error while expiring entries: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.jilindecredit.api.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between the DECIMAL(12,2) amounts stored in the database and the long minor units
+ * (cents) that loan arithmetic is done in. Amounts up to DECIMAL(12,2) fit a long with room for
+ * multiplying by a rate in basis points.
+ */
+public final class Money {
+
+    private Money() {}
+
+    /**
+     * Amount in cents, rounded half-up; null is zero
+     */
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toMajor(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    /**
+     * Percentage rate in basis points, so 15.00 (%) is 1500
+     */
+    public static long toBasisPoints(BigDecimal percent) {
+        if (percent == null) {
+            return 0L;
+        }
+        return percent.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * amount * basisPoints / 10000, rounded half-up
+     */
+    public static long percentOf(long minor, long basisPoints) {
+        return divideHalfUp(minor * basisPoints, 10_000L);
+    }
+
+    /**
+     * Integer division rounded half away from zero
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
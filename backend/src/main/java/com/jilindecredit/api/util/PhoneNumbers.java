@@ -0,0 +1,76 @@
+package com.jilindecredit.api.util;
+
+/**
+ * Canonicalises phone numbers to E.164 so every phone-keyed lookup uses a single form.
+ */
+public final class PhoneNumbers {
+
+    private static final String KENYA_COUNTRY_CODE = "254";
+    private static final int PREFIX_ROOM = 1 + KENYA_COUNTRY_CODE.length();
+
+    private PhoneNumbers() {}
+
+    /**
+     * Converts a phone number to E.164.
+     * Kenyan local (0712345678), bare national (712345678) and international forms with or
+     * without '+' and separators all map to +254712345678. Numbers in other formats keep their
+     * digits, with the leading '+' preserved if it was given.
+     *
+     * @return the canonical number, or null when the input contains no digits
+     */
+    public static String toE164(String phone) {
+        if (phone == null) {
+            return null;
+        }
+
+        // Digits go after room for a "+254" prefix, so every form is built in this one buffer
+        int length = phone.length();
+        char[] buffer = new char[length + PREFIX_ROOM];
+        int digits = 0;
+        boolean plus = false;
+        boolean leading = true;
+        for (int i = 0; i < length; i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                buffer[PREFIX_ROOM + digits++] = c;
+            } else if (leading && c == '+') {
+                plus = true;
+            }
+            // Same rule as trim(): anything up to ' ' is leading whitespace
+            leading &= c <= ' ';
+        }
+        if (digits == 0) {
+            return null;
+        }
+
+        char first = buffer[PREFIX_ROOM];
+        if (digits == 10 && first == '0') {
+            // Kenyan local format (0712345678) -> +254712345678
+            return withPrefix(buffer, PREFIX_ROOM + 1, digits - 1, true);
+        }
+        if (digits == 12 && first == '2' && buffer[PREFIX_ROOM + 1] == '5' && buffer[PREFIX_ROOM + 2] == '4') {
+            // International format with or without + (254712345678) -> +254712345678
+            return withPrefix(buffer, PREFIX_ROOM, digits, false);
+        }
+        if (digits == 9 && (first == '7' || first == '1')) {
+            // National significant number without trunk prefix (712345678) -> +254712345678
+            return withPrefix(buffer, PREFIX_ROOM, digits, true);
+        }
+
+        return plus ? withPrefix(buffer, PREFIX_ROOM, digits, false) : new String(buffer, PREFIX_ROOM, digits);
+    }
+
+    /**
+     * Writes "+" or "+254" directly in front of the digits at buffer[start] and returns the whole number
+     */
+    private static String withPrefix(char[] buffer, int start, int count, boolean countryCode) {
+        int from = start;
+        if (countryCode) {
+            for (int i = KENYA_COUNTRY_CODE.length() - 1; i >= 0; i--) {
+                buffer[--from] = KENYA_COUNTRY_CODE.charAt(i);
+            }
+        }
+        buffer[--from] = '+';
+        return new String(buffer, from, count + (start - from));
+    }
+}
@@ -0,0 +1,93 @@
+package com.jilindecredit.api.util;
+
+/**
+ * Normalizes typed and document-extracted values (names, national IDs) so they can be compared
+ * regardless of case, spacing and punctuation.
+ *
+ * Single pass over the characters into a char array, with no regex and no intermediate strings;
+ * the document consistency checks call this for every field on every onboarding request.
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {}
+
+    /**
+     * Lower-cased ASCII letters and digits of the input, everything else dropped.
+     * Same result as {@code trim().toLowerCase().replaceAll("\\s+", "").replaceAll("[^a-zA-Z0-9]", "")}
+     * in a non-Turkish locale, including the two non-ASCII characters that lower-case to ASCII
+     * (U+0130 to 'i', KELVIN SIGN to 'k').
+     *
+     * @return the comparison key, or "" for null
+     */
+    public static String comparisonKey(String input) {
+        if (input == null) {
+            return "";
+        }
+
+        int length = input.length();
+        char[] out = null;
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            char kept = keep(c);
+            if (out == null) {
+                // Most values are already clean; only copy once a character changes
+                if (kept == c && kept != 0) {
+                    continue;
+                }
+                out = new char[length];
+                input.getChars(0, i, out, 0);
+                n = i;
+            }
+            if (kept != 0) {
+                out[n++] = kept;
+            }
+        }
+        return out == null ? input : new String(out, 0, n);
+    }
+
+    /**
+     * Whether two values are equal once normalized, without building either key
+     */
+    public static boolean equivalent(String a, String b) {
+        int i = 0;
+        int j = 0;
+        int aLength = a == null ? 0 : a.length();
+        int bLength = b == null ? 0 : b.length();
+        while (true) {
+            char ca = 0;
+            while (i < aLength && (ca = keep(a.charAt(i++))) == 0) {
+                // skip dropped characters
+            }
+            char cb = 0;
+            while (j < bLength && (cb = keep(b.charAt(j++))) == 0) {
+                // skip dropped characters
+            }
+            if (ca != cb) {
+                return false;
+            }
+            if (ca == 0) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The character as it appears in the key, or 0 if it is dropped
+     */
+    private static char keep(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+            return c;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return (char) (c + ('a' - 'A'));
+        }
+        if (c == '\u0130') {
+            return 'i';
+        }
+        if (c == '\u212A') {
+            return 'k';
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.jilindecredit.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks PhoneNumbers.toE164 against the StringBuilder implementation it replaced, over generated
+ * inputs shaped like the numbers customers type.
+ */
+class PhoneNumbersTest {
+
+    private static final int SAMPLES = 200_000;
+    private static final String KENYA_COUNTRY_CODE = "254";
+
+    private static final String[] PREFIXES = { "", "0", "254", "+254", "+", "7", "1", "00254", " +", "\t", "(+254)" };
+    private static final char[] SEPARATORS = " -().+/\tx#".toCharArray();
+
+    @Test
+    void knownFormatsMapToTheSameNumber() {
+        for (String phone : new String[] { "0712345678", "712345678", "254712345678", "+254712345678",
+                                           "+254 712 345 678", "0712-345-678", " (0712) 345678 " }) {
+            assertEquals("+254712345678", PhoneNumbers.toE164(phone), phone);
+        }
+        assertNull(PhoneNumbers.toE164(null));
+        assertNull(PhoneNumbers.toE164(" +-() "));
+    }
+
+    @Test
+    void toE164MatchesPreviousImplementation() {
+        Random random = new Random(20261017L);
+        for (int i = 0; i < SAMPLES; i++) {
+            String phone = randomPhone(random);
+            assertEquals(previousToE164(phone), PhoneNumbers.toE164(phone), () -> "\"" + phone + "\"");
+        }
+    }
+
+    /**
+     * Verbatim copy of PhoneNumbers.toE164 before the single-buffer rewrite
+     */
+    static String previousToE164(String phone) {
+        if (phone == null) {
+            return null;
+        }
+
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() == 0) {
+            return null;
+        }
+
+        if (digits.length() == 10 && digits.charAt(0) == '0') {
+            // Kenyan local format (0712345678) -> +254712345678
+            return "+" + KENYA_COUNTRY_CODE + digits.substring(1);
+        }
+        if (digits.length() == 12 && digits.indexOf(KENYA_COUNTRY_CODE) == 0) {
+            // International format with or without + (254712345678) -> +254712345678
+            return "+" + digits;
+        }
+        if (digits.length() == 9 && (digits.charAt(0) == '7' || digits.charAt(0) == '1')) {
+            // National significant number without trunk prefix (712345678) -> +254712345678
+            return "+" + KENYA_COUNTRY_CODE + digits;
+        }
+
+        return phone.trim().startsWith("+") ? "+" + digits : digits.toString();
+    }
+
+    /**
+     * A prefix, then 0 to 14 digits (mostly 8 to 12) with separators and the odd letter between them
+     */
+    private static String randomPhone(Random random) {
+        StringBuilder phone = new StringBuilder();
+        if (random.nextInt(8) == 0) {
+            phone.append(' ');
+        }
+        phone.append(PREFIXES[random.nextInt(PREFIXES.length)]);
+        int digits = random.nextInt(4) == 0 ? random.nextInt(15) : 8 + random.nextInt(5);
+        for (int i = 0; i < digits; i++) {
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                phone.append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+            } else if (roll == 1 && random.nextInt(4) == 0) {
+                phone.append((char) ('a' + random.nextInt(26)));
+            }
+            phone.append((char) ('0' + random.nextInt(10)));
+        }
+        if (random.nextInt(8) == 0) {
+            phone.append(random.nextBoolean() ? " " : "\n");
+        }
+        return phone.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.jilindecredit.api.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks TextNormalizer against the regex normalization it replaced, over generated inputs.
+ */
+class TextNormalizerTest {
+
+    private static final int SAMPLES = 200_000;
+
+    // Letters, digits, whitespace and punctuation, plus the characters the regex treats specially:
+    // non-ASCII letters and digits, U+0130 and the Kelvin sign (both lower-case to ASCII), and
+    // surrogate halves that only form a pair by chance
+    private static final char[] ALPHABET = (
+        "abcxyzABCXYZ0123456789" +
+        " \t\n\u000B\f\r\u00A0\u2003\u3000" +
+        ".,-_'/()#@!+*" +
+        "\u00E9\u00C9\u00DF\u00F1\u0131\u0130\u212A\u03A3\u0416\u0663\u0966\uFF21\uFF41" +
+        "\uD83D\uDE00"
+    ).toCharArray();
+
+    private static Locale defaultLocale;
+
+    @BeforeAll
+    static void pinLocale() {
+        // The old method lower-cased in the default locale; it never matched in a Turkish one
+        defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.ROOT);
+    }
+
+    @AfterAll
+    static void restoreLocale() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    void comparisonKeyMatchesRegexNormalization() {
+        Random random = new Random(20261017L);
+        assertEquals(normalizeString(null), TextNormalizer.comparisonKey(null));
+        for (int i = 0; i < SAMPLES; i++) {
+            String input = randomText(random);
+            assertEquals(normalizeString(input), TextNormalizer.comparisonKey(input), () -> describe(input));
+        }
+    }
+
+    @Test
+    void equivalentMatchesComparingRegexKeys() {
+        Random random = new Random(17L);
+        for (int i = 0; i < SAMPLES; i++) {
+            String a = random.nextInt(20) == 0 ? null : randomText(random);
+            // Mostly variants of a, so that equal keys are common
+            String b = random.nextInt(4) == 0 ? randomText(random) : variantOf(a, random);
+            boolean expected = normalizeString(a).equals(normalizeString(b));
+            assertEquals(expected, TextNormalizer.equivalent(a, b), () -> describe(a) + " vs " + describe(b));
+        }
+    }
+
+    /**
+     * Verbatim copy of DocumentVerificationService.normalizeString before it was replaced
+     */
+    static String normalizeString(String input) {
+        if (input == null) return "";
+        return input.trim().toLowerCase()
+                   .replaceAll("\\s+", "")
+                   .replaceAll("[^a-zA-Z0-9]", "");
+    }
+
+    private static String randomText(Random random) {
+        int length = random.nextInt(24);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * The same text with case flipped and separators inserted or removed here and there
+     */
+    private static String variantOf(String text, Random random) {
+        if (text == null) {
+            return random.nextBoolean() ? null : " ";
+        }
+        StringBuilder variant = new StringBuilder(text.length() + 4);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (random.nextInt(6)) {
+                case 0:
+                    variant.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+                    break;
+                case 1:
+                    variant.append(c).append(" -.".charAt(random.nextInt(3)));
+                    break;
+                case 2:
+                    if (!Character.isLetterOrDigit(c)) {
+                        break;
+                    }
+                    variant.append(c);
+                    break;
+                default:
+                    variant.append(c);
+            }
+        }
+        return variant.toString();
+    }
+
+    private static String describe(String text) {
+        if (text == null) {
+            return "null";
+        }
+        StringBuilder codes = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= ' ' && c < 0x7F) {
+                codes.append(c);
+            } else {
+                codes.append(String.format("\\u%04X", (int) c));
+            }
+        }
+        return codes.append('"').toString();
+    }
+}
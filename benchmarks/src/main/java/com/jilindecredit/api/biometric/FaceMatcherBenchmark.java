@@ -0,0 +1,73 @@
+package com.jilindecredit.api.biometric;
+
+import com.jilindecredit.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-capture cost of the KYC face pipeline on 640x480 selfies: decoding the data: URL, quality
+ * and liveness scoring, template extraction, and one template comparison
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FaceMatcherBenchmark {
+
+    private static final int CAPTURES = 16;
+
+    private final LbpFaceMatcher matcher = new LbpFaceMatcher();
+    private final TextureLivenessDetector livenessDetector = new TextureLivenessDetector();
+    private final ImageQualityAssessor qualityAssessor = new ImageQualityAssessor();
+
+    private byte[][] captures;
+    private FaceImage[] images;
+    private FaceImage[] faces;
+    private float[][] templates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] dataUrls = Payloads.faceCaptures(CAPTURES, 640, 480, 42L);
+        captures = new byte[CAPTURES][];
+        images = new FaceImage[CAPTURES];
+        faces = new FaceImage[CAPTURES];
+        templates = new float[CAPTURES][];
+        for (int i = 0; i < CAPTURES; i++) {
+            captures[i] = dataUrls[i].getBytes(StandardCharsets.UTF_8);
+            images[i] = FaceImage.decode(captures[i]);
+            faces[i] = images[i].crop(0.15, 0.1, 0.7, 0.8);
+            templates[i] = matcher.extractTemplate(faces[i]);
+        }
+    }
+
+    @Benchmark
+    public FaceImage decode() {
+        return FaceImage.decode(captures[next++ & (CAPTURES - 1)]);
+    }
+
+    @Benchmark
+    public double qualityScore() {
+        return qualityAssessor.qualityScore(images[next++ & (CAPTURES - 1)]);
+    }
+
+    @Benchmark
+    public double livenessScore() {
+        return livenessDetector.livenessScore(faces[next++ & (CAPTURES - 1)]);
+    }
+
+    @Benchmark
+    public float[] extractTemplate() {
+        return matcher.extractTemplate(faces[next++ & (CAPTURES - 1)]);
+    }
+
+    @Benchmark
+    public double compare() {
+        int i = next++;
+        return matcher.compare(templates[i & (CAPTURES - 1)], templates[(i + 1) & (CAPTURES - 1)]);
+    }
+}
@@ -0,0 +1,41 @@
+package com.jilindecredit.api.service;
+
+import com.jilindecredit.api.dto.BiometricRequest;
+import com.jilindecredit.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing of captured biometric payloads, done on every capture and verification
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BiometricHashBenchmark {
+
+    private static final int REQUESTS = 16;
+
+    // Raw sizes before Base64: a compressed selfie frame, a high-resolution capture, and a face plus fingerprint template
+    @Param({ "65536:0", "524288:0", "65536:2048" })
+    public String payloadBytes;
+
+    private BiometricService biometricService;
+    private BiometricRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] sizes = payloadBytes.split(":");
+        biometricService = new BiometricService();
+        requests = Payloads.biometricRequests(REQUESTS, Integer.parseInt(sizes[0]), Integer.parseInt(sizes[1]), 42L);
+    }
+
+    @Benchmark
+    public String generateBiometricHash() {
+        return biometricService.generateBiometricHash(requests[next++ & (REQUESTS - 1)]);
+    }
+}
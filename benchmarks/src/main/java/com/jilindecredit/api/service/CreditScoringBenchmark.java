@@ -0,0 +1,51 @@
+package com.jilindecredit.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jilindecredit.api.model.Customer;
+import com.jilindecredit.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline credit scoring of a single customer, as done on every onboarding request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CreditScoringBenchmark {
+
+    private static final int CUSTOMERS = 4096;
+
+    private AnnotationConfigApplicationContext context;
+    private CreditScoringService creditScoringService;
+    private Customer[] customers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Only the scoring service and what it injects, so the scorecard loads as it does in the API
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(ObjectMapper.class, ObjectMapper::new);
+        context.registerBean(CreditScoringService.class);
+        context.refresh();
+        creditScoringService = context.getBean(CreditScoringService.class);
+        customers = Payloads.customers(CUSTOMERS, 42L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal generateBaselineCreditScore() {
+        Customer customer = customers[next++ & (CUSTOMERS - 1)];
+        return creditScoringService.generateBaselineCreditScore(customer);
+    }
+}
@@ -0,0 +1,33 @@
+package com.jilindecredit.api.util;
+
+import com.jilindecredit.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phone canonicalisation, run on every registration, login and verification lookup
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PhoneNumbersBenchmark {
+
+    private static final int PHONES = 4096;
+
+    private String[] phones;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        phones = Payloads.phones(PHONES, 42L);
+    }
+
+    @Benchmark
+    public String toE164() {
+        return PhoneNumbers.toE164(phones[next++ & (PHONES - 1)]);
+    }
+}
@@ -0,0 +1,54 @@
+package com.jilindecredit.api.util;
+
+import com.jilindecredit.benchmarks.Payloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name and ID normalization used by the document consistency checks (four comparisons per
+ * onboarding request), with the regex version it replaced as a reference point
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TextNormalizerBenchmark {
+
+    private static final int VALUES = 4096;
+
+    private String[] values;
+    private String[] documentValues;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        values = Payloads.documentFields(VALUES, 42L);
+        documentValues = new String[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            // The document side usually differs only in case and spacing
+            documentValues[i] = " " + values[i].toUpperCase();
+        }
+    }
+
+    @Benchmark
+    public String comparisonKey() {
+        return TextNormalizer.comparisonKey(values[next++ & (VALUES - 1)]);
+    }
+
+    @Benchmark
+    public boolean equivalent() {
+        int i = next++ & (VALUES - 1);
+        return TextNormalizer.equivalent(values[i], documentValues[i]);
+    }
+
+    @Benchmark
+    public String regexReference() {
+        String input = values[next++ & (VALUES - 1)];
+        return input.trim().toLowerCase()
+                   .replaceAll("\\s+", "")
+                   .replaceAll("[^a-zA-Z0-9]", "");
+    }
+}
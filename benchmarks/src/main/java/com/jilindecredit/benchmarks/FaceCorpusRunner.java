@@ -0,0 +1,117 @@
+package com.jilindecredit.benchmarks;
+
+import com.jilindecredit.api.biometric.FaceMatchEvaluator;
+import com.jilindecredit.api.biometric.FaceMatchEvaluator.LabelledFace;
+import com.jilindecredit.api.biometric.FaceMatcher;
+import com.jilindecredit.api.biometric.ImageQualityAssessor;
+import com.jilindecredit.api.biometric.LbpFaceMatcher;
+import com.jilindecredit.api.biometric.LivenessDetector;
+import com.jilindecredit.api.biometric.QualityAssessor;
+import com.jilindecredit.api.biometric.TextureLivenessDetector;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Accuracy and throughput of a FaceMatcher over a labelled corpus: FAR and FRR at a range of
+ * thresholds, the equal error rate, and extraction, comparison, liveness and quality rates.
+ *
+ * The corpus is a directory with one subdirectory per subject, or a seeded synthetic corpus.
+ * Any FaceMatcher with a no-argument constructor can be measured with --matcher.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.jilindecredit.benchmarks.FaceCorpusRunner \
+ *     [--corpus DIR] [--crop left,top,width,height] [--synthetic SUBJECTS,IMAGES_PER_SUBJECT] \
+ *     [--thresholds 0.70,0.75,...] [--threads N] [--matcher CLASS]
+ * </pre>
+ */
+public final class FaceCorpusRunner {
+
+    private FaceCorpusRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        String corpusDir = null;
+        double[] crop = null;
+        int subjects = 200;
+        int imagesPerSubject = 5;
+        double[] thresholds = { 0.70, 0.75, 0.80, 0.85, 0.90, 0.91, 0.915, 0.92, 0.95 };
+        int threads = Runtime.getRuntime().availableProcessors();
+        FaceMatcher matcher = new LbpFaceMatcher();
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--corpus":
+                    corpusDir = value;
+                    break;
+                case "--crop":
+                    crop = parseNumbers(value, 4);
+                    break;
+                case "--synthetic":
+                    double[] size = parseNumbers(value, 2);
+                    subjects = (int) size[0];
+                    imagesPerSubject = (int) size[1];
+                    break;
+                case "--thresholds":
+                    thresholds = parseNumbers(value, -1);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--matcher":
+                    matcher = (FaceMatcher) Class.forName(value).getDeclaredConstructor().newInstance();
+                    break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+            i++;
+        }
+
+        long started = System.nanoTime();
+        List<LabelledFace> corpus = corpusDir != null
+            ? FaceMatchEvaluator.loadCorpus(Paths.get(corpusDir), crop)
+            : Payloads.faceCorpus(subjects, imagesPerSubject, 320, 400, 42L);
+        System.out.printf(Locale.ROOT, "Loaded %d faces from %s in %d ms%n", corpus.size(),
+            corpusDir != null ? corpusDir : "the synthetic corpus", (System.nanoTime() - started) / 1_000_000L);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            FaceMatchEvaluator.Report report = FaceMatchEvaluator.evaluate(matcher, corpus, thresholds, pool);
+            System.out.println();
+            System.out.print(report);
+
+            LivenessDetector liveness = new TextureLivenessDetector();
+            QualityAssessor quality = new ImageQualityAssessor();
+            System.out.println();
+            System.out.printf(Locale.ROOT, "Liveness:     %.1f images/s (%s)%n",
+                rate(pool, corpus, face -> liveness.livenessScore(face.getFace())), liveness.getModelId());
+            System.out.printf(Locale.ROOT, "Quality:      %.1f images/s (%s)%n",
+                rate(pool, corpus, face -> quality.qualityScore(face.getFace())), quality.getModelId());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static double rate(ForkJoinPool pool, List<LabelledFace> corpus, ToDoubleFunction<LabelledFace> scorer) {
+        long started = System.nanoTime();
+        pool.submit(() -> corpus.parallelStream().mapToDouble(scorer).sum()).join();
+        long nanos = System.nanoTime() - started;
+        return nanos > 0 ? corpus.size() * 1e9 / nanos : 0.0;
+    }
+
+    private static double[] parseNumbers(String value, int expected) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value");
+        }
+        double[] numbers = Arrays.stream(value.split(",")).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+        if (expected > 0 && numbers.length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " comma-separated numbers: " + value);
+        }
+        return numbers;
+    }
+}
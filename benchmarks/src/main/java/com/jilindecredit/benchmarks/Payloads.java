@@ -0,0 +1,284 @@
+package com.jilindecredit.benchmarks;
+
+import com.jilindecredit.api.biometric.FaceImage;
+import com.jilindecredit.api.biometric.FaceMatchEvaluator.LabelledFace;
+import com.jilindecredit.api.dto.BiometricRequest;
+import com.jilindecredit.api.model.Customer;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generators for benchmark inputs shaped like real onboarding traffic: mixed phone
+ * formats, free-text occupations, names with spacing and punctuation, Base64 capture payloads of
+ * typical size, and synthetic face images. The same seed always gives the same data, so runs are
+ * comparable.
+ */
+public final class Payloads {
+
+    private static final String[] FIRST_NAMES = {
+        "Wanjiku", "Kamau", "Achieng", "Otieno", "Mwangi", "Njeri", "Kiprotich", "Chebet",
+        "Mary Anne", "Jean-Pierre", "Fatuma", "Abdi", "O'Brien", "Nyambura", "Wafula", "Akinyi"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Kamau", "Odhiambo", "Mutua", "Wekesa", "Kariuki", "Ochieng", "Mohamed", "Njoroge",
+        "Wa Mwangi", "Arap Koech", "Nduta-Githinji", "Omondi", "Kiplagat", "Waweru", "Said", "Atieno"
+    };
+
+    private static final String[] OCCUPATIONS = {
+        "Teacher (TSC)", "Civil Servant - Ministry of Health", "Police officer", "County government clerk",
+        "Small business owner", "Shop keeper", "Mama mboga / trader", "Boda boda rider", "Farmer",
+        "Dairy farming", "Agriculture extension officer", "Software developer", "Nurse", "Casual labourer",
+        "Student", "Self employed", "", null
+    };
+
+    private static final String[] MARITAL_STATUSES = { "SINGLE", "MARRIED", "married", "DIVORCED", "WIDOWED", null };
+
+    private Payloads() {}
+
+    public static Customer[] customers(int count, long seed) {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        Customer[] customers = new Customer[count];
+        for (int i = 0; i < count; i++) {
+            Customer customer = new Customer();
+            customer.setFirstName(pick(random, FIRST_NAMES));
+            customer.setLastName(pick(random, LAST_NAMES));
+            customer.setPhone(phone(random));
+            customer.setNationalId(String.valueOf(10_000_000 + random.nextInt(30_000_000)));
+            if (random.nextInt(10) < 6) {
+                customer.setEmail("customer" + i + "@example.co.ke");
+            }
+            if (random.nextInt(10) < 8) {
+                customer.setAddress("P.O. Box " + random.nextInt(99_999) + ", Nairobi");
+            }
+            customer.setOccupation(pick(random, OCCUPATIONS));
+            if (random.nextInt(20) != 0) {
+                // Skewed towards lower incomes, 5,000 - ~300,000 KES a month
+                double income = 5_000 * Math.exp(random.nextDouble() * Math.log(60));
+                customer.setMonthlyIncome(BigDecimal.valueOf(Math.round(income)));
+            }
+            if (random.nextInt(20) != 0) {
+                customer.setDateOfBirth(today.minusDays(18 * 365 + random.nextInt(57 * 365)));
+            }
+            customer.setMaritalStatus(pick(random, MARITAL_STATUSES));
+            customers[i] = customer;
+        }
+        return customers;
+    }
+
+    /**
+     * Phone numbers in the formats seen at registration, including a few foreign numbers
+     */
+    public static String[] phones(int count, long seed) {
+        Random random = new Random(seed);
+        String[] phones = new String[count];
+        for (int i = 0; i < count; i++) {
+            phones[i] = phone(random);
+        }
+        return phones;
+    }
+
+    /**
+     * Pairs of (typed, extracted-from-document) values for the consistency checks: names with
+     * extra spaces, case and punctuation differences, and spaced-out ID numbers
+     */
+    public static String[] documentFields(int count, long seed) {
+        Random random = new Random(seed);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    values[i] = "  " + pick(random, FIRST_NAMES) + "  ";
+                    break;
+                case 1:
+                    values[i] = pick(random, LAST_NAMES).toUpperCase();
+                    break;
+                case 2:
+                    String id = String.valueOf(10_000_000 + random.nextInt(30_000_000));
+                    values[i] = id.substring(0, 2) + " " + id.substring(2, 5) + " " + id.substring(5);
+                    break;
+                default:
+                    values[i] = pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES) + ".";
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Capture requests with Base64 payloads of the given raw sizes; fingerprint is left out when 0
+     */
+    public static BiometricRequest[] biometricRequests(int count, int facialBytes, int fingerprintBytes, long seed) {
+        Random random = new Random(seed);
+        BiometricRequest[] requests = new BiometricRequest[count];
+        for (int i = 0; i < count; i++) {
+            BiometricRequest request = new BiometricRequest();
+            request.setCustomerId((long) i + 1);
+            request.setFacialData(base64(random, facialBytes));
+            if (fingerprintBytes > 0) {
+                request.setFingerprintData(base64(random, fingerprintBytes));
+            }
+            request.setBiometricType(fingerprintBytes > 0 ? "BOTH" : "FACIAL");
+            request.setCaptureQuality("HIGH");
+            requests[i] = request;
+        }
+        return requests;
+    }
+
+    /**
+     * A labelled synthetic face corpus: each subject has fixed facial geometry, skin tone and
+     * skin texture, and each of its images varies position, scale, lighting and sensor noise
+     */
+    public static List<LabelledFace> faceCorpus(int subjects, int imagesPerSubject, int width, int height, long seed) {
+        List<LabelledFace> corpus = new ArrayList<>();
+        for (int s = 0; s < subjects; s++) {
+            for (int i = 0; i < imagesPerSubject; i++) {
+                BufferedImage image = syntheticFace(seed * 1_000_003L + s, seed * 7_919L + (long) s * imagesPerSubject + i, width, height);
+                corpus.add(new LabelledFace("subject-" + s, "image-" + i, FaceImage.fromImage(image)));
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * JPEG selfies as the mobile client sends them: a data: URL of the encoded image
+     */
+    public static String[] faceCaptures(int count, int width, int height, long seed) {
+        String[] captures = new String[count];
+        for (int i = 0; i < count; i++) {
+            captures[i] = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(jpeg(syntheticFace(seed + i, seed - i, width, height)));
+        }
+        return captures;
+    }
+
+    public static byte[] jpeg(BufferedImage image) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BufferedImage syntheticFace(long subjectSeed, long variantSeed, int width, int height) {
+        Random subject = new Random(subjectSeed);
+        Random variant = new Random(variantSeed);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(new Color(150 + subject.nextInt(80), 150 + subject.nextInt(80), 150 + subject.nextInt(80)));
+        g.fillRect(0, 0, width, height);
+
+        // Pose: small shifts and scale changes between captures of the same subject
+        double scale = 1.0 + (variant.nextDouble() - 0.5) * 0.04;
+        int cx = width / 2 + (int) ((variant.nextDouble() - 0.5) * width * 0.03);
+        int cy = height / 2 + (int) ((variant.nextDouble() - 0.5) * height * 0.03);
+        int faceW = (int) (width * (0.4 + subject.nextDouble() * 0.2) * scale);
+        int faceH = (int) (height * (0.55 + subject.nextDouble() * 0.2) * scale);
+
+        int skin = 70 + subject.nextInt(120);
+        g.setColor(new Color(skin, (int) (skin * 0.8), (int) (skin * 0.65)));
+        g.fillOval(cx - faceW / 2, cy - faceH / 2, faceW, faceH);
+
+        // Skin texture: subject-specific blemishes and creases
+        for (int k = 0; k < 40; k++) {
+            int tone = Math.max(0, skin - 20 - subject.nextInt(30));
+            g.setColor(new Color(tone, (int) (tone * 0.8), (int) (tone * 0.65)));
+            int x = cx + (int) ((subject.nextDouble() - 0.5) * faceW * 0.8);
+            int y = cy + (int) ((subject.nextDouble() - 0.5) * faceH * 0.8);
+            int r = (int) ((1 + subject.nextInt(4)) * scale);
+            g.fillOval(x - r, y - r, 2 * r, 2 * r);
+        }
+
+        g.setColor(new Color(20 + subject.nextInt(40), 15, 10));
+        g.fillRect(cx - faceW / 2, cy - faceH / 2, faceW, (int) (faceH * (0.1 + subject.nextDouble() * 0.1)));
+
+        int eyeSpacing = (int) (faceW * (0.3 + subject.nextDouble() * 0.2));
+        int eyeY = cy - (int) (faceH * (0.05 + subject.nextDouble() * 0.12));
+        int eyeW = (int) (faceW * (0.1 + subject.nextDouble() * 0.1));
+        int eyeH = (int) (eyeW * (0.35 + subject.nextDouble() * 0.4));
+        for (int side = -1; side <= 1; side += 2) {
+            int ex = cx + side * eyeSpacing / 2;
+            g.setColor(Color.WHITE);
+            g.fillOval(ex - eyeW / 2, eyeY - eyeH / 2, eyeW, eyeH);
+            g.setColor(new Color(30, 20, 10));
+            g.fillOval(ex - eyeH / 2, eyeY - eyeH / 2, eyeH, eyeH);
+        }
+
+        int noseLength = (int) (faceH * (0.12 + subject.nextDouble() * 0.08));
+        g.setColor(new Color((int) (skin * 0.7), (int) (skin * 0.55), (int) (skin * 0.45)));
+        g.fillRect(cx - faceW / 30, eyeY + eyeH, Math.max(2, faceW / 15), noseLength);
+
+        int mouthW = (int) (faceW * (0.3 + subject.nextDouble() * 0.15));
+        int mouthY = eyeY + eyeH + noseLength + (int) (faceH * 0.08);
+        g.setColor(new Color(120 + subject.nextInt(60), 40, 50));
+        g.fillOval(cx - mouthW / 2, mouthY, mouthW, Math.max(3, faceH / 25));
+        g.dispose();
+
+        // Lighting and sensor noise
+        int brightness = variant.nextInt(41) - 20;
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int noise = (int) (variant.nextGaussian() * 4);
+                int r = clamp(((row[x] >> 16) & 0xFF) + brightness + noise);
+                int gr = clamp(((row[x] >> 8) & 0xFF) + brightness + noise);
+                int b = clamp((row[x] & 0xFF) + brightness + noise);
+                row[x] = (r << 16) | (gr << 8) | b;
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    private static String phone(Random random) {
+        String subscriber = String.format("%08d", random.nextInt(100_000_000));
+        String prefix = random.nextBoolean() ? "7" : "1";
+        switch (random.nextInt(7)) {
+            case 0:
+                return "0" + prefix + subscriber;
+            case 1:
+                return "+254" + prefix + subscriber;
+            case 2:
+                return "254 " + prefix + subscriber.substring(0, 2) + " " + subscriber.substring(2, 5) + " " + subscriber.substring(5);
+            case 3:
+                return "0" + prefix + subscriber.substring(0, 2) + "-" + subscriber.substring(2, 5) + "-" + subscriber.substring(5);
+            case 4:
+                return prefix + subscriber;
+            case 5:
+                return "+254 (0)" + prefix + subscriber;
+            default:
+                return "+1 415 555 " + subscriber.substring(4);
+        }
+    }
+
+    private static String base64(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,11 @@
+-- Migration Script: Indexes for keyset-paginated admin application listing
+-- Pages are read as "customers.id < :cursor ORDER BY id DESC", optionally filtered by KYC status
+-- and submission window, so every page is a bounded index range scan.
+
+-- KYC status filter joined back to the customer id
+CREATE INDEX IF NOT EXISTS idx_customer_profiles_kyc_status ON customer_profiles(kyc_status, customer_id);
+
+-- Submission window filter
+CREATE INDEX IF NOT EXISTS idx_customers_created_at ON customers(created_at);
+
+COMMIT;
@@ -0,0 +1,13 @@
+-- Migration Script: Move biometric captures off the biometric_data rows
+-- Encrypted captures now live in the content-addressed blob store (biometric.blob-store.root);
+-- rows keep only the 64-character content address of each capture.
+-- Existing captures are moved by BiometricBlobBackfillService on application startup.
+
+ALTER TABLE biometric_data
+ADD COLUMN IF NOT EXISTS fingerprint_ref VARCHAR(64),
+ADD COLUMN IF NOT EXISTS facial_ref VARCHAR(64);
+
+-- Once the backfill has run (no row has fingerprint_data or facial_data left), drop the legacy columns:
+-- ALTER TABLE biometric_data DROP COLUMN IF EXISTS fingerprint_data, DROP COLUMN IF EXISTS facial_data;
+
+COMMIT;
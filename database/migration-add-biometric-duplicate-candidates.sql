@@ -0,0 +1,9 @@
+-- Migration Script: Record suspected duplicate identities on biometric captures
+-- KYC captures whose face matches another enrolled customer are held as PENDING, and the
+-- matching customers are kept here as "customerId:similarity" pairs for manual review.
+-- The templates themselves live in the index files under biometric.template-index.directory.
+
+ALTER TABLE biometric_data
+ADD COLUMN IF NOT EXISTS duplicate_candidates VARCHAR(500);
+
+COMMIT;
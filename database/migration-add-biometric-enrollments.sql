@@ -0,0 +1,14 @@
+-- Migration Script: Journal of biometric enrollments for the duplicate-identity indexes
+-- The template indexes are files local to each API node. Every capture that changes a customer's
+-- face or fingerprint adds a row here in the capture's transaction; before each duplicate check a
+-- node indexes the rows other nodes added since its last sync (node_id identifies the writer).
+
+CREATE TABLE IF NOT EXISTS biometric_enrollments (
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    capture_type VARCHAR(20) NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+COMMIT;
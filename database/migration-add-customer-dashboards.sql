@@ -0,0 +1,23 @@
+-- Migration Script: Customer dashboard read model
+-- One precomputed app home screen per customer. Every write that changes a customer's loans or
+-- score bumps customers.dashboard_version in the same transaction; a saved dashboard is served
+-- only while its version matches and only on the day it was built (as_of), since loan summaries
+-- include figures that move with the calendar.
+
+ALTER TABLE customers
+ADD COLUMN IF NOT EXISTS dashboard_version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS customer_dashboards (
+    customer_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    credit_score DECIMAL(5,2),
+    available_credit DECIMAL(12,2) NOT NULL,
+    loans TEXT NOT NULL,
+    as_of DATE NOT NULL,
+    built_at TIMESTAMP NOT NULL
+);
+
+ALTER TABLE customer_dashboards
+ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+COMMIT;
@@ -0,0 +1,9 @@
+-- Migration Script: Block-allocated sequences for customer codes (and other business numbers)
+-- The application also creates this table on startup.
+
+CREATE TABLE IF NOT EXISTS id_blocks (
+    name VARCHAR(64) PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+COMMIT;
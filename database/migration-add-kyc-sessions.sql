@@ -0,0 +1,16 @@
+-- Migration Script: Shared mobile KYC sessions (mobile-kyc.session-store=jdbc)
+-- The application also creates this table on startup when the JDBC store is enabled.
+
+CREATE TABLE IF NOT EXISTS kyc_sessions (
+    session_id VARCHAR(32) PRIMARY KEY,
+    customer_data TEXT,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    verification_data TEXT,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_kyc_sessions_expires_at ON kyc_sessions(expires_at);
+
+COMMIT;
@@ -0,0 +1,35 @@
+-- Migration Script: Daily loan accrual
+-- interest_accrued is the interest earned to date on the schedule; last_accrual_date is the day
+-- the accrual job last brought the loan up to date, so a loan is never accrued twice for one day
+-- and a missed day's penalties are made up by the next run.
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS interest_accrued DECIMAL(12,2) DEFAULT 0;
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS last_accrual_date DATE;
+
+-- Progress of each id-range partition of a day's run, committed with the loans it covers
+CREATE TABLE IF NOT EXISTS loan_accrual_checkpoints (
+    run_date DATE NOT NULL,
+    partition_no INT NOT NULL,
+    range_start BIGINT NOT NULL,
+    range_end BIGINT NOT NULL,
+    last_id BIGINT NOT NULL,
+    loans_accrued BIGINT NOT NULL,
+    completed BOOLEAN NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (run_date, partition_no)
+);
+
+-- One row per scheduled job that must run on a single node at a time; owner is the node
+-- holding it, until lease_until
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    name VARCHAR(50) PRIMARY KEY,
+    owner VARCHAR(200),
+    lease_until TIMESTAMP
+);
+
+INSERT INTO scheduler_leases (name) VALUES ('loan-accrual') ON CONFLICT (name) DO NOTHING;
+
+COMMIT;
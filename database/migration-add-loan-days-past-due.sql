@@ -0,0 +1,9 @@
+-- Migration Script: Arrears tracking on loans
+-- days_past_due is how many days the oldest unpaid installment is overdue. It is updated when a
+-- loan takes a payment or changes status, and for every open loan by the nightly portfolio
+-- reconciliation, which also places each loan in its arrears bucket.
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS days_past_due INTEGER DEFAULT 0;
+
+COMMIT;
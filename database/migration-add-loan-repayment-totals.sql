@@ -0,0 +1,24 @@
+-- Migration Script: Repayment state on loans
+-- Loans keep their total scheduled interest and running totals of what has been paid, so the
+-- amount due and outstanding balance can be worked out without summing payments or storing a
+-- schedule. Penalties charged are tracked separately from penalties paid.
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS total_interest DECIMAL(12,2) DEFAULT 0;
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS principal_paid DECIMAL(12,2) DEFAULT 0;
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS interest_paid DECIMAL(12,2) DEFAULT 0;
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS penalty_charged DECIMAL(12,2) DEFAULT 0;
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS penalty_paid DECIMAL(12,2) DEFAULT 0;
+
+ALTER TABLE loans
+ADD COLUMN IF NOT EXISTS last_payment_date DATE;
+
+COMMIT;
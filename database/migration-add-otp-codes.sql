@@ -0,0 +1,13 @@
+-- Migration Script: Shared store for phone verification codes (otp.store=database)
+
+CREATE TABLE IF NOT EXISTS otp_codes (
+    otp_key VARCHAR(64) PRIMARY KEY,
+    code VARCHAR(10) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_otp_codes_expires_at ON otp_codes(expires_at);
+
+COMMIT;
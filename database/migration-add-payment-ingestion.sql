@@ -0,0 +1,14 @@
+-- Migration Script: Idempotent repayment ingestion
+-- A receipt's reference number identifies it across settlement files and gateway retries, so it
+-- is unique; rows without a reference (e.g. cash taken at a branch) are unaffected.
+-- Check for existing duplicates before running:
+--   SELECT reference_number, COUNT(*) FROM payments WHERE reference_number IS NOT NULL
+--   GROUP BY reference_number HAVING COUNT(*) > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_payments_reference_number ON payments(reference_number);
+
+-- Settlement files used to be resumed from a line checkpoint keyed by file name; the unique
+-- reference number makes resending a file safe on its own
+DROP TABLE IF EXISTS payment_ingestion_checkpoints;
+
+COMMIT;
@@ -0,0 +1,9 @@
+-- Migration Script: Canonical E.164 phone column for OTP and login lookups
+-- Existing rows are filled in batches by PhoneNumberBackfillService on application startup.
+
+ALTER TABLE customers
+ADD COLUMN IF NOT EXISTS phone_e164 VARCHAR(20);
+
+CREATE INDEX IF NOT EXISTS idx_customers_phone_e164 ON customers(phone_e164);
+
+COMMIT;
@@ -0,0 +1,15 @@
+-- Migration Script: Shared portfolio counters
+-- Loans per status, arrears buckets and monthly collections, summed over shards on read. Writers
+-- add to one shard's rows in the transaction that changes the loan; shard -1 holds the nightly
+-- reconciliation's corrections. period is 'YYYY-MM' for monthly figures and '' otherwise. The
+-- application seeds the rows on startup.
+
+CREATE TABLE IF NOT EXISTS portfolio_counters (
+    shard INT NOT NULL,
+    metric VARCHAR(40) NOT NULL,
+    period VARCHAR(7) NOT NULL,
+    value BIGINT NOT NULL,
+    PRIMARY KEY (shard, metric, period)
+);
+
+COMMIT;
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 
 const MobileKycQrCode = ({ customerData, onSuccess, onError, onCancel }) => {
   const [qrCodeData, setQrCodeData] = useState(null);
@@ -6,16 +6,43 @@ const MobileKycQrCode = ({ customerData, onSuccess, onError, onCancel }) => {
   const [isLoading, setIsLoading] = useState(true);
   const [timeRemaining, setTimeRemaining] = useState(900); // 15 minutes in seconds
   const [sessionStatus, setSessionStatus] = useState('PENDING');
+  const statusEtag = useRef(null);
+  const finished = useRef(false);
 
   useEffect(() => {
     createKycSession();
   }, []);
 
   useEffect(() => {
-    if (sessionId) {
-      const pollInterval = setInterval(pollSessionStatus, 2000); // Poll every 2 seconds
+    if (!sessionId) return;
+
+    // Status changes are pushed over one stream; fall back to polling if it cannot be kept open
+    let pollInterval = null;
+    const startPolling = () => {
+      if (!pollInterval && !finished.current) {
+        pollInterval = setInterval(pollSessionStatus, 2000); // Poll every 2 seconds
+      }
+    };
+
+    if (typeof EventSource === 'undefined') {
+      startPolling();
       return () => clearInterval(pollInterval);
     }
+
+    const source = new EventSource(`/api/mobile-kyc/session/${sessionId}/events`);
+    source.addEventListener('status', (event) => {
+      handleStatus(JSON.parse(event.data));
+      if (finished.current) source.close();
+    });
+    source.onerror = () => {
+      source.close();
+      startPolling();
+    };
+
+    return () => {
+      source.close();
+      if (pollInterval) clearInterval(pollInterval);
+    };
   }, [sessionId]);
 
   useEffect(() => {
@@ -54,22 +81,32 @@ const MobileKycQrCode = ({ customerData, onSuccess, onError, onCancel }) => {
     }
   };
 
+  const handleStatus = (status) => {
+    if (finished.current) return;
+    setSessionStatus(status.status);
+
+    if (status.status === 'COMPLETED') {
+      finished.current = true;
+      onSuccess({
+        sessionId: sessionId,
+        verificationData: status.verificationData,
+        message: 'Mobile KYC verification completed successfully!'
+      });
+    } else if (status.status === 'NOT_FOUND') {
+      finished.current = true;
+    }
+  };
+
   const pollSessionStatus = async () => {
-    if (!sessionId) return;
+    if (!sessionId || finished.current) return;
 
     try {
-      const response = await fetch(`/api/mobile-kyc/session/${sessionId}/status`);
+      const headers = statusEtag.current ? { 'If-None-Match': statusEtag.current } : {};
+      const response = await fetch(`/api/mobile-kyc/session/${sessionId}/status`, { headers });
+      // 304: nothing changed since the last poll
       if (response.ok) {
-        const status = await response.json();
-        setSessionStatus(status.status);
-
-        if (status.status === 'COMPLETED') {
-          onSuccess({
-            sessionId: sessionId,
-            verificationData: status.verificationData,
-            message: 'Mobile KYC verification completed successfully!'
-          });
-        }
+        statusEtag.current = response.headers.get('ETag');
+        handleStatus(await response.json());
       }
     } catch (error) {
       console.error('Error polling session status:', error);